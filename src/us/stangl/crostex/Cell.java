@@ -19,6 +19,9 @@ public class Cell {
 	
 	// whether this cell is circled
 	private boolean circled;
+
+	// whether this cell is to be auto-filled with a rebus, i.e., one of several letters
+	private boolean rebus;
 	
 	public boolean isBlack() {
 		return black;
@@ -62,6 +65,7 @@ public class Cell {
 		number = other.number;
 		black = other.black;
 		circled = other.circled;
+		rebus = other.rebus;
 	}
 
 	/** append contents to the builder in the most efficient way possible */
@@ -134,6 +138,20 @@ public class Cell {
 		this.circled = circled;
 	}
 	
+	/**
+	 * @return whether cell is to be auto-filled with a rebus, one of the auto-filler's rebus strings
+	 */
+	public boolean isRebus() {
+		return rebus;
+	}
+
+	/**
+	 * @param rebus whether cell is to be auto-filled with a rebus, one of the auto-filler's rebus strings
+	 */
+	public void setRebus(boolean rebus) {
+		this.rebus = rebus;
+	}
+	
 	public String toString() {
 		return new StringBuilder()
 			.append(", stringContents = ")
@@ -144,6 +162,8 @@ public class Cell {
 			.append(black)
 			.append(", circled =")
 			.append(circled)
+			.append(", rebus = ")
+			.append(rebus)
 			.toString();
 	}
 }
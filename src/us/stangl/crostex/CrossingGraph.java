@@ -0,0 +1,271 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import us.stangl.crostex.util.RowColumnPair;
+
+/**
+ * Immutable snapshot of the words of a grid and how they cross, built from the positions of its black cells
+ * in one pass over the grid, so solvers can find the words crossing each cell, and where, by table lookup
+ * rather than by comparing words with each other. Words are numbered as slots, across words first, then
+ * down words, each in the order Grid's getAcrossWords and getDownWords return them.
+ * Cells are numbered row * width + column.
+ * @author Alex Stangl
+ */
+public class CrossingGraph {
+	/** width of grid */
+	private final int width;
+
+	/** number of across words */
+	private final int numAcrossSlots;
+
+	/** [cell] = slot number of across word containing cell, or -1 if none */
+	private final int[] acrossSlots;
+
+	/** [cell] = index of cell within its across word, or -1 if none */
+	private final int[] acrossOffsets;
+
+	/** [cell] = slot number of down word containing cell, or -1 if none */
+	private final int[] downSlots;
+
+	/** [cell] = index of cell within its down word, or -1 if none */
+	private final int[] downOffsets;
+
+	/** [slot] = cell number of first cell of word */
+	private final int[] startCells;
+
+	/** [slot] = number of cells in word */
+	private final int[] lengths;
+
+	/**
+	 * Constructor for CrossingGraph, built from the current black cells of grid.
+	 * @param grid grid
+	 */
+	CrossingGraph(Grid grid) {
+		width = grid.getWidth();
+		int height = grid.getHeight();
+		int numCells = width * height;
+		acrossSlots = new int[numCells];
+		acrossOffsets = new int[numCells];
+		downSlots = new int[numCells];
+		downOffsets = new int[numCells];
+		Arrays.fill(acrossSlots, -1);
+		Arrays.fill(acrossOffsets, -1);
+		Arrays.fill(downSlots, -1);
+		Arrays.fill(downOffsets, -1);
+
+		// Number across words in row-major order, as each cell extends the run of white cells to its left
+		int[] starts = new int[numCells];
+		int[] runLengths = new int[numCells];
+		int numSlots = 0;
+		for (int row = 0; row < height; ++row) {
+			for (int col = 0; col < width; ++col) {
+				if (grid.isStartOfAcrossWord(row, col)) {
+					starts[numSlots] = row * width + col;
+					int length = 0;
+					while (col + length < width && ! grid.getCell(row, col + length).isBlack()) {
+						acrossSlots[row * width + col + length] = numSlots;
+						acrossOffsets[row * width + col + length] = length;
+						++length;
+					}
+					runLengths[numSlots++] = length;
+					col += length - 1;
+				}
+			}
+		}
+		numAcrossSlots = numSlots;
+
+		// Number down words in row-major order of their first cells
+		for (int row = 0; row < height; ++row) {
+			for (int col = 0; col < width; ++col) {
+				if (grid.isStartOfDownWord(row, col)) {
+					starts[numSlots] = row * width + col;
+					int length = 0;
+					while (row + length < height && ! grid.getCell(row + length, col).isBlack()) {
+						downSlots[(row + length) * width + col] = numSlots;
+						downOffsets[(row + length) * width + col] = length;
+						++length;
+					}
+					runLengths[numSlots++] = length;
+				}
+			}
+		}
+		startCells = Arrays.copyOf(starts, numSlots);
+		lengths = Arrays.copyOf(runLengths, numSlots);
+	}
+
+	/**
+	 * @return number of words, across and down
+	 */
+	public int getNumSlots() {
+		return startCells.length;
+	}
+
+	/**
+	 * @return number of cells of grid
+	 */
+	public int getNumCells() {
+		return acrossSlots.length;
+	}
+
+	/**
+	 * @return number of across words, which are numbered before the down words
+	 */
+	public int getNumAcrossSlots() {
+		return numAcrossSlots;
+	}
+
+	/**
+	 * @param slot slot number
+	 * @return direction of word
+	 */
+	public AcrossDownDirection getDirection(int slot) {
+		return slot < numAcrossSlots ? AcrossDownDirection.ACROSS : AcrossDownDirection.DOWN;
+	}
+
+	/**
+	 * @param slot slot number
+	 * @return number of cells in word
+	 */
+	public int getLength(int slot) {
+		return lengths[slot];
+	}
+
+	/**
+	 * @param slot slot number
+	 * @param offset index of cell within word
+	 * @return cell number of cell at offset in word
+	 */
+	public int getSlotCell(int slot, int offset) {
+		return startCells[slot] + offset * (slot < numAcrossSlots ? 1 : width);
+	}
+
+	/**
+	 * @param row row
+	 * @param col column
+	 * @return cell number of cell at (row, col)
+	 */
+	public int getCellNumber(int row, int col) {
+		return row * width + col;
+	}
+
+	/**
+	 * @param cell cell number
+	 * @return row of cell
+	 */
+	public int getRow(int cell) {
+		return cell / width;
+	}
+
+	/**
+	 * @param cell cell number
+	 * @return column of cell
+	 */
+	public int getColumn(int cell) {
+		return cell % width;
+	}
+
+	/**
+	 * @param cell cell number
+	 * @return slot number of across word containing cell, or -1 if none
+	 */
+	public int getAcrossSlot(int cell) {
+		return acrossSlots[cell];
+	}
+
+	/**
+	 * @param cell cell number
+	 * @return index of cell within its across word, or -1 if none
+	 */
+	public int getAcrossOffset(int cell) {
+		return acrossOffsets[cell];
+	}
+
+	/**
+	 * @param cell cell number
+	 * @return slot number of down word containing cell, or -1 if none
+	 */
+	public int getDownSlot(int cell) {
+		return downSlots[cell];
+	}
+
+	/**
+	 * @param cell cell number
+	 * @return index of cell within its down word, or -1 if none
+	 */
+	public int getDownOffset(int cell) {
+		return downOffsets[cell];
+	}
+
+	/**
+	 * @param slot slot number
+	 * @param offset index of cell within word
+	 * @return slot number of word crossing word at offset, or -1 if none
+	 */
+	public int getCrossingSlot(int slot, int offset) {
+		int cell = getSlotCell(slot, offset);
+		return slot < numAcrossSlots ? downSlots[cell] : acrossSlots[cell];
+	}
+
+	/**
+	 * @param slot slot number
+	 * @param offset index of cell within word
+	 * @return index within crossing word, of its crossing with word at offset, or -1 if none
+	 */
+	public int getCrossingOffset(int slot, int offset) {
+		int cell = getSlotCell(slot, offset);
+		return slot < numAcrossSlots ? downOffsets[cell] : acrossOffsets[cell];
+	}
+
+	/**
+	 * Return slot number of the specified word of the grid, as identified by its direction and first cell.
+	 * @param word word of grid
+	 * @return slot number of word, or -1 if the grid has no such word
+	 */
+	public int getSlot(GridWord word) {
+		RowColumnPair start = word.getStartOfWord();
+		int cell = getCellNumber(start.row, start.column);
+		if (word.getDirection() == AcrossDownDirection.ACROSS)
+			return acrossOffsets[cell] == 0 ? acrossSlots[cell] : -1;
+		return downOffsets[cell] == 0 ? downSlots[cell] : -1;
+	}
+
+	/**
+	 * Return, for each of the specified words, the others among them crossing it at a cell eligible for
+	 * autofill, in the order the words are specified.
+	 * @param words words of grid
+	 * @return map from each word to the words crossing it at a cell eligible for autofill
+	 */
+	public Map<GridWord, List<GridWord>> getCrossingWords(List<GridWord> words) {
+		int[] indexes = new int[getNumSlots()];
+		Arrays.fill(indexes, -1);
+		for (int i = 0; i < words.size(); ++i)
+			indexes[getSlot(words.get(i))] = i;
+
+		Map<GridWord, List<GridWord>> retval = new HashMap<GridWord, List<GridWord>>();
+		for (GridWord word : words) {
+			int slot = getSlot(word);
+			Cell[] cells = word.getCells();
+			int[] crossingIndexes = new int[cells.length];
+			int numCrossings = 0;
+			for (int offset = 0; offset < cells.length; ++offset) {
+				int crossingSlot = getCrossingSlot(slot, offset);
+				if (crossingSlot >= 0 && indexes[crossingSlot] >= 0 && cells[offset].isEligibleForAutofill())
+					crossingIndexes[numCrossings++] = indexes[crossingSlot];
+			}
+			Arrays.sort(crossingIndexes, 0, numCrossings);
+			List<GridWord> crossingWords = new ArrayList<GridWord>(numCrossings);
+			for (int k = 0; k < numCrossings; ++k)
+				crossingWords.add(words.get(crossingIndexes[k]));
+			retval.put(word, crossingWords);
+		}
+		return retval;
+	}
+}
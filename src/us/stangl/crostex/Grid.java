@@ -29,6 +29,7 @@ import us.stangl.crostex.command.EnterTextToCellCommand;
 import us.stangl.crostex.command.SetCurrentCellBlackCommand;
 import us.stangl.crostex.command.ToggleCurrentCellBlackCommand;
 import us.stangl.crostex.command.ToggleCurrentCellCircledCommand;
+import us.stangl.crostex.dictionary.Alphabet;
 import us.stangl.crostex.dictionary.Dictionary;
 import us.stangl.crostex.io.DOMSerializer;
 import us.stangl.crostex.io.IoClue;
@@ -456,11 +457,11 @@ public class Grid implements IoGrid
 	/**
 	 * Handle key typed event.
 	 * @param evt key typed event from AWT
+	 * @param alphabet alphabet of dictionary; letters not in it are ignored
 	 */
-	public void keyTyped(KeyEvent evt) {
-		char c = evt.getKeyChar();
-		if (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z') {
-			c = Character.toUpperCase(c);
+	public void keyTyped(KeyEvent evt, Alphabet alphabet) {
+		char c = Character.toUpperCase(evt.getKeyChar());
+		if (alphabet.contains(c)) {
 			Cell currentCell = getCurrentCell();
 			if (currentCell != null && !currentCell.isBlack()) {
 				commandBuffer.applyCommand(new EnterTextToCellCommand(this, String.valueOf(c)));
@@ -601,10 +602,34 @@ public class Grid implements IoGrid
 		return retval;
 	}
 	
+	/**
+	 * Return words of grid and their crossings, compiled in one pass over the grid. The snapshot
+	 * reflects the black cells at the time of the call, and is not updated if they change.
+	 * @return new crossing graph of grid
+	 */
+	public CrossingGraph getCrossingGraph() {
+		return new CrossingGraph(this);
+	}
+
 	public boolean autoFill(Dictionary<char[], Word> dict) {
 		return new AutoFiller7().autoFillRegion(this, dict);
 	}
 
+	/**
+	 * Copy contents of every cell eligible for autofill from the corresponding cell of the specified grid,
+	 * e.g., to apply a fill computed on a copy of this grid.
+	 * @param filledGrid grid of the same dimensions to copy contents from
+	 */
+	public void copyFillFrom(Grid filledGrid) {
+		for (int row = 0; row < height; ++row) {
+			for (int col = 0; col < width; ++col) {
+				Cell cell = getCell(row, col);
+				if (cell.isEligibleForAutofill())
+					cell.setContents(filledGrid.getCell(row, col).getContents());
+			}
+		}
+	}
+
 	public String getDescription() {
 		return description;
 	}
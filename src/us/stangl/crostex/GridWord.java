@@ -69,6 +69,16 @@ public class GridWord {
 		return retval;
 	}
 
+	/**
+	 * @return whether any cell of the word eligible for auto-fill is to be filled with a rebus
+	 */
+	public boolean hasRebusCell() {
+		for (Cell cell : cells)
+			if (cell.isEligibleForAutofill() && cell.isRebus())
+				return true;
+		return false;
+	}
+
 	/** return intersection cell, if any, otherwise null */
 	public Cell getIntersection(GridWord otherWord) {
 		for (Cell cell : cells)
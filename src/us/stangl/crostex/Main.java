@@ -79,21 +79,11 @@ public class Main {
 
 		// normalize (convert to uppercase) word from dictionary
 		// return normalized word, or null if word is unacceptable
-		// (fewer than 3 characters or having characters other than A..Z)
-		private static String normalizeWord(String rawWord) {
-			int len = rawWord.length();
-			if (len < 3)
+		// (fewer than 3 characters or having characters outside the dictionary's alphabet)
+		private String normalizeWord(String rawWord) {
+			if (rawWord.length() < 3)
 				return null;
-			StringBuilder builder = new StringBuilder(rawWord.length());
-			for (int i = 0; i < len; ++i) {
-				char c = rawWord.charAt(i);
-				if (c >= 'a' && c <= 'z')
-					c = Character.toUpperCase(c);
-				if (c < 'A' || c > 'Z')
-					return null;
-				builder.append(c);
-			}
-			return builder.toString();
+			return dict_.getAlphabet().normalize(rawWord);
 		}
 		
 		private boolean readDictionaryFile(String dataDirectory, String filename) {
@@ -8,5 +8,5 @@ package us.stangl.crostex;
  * @author Alex Stangl
  */
 public enum PreferenceKey {
-	DATA_DIRECTORY, DEFAULT_AUTHOR, DEFAULT_COPYRIGHT, DEFAULT_NOTES
+	DATA_DIRECTORY, DEFAULT_AUTHOR, DEFAULT_COPYRIGHT, DEFAULT_NOTES, ALPHABET
 }
@@ -5,9 +5,34 @@ package us.stangl.crostex;
 
 /**
  * Object that holds attributes associated with a word in the dictionary.
- * Currently empty.
  * @author Alex Stangl
  */
 public class Word {
+	/** score given to words from word lists that carry no scores */
+	public static final int DEFAULT_SCORE = 50;
 
+	/** desirability of word as a fill entry, higher is better */
+	private final int score;
+
+	/**
+	 * Constructor for Word having the default score.
+	 */
+	public Word() {
+		this(DEFAULT_SCORE);
+	}
+
+	/**
+	 * Constructor for Word.
+	 * @param score desirability of word as a fill entry, higher is better
+	 */
+	public Word(int score) {
+		this.score = score;
+	}
+
+	/**
+	 * @return desirability of word as a fill entry, higher is better
+	 */
+	public int getScore() {
+		return score;
+	}
 }
@@ -0,0 +1,65 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+/**
+ * Immutable snapshot of the progress of a running auto-fill.
+ * @author Alex Stangl
+ */
+public class AutoFillProgress {
+	/** number of search nodes expanded so far */
+	private final long nodes;
+
+	/** number of words currently filled by the search */
+	private final int depth;
+
+	/** highest number of words filled at once, so far */
+	private final int bestDepth;
+
+	/** cell contents when bestDepth was reached, [row][column] */
+	private final String[][] bestPartialFill;
+
+	/**
+	 * Constructor for AutoFillProgress.
+	 * @param nodes number of search nodes expanded so far
+	 * @param depth number of words currently filled by the search
+	 * @param bestDepth highest number of words filled at once, so far
+	 * @param bestPartialFill cell contents when bestDepth was reached, [row][column]
+	 */
+	public AutoFillProgress(long nodes, int depth, int bestDepth, String[][] bestPartialFill) {
+		this.nodes = nodes;
+		this.depth = depth;
+		this.bestDepth = bestDepth;
+		this.bestPartialFill = bestPartialFill;
+	}
+
+	/**
+	 * @return number of search nodes expanded so far
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * @return number of words currently filled by the search
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @return highest number of words filled at once, so far
+	 */
+	public int getBestDepth() {
+		return bestDepth;
+	}
+
+	/**
+	 * NOTE: the returned array is shared, and must not be modified.
+	 * @return cell contents when bestDepth was reached, [row][column]
+	 */
+	public String[][] getBestPartialFill() {
+		return bestPartialFill;
+	}
+}
@@ -0,0 +1,18 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+/**
+ * Interface for objects which listen for progress reports from a running auto-fill.
+ * @author Alex Stangl
+ */
+public interface AutoFillProgressListener {
+	/**
+	 * Receive progress report from a running auto-fill.
+	 * NOTE: called on the thread running the auto-fill, which typically isn't the event dispatch thread,
+	 * so the listener should return quickly, and hand off any UI updates to the event dispatch thread.
+	 * @param progress progress report
+	 */
+	void handleProgress(AutoFillProgress progress);
+}
@@ -12,6 +12,16 @@ import us.stangl.crostex.dictionary.Dictionary;
  * @author Alex Stangl
  */
 public interface AutoFillRegion {
+	/**
+	 * Order in which enumerateRegionFills finds fills.
+	 */
+	enum FillOrder {
+		/** trying highest-scoring words first */
+		BEST_FIRST,
+		/** trying words in pseudo-random order */
+		RANDOM
+	}
+
 	/**
 	 * Attempt to autofill grid region, from current grid position.
 	 * Region is defined as all empty squares contiguous to the current position.
@@ -21,4 +31,17 @@ public interface AutoFillRegion {
 	 * @return true if successfully filled grid
 	 */
 	boolean autoFillRegion(Grid grid, Dictionary<char[], Word> dict);
+
+	/**
+	 * Enumerate distinct fills of grid region, from current grid position, reporting each to listener as
+	 * it is found, until listener says to stop or there are no more. Search continues from where it left
+	 * off after each fill, rather than starting over. Fills identical to, or differing by only a single
+	 * word from, one already reported are skipped. The grid itself is left unchanged.
+	 * @param grid grid to fill
+	 * @param dict dictionary to use
+	 * @param order order in which to find fills
+	 * @param listener listener to report fills to
+	 * @return number of fills reported
+	 */
+	int enumerateRegionFills(Grid grid, Dictionary<char[], Word> dict, FillOrder order, AutoFillSolutionListener listener);
 }
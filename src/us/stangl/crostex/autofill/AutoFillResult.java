@@ -0,0 +1,70 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import java.util.Collections;
+import java.util.List;
+
+import us.stangl.crostex.GridWord;
+
+/**
+ * Immutable outcome of an auto-fill run within a budget: either a complete fill, or the best partial fill
+ * reached, the one with the most words filled, together with the words it leaves unfilled.
+ * @author Alex Stangl
+ */
+public class AutoFillResult {
+	/** whether every word was filled */
+	private final boolean complete;
+
+	/** cell contents of fill, or best partial fill, [row][column] */
+	private final String[][] fill;
+
+	/** words left unfilled by fill, of the grid auto-fill was run on */
+	private final List<GridWord> unfilledWords;
+
+	/** number of search nodes expanded */
+	private final long nodes;
+
+	/**
+	 * Constructor for AutoFillResult.
+	 * @param fill cell contents of fill, or best partial fill, [row][column]
+	 * @param unfilledWords words left unfilled by fill, of the grid auto-fill was run on; empty if fill is complete
+	 * @param nodes number of search nodes expanded
+	 */
+	public AutoFillResult(String[][] fill, List<GridWord> unfilledWords, long nodes) {
+		this.complete = unfilledWords.isEmpty();
+		this.fill = fill;
+		this.unfilledWords = Collections.unmodifiableList(unfilledWords);
+		this.nodes = nodes;
+	}
+
+	/**
+	 * @return whether every word was filled
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * NOTE: the returned array is shared, and must not be modified.
+	 * @return cell contents of fill, or best partial fill, [row][column]
+	 */
+	public String[][] getFill() {
+		return fill;
+	}
+
+	/**
+	 * @return unmodifiable list of words left unfilled by fill, of the grid auto-fill was run on
+	 */
+	public List<GridWord> getUnfilledWords() {
+		return unfilledWords;
+	}
+
+	/**
+	 * @return number of search nodes expanded
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+}
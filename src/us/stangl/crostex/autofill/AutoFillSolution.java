@@ -0,0 +1,41 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+/**
+ * Immutable complete fill found by an auto-fill, with its score.
+ * @author Alex Stangl
+ */
+public class AutoFillSolution {
+	/** cell contents of fill, [row][column] */
+	private final String[][] fill;
+
+	/** score of fill, under the objective the auto-fill was run with */
+	private final int score;
+
+	/**
+	 * Constructor for AutoFillSolution.
+	 * @param fill cell contents of fill, [row][column]
+	 * @param score score of fill, under the objective the auto-fill was run with
+	 */
+	public AutoFillSolution(String[][] fill, int score) {
+		this.fill = fill;
+		this.score = score;
+	}
+
+	/**
+	 * NOTE: the returned array is shared, and must not be modified.
+	 * @return cell contents of fill, [row][column]
+	 */
+	public String[][] getFill() {
+		return fill;
+	}
+
+	/**
+	 * @return score of fill, under the objective the auto-fill was run with
+	 */
+	public int getScore() {
+		return score;
+	}
+}
@@ -0,0 +1,19 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+/**
+ * Interface for objects which receive fills as a running auto-fill finds them.
+ * @author Alex Stangl
+ */
+public interface AutoFillSolutionListener {
+	/**
+	 * Receive fill found by a running auto-fill.
+	 * NOTE: called on the thread running the auto-fill, which typically isn't the event dispatch thread,
+	 * so the listener should return quickly, and hand off any UI updates to the event dispatch thread.
+	 * @param solution fill found
+	 * @return whether auto-fill should keep searching for more fills
+	 */
+	boolean handleSolution(AutoFillSolution solution);
+}
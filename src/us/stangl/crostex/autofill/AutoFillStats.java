@@ -0,0 +1,329 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Statistics of auto-fill searches: nodes expanded, backtracks and how far they jump back, dictionary
+ * queries, reuse of candidates, time spent propagating, and the depth and breadth of the running fill.
+ * An auto-filler keeps statistics of its running fill, which also add to a parent's, so the parent
+ * accumulates statistics of every fill. Statistics may be read, e.g., by JMX once registered, while
+ * a fill is running. The thread running the fill counts in plain fields of its own, which it adds to
+ * the published statistics, here and in the parent, only when it flushes them, so counting costs
+ * the search next to nothing; readers see statistics as of the latest flush.
+ * @author Alex Stangl
+ */
+public class AutoFillStats implements AutoFillStatsMBean {
+	/** logger */
+	private static final Logger LOG = Logger.getLogger(AutoFillStats.class.getName());
+
+	/** domain of object names AutoFillStats are registered under */
+	public static final String JMX_DOMAIN = "us.stangl.crostex";
+
+	/** number of buckets of backjump distance histogram */
+	public static final int BACKJUMP_HISTOGRAM_SIZE = 8;
+
+	/** statistics these add to, or null for none */
+	private final AutoFillStats parent;
+
+	private final AtomicLong fills = new AtomicLong();
+	private final AtomicLong completeFills = new AtomicLong();
+	private final AtomicLong nodes = new AtomicLong();
+	private final AtomicLong backtracks = new AtomicLong();
+	private final AtomicLongArray backjumpDistanceHistogram = new AtomicLongArray(BACKJUMP_HISTOGRAM_SIZE);
+	private final AtomicLong patternMatchQueries = new AtomicLong();
+	private final AtomicLong patternTestQueries = new AtomicLong();
+	private final AtomicLong cacheHits = new AtomicLong();
+	private final AtomicLong cacheMisses = new AtomicLong();
+	private final AtomicLong propagationNanos = new AtomicLong();
+	private final AtomicInteger maxDepth = new AtomicInteger();
+	private volatile int depth;
+	private volatile int breadth;
+
+	// counts since last flush, only accessed by the thread running the fill
+	private long pendingNodes;
+	private long pendingBacktracks;
+	private final long[] pendingBackjumpDistanceHistogram = new long[BACKJUMP_HISTOGRAM_SIZE];
+	private long pendingPatternMatchQueries;
+	private long pendingPatternTestQueries;
+	private long pendingCacheHits;
+	private long pendingCacheMisses;
+	private long pendingPropagationNanos;
+	private int pendingDepth;
+	private int pendingMaxDepth;
+
+	/**
+	 * Constructor for AutoFillStats not adding to any others, e.g., to accumulate statistics of every fill.
+	 */
+	public AutoFillStats() {
+		this(null);
+	}
+
+	/**
+	 * Constructor for AutoFillStats.
+	 * @param parent statistics these add to, or null for none
+	 */
+	public AutoFillStats(AutoFillStats parent) {
+		this.parent = parent;
+	}
+
+	/**
+	 * Register these statistics with the platform MBean server, under object name
+	 * us.stangl.crostex:type=AutoFillStats,name=<name>, replacing any already registered under it.
+	 * Failure is logged, rather than thrown, as statistics are not needed to fill.
+	 * @param name name to register under
+	 */
+	public void register(String name) {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=AutoFillStats,name=" + ObjectName.quote(name));
+			synchronized (AutoFillStats.class) {
+				if (server.isRegistered(objectName))
+					server.unregisterMBean(objectName);
+				server.registerMBean(this, objectName);
+			}
+		} catch (JMException e) {
+			LOG.log(Level.WARNING, "Unable to register auto-fill statistics " + name, e);
+		}
+	}
+
+	@Override
+	public long getFills() {
+		return fills.get();
+	}
+
+	@Override
+	public long getCompleteFills() {
+		return completeFills.get();
+	}
+
+	@Override
+	public long getNodes() {
+		return nodes.get();
+	}
+
+	@Override
+	public long getBacktracks() {
+		return backtracks.get();
+	}
+
+	@Override
+	public long[] getBackjumpDistanceHistogram() {
+		long[] retval = new long[BACKJUMP_HISTOGRAM_SIZE];
+		for (int k = 0; k < retval.length; ++k)
+			retval[k] = backjumpDistanceHistogram.get(k);
+		return retval;
+	}
+
+	@Override
+	public long getPatternMatchQueries() {
+		return patternMatchQueries.get();
+	}
+
+	@Override
+	public long getPatternTestQueries() {
+		return patternTestQueries.get();
+	}
+
+	@Override
+	public long getCacheHits() {
+		return cacheHits.get();
+	}
+
+	@Override
+	public long getCacheMisses() {
+		return cacheMisses.get();
+	}
+
+	@Override
+	public double getCacheHitRate() {
+		long hits = cacheHits.get();
+		long total = hits + cacheMisses.get();
+		return total == 0 ? 0.0 : (double)hits / total;
+	}
+
+	@Override
+	public long getPropagationMillis() {
+		return propagationNanos.get() / 1000000L;
+	}
+
+	@Override
+	public int getDepth() {
+		return depth;
+	}
+
+	@Override
+	public int getMaxDepth() {
+		return maxDepth.get();
+	}
+
+	@Override
+	public int getBreadth() {
+		return breadth;
+	}
+
+	@Override
+	public void reset() {
+		fills.set(0);
+		completeFills.set(0);
+		nodes.set(0);
+		backtracks.set(0);
+		for (int k = 0; k < BACKJUMP_HISTOGRAM_SIZE; ++k)
+			backjumpDistanceHistogram.set(k, 0);
+		patternMatchQueries.set(0);
+		patternTestQueries.set(0);
+		cacheHits.set(0);
+		cacheMisses.set(0);
+		propagationNanos.set(0);
+		maxDepth.set(0);
+		depth = 0;
+		breadth = 0;
+	}
+
+	// clear counts since last flush; current depth is kept
+	private void clearPending() {
+		pendingNodes = 0;
+		pendingBacktracks = 0;
+		for (int k = 0; k < BACKJUMP_HISTOGRAM_SIZE; ++k)
+			pendingBackjumpDistanceHistogram[k] = 0;
+		pendingPatternMatchQueries = 0;
+		pendingPatternTestQueries = 0;
+		pendingCacheHits = 0;
+		pendingCacheMisses = 0;
+		pendingPropagationNanos = 0;
+		pendingMaxDepth = 0;
+	}
+
+	@Override
+	public String toString() {
+		return "fills = " + getFills() + ", complete fills = " + getCompleteFills() + ", nodes = " + getNodes()
+				+ ", backtracks = " + getBacktracks() + ", pattern match queries = " + getPatternMatchQueries()
+				+ ", pattern test queries = " + getPatternTestQueries() + ", cache hit rate = " + getCacheHitRate()
+				+ ", propagation ms = " + getPropagationMillis() + ", max depth = " + getMaxDepth();
+	}
+
+	/**
+	 * Reset statistics for a new fill, and count it, here and in parent.
+	 */
+	void startFill() {
+		reset();
+		clearPending();
+		pendingDepth = 0;
+		for (AutoFillStats stats = this; stats != null; stats = stats.parent)
+			stats.fills.incrementAndGet();
+	}
+
+	/**
+	 * Record end of fill, flushing its statistics.
+	 * @param complete whether a complete fill was found
+	 */
+	void endFill(boolean complete) {
+		flush();
+		if (complete)
+			for (AutoFillStats stats = this; stats != null; stats = stats.parent)
+				stats.completeFills.incrementAndGet();
+	}
+
+	/**
+	 * Add counts of running fill since last flush to published statistics, here and in parent,
+	 * and publish its current depth. Called by the thread running the fill, every so often, and at its end.
+	 */
+	void flush() {
+		for (AutoFillStats stats = this; stats != null; stats = stats.parent) {
+			stats.nodes.addAndGet(pendingNodes);
+			stats.backtracks.addAndGet(pendingBacktracks);
+			for (int k = 0; k < BACKJUMP_HISTOGRAM_SIZE; ++k)
+				if (pendingBackjumpDistanceHistogram[k] != 0)
+					stats.backjumpDistanceHistogram.addAndGet(k, pendingBackjumpDistanceHistogram[k]);
+			stats.patternMatchQueries.addAndGet(pendingPatternMatchQueries);
+			stats.patternTestQueries.addAndGet(pendingPatternTestQueries);
+			stats.cacheHits.addAndGet(pendingCacheHits);
+			stats.cacheMisses.addAndGet(pendingCacheMisses);
+			stats.propagationNanos.addAndGet(pendingPropagationNanos);
+			int max = stats.maxDepth.get();
+			while (pendingMaxDepth > max && ! stats.maxDepth.compareAndSet(max, pendingMaxDepth))
+				max = stats.maxDepth.get();
+		}
+		depth = pendingDepth;
+		clearPending();
+	}
+
+	/**
+	 * Record expansion of a search node.
+	 */
+	void addNode() {
+		++pendingNodes;
+	}
+
+	/**
+	 * Record a backtrack, backjumping over the specified number of words.
+	 * @param distance number of words backjumped over, at least 1
+	 */
+	void addBacktrack(int distance) {
+		++pendingBacktracks;
+		++pendingBackjumpDistanceHistogram[Math.min(BACKJUMP_HISTOGRAM_SIZE - 1,
+				31 - Integer.numberOfLeadingZeros(Math.max(1, distance)))];
+	}
+
+	/**
+	 * Record a getPatternMatches query of the dictionary.
+	 */
+	void addPatternMatchQuery() {
+		++pendingPatternMatchQueries;
+	}
+
+	/**
+	 * Record an isPatternInDictionary query of the dictionary.
+	 */
+	void addPatternTestQuery() {
+		++pendingPatternTestQueries;
+	}
+
+	/**
+	 * Record whether a word's current candidates could be reused for its new pattern.
+	 * @param hit whether candidates were reused
+	 */
+	void addCacheLookup(boolean hit) {
+		if (hit)
+			++pendingCacheHits;
+		else
+			++pendingCacheMisses;
+	}
+
+	/**
+	 * Record time spent choosing a word and propagating it to its crossing words.
+	 * @param nanos nanoseconds spent
+	 */
+	void addPropagationNanos(long nanos) {
+		pendingPropagationNanos += nanos;
+	}
+
+	/**
+	 * Set number of words currently filled by the running fill, published, along with the maximum, at next flush.
+	 * @param depth number of words currently filled
+	 */
+	void setDepth(int depth) {
+		pendingDepth = depth;
+		if (depth > pendingMaxDepth)
+			pendingMaxDepth = depth;
+	}
+
+	/**
+	 * Set number of backtracks currently allowed each word by the running fill.
+	 * @param breadth number of backtracks allowed each word
+	 */
+	void setBreadth(int breadth) {
+		this.breadth = breadth;
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+/**
+ * JMX management interface of AutoFillStats, for watching auto-fills from JConsole or the like.
+ * @author Alex Stangl
+ */
+public interface AutoFillStatsMBean {
+	/**
+	 * @return number of fills started
+	 */
+	long getFills();
+
+	/**
+	 * @return number of fills started which found a complete fill
+	 */
+	long getCompleteFills();
+
+	/**
+	 * @return number of search nodes expanded
+	 */
+	long getNodes();
+
+	/**
+	 * @return number of backtracks, i.e., dead ends backjumped from
+	 */
+	long getBacktracks();
+
+	/**
+	 * @return [k] = number of backjumps over at least 2^k and less than 2^(k+1) words, the last bucket counting all longer ones
+	 */
+	long[] getBackjumpDistanceHistogram();
+
+	/**
+	 * @return number of getPatternMatches queries of the dictionary
+	 */
+	long getPatternMatchQueries();
+
+	/**
+	 * @return number of isPatternInDictionary queries of the dictionary
+	 */
+	long getPatternTestQueries();
+
+	/**
+	 * @return number of times a word's current candidates were reused for its new pattern
+	 */
+	long getCacheHits();
+
+	/**
+	 * @return number of times a word's candidates had to be replaced for its new pattern
+	 */
+	long getCacheMisses();
+
+	/**
+	 * @return cache hits as a fraction of cache hits and misses, or 0 if there have been none
+	 */
+	double getCacheHitRate();
+
+	/**
+	 * @return milliseconds spent choosing words and propagating them to their crossing words, estimated from
+	 * a sample of search nodes
+	 */
+	long getPropagationMillis();
+
+	/**
+	 * @return number of words currently filled by the running fill; 0 for cumulative statistics
+	 */
+	int getDepth();
+
+	/**
+	 * @return highest number of words filled at once
+	 */
+	int getMaxDepth();
+
+	/**
+	 * @return number of backtracks currently allowed each word by the running fill; 0 for cumulative statistics
+	 */
+	int getBreadth();
+
+	/**
+	 * Reset all statistics to 0.
+	 */
+	void reset();
+}
@@ -57,45 +57,10 @@ public class AutoFiller4 implements AutoFillGrid {
 			}
 		}
 
-        // Generate array of references from each partial across word to
-        // partial down words they intersect with a blank
-		Map<GridWord, List<GridWord>> acrossToDownWordMap = new HashMap<GridWord, List<GridWord>>();
-		Map<GridWord, List<GridWord>> wordToCrossingWordsMap = new HashMap<GridWord, List<GridWord>>();
-		for (GridWord agw : acrossWordsToFill) {
-			List<GridWord> list = new ArrayList<GridWord>();
-			for (GridWord dgw : downWordsToFill) {
-				Cell intersection = agw.getIntersection(dgw);
-				if (intersection != null && intersection.isEligibleForAutofill()) {
-//System.out.println("associating across word " + agw + " with down word " + dgw);					
-					list.add(dgw);
-				}
-			}
-			acrossToDownWordMap.put(agw, list);
-			wordToCrossingWordsMap.put(agw, list);
-//System.out.println("Putting in wordMap " + agw + " " + list.size() + " words");
-//for (GridWord word : wordToCrossingWordsMap.keySet())
-//	System.out.println("In keyset now: " + word);
-		}
-
-        // Generate array of references from each partial down word to
-        // partial across words they intersect with a blank
-		Map<GridWord, List<GridWord>> downToAcrossWordMap = new HashMap<GridWord, List<GridWord>>();
-		for (GridWord dgw : downWordsToFill) {
-			List<GridWord> list = new ArrayList<GridWord>();
-			for (GridWord agw : acrossWordsToFill) {
-				Cell intersection = dgw.getIntersection(agw);
-				if (intersection != null && intersection.isEligibleForAutofill()) {
-					list.add(agw);
-//System.out.println("associating down word " + dgw + " with across word " + agw);					
-
-				}
-			}
-			downToAcrossWordMap.put(dgw, list);
-			wordToCrossingWordsMap.put(dgw, list);
-//System.out.println("Putting in wordMap " + dgw + " " + list.size() + " words");			
-//for (GridWord word : wordToCrossingWordsMap.keySet())
-//	System.out.println("In keyset now: " + word);
-		}
+		// Map each partial word to the partial words it intersects with a blank, from the grid's crossing graph
+		List<GridWord> wordsToFill = new ArrayList<GridWord>(acrossWordsToFill);
+		wordsToFill.addAll(downWordsToFill);
+		Map<GridWord, List<GridWord>> wordToCrossingWordsMap = grid.getCrossingGraph().getCrossingWords(wordsToFill);
 
 //        // For the N across words, do an effective nested for loop,
 //        // nested N levels deep, iterating through the trie iterator for
@@ -146,8 +111,6 @@ public class AutoFiller4 implements AutoFillGrid {
 		GridWord firstWord = acrossWordsToFill.get(0);
 		
 		// free up things we don't really need
-		downToAcrossWordMap = null;
-		acrossToDownWordMap = null;
 		wordsAlreadyInUse = null;
 		acrossWords = null;
 		downWords = null;
@@ -53,32 +53,10 @@ public class AutoFiller5 implements AutoFillGrid {
 			}
 		}
 
-        // Generate array of references from each partial across word to
-        // partial down words they intersect with a blank
-		Map<GridWord, List<GridWord>> wordToCrossingWordsMap = new HashMap<GridWord, List<GridWord>>();
-		for (GridWord agw : acrossWordsToFill) {
-			List<GridWord> list = new ArrayList<GridWord>();
-			for (GridWord dgw : downWordsToFill) {
-				Cell intersection = agw.getIntersection(dgw);
-				if (intersection != null && intersection.isEligibleForAutofill()) {
-					list.add(dgw);
-				}
-			}
-			wordToCrossingWordsMap.put(agw, list);
-		}
-
-        // Generate array of references from each partial down word to
-        // partial across words they intersect with a blank
-		for (GridWord dgw : downWordsToFill) {
-			List<GridWord> list = new ArrayList<GridWord>();
-			for (GridWord agw : acrossWordsToFill) {
-				Cell intersection = dgw.getIntersection(agw);
-				if (intersection != null && intersection.isEligibleForAutofill()) {
-					list.add(agw);
-				}
-			}
-			wordToCrossingWordsMap.put(dgw, list);
-		}
+		// Map each partial word to the partial words it intersects with a blank, from the grid's crossing graph
+		List<GridWord> wordsToFill = new ArrayList<GridWord>(acrossWordsToFill);
+		wordsToFill.addAll(downWordsToFill);
+		Map<GridWord, List<GridWord>> wordToCrossingWordsMap = grid.getCrossingGraph().getCrossingWords(wordsToFill);
 
 		// free up things we don't really need
 		originalValueStore = null;
@@ -4,140 +4,347 @@
 package us.stangl.crostex.autofill;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import us.stangl.crostex.Cell;
 import us.stangl.crostex.Grid;
 import us.stangl.crostex.GridWord;
 import us.stangl.crostex.Word;
+import us.stangl.crostex.dictionary.Alphabet;
 import us.stangl.crostex.dictionary.Dictionary;
-import us.stangl.crostex.util.CircularList;
+import us.stangl.crostex.dictionary.IndexedDictionary;
+import us.stangl.crostex.util.IndexedHeap;
+import us.stangl.crostex.util.IntCircularList;
 import us.stangl.crostex.util.Pair;
-import us.stangl.crostex.util.RowColumnPair;
 import us.stangl.crostex.util.Stack;
 
 /**
  * 7th generation implementation of auto-fill algorithm.
  * Uses dynamic backtrack, interative broadening, cheapest-first heuristic.
+ * The cheapest word is the one with the fewest candidates relative to how often it has caused failures
+ * (dom/wdeg), kept in an IndexedHeap updated as candidates change, rather than found by scanning every word.
+ * Letters are filled in a SolverGrid while searching, and written to the grid only once a fill is found.
+ * Search is limited to a number of attempts, and optionally a time; when it runs out, autoFillBestEffort
+ * and autoFillRegionBestEffort return the best partial fill reached, and the words it leaves unfilled.
+ * Candidate words are kept as indexes into a WordTable, which for an IndexedDictionary are the dictionary's own,
+ * so no Pair is made for a candidate.
+ * Statistics of the running fill are kept in an AutoFillStats, which also adds them to statistics of
+ * every AutoFiller7 fill, either of which can be registered for JMX.
+ * Cells marked as rebus cells are filled with one of the rebus strings set by setRebusStrings. Each rebus string
+ * is encoded as a single symbol while searching, and patterns of words having rebus cells are matched by
+ * querying the dictionary once per combination of rebus string lengths, through a RebusVocabulary.
  * @author Alex Stangl
  */
 public class AutoFiller7 implements AutoFillGrid, AutoFillRegion {
+	/** logger */
+	private static final Logger LOG = Logger.getLogger(AutoFiller7.class.getName());
+
+	/** default number of backtracks to allow each word before forcing further backtrack */
+	public static final int DEFAULT_BREADTH = 3;
+
+	/** default maximum number of attempts, i.e., search nodes, before giving up */
+	public static final int DEFAULT_MAX_ATTEMPTS = 50000;
+
+	/** number of search nodes between progress reports, and flushes of statistics */
+	private static final int PROGRESS_INTERVAL = 500;
+
+	/** number of search nodes per node timed, for the statistics' estimate of propagation time */
+	private static final int PROPAGATION_SAMPLE_INTERVAL = 16;
+
+	/** statistics of every fill by any AutoFiller7 */
+	private static final AutoFillStats CUMULATIVE_STATS = new AutoFillStats();
+
+	/**
+	 * Order in which candidate words for a word are tried.
+	 */
+	public enum ChoiceOrder {
+		/** order in which the dictionary returns matches */
+		DICTIONARY,
+		/** pseudo-random order, repeatable for a given seed */
+		RANDOM,
+		/** highest-scoring words first */
+		SCORE,
+		/**
+		 * words leaving crossing words the most choices first, i.e., least constraining value,
+		 * judged by the product of the number of choices each crossing word has with the letter shared,
+		 * ties broken by score
+		 */
+		LEAST_CONSTRAINING
+	}
+
+	/** initial number of backtracks to allow each word before forcing further backtrack */
+	private final int initialBreadth;
+
+	/** order in which candidate words are tried */
+	private final ChoiceOrder choiceOrder;
+
+	/** pseudo-random number generator used for RANDOM choice order */
+	private final Random random;
+
+	/** maximum number of attempts, i.e., search nodes, before giving up */
+	private final int maxAttempts;
+
+	/** maximum number of milliseconds to search before giving up, or 0 for no limit */
+	private final long maxMillis;
+
+	/** listener to report progress to, if any */
+	private volatile AutoFillProgressListener progressListener;
+
+	/** statistics of running, or last, fill, adding to CUMULATIVE_STATS */
+	private final AutoFillStats stats = new AutoFillStats(CUMULATIVE_STATS);
+
+	/** strings allowed in rebus cells */
+	private RebusVocabulary rebusVocabulary = new RebusVocabulary(Collections.<String>emptyList());
+
+	/**
+	 * Constructor for AutoFiller7 using default breadth and trying words in dictionary order.
+	 */
+	public AutoFiller7() {
+		this(DEFAULT_BREADTH, ChoiceOrder.DICTIONARY, 0L);
+	}
+
+	/**
+	 * Constructor for AutoFiller7.
+	 * Different breadths and seeds explore the search space in different orders, so several
+	 * differently configured instances can be run against the same grid, e.g., by PortfolioAutoFiller.
+	 * @param initialBreadth initial number of backtracks to allow each word before forcing further backtrack
+	 * @param choiceOrder order in which candidate words are tried
+	 * @param seed seed for pseudo-random number generator, used for RANDOM choice order
+	 */
+	public AutoFiller7(int initialBreadth, ChoiceOrder choiceOrder, long seed) {
+		this(initialBreadth, choiceOrder, seed, DEFAULT_MAX_ATTEMPTS, 0L);
+	}
+
+	/**
+	 * Constructor for AutoFiller7 with a search budget.
+	 * @param initialBreadth initial number of backtracks to allow each word before forcing further backtrack
+	 * @param choiceOrder order in which candidate words are tried
+	 * @param seed seed for pseudo-random number generator, used for RANDOM choice order
+	 * @param maxAttempts maximum number of attempts, i.e., search nodes, before giving up
+	 * @param maxMillis maximum number of milliseconds to search before giving up, or 0 for no limit
+	 */
+	public AutoFiller7(int initialBreadth, ChoiceOrder choiceOrder, long seed, int maxAttempts, long maxMillis) {
+		this.initialBreadth = initialBreadth;
+		this.choiceOrder = choiceOrder;
+		this.random = new Random(seed);
+		this.maxAttempts = maxAttempts;
+		this.maxMillis = maxMillis;
+	}
+
+	/**
+	 * Set listener to report progress to, every few hundred search nodes, or null for none.
+	 * @param progressListener listener to report progress to
+	 */
+	public void setProgressListener(AutoFillProgressListener progressListener) {
+		this.progressListener = progressListener;
+	}
+
+	/**
+	 * Set strings allowed in cells marked as rebus cells, each of which is filled with one of them.
+	 * Without any, words having rebus cells can't be filled.
+	 * @param rebusStrings strings allowed in rebus cells, e.g., "HEART", each at least 1 character long
+	 * @throws IllegalArgumentException if any string is empty, or there are too many
+	 */
+	public void setRebusStrings(Collection<String> rebusStrings) {
+		this.rebusVocabulary = new RebusVocabulary(rebusStrings);
+	}
+
+	/**
+	 * @return statistics of running fill, or of last fill if none is running, reset as each fill starts
+	 */
+	public AutoFillStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * @return statistics of every fill by any AutoFiller7
+	 */
+	public static AutoFillStats getCumulativeStats() {
+		return CUMULATIVE_STATS;
+	}
+
 	@Override
 	public boolean autoFillRegion(Grid grid, Dictionary<char[], Word> dict) {
-		int row = grid.getCurrentRow();
-		int column = grid.getCurrentColumn();
-		Cell cell = grid.getCell(row, column);
-		if (! cell.isEligibleForAutofill())
-			return true;			// TODO -- reconsider whether this is the best way to handle this scenario
+		return autoFillRegionBestEffort(grid, dict).isComplete();
+	}
+
+	/**
+	 * Attempt to autofill grid region, as autoFillRegion, returning the best partial fill reached if
+	 * the region can't be filled within the search budget. Grid is only changed if the region is filled.
+	 * @param grid grid to fill
+	 * @param dict dictionary to use
+	 * @return fill, or best partial fill and the words it leaves unfilled
+	 */
+	public AutoFillResult autoFillRegionBestEffort(Grid grid, Dictionary<char[], Word> dict) {
+		GridRegion region = new GridRegion(grid);
+		if (region.isEmpty())			// TODO -- reconsider whether this is the best way to handle this scenario
+			return new AutoFillResult(getContents(grid), Collections.<GridWord>emptyList(), 0);
 	
-		Set<RowColumnPair> region = new HashSet<RowColumnPair>();
-		findRegion(row, column, grid, region);
-		List<GridWord> acrossWords = intersectWordsWithRegion(grid.getAcrossWords(), region);
-		List<GridWord> downWords = intersectWordsWithRegion(grid.getDownWords(), region);
+		List<GridWord> acrossWords = region.intersectWords(grid.getAcrossWords());
+		List<GridWord> downWords = region.intersectWords(grid.getDownWords());
 		return autoFillImpl(grid, dict, acrossWords, downWords);
 	}
 
-	// performing a flood-fill-like algorithm, find transitive closure of all empty cells connected to specified cell
-	private void findRegion(int row, int column, Grid grid, Set<RowColumnPair> region) {
-		if (row >= 0 && column >= 0 && row < grid.getHeight() && column < grid.getWidth()) {
-			RowColumnPair pair = new RowColumnPair(row, column);
-			if (! region.contains(pair)) {
-				region.add(pair);
-				findRegion(row - 1, column, grid, region);
-				findRegion(row + 1, column, grid, region);
-				findRegion(row, column - 1, grid, region);
-				findRegion(row, column + 1, grid, region);
-			}
-		}
-	}
-	
-	// filter specified GridWords, returning list of only those intersecting with specified region
-	private List<GridWord> intersectWordsWithRegion(Collection<GridWord> gridWords, Set<RowColumnPair> region) {
-		List<GridWord> retval = new ArrayList<GridWord>();
-		for (GridWord gridWord : gridWords)
-			if (intersectsRegion(gridWord, region))
-				retval.add(gridWord);
-		return retval;
+	/**
+	 * Attempt to autofill grid, as autoFill, returning the best partial fill reached if the grid
+	 * can't be filled within the search budget. Grid is only changed if it is filled.
+	 * @param grid grid to fill
+	 * @param dict dictionary to use
+	 * @return fill, or best partial fill and the words it leaves unfilled
+	 */
+	public AutoFillResult autoFillBestEffort(Grid grid, Dictionary<char[], Word> dict) {
+		return autoFillImpl(grid, dict, grid.getAcrossWords(), grid.getDownWords());
 	}
 
-	// return whether specified GridWord intersects specified region
-	private boolean intersectsRegion(GridWord gridWord, Set<RowColumnPair> region) {
-		for (RowColumnPair pair : gridWord.getCoordinatesOfAllCells())
-			if (region.contains(pair))
-				return true;
-		return false;
+	/**
+	 * Enumerate fills of grid region. For an IndexedDictionary, and no rebus strings, this is done by AutoFiller8,
+	 * which can continue its search after each fill; otherwise just the one fill AutoFiller7 finds is reported.
+	 */
+	@Override
+	public int enumerateRegionFills(Grid grid, Dictionary<char[], Word> dict, FillOrder order,
+			AutoFillSolutionListener listener) {
+		if (dict instanceof IndexedDictionary && rebusVocabulary.isEmpty())
+			return new AutoFiller8().enumerateRegionFills(grid, dict, order, listener);
+		Grid gridCopy = new Grid(grid);
+		if (new GridRegion(gridCopy).isEmpty() || ! autoFillRegion(gridCopy, dict))
+			return 0;
+		listener.handleSolution(new AutoFillSolution(getContents(gridCopy), 0));
+		return 1;
 	}
 
 	
 	@Override
 	public boolean autoFill(Grid grid, Dictionary<char[], Word> dict) {
-		return autoFillImpl(grid, dict, grid.getAcrossWords(), grid.getDownWords());
+		return autoFillBestEffort(grid, dict).isComplete();
 	}
 	
-	private boolean autoFillImpl(Grid grid, Dictionary<char[], Word> dict, List<GridWord> acrossWords, List<GridWord> downWords) {
+	private AutoFillResult autoFillImpl(Grid grid, Dictionary<char[], Word> dict, List<GridWord> acrossWords, List<GridWord> downWords) {
+		stats.startFill();
+		AutoFillResult result = search(grid, dict, acrossWords, downWords);
+		stats.endFill(result.isComplete());
+		return result;
+	}
+
+	private AutoFillResult search(Grid grid, Dictionary<char[], Word> dict, List<GridWord> acrossWords, List<GridWord> downWords) {
 		// Find all full words in xword, store in set for duplicate checking
 		Set<String> wordsAlreadyInUse = new HashSet<String>();
-		List<GridWord> acrossWordsToFill = getWordsToFill(acrossWords, wordsAlreadyInUse, dict);
-		List<GridWord> downWordsToFill = getWordsToFill(downWords, wordsAlreadyInUse, dict);
+		List<GridWord> unsatisfiableWords = new ArrayList<GridWord>();
+		List<GridWord> acrossWordsToFill = getWordsToFill(acrossWords, wordsAlreadyInUse, dict, unsatisfiableWords);
+		List<GridWord> downWordsToFill = getWordsToFill(downWords, wordsAlreadyInUse, dict, unsatisfiableWords);
 
-		if (acrossWordsToFill == null || downWordsToFill == null)
-			return false;			// at least one word pattern could not be satisfied by auto-fill
+		if (! unsatisfiableWords.isEmpty())
+			return new AutoFillResult(getContents(grid), unsatisfiableWords, 0);	// pattern can't be satisfied by auto-fill
 
-		// Generate map of references from each partial across word to partial down words they intersect with a blank
-		Map<GridWord, List<GridWord>> wordToCrossingWordsMap = findIntersections(acrossWordsToFill, downWordsToFill);
+		// Number words to fill, and find crossings of each with a blank
+		List<GridWord> wordsToFill = new ArrayList<GridWord>(acrossWordsToFill);
+		wordsToFill.addAll(downWordsToFill);
+		SolverModel model = new SolverModel(grid.getCrossingGraph(), wordsToFill);
+		SolverGrid solverGrid = new SolverGrid(grid, model, rebusVocabulary);
+		int numSlots = model.getNumSlots();
 
 		// free up things we don't really need
 		wordsAlreadyInUse = null;
 
-		int maxBreadth = 3;
-
-		// Build a Map from every GridWord -> its list of candidates, and keep it up to date, for arc consistency
-		Map<GridWord, List<Pair<char[], Word>>> wordPossibilities = new HashMap<GridWord, List<Pair<char[], Word>>>();
-		Map<GridWord, WorkTuple> wordToTupleMap = new HashMap<GridWord, WorkTuple>();
-		for (GridWord word : wordToCrossingWordsMap.keySet()) {
-			List<Pair<char[], Word>> matches = dict.getPatternMatches(word.getPattern());
-			wordPossibilities.put(word, matches);
-			// Create new work tuple for this word, and put it into map
-			wordToTupleMap.put(word, new WorkTuple(word, matches, dict, wordToCrossingWordsMap, maxBreadth, wordToTupleMap));
+		int maxBreadth = initialBreadth;
+		stats.setBreadth(maxBreadth);
+
+		// Build work tuple for every word, indexed by slot number, holding its candidates, kept up to date for arc consistency.
+		// Words not yet complete are kept in openSlots, cheapest first
+		WorkTuple[] tuples = new WorkTuple[numSlots];
+		IndexedHeap openSlots = new IndexedHeap(numSlots);
+		// Words having rebus cells each get a table of their own; others share one per length
+		Map<Integer, WordTable> wordTables = new HashMap<Integer, WordTable>();
+		for (int slot = 0; slot < numSlots; ++slot) {
+			GridWord word = model.getWord(slot);
+			char[] pattern = word.getPattern();
+			RebusVocabulary.Matcher rebusMatcher = createRebusMatcher(word, dict);
+			WordTable wordTable = rebusMatcher != null ? null : wordTables.get(pattern.length);
+			if (wordTable == null) {
+				wordTable = WordTable.newInstance(dict, pattern.length, rebusMatcher);
+				if (rebusMatcher == null)
+					wordTables.put(pattern.length, wordTable);
+			}
+			int[] matches = wordTable.getPatternMatches(pattern);
+			stats.addPatternMatchQuery();
+			tuples[slot] = new WorkTuple(slot, model, solverGrid, matches, dict, wordTable, maxBreadth, tuples, choiceOrder,
+					random, openSlots, stats);
 		}
 
 		Stack<WorkTuple> workStack = new Stack<WorkTuple>();
 
-		int maxNumAttempts = 50000;
+		long deadline = maxMillis > 0 ? System.currentTimeMillis() + maxMillis : Long.MAX_VALUE;
 		int attemptNumber = 0;
+		int bestDepth = 0;
+		String[][] bestPartialFill = solverGrid.getContents();
+		List<GridWord> bestUnfilledWords = new ArrayList<GridWord>(wordsToFill);
 //BREADTHLOOP:
 //		for (maxBreadth = 2; ; ++maxBreadth) {
-//			for (WorkTuple tuple : wordToTupleMap.values())
+//			for (WorkTuple tuple : tuples)
 //				tuple.breadth_ = maxBreadth;
 //System.out.println("Setting breadth to " + maxBreadth);
 
 MAINLOOP:
 		while (true) {
-			if (++attemptNumber > maxNumAttempts) {
-				System.out.println("Returning false because have reached " + attemptNumber + " attempts.");
-				return false;
+			// Stop cooperatively if the thread running this fill has been interrupted, e.g., cancelled by a portfolio
+			if (Thread.currentThread().isInterrupted())
+				return new AutoFillResult(bestPartialFill, bestUnfilledWords, attemptNumber);
+			if (++attemptNumber > maxAttempts || System.currentTimeMillis() > deadline) {
+				LOG.fine("Returning false because have reached " + attemptNumber + " attempts.");
+				return new AutoFillResult(bestPartialFill, bestUnfilledWords, attemptNumber);
+			}
+			stats.addNode();
+			stats.setDepth(workStack.size());
+			if (workStack.size() > bestDepth) {
+				bestDepth = workStack.size();
+				bestPartialFill = solverGrid.getContents();
+				bestUnfilledWords.clear();
+				for (int slot = 0; slot < numSlots; ++slot)
+					if (! solverGrid.isComplete(slot))
+						bestUnfilledWords.add(model.getWord(slot));
+			}
+			if (attemptNumber % PROGRESS_INTERVAL == 0) {
+				stats.flush();
+				AutoFillProgressListener listener = progressListener;
+				if (listener != null)
+					listener.handleProgress(new AutoFillProgress(attemptNumber, workStack.size(), bestDepth, bestPartialFill));
 			}
 			
-			// Now find "cheapest" candidate to work next: the one with the fewest # of possibilities
-			GridWord cheapestWord = findCheapestCandidate(wordPossibilities, wordToTupleMap);
-			if (cheapestWord == null)
-				return true;					// Done!
-
-			// Get associated tuple from map, see if we can get a good choice for it
-			WorkTuple workTuple = wordToTupleMap.get(cheapestWord);
-			if (workTuple.getBestChoiceOrRollback()) {
+			// Now find "cheapest" candidate to work next: the one with the fewest # of possibilities per failure
+			if (openSlots.isEmpty()) {
+				solverGrid.writeTo();
+				return new AutoFillResult(solverGrid.getContents(), Collections.<GridWord>emptyList(), attemptNumber);	// Done!
+			}
+			int cheapestSlot = openSlots.peek();
+
+			// Get associated tuple, see if we can get a good choice for it
+			WorkTuple workTuple = tuples[cheapestSlot];
+			boolean chosen;
+			if (attemptNumber % PROPAGATION_SAMPLE_INTERVAL == 0) {
+				long propagationStart = System.nanoTime();
+				chosen = workTuple.getBestChoiceOrRollback();
+				stats.addPropagationNanos((System.nanoTime() - propagationStart) * PROPAGATION_SAMPLE_INTERVAL);
+			} else {
+				chosen = workTuple.getBestChoiceOrRollback();
+			}
+			if (chosen) {
 				workStack.push(workTuple);
 				
 				// Add all newly completed cross words to workStack
-				for (GridWord crossWord : wordToCrossingWordsMap.get(cheapestWord))
-					if (crossWord.isComplete()) {
-						WorkTuple crossTuple = wordToTupleMap.get(crossWord);
+				for (int crossSlot : model.getCrossingSlots(cheapestSlot))
+					if (solverGrid.isComplete(crossSlot)) {
+						WorkTuple crossTuple = tuples[crossSlot];
 						if (! workStack.contains(crossTuple))
 							workStack.push(crossTuple);
 					}
@@ -146,80 +353,68 @@ MAINLOOP:
 				// change, using secondary stack to hold items pulled off the primary
 				// stack when rolling back, then push 'em all back on to the primary
 
-//System.out.println("Couldn't get nextBestChoice for " + cheapestWord + ", adding to wordThatNeedChange and backtracking");
 				// Call the elimination mechanism here (latter part of step 2) to add
 				// any eliminations, assuming we really handle it that way
-				// for a (partial solution, workTuple), return a set of eliminating explanations (char[], Set<GridWord>)
+				// for a (partial solution, workTuple), return a set of eliminating explanations (char[], BitSet of slots)
 				// In this case, for a leaf node, we will simply use the set of all previous intersecting words
-
-				Set<GridWord> eliminatingExplanationParents = new HashSet<GridWord>();
-				for (GridWord crossingWord : wordToCrossingWordsMap.get(cheapestWord))
-					if (crossingWord.isComplete())
-						eliminatingExplanationParents.add(crossingWord);
+				BitSet eliminatingExplanationParents = solverGrid.getCompleteCrossings(cheapestSlot);
 
 				// use these eliminating explanation parents in the rollback now
-				// Get set of candidates of gridwords responsible for our current failure. These are candidates to backtrack to
-				Set<GridWord> backtrackCandidates = workTuple.getExplainingGridwords();
-				eliminatingExplanationParents.addAll(backtrackCandidates);
-//				backtrackCandidates.addAll(eliminatingExplanationParents);
+				// Get set of candidates of slots responsible for our current failure. These are candidates to backtrack to
+				BitSet backtrackCandidates = workTuple.getExplainingSlots();
+				eliminatingExplanationParents.or(backtrackCandidates);
 				if (eliminatingExplanationParents.isEmpty()) {
-					System.out.println("Returning false because " + cheapestWord + " has no backtrack candidates. It has " + workTuple.choices.size() + " choices and " + workTuple.explanations.size() + " explanations.");
-					System.out.println("workTuple.computePattern = " + new String(workTuple.computePattern()));
-					System.out.println("eliminatingExplanationParents is of size " + eliminatingExplanationParents.size() + " and backtrackCandidates is of size " + backtrackCandidates.size());
-
-					for (Map.Entry<char[], Pair<Pair<char[], Word>, Set<GridWord>>> entry : workTuple.explanations.entrySet()) {
-						System.out.println("Entry key = " + new String(entry.getKey()) + ", eliminated value = " + new String(entry.getValue().first.first));
-						for (GridWord gw : entry.getValue().second) {
-							System.out.println("gw = " + gw);
+					if (LOG.isLoggable(Level.FINE)) {
+						StringBuilder message = new StringBuilder();
+						message.append("Returning false because ").append(workTuple.word).append(" has no backtrack candidates. It has ")
+							.append(workTuple.choices.size()).append(" choices and ").append(workTuple.explainedChoices.cardinality()).append(" explanations.");
+						message.append("\nworkTuple.computePattern = ").append(workTuple.computePattern());
+						BitSet explainedChoices = workTuple.explainedChoices;
+						for (int choice = explainedChoices.nextSetBit(0); choice >= 0; choice = explainedChoices.nextSetBit(choice + 1)) {
+							message.append("\nEliminated value = ").append(workTuple.wordTable.getWord(choice));
+							BitSet slots = workTuple.explainingSlots[choice];
+							for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1))
+								message.append("\ngw = ").append(model.getWord(slot));
 						}
+						LOG.fine(message.toString());
 					}
-					return false;								// No candidates -- we have failed
+					return new AutoFillResult(bestPartialFill, bestUnfilledWords, attemptNumber);	// No candidates -- we have failed
 				}
 
 				Stack<WorkTuple> tempStack = new Stack<WorkTuple>();
+				int backjumpDistance = 0;
 				while (! workStack.empty()) {
 					workTuple = workStack.pop();
-					GridWord currWord = workTuple.word;
+					++backjumpDistance;
+					int currSlot = workTuple.slot;
 					// Backtrack until find another workTuple whose word is bound to an explanation of the one we are backtracking from
-					if (! eliminatingExplanationParents.contains(currWord)) {
+					if (! eliminatingExplanationParents.get(currSlot)) {
 						tempStack.push(workTuple);
 					} else if (!workTuple.canBackTrack()) {
-//System.out.println("Skipping over " + currWord);
 						workTuple.breadth = maxBreadth;
-						for (WorkTuple otherTuple : wordToTupleMap.values())
-							otherTuple.removeFromExplanations(currWord);
+						for (WorkTuple otherTuple : tuples)
+							otherTuple.removeFromExplanations(currSlot);
 
 						// Propagate eliminating explanation back to earlier node
-						//TODO what if backtrackCandidates ONLY contains currWord???? Something wrong here!!!
-						eliminatingExplanationParents.remove(currWord);
-//System.out.println("adding candidates to current workTuple explanations: in " + workTuple.word_);
-//for (GridWord gw : eliminatingExplanationParents)
-//	System.out.println(gw);
-//System.out.println("Calling addExplanationAndUndo from first site with " + eliminatingExplanationParents.size());						
+						//TODO what if backtrackCandidates ONLY contains currSlot???? Something wrong here!!!
+						eliminatingExplanationParents.clear(currSlot);
 						workTuple.addExplanationAndUndo(eliminatingExplanationParents);
 						// merge prev. backtrack explanations with this new backtrack explanations
-						eliminatingExplanationParents = workTuple.getExplainingGridwords();
-						for (GridWord crossingWord : wordToCrossingWordsMap.get(currWord))
-							if (crossingWord.isComplete())
-								eliminatingExplanationParents.add(crossingWord);
-//						tempStack.push(workTuple);
+						eliminatingExplanationParents = workTuple.getExplainingSlots();
+						eliminatingExplanationParents.or(solverGrid.getCompleteCrossings(currSlot));
 					} else {
-//System.out.println("currWord" + currWord + " is in backTrackCandidates");
 						// push tempStack contents back, leaving curr node at bottom
 						while (! tempStack.empty())
 							workStack.push(tempStack.pop());
 
-						for (WorkTuple otherTuple : wordToTupleMap.values())
-							otherTuple.removeFromExplanations(currWord);
+						for (WorkTuple otherTuple : tuples)
+							otherTuple.removeFromExplanations(currSlot);
 
 						// Propagate eliminating explanation back to earlier node
-						//TODO what if backtrackCandidates ONLY contains currWord???? Something wrong here!!!
-						eliminatingExplanationParents.remove(currWord);
-//System.out.println("adding candidates to current workTuple explanations: in " + workTuple.word_);
-//for (GridWord gw : eliminatingExplanationParents)
-//	System.out.println(gw);
-//System.out.println("Calling addExplanationAndUndo from 2nd site with " + eliminatingExplanationParents.size());						
+						//TODO what if backtrackCandidates ONLY contains currSlot???? Something wrong here!!!
+						eliminatingExplanationParents.clear(currSlot);
 						workTuple.addExplanationAndUndo(eliminatingExplanationParents);
+						stats.addBacktrack(backjumpDistance);
 						continue MAINLOOP;
 					}
 
@@ -229,30 +424,38 @@ MAINLOOP:
 						tempStack = workStack;
 						workStack = tempStackPtr;
 						++maxBreadth;
-System.out.println("Setting breadth to " + maxBreadth);
-						for (WorkTuple tuple : wordToTupleMap.values())
+						LOG.fine("Setting breadth to " + maxBreadth);
+						stats.setBreadth(maxBreadth);
+						for (WorkTuple tuple : tuples)
 							tuple.breadth = maxBreadth;
 					}
 				}
-//				continue BREADTHLOOP;
-//System.out.println("Bailing because I couldn't find anything matching: ");
-//for (GridWord cand : backtrackCandidates)
-//	System.out.println(cand);
-//				return false;				// We backtracked all the way out and couldn't find a solution
 			}
-//		}
 		}
 	}
 
+	// return snapshot of contents of all cells in grid, [row][column]
+	private String[][] getContents(Grid grid) {
+		String[][] retval = new String[grid.getHeight()][grid.getWidth()];
+		for (int row = 0; row < retval.length; ++row)
+			for (int col = 0; col < retval[row].length; ++col)
+				retval[row][col] = grid.getCellContents(row, col);
+		return retval;
+	}
+
 	// from specified words, populate wordsAlreadyInUse w/ completed words and return words to fill,
-	// or null if unable to auto-fill
-	private List<GridWord> getWordsToFill(Collection<GridWord> words, Set<String> wordsAlreadyInUse, Dictionary<char[], Word> dict) {
+	// adding words whose patterns no dictionary word matches to unsatisfiableWords
+	private List<GridWord> getWordsToFill(Collection<GridWord> words, Set<String> wordsAlreadyInUse, Dictionary<char[], Word> dict,
+			List<GridWord> unsatisfiableWords) {
 		List<GridWord> retval = new ArrayList<GridWord>();
 
 		for (GridWord word : words) {
 			if (word.isEligibleForAutofill()) {
-				if (! dict.isPatternInDictionary(word.getPattern()))
-					return null;						// cannot satisfy this word
+				stats.addPatternTestQuery();
+				RebusVocabulary.Matcher rebusMatcher = createRebusMatcher(word, dict);
+				if (rebusMatcher != null ? ! rebusMatcher.isPatternInDictionary(word.getPattern())
+						: ! dict.isPatternInDictionary(word.getPattern()))
+					unsatisfiableWords.add(word);		// cannot satisfy this word
 				retval.add(word);
 			} else if (word.isComplete()) {
 				wordsAlreadyInUse.add(word.getContents());
@@ -261,144 +464,198 @@ System.out.println("Setting breadth to " + maxBreadth);
 		return retval;
 	}
 
-	// return map of all blank intersections from across words to down words, and vice versa
-	private Map<GridWord, List<GridWord>> findIntersections(Collection<GridWord> acrossWords,
-			Collection<GridWord> downWords)
-	{
-		Map<GridWord, List<GridWord>> retval = new HashMap<GridWord, List<GridWord>>();
-		findIntersections(acrossWords, downWords, retval);
-		findIntersections(downWords, acrossWords, retval);
-		return retval;
+	// return matcher of patterns of word, if it has rebus cells, else null
+	private RebusVocabulary.Matcher createRebusMatcher(GridWord word, Dictionary<char[], Word> dict) {
+		if (! word.hasRebusCell())
+			return null;
+		Pair<Cell[], int[]> fillConfig = word.getFillConfig();
+		int numRebusCells = 0;
+		int[] rebusPositions = new int[fillConfig.first.length];
+		for (int k = 0; k < fillConfig.first.length; ++k)
+			if (fillConfig.first[k].isRebus())
+				rebusPositions[numRebusCells++] = fillConfig.second[k];
+		return rebusVocabulary.newMatcher(dict, Arrays.copyOf(rebusPositions, numRebusCells));
 	}
 
-	// populate map of words to perpendicular words intersecting with a blank
-	private void findIntersections(Collection<GridWord> fromWords, Collection<GridWord> toWords,
-			Map<GridWord, List<GridWord>> intersections)
-	{
-		for (GridWord fromWord : fromWords) {
-			List<GridWord> list = new ArrayList<GridWord>();
-			for (GridWord toWord : toWords) {
-				Cell intersection = fromWord.getIntersection(toWord);
-				if (intersection != null && intersection.isEligibleForAutofill())
-					list.add(toWord);
-			}
-			intersections.put(fromWord, list);
-		}
-	}
-
-
-	// return "cheapest" candidate to work next, the one with the fewest number of possibilities
-	private GridWord findCheapestCandidate(Map<GridWord, List<Pair<char[], Word>>> wordPossibilities, Map<GridWord, WorkTuple> wordToTupleMap) {
-		GridWord retval = null;
-		int lowestNumChoicesSoFar = Integer.MAX_VALUE;
-		for (Map.Entry<GridWord, List<Pair<char[], Word>>> entry : wordPossibilities.entrySet()) {
-			GridWord word = entry.getKey();
-			if (word.isComplete())
-				continue;
-			// Pull tuple from map and see how many possibilities it has
-			int size = wordToTupleMap.get(word).choices.size();
-			//				if (size == 0) {
-			//					// We would normally need to backtrack here, but since it's our initial foray, we conclude grid cannot be filled
-			////TODO fix this scenario
-			//System.out.println("Returning false because word has size 0: " + word + ", has " + workTuple.choices_.size() + " choices and " + workTuple.explanations_.size() + " explanations.");
-			//					return false;
-			//				}
-
-			if (size < lowestNumChoicesSoFar) {
-				lowestNumChoicesSoFar = size;
-				retval = word;
-			}
-		}
-		return retval;
-	}
-
-
 	private static class WorkTuple {
+		// slot number of word
+		public final int slot;
+
 		public final GridWord word;
 
-		public final Pair<Cell[], int[]> savedConfig;
+		// slot numbers of crossing words that need filling
+		public final int[] children;
 
-		public List<GridWord> children;
+		// indexes into wordTable of candidate words
+		private IntCircularList choices = new IntCircularList();
 
-		private CircularList<Pair<char[], Word>> choices = new CircularList<Pair<char[], Word>>();
+		// index into wordTable of word last chosen
+		private int lastChoice;
 
-		private Pair<char[], Word> lastChoice;
+		// letters of word being chosen, as solverGrid fills them in
+		private final char[] choiceLetters;
 		
 		// index into each member of children pattern, of intersection with word
-		private int[] childIndex;
+		private final int[] childIndex;
 
 		// index into word pattern, of intersection with each corr. member of children
-		private int[] parentIndex;
+		private final int[] parentIndex;
 
 		// pattern for this word
 		private char[] currPattern;
 
-		/** word-to-word crossings map */
-		private final Map<GridWord, List<GridWord>> wordToCrossingWordsMap;
+		/** letters filled in so far */
+		private final SolverGrid solverGrid;
 
 		// breadth -- max # of backtracks to allow before forcing further backtrack
 		private int breadth;
 
 		private final Dictionary<char[], Word> dict;
+
+		// candidate words, through a matcher of patterns of word if it has rebus cells
+		private final WordTable wordTable;
 		
-		// GridWord -> tuple map
-		private final Map<GridWord, WorkTuple> wordToTupleMap;
+		// tuples, indexed by slot number
+		private final WorkTuple[] tuples;
 		
-		// individual explanations
-		private Map<char[], Pair<Pair<char[], Word>, Set<GridWord>>> explanations = new HashMap<char[], Pair<Pair<char[], Word>, Set<GridWord>>>();
+		// individual explanations: indexes of choices eliminated, and [index] = set of slots responsible for
+		// eliminating choice, or null if it's not eliminated, grown as needed
+		private final BitSet explainedChoices = new BitSet();
+		private BitSet[] explainingSlots = new BitSet[16];
 		
-		// Cell -> crossing word map
-		private Map<Cell, GridWord> cellToCrossingWordMap = new HashMap<Cell, GridWord>();
+		// cell numbers of cells of word eligible for autofill
+		private final int[] slotCells;
+
+		// index into word pattern of each of slotCells
+		private final int[] slotCellPositions;
+
+		// slot number of crossing word for each of slotCells, or -1 if none
+		private final int[] slotCellCrossingSlots;
+
+		// pattern for word when autofill started, with _ at each of slotCells
+		private final char[] initialPattern;
+
+		// order in which choices are tried
+		private final ChoiceOrder choiceOrder;
+
+		// pseudo-random number generator used for RANDOM choice order
+		private final Random random;
+
+		// words not yet complete, keyed by number of choices per failure
+		private final IndexedHeap openSlots;
 
-		public WorkTuple(GridWord word, List<Pair<char[], Word>> matches, Dictionary<char[], Word> dict,
-				Map<GridWord, List<GridWord>> wordToCrossingWordsMap, int breadth, Map<GridWord, WorkTuple> wordToTupleMap)
+		// number of times word has failed, i.e., had no choices left, plus 1
+		private int weight = 1;
+
+		// statistics of running fill
+		private final AutoFillStats stats;
+
+		public WorkTuple(int slot, SolverModel model, SolverGrid solverGrid, int[] matches,
+				Dictionary<char[], Word> dict, WordTable wordTable, int breadth, WorkTuple[] tuples,
+				ChoiceOrder choiceOrder, Random random, IndexedHeap openSlots, AutoFillStats stats)
 		{
-			this.word = word;
-			this.savedConfig = word.getFillConfig();
-			this.choices.addAll(matches);
-			this.wordToCrossingWordsMap = wordToCrossingWordsMap;
+			this.slot = slot;
+			this.word = model.getWord(slot);
+			this.solverGrid = solverGrid;
+			this.choiceOrder = choiceOrder;
+			this.random = random;
+			this.openSlots = openSlots;
+			this.stats = stats;
+			this.wordTable = wordTable;
+			setChoices(matches);
 			this.breadth = breadth;
 			this.dict = dict;
-			this.wordToTupleMap = wordToTupleMap;
-			
-			// get list of only the children that need filling
-			List<GridWord> allChildren = wordToCrossingWordsMap.get(this.word);
-			this.children = new ArrayList<GridWord>(allChildren.size());
-			for (GridWord child : allChildren)
-				if (! child.isComplete())
-					children.add(child);
-
-			this.currPattern = copyCharArray(this.word.getPattern());
-			// for each child, store index in child of intersection with our word, and index in our word
-			// This makes the intelligent instantiation much faster, by having child patterns and index into places
-			// to change in the patterns all ready to go.
-			this.childIndex = new int[children.size()];
-			this.parentIndex = new int[children.size()];
-//			childPatterns_ = new char[children_.size()][];
-			for (int i = 0; i < children.size(); ++i) {
-				GridWord child = children.get(i);
-				Cell intersection = child.getIntersection(this.word);
-				childIndex[i] = child.indexOfCellInPattern(intersection);
-				parentIndex[i] = this.word.indexOfCellInPattern(intersection);
-//				childPatterns_[i] = copyCharArray(child.getPattern());
+			this.tuples = tuples;
+			this.slotCells = model.getSlotCells(slot);
+			this.slotCellPositions = model.getSlotCellPositions(slot);
+			this.slotCellCrossingSlots = new int[slotCells.length];
+			for (int k = 0; k < slotCells.length; ++k) {
+				slotCellCrossingSlots[k] = -1;
+				for (int cellSlot : model.getCellSlots(slotCells[k]))
+					if (cellSlot != slot)
+						slotCellCrossingSlots[k] = cellSlot;
 			}
 
-			// build map of Cell -> crossing word
-			for (GridWord crossingWord : this.wordToCrossingWordsMap.get(this.word))
-				cellToCrossingWordMap.put(this.word.getIntersection(crossingWord), crossingWord);
+			// All crossings are at blank cells, so all crossing words need filling.
+			// For each child, store index in child of intersection with our word, and index in our word
+			// This makes the intelligent instantiation much faster, by having child patterns and index into places
+			// to change in the patterns all ready to go.
+			this.children = model.getCrossingSlots(slot);
+			this.childIndex = model.getCrossingOtherPositions(slot);
+			this.parentIndex = model.getCrossingPositions(slot);
+			this.initialPattern = copyCharArray(this.word.getPattern());
+			this.currPattern = copyCharArray(initialPattern);
+			this.choiceLetters = new char[initialPattern.length];
 		}
 
 		/** Set (copies) pattern and its matches to the specified values */
-		public void setPattern(char[] pattern, List<Pair<char[], Word>> matches) {
-			// if pattern matches currPattern, then we can leave choices alone
-			if (copyAndCompare(pattern, currPattern))
-				return;
-			choices = new CircularList<Pair<char[], Word>>();
+		public void setPattern(char[] pattern, int[] matches) {
+			// if pattern matches currPattern, then we can leave choices alone, though word may now be complete
+			boolean unchanged = copyAndCompare(pattern, currPattern);
+			stats.addCacheLookup(unchanged);
+			if (unchanged)
+				updateOpenSlots();
+			else
+				setChoices(matches);
+		}
+
+		// add word to, update, or remove it from openSlots, after its choices or completeness may have changed
+		private void updateOpenSlots() {
+			if (solverGrid.isComplete(slot))
+				openSlots.remove(slot);
+			else
+				openSlots.put(slot, (double)choices.size() / weight);
+		}
 
-			Set<char[]> explanationKeys = explanations.keySet();
-			for (Pair<char[], Word> match : matches)
-				if (! explanationKeys.contains(match.first))
+		// record failure of word, making it cheaper to work next
+		private void addFailure() {
+			++weight;
+			if (openSlots.contains(slot))
+				openSlots.put(slot, (double)choices.size() / weight);
+		}
+
+		// replace choices with the specified matches, in configured order, excluding choices in explanations.
+		// Matches are reordered in place
+		private void setChoices(int[] matches) {
+			if (choiceOrder == ChoiceOrder.RANDOM)
+				shuffle(matches);
+			else if (choiceOrder != ChoiceOrder.DICTIONARY)
+				sortByScore(matches);
+			choices = new IntCircularList(matches.length);
+			for (int match : matches)
+				if (! isExplained(match))
 					choices.add(match);
+			updateOpenSlots();
+		}
+
+		// shuffle matches, as Collections.shuffle would a list of them
+		private void shuffle(int[] matches) {
+			for (int i = matches.length; i > 1; --i) {
+				int j = random.nextInt(i);
+				int temp = matches[i - 1];
+				matches[i - 1] = matches[j];
+				matches[j] = temp;
+			}
+		}
+
+		// sort matches highest score first, keeping the order of those scoring the same
+		private void sortByScore(int[] matches) {
+			final int[] scores = new int[matches.length];
+			Integer[] order = new Integer[matches.length];
+			for (int k = 0; k < matches.length; ++k) {
+				scores[k] = wordTable.getEntry(matches[k]).getScore();
+				order[k] = k;
+			}
+			Arrays.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer o1, Integer o2) {
+					return scores[o1] > scores[o2] ? -1 : scores[o1] < scores[o2] ? 1 : 0;
+				}
+			});
+			int[] sorted = new int[matches.length];
+			for (int k = 0; k < matches.length; ++k)
+				sorted[k] = matches[order[k]];
+			System.arraycopy(sorted, 0, matches, 0, matches.length);
 		}
 
 		public boolean canBackTrack() {
@@ -410,77 +667,117 @@ System.out.println("Setting breadth to " + maxBreadth);
 		// then include all the full words each of those 0-choice
 		// intersecting words intersects with too
 		public boolean getBestChoiceOrRollback() {
+			if (choiceOrder == ChoiceOrder.LEAST_CONSTRAINING)
+				orderLeastConstrainingFirst();
 			int choicesChecked = 0;
 			int choicesSize = choices.size();
-			char[][] childPatterns = new char[children.size()][];
+			char[][] childPatterns = new char[children.length][];
 
 			// Update childPatterns. NOTE we copy so we don't mutate child's pattern
 			//TODO If child is a fully-formed word, we don't want to destroy it here!
 			//TODO figure out which children intersection cells can be written and which must not, and thereby figure out our pattern here
-			for (int i = 0; i < children.size(); ++i) {
-//				char[] childPat = wordToTupleMap_.get(children_.get(i)).currPattern_;
-				char[] childPat = wordToTupleMap.get(children.get(i)).computePattern();
-				childPatterns[i] = childPat;
-//System.out.println("Child " + i + " currPattern_ = " + new String(childPat) + " vs getPattern() = " + new String(patCopy) + " vs GridWord.getPattern " + new String(children_.get(i).getPattern()));
-//childPat = patCopy;
-//				for (int j = 0; j < childPat.length; ++j)
-//					childPatterns_[i][j] = childPat[j];
-			}
+			for (int i = 0; i < children.length; ++i)
+				childPatterns[i] = tuples[children[i]].computePattern();
 			
-			List<Pair<char[], Word>>[] childMatches = new List[childPatterns.length];
+			int[][] childMatches = new int[childPatterns.length][];
 			// get next choice
-			Set<char[]> explanationKeys = explanations.keySet();
 CHOICELOOP:	while (choicesChecked++ < choicesSize) {
-				Pair<char[], Word> choice = choices.getNext();
-				char[] choiceWord = choice.first;
-				// Check and see if this choiceWord has been eliminated
-				if (explanationKeys.contains(choiceWord))
+				int choice = choices.getNext();
+				// Check and see if this choice has been eliminated
+				if (isExplained(choice))
 					continue;
 
 				// Now check all its children
 				for (int i = 0; i < childPatterns.length; ++i) {
 					char[] pattern = childPatterns[i];
-					pattern[childIndex[i]] = choiceWord[parentIndex[i]];
-					childMatches[i] = dict.getPatternMatches(pattern);
-					if (childMatches[i].size() == 0) {
-						addChildExplanation(choice, children.get(i));
+					pattern[childIndex[i]] = wordTable.getLetter(choice, parentIndex[i]);
+					childMatches[i] = tuples[children[i]].getPatternMatches(pattern);
+					stats.addPatternMatchQuery();
+					if (childMatches[i].length == 0) {
+						tuples[children[i]].addFailure();
+						addChildExplanation(choice, children[i]);
 						continue CHOICELOOP;
 					}
 				}
-//System.out.println("Setting contents " + new String(choiceWord));
 				// Put best word in and update candidates for all its intersecting words, then loop back for next cheapest word choice
-				word.setAutofillContents(choiceWord, savedConfig);
+				wordTable.copyWord(choice, choiceLetters);
+				solverGrid.setWord(slot, choiceLetters);
 				
 				// Update all children's patterns and matches
-				for (int i = 0; i < children.size(); ++i) {
-					GridWord child = children.get(i);
-					WorkTuple childTuple = wordToTupleMap.get(child);
-//System.out.println("Child has " + new String(childTuple.word_.getPattern()) + ", overriding with pattern " + new String(childPatterns_[i]));					
+				for (int i = 0; i < children.length; ++i) {
+					WorkTuple childTuple = tuples[children[i]];
 					childTuple.setPattern(childPatterns[i], childMatches[i]);
 					
 					if (childTuple.choices.size() == 0) {
-//System.out.println("ChildTuple.choices_.size() == 0!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!1");						
 						//TODO need to rollback prev. work here!!!
-						addChildExplanation(choice, child);
+						childTuple.addFailure();
+						addChildExplanation(choice, children[i]);
 						continue CHOICELOOP;
 					}
 				}
 				lastChoice = choice;
-//System.out.println("returning true");				
+				openSlots.remove(slot);
 				return true;
 			}
 
 			// backtrack: undo this word, restore arc consistency of neighbors
-//System.out.println("undo, return false");
+			++weight;
 			undoWord();
 			return false;
 		}
 
-		public void addExplanationAndUndo(Set<GridWord> gridWords) {
+		// rebuild choices, starting from the next choice, so those leaving crossing words the most choices come first
+		private void orderLeastConstrainingFirst() {
+			int choicesSize = choices.size();
+			if (choicesSize < 2)
+				return;
+			Alphabet alphabet = dict.getAlphabet();
+			int[][] childLetterCounts = new int[children.length][];
+			for (int i = 0; i < children.length; ++i)
+				childLetterCounts[i] = tuples[children[i]].countChoiceLetters(childIndex[i], alphabet);
+
+			// Score each choice by the product of the crossing words' choices agreeing with it
+			int[] choiceList = new int[choicesSize];
+			final double[] scores = new double[choicesSize];
+			Integer[] order = new Integer[choicesSize];
+			for (int k = 0; k < choicesSize; ++k) {
+				int choice = choices.getNext();
+				double score = 1.0;
+				for (int i = 0; i < children.length; ++i) {
+					int code = alphabet.encode(wordTable.getLetter(choice, parentIndex[i]));
+					if (code >= 0)
+						score *= childLetterCounts[i][code];
+				}
+				choiceList[k] = choice;
+				scores[k] = score;
+				order[k] = k;
+			}
+			Arrays.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer o1, Integer o2) {
+					return Double.compare(scores[o2], scores[o1]);
+				}
+			});
+			choices = new IntCircularList(choicesSize);
+			for (Integer k : order)
+				choices.add(choiceList[k]);
+		}
+
+		// return number of choices having each letter of alphabet, by code, at specified index into pattern
+		private int[] countChoiceLetters(int index, Alphabet alphabet) {
+			int[] retval = new int[alphabet.size()];
+			int choicesSize = choices.size();
+			for (int k = 0; k < choicesSize; ++k) {
+				int code = alphabet.encode(wordTable.getLetter(choices.getNext(), index));
+				if (code >= 0)
+					++retval[code];
+			}
+			return retval;
+		}
+
+		public void addExplanationAndUndo(BitSet slots) {
 			// Not checking for existing explanation here because there shouldn't be one yet
-			Pair<Pair<char[], Word>, Set<GridWord>> explanation =
-				new Pair<Pair<char[], Word>, Set<GridWord>>(lastChoice, new HashSet<GridWord>(gridWords));
-			explanations.put(lastChoice.first, explanation);
+			addExplanation(lastChoice, (BitSet)slots.clone());
 
 			// Remove the most recent choice from choices, and undo
 			choices.deletePrev();
@@ -491,94 +788,100 @@ CHOICELOOP:	while (choicesChecked++ < choicesSize) {
 		}
 
 		/**
-		 * @return explainingGridwords, all GridWord involved in explanations
+		 * @return explaining slots, all slots involved in explanations, as a new BitSet
 		 */
-		public Set<GridWord> getExplainingGridwords() {
-			Set<GridWord> retval = new HashSet<GridWord>();
-			for (Pair<Pair<char[], Word>, Set<GridWord>> value : explanations.values())
-				retval.addAll(value.second);
+		public BitSet getExplainingSlots() {
+			BitSet retval = new BitSet(tuples.length);
+			for (int choice = explainedChoices.nextSetBit(0); choice >= 0; choice = explainedChoices.nextSetBit(choice + 1))
+				retval.or(explainingSlots[choice]);
 			return retval;
 		}
 
-		private void addChildExplanation(Pair<char[], Word> choice, GridWord child) {
-			char[] choiceWord = choice.first;
-			// add explanation with child's cross words, and delete choice
-			Set<GridWord> eliminatingExplanation = new HashSet<GridWord>();
-			for (GridWord crossingWord : wordToCrossingWordsMap.get(child))
-				if (crossingWord != word && crossingWord.isComplete())
-					eliminatingExplanation.add(crossingWord);
-			explanations.put(choiceWord,
-					new Pair<Pair<char[], Word>, Set<GridWord>>(choice, eliminatingExplanation));
+		private void addChildExplanation(int choice, int childSlot) {
+			// add explanation with child's complete cross words, other than this one, and delete choice
+			BitSet eliminatingExplanation = solverGrid.getCompleteCrossings(childSlot);
+			eliminatingExplanation.clear(slot);
+			addExplanation(choice, eliminatingExplanation);
 			choices.deletePrev();
 		}
+
+		// record explanation of elimination of choice, by the specified slots
+		private void addExplanation(int choice, BitSet slots) {
+			if (choice >= explainingSlots.length)
+				explainingSlots = Arrays.copyOf(explainingSlots, Math.max(choice + 1, explainingSlots.length * 2));
+			explainingSlots[choice] = slots;
+			explainedChoices.set(choice);
+		}
 		
-		// Remove all explanations associated with specified gridWord.
-		private void removeFromExplanations(GridWord gridWord) {
-			char[] currPattern = computePattern();
-			for (Iterator<Map.Entry<char[], Pair<Pair<char[], Word>, Set<GridWord>>>> it = explanations.entrySet().iterator(); it.hasNext(); ) {
-				Map.Entry<char[], Pair<Pair<char[], Word>, Set<GridWord>>> entry = it.next();
-				Pair<Pair<char[], Word>, Set<GridWord>> value = entry.getValue();
-				if (value.second.contains(gridWord)) {
-					it.remove();
+		// return whether word, by index, has been eliminated by an explanation
+		private boolean isExplained(int choice) {
+			return explainedChoices.get(choice);
+		}
+
+		// Remove all explanations associated with specified slot.
+		private void removeFromExplanations(int explainingSlot) {
+			char[] currPattern = explainedChoices.isEmpty() ? null : computePattern();
+			for (int choice = explainedChoices.nextSetBit(0); choice >= 0; choice = explainedChoices.nextSetBit(choice + 1)) {
+				if (explainingSlots[choice].get(explainingSlot)) {
+					explainedChoices.clear(choice);
+					explainingSlots[choice] = null;
 					// Only add back to choices if it conforms to current pattern
-					if (conformsToPattern(value.first.first, currPattern))
-						choices.add(value.first);
+					if (conformsToPattern(choice, currPattern))
+						choices.add(choice);
 				}
 			}
+			if (openSlots.contains(slot))
+				openSlots.put(slot, (double)choices.size() / weight);
 		}
 		
-		// return whether specified value matches pattern_, expected to be of same length
-		private boolean conformsToPattern(char[] value) {
-			return conformsToPattern(value, currPattern);
-		}
-
-		// return whether specified value matches specified pattern, expected to be of same length (therefor length not checked here)
-		private boolean conformsToPattern(char[] value, char[] pattern) {
+		// return whether word, by index, matches specified pattern, expected to be of same length (therefor length not checked here)
+		private boolean conformsToPattern(int choice, char[] pattern) {
 			for (int i = 0; i < pattern.length; ++i)
-				if (pattern[i] != '_' && pattern[i] != value[i])
+				if (pattern[i] != '_' && pattern[i] != wordTable.getLetter(choice, i))
 					return false;
 			return true;
 		}
 
 		// clear chars from word, except those involved in complete cross words, reset affected child's patterns
 		private void undoWord() {
-			for (Cell cell : word.getCells()) {
-				GridWord crossWord = cellToCrossingWordMap.get(cell);
-				if (! crossWord.isComplete()) {
+			// Only cells that were empty when autofill started are candidates for clearing
+			for (int k = 0; k < slotCells.length; ++k) {
+				int crossSlot = slotCellCrossingSlots[k];
+				if (crossSlot < 0) {
+					// unchecked cell, belonging to this word alone
+					solverGrid.setLetter(slotCells[k], SolverGrid.EMPTY);
+				} else if (! solverGrid.isComplete(crossSlot)) {
 					// Clear cell, reset child pattern and matches
-					cell.setEmpty();
-					wordToTupleMap.get(crossWord).resetPattern();
+					solverGrid.setLetter(slotCells[k], SolverGrid.EMPTY);
+					tuples[crossSlot].resetPattern();
 				}
 			}
-//			currPattern_ = computePattern();
+			updateOpenSlots();
 		}
 
 		// reset currPattern and choices, excluding choices in explanations
 		public void resetPattern() {
-			choices = new CircularList<Pair<char[], Word>>();
 			currPattern = computePattern();
+			setChoices(getPatternMatches(currPattern));
+			stats.addPatternMatchQuery();
+		}
 
-			// exclude anything in an explanation
-			Set<char[]> explanationKeys = explanations.keySet();
-			for (Pair<char[], Word> match : dict.getPatternMatches(currPattern))
-				if (! explanationKeys.contains(match.first))
-					choices.add(match);
+		// return new array of indexes into wordTable of words matching specified pattern for word
+		private int[] getPatternMatches(char[] pattern) {
+			return wordTable.getPatternMatches(pattern);
 		}
 
 		// return pattern for word, taking into account which intersecting words
 		// are completed. Assumes pattern length will not change. Returns new array
 		private char[] computePattern() {
-			char[] retval = new char[currPattern.length];
-			int index = 0;
-			for (Cell cell : word.getCells()) {
+			char[] retval = copyCharArray(initialPattern);
+			for (int k = 0; k < slotCells.length; ++k) {
 				//TODO Is it right to allow autofill on already filled cells here,
 				// merely because the crossing word is incomplete??
-				if (cell.isEligibleForAutofill() || ! cellToCrossingWordMap.get(cell).isComplete()) {
-					retval[index++] = '_';
-				} else {
-					cell.appendContents(retval, index);
-					index += cell.getContentsSize();
-				}
+				int crossSlot = slotCellCrossingSlots[k];
+				char letter = solverGrid.getLetter(slotCells[k]);
+				if (letter != SolverGrid.EMPTY && crossSlot >= 0 && solverGrid.isComplete(crossSlot))
+					retval[slotCellPositions[k]] = letter;
 			}
 			return retval;
 		}
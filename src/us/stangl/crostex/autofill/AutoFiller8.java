@@ -0,0 +1,1721 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import us.stangl.crostex.Cell;
+import us.stangl.crostex.Grid;
+import us.stangl.crostex.GridWord;
+import us.stangl.crostex.Word;
+import us.stangl.crostex.dictionary.Alphabet;
+import us.stangl.crostex.dictionary.Dictionary;
+import us.stangl.crostex.dictionary.IndexedDictionary;
+import us.stangl.crostex.util.Pair;
+
+/**
+ * 8th generation implementation of auto-fill algorithm.
+ * Each word's domain is a bitset over the dictionary indexes of words of its length, and each cell's
+ * domain is a bit mask of the letters still possible there. Constraint propagation is AC-3 over the
+ * crossings: a cell's mask shrinks to the letters supported by both words containing it, and each word's
+ * domain shrinks to the words having an allowed letter in each cell, by and-ing with per-position
+ * letter postings. Search is depth-first, on the word with the smallest domain, with conflict-directed
+ * backjumping: every domain reduction records the set of decisions it depends on, so a failed subtree
+ * yields the set of decisions responsible, and search backs up directly to the latest of them.
+ * Each such conflict is also learned as a nogood, so the same combination of words is never tried again.
+ * Words are tried in pseudo-random order, and search restarts after a number of failures following the
+ * Luby sequence, keeping the nogoods learned, which cuts the long tail of run times on hard grids.
+ * autoFillBest instead searches for the fill with the best score, by branch and bound, tightening the
+ * bound with each better fill found, which it reports as found, so it can be stopped at any time.
+ * enumerateRegionFills keeps searching after each fill, reporting each distinct one.
+ * autoFill and autoFillRegion first split the words to fill into independent groups, which share no
+ * empty cells, and fill the groups in parallel, stopping them all as soon as any one is found to have no fill.
+ * A group held together by a single word is split by
+ * trying a few candidates for that word, filling the groups either side of it for each.
+ * Nothing is written to the grid until every group is filled, and then only by the thread that called autoFill.
+ * A group not filled within a few thousand search nodes is split into one subproblem per candidate of its
+ * most constrained word, which are searched in parallel, sharing the nogoods learned.
+ * Requires an IndexedDictionary, falling back to AutoFiller7 for other dictionaries.
+ * Rebus cells are not filled by AutoFiller8 itself; given rebus strings, by setRebusStrings, grids having
+ * rebus cells to fill are filled by AutoFiller7 instead.
+ * @author Alex Stangl
+ */
+public class AutoFiller8 implements AutoFillGrid, AutoFillRegion {
+	/** default maximum number of search nodes to expand before giving up, over all restarts */
+	public static final int DEFAULT_MAX_NODES = 1000000;
+
+	/** default maximum number of milliseconds to search before giving up */
+	public static final long DEFAULT_MAX_MILLIS = 60000L;
+
+	/** number of failures in the unit search of the restart schedule, which is multiplied by the Luby sequence */
+	private static final int RESTART_UNIT = 1000;
+
+	/** number of search nodes between checks of the clock */
+	private static final int CLOCK_CHECK_INTERVAL = 256;
+
+	/** logger */
+	private static final Logger LOG = Logger.getLogger(AutoFiller8.class.getName());
+
+	/** minimum number of words either side of a cut word, for splitting a group of words at it to be worthwhile */
+	private static final int MIN_WORDS_PER_SPLIT = 4;
+
+	/** minimum fraction of a group's words on each side of a cut word, for splitting the group at it to be worthwhile */
+	private static final double MIN_FRACTION_PER_SPLIT = 0.25;
+
+	/** maximum number of candidates for a cut word to try, before filling its group of words as a whole */
+	private static final int MAX_CUT_CANDIDATES = 20;
+
+	/** maximum number of letters in a cell mask to filter by postings; masks with more are applied by scanning */
+	private static final int MAX_LETTERS_FOR_POSTINGS_FILTER = 4;
+
+	/** default number of search nodes a group of words is searched for before splitting its search between processors */
+	private static final int PARALLEL_SEARCH_NODES = 5000;
+
+	/** maximum number of assignments in a nogood for it to be shared between parallel searches */
+	private static final int MAX_SHARED_NOGOOD_SIZE = 8;
+
+	/** initial number of changes the undo trail of a search can hold; it grows as needed */
+	private static final int INITIAL_TRAIL_CAPACITY = 4096;
+
+	/** kinds of search state changed, as recorded in the undo trail, in its low TRAIL_KIND_BITS bits */
+	private static final int TRAIL_DOMAIN = 0;
+	private static final int TRAIL_DOMAIN_SIZE = 1;
+	private static final int TRAIL_CELL_MASK = 2;
+	private static final int TRAIL_LAST_MASK = 3;
+	private static final int TRAIL_REASONS = 4;
+	private static final int TRAIL_BEST_POSITION = 5;
+	private static final int TRAIL_KIND_BITS = 3;
+	private static final int TRAIL_KIND_MASK = (1 << TRAIL_KIND_BITS) - 1;
+
+	/**
+	 * Score of a fill to maximize, computed from the scores of the words filled.
+	 * Words already complete before the fill are not counted.
+	 */
+	public enum ScoreObjective {
+		/** sum of scores of words filled */
+		TOTAL,
+		/** score of lowest-scoring word filled */
+		MINIMUM
+	}
+
+	/** seed for pseudo-random number generator used to order words tried */
+	private final long seed;
+
+	/** maximum number of search nodes to expand before giving up, over all searches of a fill */
+	private final int maxNodes;
+
+	/** maximum number of milliseconds to search before giving up, or 0 for no limit */
+	private final long maxMillis;
+
+	/** number of processors to fill in parallel on */
+	private final int numProcessors;
+
+	/** number of search nodes a group of words is searched for before splitting its search between processors */
+	private final int parallelSearchNodes;
+
+	/** number of searches split between processors so far, for testing */
+	private final AtomicInteger numParallelSearches = new AtomicInteger();
+
+	/** number of nogoods passed from searches of groups to the parallel searches they were split into, for testing */
+	private final AtomicInteger numInheritedNogoods = new AtomicInteger();
+
+	/** strings allowed in rebus cells, used by AutoFiller7 to fill grids having rebus cells */
+	private List<String> rebusStrings = Collections.<String>emptyList();
+
+	/** numbers of decisions jumped back over, restarts, and cut word candidates tried so far, for testing */
+	private final AtomicInteger numBackjumps = new AtomicInteger();
+	private final AtomicInteger numRestarts = new AtomicInteger();
+	private final AtomicInteger numCutSplits = new AtomicInteger();
+
+	/**
+	 * Constructor for AutoFiller8 using default seed and search budget.
+	 */
+	public AutoFiller8() {
+		this(0L, DEFAULT_MAX_NODES, DEFAULT_MAX_MILLIS);
+	}
+
+	/**
+	 * Constructor for AutoFiller8.
+	 * @param seed seed for pseudo-random number generator used to order words tried
+	 * @param maxNodes maximum number of search nodes to expand before giving up, over all restarts, and over
+	 * all the searches of the groups, cut word candidates and parallel workers of a fill, counted
+	 * every few hundred nodes, so a parallel fill may overrun it slightly
+	 * @param maxMillis maximum number of milliseconds to search before giving up, or 0 for no limit
+	 */
+	public AutoFiller8(long seed, int maxNodes, long maxMillis) {
+		this(seed, maxNodes, maxMillis, Runtime.getRuntime().availableProcessors(), PARALLEL_SEARCH_NODES);
+	}
+
+	/**
+	 * Constructor for AutoFiller8, for testing, with number of processors and parallel search threshold specified.
+	 * @param seed seed for pseudo-random number generator used to order words tried
+	 * @param maxNodes maximum number of search nodes to expand before giving up
+	 * @param maxMillis maximum number of milliseconds to search before giving up, or 0 for no limit
+	 * @param numProcessors number of processors to fill in parallel on
+	 * @param parallelSearchNodes number of search nodes a group of words is searched for before splitting its
+	 * search between processors
+	 */
+	AutoFiller8(long seed, int maxNodes, long maxMillis, int numProcessors, int parallelSearchNodes) {
+		this.seed = seed;
+		this.maxNodes = maxNodes;
+		this.maxMillis = maxMillis;
+		this.numProcessors = numProcessors;
+		this.parallelSearchNodes = parallelSearchNodes;
+	}
+
+	/**
+	 * Set strings allowed in cells marked as rebus cells, each of which is filled with one of them.
+	 * Grids having rebus cells to fill are then filled by an AutoFiller7 using them.
+	 * Without any, words having rebus cells can't be filled.
+	 * @param rebusStrings strings allowed in rebus cells, e.g., "HEART", each at least 1 character long
+	 * @throws IllegalArgumentException if any string is empty, or there are too many
+	 */
+	public void setRebusStrings(Collection<String> rebusStrings) {
+		new RebusVocabulary(rebusStrings);		// check strings now, rather than when filling
+		this.rebusStrings = new ArrayList<String>(rebusStrings);
+	}
+
+	@Override
+	public boolean autoFill(Grid grid, Dictionary<char[], Word> dict) {
+		List<GridWord> acrossWords = grid.getAcrossWords();
+		List<GridWord> downWords = grid.getDownWords();
+		if (isForAutoFiller7(dict, acrossWords, downWords))
+			return newAutoFiller7().autoFill(grid, dict);
+		return fillInParallel(grid, (IndexedDictionary<Word>)dict, acrossWords, downWords);
+	}
+
+	@Override
+	public boolean autoFillRegion(Grid grid, Dictionary<char[], Word> dict) {
+		GridRegion region = new GridRegion(grid);
+		List<GridWord> acrossWords = region.intersectWords(grid.getAcrossWords());
+		List<GridWord> downWords = region.intersectWords(grid.getDownWords());
+		if (isForAutoFiller7(dict, acrossWords, downWords))
+			return newAutoFiller7().autoFillRegion(grid, dict);
+		if (region.isEmpty())
+			return true;
+		return fillInParallel(grid, (IndexedDictionary<Word>)dict, acrossWords, downWords);
+	}
+
+	@Override
+	public int enumerateRegionFills(Grid grid, Dictionary<char[], Word> dict, FillOrder order,
+			AutoFillSolutionListener listener) {
+		GridRegion region = new GridRegion(grid);
+		List<GridWord> acrossWords = region.intersectWords(grid.getAcrossWords());
+		List<GridWord> downWords = region.intersectWords(grid.getDownWords());
+		if (isForAutoFiller7(dict, acrossWords, downWords))
+			return newAutoFiller7().enumerateRegionFills(grid, dict, order, listener);
+		if (region.isEmpty())
+			return 0;
+		Search search = createSearch(grid, dict, acrossWords, downWords, null, order == FillOrder.BEST_FIRST, listener,
+				getDeadline());
+		if (search == null)
+			return 0;
+		search.enumerate();
+		return search.numFillsReported;
+	}
+
+	/**
+	 * Attempt to fill grid with the best-scoring fill, according to the scores of the dictionary's words.
+	 * Searches until the best fill is proven, the search budget runs out, or listener says to stop,
+	 * then fills grid with the best fill found, if any.
+	 * Each fill found scores better than the last, and is reported to listener as found.
+	 * For a dictionary other than an IndexedDictionary, just fills grid, without regard to scores.
+	 * @param grid grid to fill
+	 * @param dict dictionary to use
+	 * @param objective score of fill to maximize
+	 * @param listener listener to report each better fill to, as found, or null for none
+	 * @return true if grid was filled
+	 */
+	public boolean autoFillBest(Grid grid, Dictionary<char[], Word> dict, ScoreObjective objective,
+			AutoFillSolutionListener listener) {
+		List<GridWord> acrossWords = grid.getAcrossWords();
+		List<GridWord> downWords = grid.getDownWords();
+		if (isForAutoFiller7(dict, acrossWords, downWords))
+			return newAutoFiller7().autoFill(grid, dict);
+		Search search = createSearch(grid, dict, acrossWords, downWords, objective, true, listener, getDeadline());
+		return search != null && search.fill();
+	}
+
+	// return whether words are to be filled by AutoFiller7: those of a dictionary other than an IndexedDictionary,
+	// or words having rebus cells, given rebus strings to fill them with
+	private boolean isForAutoFiller7(Dictionary<char[], Word> dict, List<GridWord> acrossWords, List<GridWord> downWords) {
+		return ! (dict instanceof IndexedDictionary) || (! rebusStrings.isEmpty()
+				&& (RebusVocabulary.hasRebusCell(acrossWords) || RebusVocabulary.hasRebusCell(downWords)));
+	}
+
+	// return new AutoFiller7, using rebus strings
+	private AutoFiller7 newAutoFiller7() {
+		AutoFiller7 retval = new AutoFiller7();
+		retval.setRebusStrings(rebusStrings);
+		return retval;
+	}
+
+	// return search to fill specified words, or null if any of them cannot be satisfied
+	private Search createSearch(Grid grid, Dictionary<char[], Word> dict, List<GridWord> acrossWords, List<GridWord> downWords,
+			ScoreObjective objective, boolean bestFirst, AutoFillSolutionListener listener, long deadline) {
+		List<GridWord> wordsToFill = new ArrayList<GridWord>();
+		if (! getWordsToFill(acrossWords, dict, wordsToFill) || ! getWordsToFill(downWords, dict, wordsToFill))
+			return null;			// at least one word pattern could not be satisfied by auto-fill
+		SolverModel model = new SolverModel(grid.getCrossingGraph(), wordsToFill);
+		return new Search(grid, model, (IndexedDictionary<Word>)dict, objective, bestFirst, listener, deadline);
+	}
+
+	// return time at which to give up a search starting now, in milliseconds
+	private long getDeadline() {
+		return maxMillis > 0 ? System.currentTimeMillis() + maxMillis : Long.MAX_VALUE;
+	}
+
+	// fill specified words, filling independent groups of them in parallel, returning whether all were filled
+	private boolean fillInParallel(Grid grid, IndexedDictionary<Word> dict, List<GridWord> acrossWords, List<GridWord> downWords) {
+		List<GridWord> wordsToFill = new ArrayList<GridWord>();
+		if (! getWordsToFill(acrossWords, dict, wordsToFill) || ! getWordsToFill(downWords, dict, wordsToFill))
+			return false;			// at least one word pattern could not be satisfied by auto-fill
+		SolverModel model = new SolverModel(grid.getCrossingGraph(), wordsToFill);
+		ExecutorService executor = Executors.newCachedThreadPool();
+		List<Pair<GridWord, char[]>> fill;
+		try {
+			fill = findComponentFills(grid, dict, model, new char[model.getCrossingGraph().getNumCells()], executor,
+					new Semaphore(Math.max(0, numProcessors - 1)), getDeadline(), new AtomicInteger());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} finally {
+			executor.shutdownNow();
+		}
+		if (fill == null)
+			return false;
+
+		// Every group is filled, and no search is still running, so write fill to grid
+		List<Pair<Cell[], int[]>> fillConfigs = new ArrayList<Pair<Cell[], int[]>>(fill.size());
+		for (Pair<GridWord, char[]> wordFill : fill)
+			fillConfigs.add(wordFill.first.getFillConfig());
+		for (int i = 0; i < fill.size(); ++i)
+			fill.get(i).first.setAutofillContents(fill.get(i).second, fillConfigs.get(i));
+		return true;
+	}
+
+	// find fill of words of model, filling each independent group of them in parallel, with cells of the
+	// grid having fixed letters taking those letters, returning each word and its letters, or null if not filled.
+	// workerPermits limits the number of parallel search workers started, beyond one per group, to one per
+	// spare processor, and fillNodes counts the search nodes expanded by all searches of the fill, limited to maxNodes
+	private List<Pair<GridWord, char[]>> findComponentFills(final Grid grid, final IndexedDictionary<Word> dict,
+			final SolverModel model, final char[] fixedLetters, final ExecutorService executor,
+			final Semaphore workerPermits, final long deadline, final AtomicInteger fillNodes)
+			throws InterruptedException {
+		List<int[]> components = model.getComponents(-1);
+		if (components.size() <= 1)
+			return findComponentFill(grid, dict, model, fixedLetters, executor, workerPermits, deadline, fillNodes);
+
+		// Fill each group on a thread of its own, taking fills as they complete, so that as soon as any group
+		// is found to have no fill, or runs out of budget, the others are stopped
+		CompletionService<List<Pair<GridWord, char[]>>> completionService =
+				new ExecutorCompletionService<List<Pair<GridWord, char[]>>>(executor);
+		List<Future<List<Pair<GridWord, char[]>>>> futures = new ArrayList<Future<List<Pair<GridWord, char[]>>>>();
+		for (int[] component : components) {
+			final SolverModel componentModel = new SolverModel(model.getCrossingGraph(), getWords(model, component));
+			futures.add(completionService.submit(new Callable<List<Pair<GridWord, char[]>>>() {
+				@Override
+				public List<Pair<GridWord, char[]>> call() throws InterruptedException {
+					return findComponentFill(grid, dict, componentModel, fixedLetters, executor, workerPermits, deadline, fillNodes);
+				}
+			}));
+		}
+		try {
+			List<Pair<GridWord, char[]>> retval = new ArrayList<Pair<GridWord, char[]>>();
+			for (int i = 0; i < futures.size(); ++i) {
+				List<Pair<GridWord, char[]>> componentFill = completionService.take().get();
+				if (componentFill == null)
+					return null;
+				retval.addAll(componentFill);
+			}
+			return retval;
+		} catch (ExecutionException e) {
+			LOG.log(Level.SEVERE, "Auto-fill of group of words failed", e.getCause());
+			return null;
+		} finally {
+			// Stop remaining groups, if any; they write nothing to the grid, so needn't be waited for
+			for (Future<List<Pair<GridWord, char[]>>> future : futures)
+				future.cancel(true);
+		}
+	}
+
+	// find fill of words of model, which form a single group, returning each word and its letters, or null if
+	// not filled. If there's a word whose removal would split the group in two, try a few candidates for it,
+	// filling the groups on each side of it independently, before falling back to filling the group as a whole
+	private List<Pair<GridWord, char[]>> findComponentFill(Grid grid, IndexedDictionary<Word> dict, SolverModel model,
+			char[] fixedLetters, ExecutorService executor, Semaphore workerPermits, long deadline,
+			AtomicInteger fillNodes) throws InterruptedException {
+		int cutSlot = findCutSlot(model);
+		if (cutSlot >= 0) {
+			int[] candidates = new Search(grid, model, dict, null, false, null, deadline, fixedLetters, fillNodes)
+					.getCandidates(cutSlot);
+			if (candidates == null)
+				return null;		// no fill possible
+			GridWord cutWord = model.getWord(cutSlot);
+			int[] cutCells = model.getSlotCells(cutSlot);
+			int[] cutPositions = model.getSlotCellPositions(cutSlot);
+			int length = cutWord.getPattern().length;
+			List<GridWord> otherWords = new ArrayList<GridWord>();
+			for (int slot = 0; slot < model.getNumSlots(); ++slot)
+				if (slot != cutSlot)
+					otherWords.add(model.getWord(slot));
+			SolverModel otherModel = new SolverModel(model.getCrossingGraph(), otherWords);
+			for (int i = 0; i < candidates.length && i < MAX_CUT_CANDIDATES; ++i) {
+				if (Thread.currentThread().isInterrupted() || System.currentTimeMillis() > deadline
+						|| fillNodes.get() > maxNodes)
+					return null;
+				char[] word = new char[length];
+				System.arraycopy(dict.getLetters(length), candidates[i] * length, word, 0, length);
+				char[] otherFixedLetters = fixedLetters.clone();
+				for (int k = 0; k < cutCells.length; ++k)
+					otherFixedLetters[model.getGridCell(cutCells[k])] = word[cutPositions[k]];
+				numCutSplits.incrementAndGet();
+				List<Pair<GridWord, char[]>> retval = findComponentFills(grid, dict, otherModel, otherFixedLetters,
+						executor, workerPermits, deadline, fillNodes);
+				if (retval != null) {
+					retval.add(new Pair<GridWord, char[]>(cutWord, word));
+					return retval;
+				}
+			}
+		}
+		return findGroupFill(grid, dict, model, fixedLetters, executor, workerPermits, deadline, fillNodes);
+	}
+
+	// find fill of words of model, which form a single group, returning each word and its letters, or null if
+	// not filled. If a search doesn't fill them within parallelSearchNodes nodes, search in parallel,
+	// with a worker per processor, as far as the other parallel searches of the fill leave processors spare,
+	// starting the workers with the short nogoods the first search learned
+	private List<Pair<GridWord, char[]>> findGroupFill(Grid grid, IndexedDictionary<Word> dict, SolverModel model,
+			char[] fixedLetters, ExecutorService executor, Semaphore workerPermits, long deadline,
+			AtomicInteger fillNodes) throws InterruptedException {
+		Search search = new Search(grid, model, dict, null, false, null, deadline, fixedLetters, fillNodes);
+		if (numProcessors < 2 || maxNodes <= parallelSearchNodes)
+			return search.findFill();
+		search.nodeLimit = parallelSearchNodes;
+		List<Pair<GridWord, char[]>> retval = search.findFill();
+		if (retval != null || ! search.isOutOfNodes())
+			return retval;			// filled, or no fill possible, or out of time
+		numParallelSearches.incrementAndGet();
+		ParallelSearch parallelSearch = new ParallelSearch(grid, model, dict, fixedLetters, executor, workerPermits,
+				deadline, fillNodes);
+		numInheritedNogoods.addAndGet(parallelSearch.shareNogoods(search.nogoods));
+		return parallelSearch.findFill(numProcessors);
+	}
+
+	/**
+	 * @return number of searches of groups of words split between processors so far
+	 */
+	int getNumParallelSearches() {
+		return numParallelSearches.get();
+	}
+
+	/**
+	 * @return number of nogoods learned by searches of groups of words before splitting them between
+	 * processors, and shared with the workers of the split searches, so far
+	 */
+	int getNumInheritedNogoods() {
+		return numInheritedNogoods.get();
+	}
+
+	/**
+	 * @return number of decisions a search has jumped back over, its failure not depending on them, so far
+	 */
+	int getNumBackjumps() {
+		return numBackjumps.get();
+	}
+
+	/**
+	 * @return number of times a search has restarted, so far
+	 */
+	int getNumRestarts() {
+		return numRestarts.get();
+	}
+
+	/**
+	 * @return number of candidates for a cut word tried, filling the groups either side of it, so far
+	 */
+	int getNumCutSplits() {
+		return numCutSplits.get();
+	}
+
+	// return slot number of word whose removal splits words of model into groups, each big enough to be
+	// worth filling separately, choosing the one leaving the smallest largest group, or -1 if none.
+	// Splitting only pays when the groups can be filled in parallel, as each candidate for the cut word
+	// tried costs a propagation of the whole group
+	private int findCutSlot(SolverModel model) {
+		int retval = -1;
+		int bestLargestSize = Integer.MAX_VALUE;
+		if (numProcessors < 2 || model.getNumSlots() < 2 * MIN_WORDS_PER_SPLIT + 1)
+			return retval;
+		int minSize = Math.max(MIN_WORDS_PER_SPLIT, (int)(model.getNumSlots() * MIN_FRACTION_PER_SPLIT));
+		for (int slot = 0; slot < model.getNumSlots(); ++slot) {
+			List<int[]> components = model.getComponents(slot);
+			if (components.size() < 2)
+				continue;
+			int smallestSize = Integer.MAX_VALUE;
+			int largestSize = 0;
+			for (int[] component : components) {
+				smallestSize = Math.min(smallestSize, component.length);
+				largestSize = Math.max(largestSize, component.length);
+			}
+			if (smallestSize >= minSize && largestSize < bestLargestSize) {
+				retval = slot;
+				bestLargestSize = largestSize;
+			}
+		}
+		return retval;
+	}
+
+	// return words of model having specified slot numbers
+	private static List<GridWord> getWords(SolverModel model, int[] slots) {
+		List<GridWord> retval = new ArrayList<GridWord>(slots.length);
+		for (int slot : slots)
+			retval.add(model.getWord(slot));
+		return retval;
+	}
+
+	// add words eligible for autofill to wordsToFill, returning false if any of them cannot be satisfied.
+	// Words having rebus cells are among those, there being no rebus strings, else AutoFiller7 would fill them
+	private boolean getWordsToFill(List<GridWord> words, Dictionary<char[], Word> dict, List<GridWord> wordsToFill) {
+		for (GridWord word : words) {
+			if (word.isEligibleForAutofill()) {
+				if (word.hasRebusCell() || ! dict.isPatternInDictionary(word.getPattern()))
+					return false;
+				wordsToFill.add(word);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * State of a single search: slot and cell domains, the decisions each depends on, and the propagation queue.
+	 * Sets of decisions are bitsets of slot numbers, each decided slot having a single word left.
+	 * Package-private, with its undo trail, for testing.
+	 */
+	class Search {
+		// grid being filled
+		private final Grid grid;
+
+		// score of fill to maximize, or null for none
+		private final ScoreObjective objective;
+
+		// whether to try highest-scoring words first, rather than in pseudo-random order
+		private final boolean bestFirst;
+
+		// whether to report every distinct fill, rather than stopping at the first or best
+		private boolean enumerating;
+
+		// hashes of fills reported, and of each of those fills with one word left out
+		private final Set<Long> fillHashes = new HashSet<Long>();
+		private final Set<Long> nearFillHashes = new HashSet<Long>();
+
+		// number of fills reported, when enumerating
+		private int numFillsReported;
+
+		// listener to report fills to, or null for none
+		private final AutoFillSolutionListener listener;
+
+		// letters of fill being reported to listener, created when first needed
+		private SolverGrid solverGrid;
+
+		// compiled words to fill
+		private final SolverModel model;
+
+		// dictionary to fill from
+		private final IndexedDictionary<Word> dict;
+
+		// alphabet of dictionary
+		private final Alphabet alphabet;
+
+		// nogoods learned, kept across restarts
+		private final NogoodStore nogoods = new NogoodStore();
+
+		// pseudo-random number generator used to order words tried
+		private final Random random = new Random(seed);
+
+		// time at which to give up, in milliseconds
+		private final long deadline;
+
+		// number of longs in a set of decisions
+		private final int setLength;
+
+		// [slot] = length of pattern of slot
+		private final int[] lengths;
+
+		// [length] = alphabet code of each letter of all words of that length, laid out as in getLetters, or null if unused
+		private final byte[][] codesByLength;
+
+		// [length][position][code] = bitset of indexes of words having letter at position, built on first use
+		private final long[][][][] postingBitsets;
+
+		// [slot] = bitset of dictionary indexes of words still possible for slot
+		private final long[][] domains;
+
+		// [slot] = number of bits set in domains[slot]
+		private final int[] domainSizes;
+
+		// [cell] = bit mask of alphabet codes still possible for cell
+		private final long[] cellMasks;
+
+		// [slot][k] = mask of slot's kth cell that slot's domain was last made consistent with
+		private final long[][] lastMasks;
+
+		// sets of decisions that each slot's domain, then each cell's mask, depends on, laid out one after another
+		private final long[] reasons;
+
+		// set of decisions responsible for the latest failure
+		private long[] conflict;
+
+		// queue of slots to revise, as a circular buffer, with flags of which slots are in it
+		private final int[] queue;
+		private final boolean[] inQueue;
+		private int queueHead;
+		private int queueSize;
+
+		// [slot] = whether slot's domain has changed since its cell masks were last narrowed to match it
+		private final boolean[] stale;
+
+		// undo log of changes to search state: what was changed, where, and its old value, latest last.
+		// Backtracking undoes changes back to a checkpoint, costing time proportional to the changes made
+		private int[] trailLocations = new int[INITIAL_TRAIL_CAPACITY];
+		private int[] trailIndexes = new int[INITIAL_TRAIL_CAPACITY];
+		private long[] trailValues = new long[INITIAL_TRAIL_CAPACITY];
+		private int trailSize;
+
+		// old domains recorded in trail, one after another. A domain is saved whole, on its first change
+		// since the latest checkpoint or undo, as it is usually narrowed in many places at once
+		private long[] savedDomains = new long[INITIAL_TRAIL_CAPACITY];
+		private int savedDomainsSize;
+
+		// number of the latest checkpoint or undo, and [slot] = that number when slot's domain was last saved
+		private int epoch = 1;
+		private final int[] domainSavedEpochs;
+
+		// number of search nodes expanded
+		private int nodes;
+
+		// number of search nodes to expand before giving up
+		private int nodeLimit = maxNodes;
+
+		// number of search nodes expanded by all searches of fill this belongs to, limited to maxNodes, or null
+		// if this is the only search. Nodes are added every CLOCK_CHECK_INTERVAL nodes, and when search finishes
+		private final AtomicInteger fillNodes;
+
+		// number of search nodes added to fillNodes so far
+		private int nodesCounted;
+
+		// numbers of backjumps and restarts not yet added to AutoFiller8's counts
+		private int backjumps;
+		private int restarts;
+
+		// parallel search this is one of the workers of, or null if none
+		private ParallelSearch parallel;
+
+		// number of nogoods shared by parallel search added to nogoods so far
+		private int sharedNogoodsAdded;
+
+		// whether search has been abandoned, because of node or time limit, or interrupt
+		private boolean aborted;
+
+		// number of failures since last restart, and number at which to restart
+		private int failures;
+		private int failureLimit;
+
+		// whether search is unwinding in order to restart
+		private boolean restarting;
+
+		// [length][index] = score of word, when maximizing score
+		private int[][] scoresByLength;
+
+		// [length] = indexes of all words of length, highest score first, when maximizing score
+		private int[][] indexesByScore;
+
+		// [slot] = position in indexesByScore of the best-scoring word left in slot's domain, or before it
+		private int[] bestPositions;
+
+		// score of best fill found so far
+		private int bestScore = Integer.MIN_VALUE;
+
+		// [slot] = index of word of best fill found so far, or null if none found
+		private int[] bestIndexes;
+
+		public Search(Grid grid, SolverModel model, IndexedDictionary<Word> dict, ScoreObjective objective,
+				boolean bestFirst, AutoFillSolutionListener listener, long deadline) {
+			this(grid, model, dict, objective, bestFirst, listener, deadline, null, null);
+		}
+
+		/**
+		 * Constructor for Search, as one of the searches of a fill, with cells of the grid having fixed letters
+		 * taking those letters.
+		 * @param fixedLetters [grid cell number] = letter cell must take, or '\0' for any, or null for none fixed
+		 * @param fillNodes number of search nodes expanded by all searches of fill, limited to maxNodes, or null
+		 */
+		public Search(Grid grid, SolverModel model, IndexedDictionary<Word> dict, ScoreObjective objective,
+				boolean bestFirst, AutoFillSolutionListener listener, long deadline, char[] fixedLetters,
+				AtomicInteger fillNodes) {
+			this.grid = grid;
+			this.model = model;
+			this.dict = dict;
+			this.alphabet = dict.getAlphabet();
+			this.objective = objective;
+			this.fillNodes = fillNodes;
+			this.bestFirst = bestFirst;
+			this.listener = listener;
+			this.deadline = deadline;
+			int numSlots = model.getNumSlots();
+			setLength = (numSlots + 63) >>> 6;
+			reasons = new long[(numSlots + model.getNumCells()) * setLength];
+			lengths = new int[numSlots];
+			int maxLength = 0;
+			for (int slot = 0; slot < numSlots; ++slot) {
+				lengths[slot] = model.getWord(slot).getPattern().length;
+				maxLength = Math.max(maxLength, lengths[slot]);
+			}
+			codesByLength = new byte[maxLength + 1][];
+			postingBitsets = new long[maxLength + 1][][][];
+			domains = new long[numSlots][];
+			domainSizes = new int[numSlots];
+			lastMasks = new long[numSlots][];
+			queue = new int[numSlots];
+			inQueue = new boolean[numSlots];
+			stale = new boolean[numSlots];
+			domainSavedEpochs = new int[numSlots];
+			cellMasks = new long[model.getNumCells()];
+			long allSymbols = alphabet.getAllSymbolsMask();
+			for (int cell = 0; cell < cellMasks.length; ++cell) {
+				char fixedLetter = fixedLetters != null ? fixedLetters[model.getGridCell(cell)] : '\0';
+				cellMasks[cell] = fixedLetter != '\0' ? 1L << alphabet.encode(fixedLetter) : allSymbols;
+			}
+
+			for (int slot = 0; slot < numSlots; ++slot) {
+				int length = lengths[slot];
+				if (codesByLength[length] == null) {
+					char[] letters = dict.getLetters(length);
+					byte[] codes = new byte[letters.length];
+					for (int i = 0; i < letters.length; ++i)
+						codes[i] = (byte)alphabet.encode(letters[i]);
+					codesByLength[length] = codes;
+					postingBitsets[length] = new long[length][alphabet.size()][];
+				}
+				// Initial domain is all words matching pattern, which takes care of cells not eligible for autofill
+				domains[slot] = new long[(dict.getWordCount(length) + 63) >>> 6];
+				for (int index : dict.getPatternMatchIndexes(model.getWord(slot).getPattern()))
+					domains[slot][index >>> 6] |= 1L << index;
+				domainSizes[slot] = cardinality(domains[slot]);
+				lastMasks[slot] = new long[model.getSlotCells(slot).length];
+				for (int k = 0; k < lastMasks[slot].length; ++k)
+					lastMasks[slot][k] = allSymbols;
+				stale[slot] = true;
+				enqueue(slot);
+			}
+			if (bestFirst)
+				initScores(maxLength);
+		}
+
+		// build score tables for all lengths of words to fill
+		private void initScores(int maxLength) {
+			scoresByLength = new int[maxLength + 1][];
+			indexesByScore = new int[maxLength + 1][];
+			bestPositions = new int[lengths.length];
+			for (int length : lengths) {
+				if (scoresByLength[length] != null)
+					continue;
+				int wordCount = dict.getWordCount(length);
+				final int[] scores = new int[wordCount];
+				Integer[] indexes = new Integer[wordCount];
+				for (int i = 0; i < wordCount; ++i) {
+					scores[i] = dict.getEntry(length, i).getScore();
+					indexes[i] = i;
+				}
+				Arrays.sort(indexes, new Comparator<Integer>() {
+					@Override
+					public int compare(Integer o1, Integer o2) {
+						int score1 = scores[o1];
+						int score2 = scores[o2];
+						return score1 > score2 ? -1 : score1 < score2 ? 1 : 0;
+					}
+				});
+				scoresByLength[length] = scores;
+				indexesByScore[length] = new int[wordCount];
+				for (int i = 0; i < wordCount; ++i)
+					indexesByScore[length][i] = indexes[i];
+			}
+		}
+
+		/**
+		 * Search for a fill, or the best fill if there is an objective, and write it to the grid.
+		 * @return whether a fill was found
+		 */
+		public boolean fill() {
+			if (! run())
+				return false;
+			writeFill(bestIndexes);
+			return true;
+		}
+
+		/**
+		 * Search for a fill, without writing it to the grid.
+		 * @return each word of fill and its letters, or null if no fill was found
+		 */
+		public List<Pair<GridWord, char[]>> findFill() {
+			return run() ? getFillWords() : null;
+		}
+
+		// return each word of best fill found and its letters
+		private List<Pair<GridWord, char[]>> getFillWords() {
+			List<Pair<GridWord, char[]>> retval = new ArrayList<Pair<GridWord, char[]>>(lengths.length);
+			for (int slot = 0; slot < lengths.length; ++slot)
+				retval.add(new Pair<GridWord, char[]>(model.getWord(slot), getLetters(slot, bestIndexes[slot])));
+			return retval;
+		}
+
+		/**
+		 * Propagate constraints between words, without searching, and return candidates left for a word.
+		 * @param slot slot number of word
+		 * @return indexes of candidates left for word, or null if some word has none left
+		 */
+		public int[] getCandidates(int slot) {
+			if (! propagate())
+				return null;
+			int[] retval = new int[domainSizes[slot]];
+			int k = 0;
+			for (int index = nextSetBit(domains[slot], 0); index >= 0; index = nextSetBit(domains[slot], index + 1))
+				retval[k++] = index;
+			return retval;
+		}
+
+		/**
+		 * Search for every distinct fill, reporting each to listener, until listener says to stop.
+		 * Search is not restarted, so it never revisits a fill.
+		 */
+		public void enumerate() {
+			enumerating = true;
+			run();
+		}
+
+		/**
+		 * Search for a fill having word index for slot, from the current, propagated, state,
+		 * which is restored if no fill is found. If none is found, and the search wasn't abandoned,
+		 * failureDependsOn tells whether one might be found with another word for slot.
+		 * @param slot slot number
+		 * @param index index of word for slot, in its domain
+		 * @return whether a fill was found
+		 */
+		public boolean fillWith(int slot, int index) {
+			int checkpoint = checkpoint();
+			if (decide(slot, index) && runFromHere())
+				return true;
+			undo(checkpoint);
+			return false;
+		}
+
+		/**
+		 * @param slot slot number
+		 * @return whether the latest failure to find a fill depends on the decision of slot's word
+		 */
+		public boolean failureDependsOn(int slot) {
+			return (conflict[slot >>> 6] & (1L << slot)) != 0;
+		}
+
+		/**
+		 * @return whether search was abandoned because it expanded its limit of search nodes
+		 */
+		public boolean isOutOfNodes() {
+			return nodes > nodeLimit;
+		}
+
+		// run search, leaving best fill found in bestIndexes, and returning whether a fill was found
+		private boolean run() {
+			if (! propagate())
+				return false;
+			return runFromHere();
+		}
+
+		// run search from current, propagated, state, restarting it as needed, leaving best fill found in
+		// bestIndexes, and returning whether a fill was found
+		private boolean runFromHere() {
+			if (fillNodes != null && fillNodes.get() > maxNodes) {
+				aborted = true;				// other searches of fill used up budget
+				return false;
+			}
+			int rootCheckpoint = checkpoint();
+			try {
+				for (int restart = 1; ; ++restart) {
+					if (parallel != null)
+						sharedNogoodsAdded = parallel.addSharedNogoods(nogoods, sharedNogoodsAdded);
+					failures = 0;
+					failureLimit = enumerating ? Integer.MAX_VALUE : RESTART_UNIT * luby(restart);
+					restarting = false;
+					if (search())
+						return true;
+					if (aborted || ! restarting)
+						return bestIndexes != null;		// out of budget, or every possibility exhausted
+
+					// restart from root state, keeping nogoods learned and best fill found
+					undo(rootCheckpoint);
+					++restarts;
+				}
+			} finally {
+				if (fillNodes != null)
+					countNodes();
+				numBackjumps.addAndGet(backjumps);
+				numRestarts.addAndGet(restarts);
+				backjumps = 0;
+				restarts = 0;
+			}
+		}
+
+		// add nodes expanded since last counted to fillNodes, returning new total
+		private int countNodes() {
+			int retval = fillNodes.addAndGet(nodes - nodesCounted);
+			nodesCounted = nodes;
+			return retval;
+		}
+
+		// write fill to the grid, from [slot] = index of word to fill slot with
+		private void writeFill(int[] indexes) {
+			for (int slot = 0; slot < lengths.length; ++slot)
+				model.getWord(slot).setAutofillContents(getLetters(slot, indexes[slot]), model.getFillConfig(slot));
+		}
+
+		// return new array of letters of word of slot's length, having specified index
+		private char[] getLetters(int slot, int index) {
+			int length = lengths[slot];
+			char[] retval = new char[length];
+			System.arraycopy(dict.getLetters(length), index * length, retval, 0, length);
+			return retval;
+		}
+
+		// record current state, in which every slot has exactly one word left, as a fill, reporting it to listener
+		private void recordFill() {
+			int[] indexes = new int[lengths.length];
+			for (int slot = 0; slot < indexes.length; ++slot)
+				indexes[slot] = nextSetBit(domains[slot], 0);
+			int score = objective != null ? getUpperBound(objective) : bestFirst ? getUpperBound(ScoreObjective.TOTAL) : 0;
+			if (enumerating) {
+				if (isNearDuplicate(indexes))
+					return;
+				++numFillsReported;
+			} else if (bestIndexes != null && score <= bestScore) {
+				return;
+			}
+			bestIndexes = indexes;
+			bestScore = score;
+			if (listener != null) {
+				// take snapshot of fill without writing it to the grid
+				if (solverGrid == null)
+					solverGrid = new SolverGrid(grid, model);
+				for (int slot = 0; slot < indexes.length; ++slot)
+					solverGrid.setWord(slot, getLetters(slot, indexes[slot]));
+				if (! listener.handleSolution(new AutoFillSolution(solverGrid.getContents(), score)))
+					aborted = true;
+			}
+		}
+
+		// return whether fill is the same as one already reported, or differs from one only in a single word,
+		// remembering it if not. Fills are hashed by xor-ing a hash of each slot's word, so the hash of a
+		// fill with one word left out is cheap to compute
+		private boolean isNearDuplicate(int[] indexes) {
+			long hash = 0L;
+			for (int slot = 0; slot < indexes.length; ++slot)
+				hash ^= hash(slot, indexes[slot]);
+			if (! fillHashes.add(hash))
+				return true;
+			// with a single word to fill, every fill differs from every other only in a single word
+			if (indexes.length > 1) {
+				for (int slot = 0; slot < indexes.length; ++slot)
+					if (nearFillHashes.contains(hash ^ hash(slot, indexes[slot])))
+						return true;
+				for (int slot = 0; slot < indexes.length; ++slot)
+					nearFillHashes.add(hash ^ hash(slot, indexes[slot]));
+			}
+			return false;
+		}
+
+		// return upper bound on score of any fill reachable from current state, from the best-scoring word
+		// left for each slot, which is the score of the fill once every slot has exactly one word left
+		private int getUpperBound(ScoreObjective objective) {
+			int retval = objective == ScoreObjective.TOTAL ? 0 : Integer.MAX_VALUE;
+			for (int slot = 0; slot < lengths.length; ++slot) {
+				int score = scoresByLength[lengths[slot]][getBestIndex(slot)];
+				if (objective == ScoreObjective.TOTAL)
+					retval += score;
+				else
+					retval = Math.min(retval, score);
+			}
+			return retval;
+		}
+
+		// return index of best-scoring word left in slot's domain, which must not be empty
+		private int getBestIndex(int slot) {
+			int[] order = indexesByScore[lengths[slot]];
+			long[] domain = domains[slot];
+			int position = bestPositions[slot];
+			while ((domain[order[position] >>> 6] & (1L << order[position])) == 0)
+				++position;
+			if (position != bestPositions[slot]) {
+				record(TRAIL_BEST_POSITION, slot, 0, bestPositions[slot]);
+				bestPositions[slot] = position;
+			}
+			return order[position];
+		}
+
+		// return set of all decisions any slot's domain depends on
+		private long[] getAllReasons() {
+			long[] retval = new long[setLength];
+			for (int slot = 0; slot < lengths.length; ++slot)
+				orReasons(retval, slot);
+			return retval;
+		}
+
+		// depth-first search from current, propagated, state, returning whether a fill was found
+		private boolean search() {
+			if (++nodes > nodeLimit || Thread.currentThread().isInterrupted() || (parallel != null && parallel.stopped)
+					|| (nodes % CLOCK_CHECK_INTERVAL == 0 && isOverBudget()))
+				aborted = true;
+			if (aborted)
+				return false;
+
+			if (objective != null && bestIndexes != null && getUpperBound(objective) <= bestScore) {
+				// can't beat best fill so far; this depends on every decision made
+				conflict = getAllReasons();
+				return false;
+			}
+
+			// choose unassigned slot having the smallest domain
+			int slot = -1;
+			for (int i = 0; i < domainSizes.length; ++i)
+				if (domainSizes[i] > 1 && (slot < 0 || domainSizes[i] < domainSizes[slot]))
+					slot = i;
+			if (slot < 0) {
+				// every slot has exactly one word left, consistent with its crossings
+				recordFill();
+				if (objective == null && ! enumerating)
+					return true;				// Done!
+				// keep looking for a better or another fill
+				conflict = getAllReasons();
+				return false;
+			}
+
+			long[] domain = domains[slot];
+			int offset = slot * setLength;
+			while (true) {
+				int index = bestFirst ? getBestIndex(slot) : chooseIndex(domains[slot]);
+				int checkpoint = checkpoint();
+				if (decide(slot, index) && search())
+					return true;
+				if (aborted || restarting)
+					return false;
+
+				// failed, so restore state
+				long[] childConflict = conflict;
+				undo(checkpoint);
+				if ((childConflict[slot >>> 6] & (1L << slot)) == 0) {
+					// failure doesn't depend on this decision, so no other word for slot can help; jump back
+					conflict = childConflict;
+					++backjumps;
+					return false;
+				}
+				learnNogood(childConflict, slot, index);
+				if (++failures >= failureLimit) {
+					restarting = true;
+					return false;
+				}
+
+				// remove index from slot's domain, which depends on the rest of the conflict, and try again
+				childConflict[slot >>> 6] &= ~(1L << slot);
+				for (int i = 0; i < setLength; ++i)
+					setReasons(offset + i, reasons[offset + i] | childConflict[i]);
+				setDomainBits(slot, index >>> 6, domain[index >>> 6] & ~(1L << index));
+				setDomainSize(slot, domainSizes[slot] - 1);
+				if (domainSizes[slot] == 0) {
+					conflict = getReasons(slot);
+					return false;
+				}
+				stale[slot] = true;
+				enqueue(slot);
+				if (! propagate())
+					return false;
+			}
+		}
+
+		// return whether search is out of time, or the fill it belongs to is out of nodes, having
+		// expanded another CLOCK_CHECK_INTERVAL nodes
+		private boolean isOverBudget() {
+			return System.currentTimeMillis() > deadline || (fillNodes != null && countNodes() > maxNodes);
+		}
+
+		// narrow slot's domain to word index, which depends on this decision alone, and propagate,
+		// returning false, with conflict set, if that leaves some domain empty, or violates a nogood
+		boolean decide(int slot, int index) {
+			long[] domain = domains[slot];
+			for (int i = 0; i < domain.length; ++i)
+				setDomainBits(slot, i, i == index >>> 6 ? 1L << index : 0L);
+			setDomainSize(slot, 1);
+			int offset = slot * setLength;
+			for (int i = 0; i < setLength; ++i)
+				setReasons(offset + i, i == slot >>> 6 ? 1L << slot : 0L);
+			stale[slot] = true;
+			enqueue(slot);
+			if (! checkNogoods(slot, index)) {
+				clearQueue();
+				return false;
+			}
+			return propagate();
+		}
+
+		// learn nogood consisting of slot = index, and the current words of the decided slots in conflict
+		private void learnNogood(long[] conflict, int slot, int index) {
+			int size = 0;
+			for (long bits : conflict)
+				size += Long.bitCount(bits);
+			int[] slots = new int[size];
+			int[] indexes = new int[size];
+			// Watch slot = index, and the decision just before it, as they are likely the last to be made again
+			slots[0] = slot;
+			indexes[0] = index;
+			int k = size;
+			for (int i = 0; i < conflict.length; ++i) {
+				for (long remaining = conflict[i]; remaining != 0; remaining &= remaining - 1) {
+					int decidedSlot = (i << 6) + Long.numberOfTrailingZeros(remaining);
+					if (decidedSlot == slot)
+						continue;
+					if (domainSizes[decidedSlot] != 1)
+						return;
+					slots[--k] = decidedSlot;
+					indexes[k] = nextSetBit(domains[decidedSlot], 0);
+				}
+			}
+			if (nogoods.add(slots, indexes) && parallel != null && size <= MAX_SHARED_NOGOOD_SIZE)
+				parallel.shareNogood(slots, indexes);
+		}
+
+		// check nogoods watching slot = index, which has just been decided. For each one, watch another of
+		// its assignments not yet holding if possible, else remove the last such assignment from its domain.
+		// Returns false, with conflict set, if a nogood is violated
+		private boolean checkNogoods(int slot, int index) {
+			List<NogoodStore.Nogood> watching = nogoods.getWatching(slot, index);
+			if (watching == null)
+				return true;
+			List<NogoodStore.Nogood> stillWatching = new ArrayList<NogoodStore.Nogood>(watching.size());
+			boolean retval = true;
+			for (NogoodStore.Nogood nogood : watching) {
+				int watchNumber = nogood.getWatchNumber(slot, index);
+				if (! retval || watchNumber < 0) {
+					stillWatching.add(nogood);
+					continue;
+				}
+				int otherWatched = nogood.watched[1 - watchNumber];
+				int newWatched = -1;
+				for (int i = 0; i < nogood.slots.length && newWatched < 0; ++i)
+					if (i != otherWatched && i != nogood.watched[watchNumber] && ! holds(nogood.slots[i], nogood.indexes[i]))
+						newWatched = i;
+				if (newWatched >= 0) {
+					nogoods.moveWatch(nogood, watchNumber, newWatched);
+					continue;
+				}
+				stillWatching.add(nogood);
+				int otherSlot = nogood.slots[otherWatched];
+				int otherIndex = nogood.indexes[otherWatched];
+				if (otherWatched == nogood.watched[watchNumber] || holds(otherSlot, otherIndex)) {
+					// every assignment holds
+					conflict = new long[setLength];
+					for (int otherSlotInNogood : nogood.slots)
+						orReasons(conflict, otherSlotInNogood);
+					retval = false;
+				} else if ((domains[otherSlot][otherIndex >>> 6] & (1L << otherIndex)) != 0) {
+					// every other assignment holds, so remove this one, which depends on the others
+					setDomainBits(otherSlot, otherIndex >>> 6, domains[otherSlot][otherIndex >>> 6] & ~(1L << otherIndex));
+					long[] removalReasons = new long[setLength];
+					for (int i = 0; i < nogood.slots.length; ++i)
+						if (i != otherWatched)
+							orReasons(removalReasons, nogood.slots[i]);
+					int offset = otherSlot * setLength;
+					for (int i = 0; i < setLength; ++i)
+						setReasons(offset + i, reasons[offset + i] | removalReasons[i]);
+					stale[otherSlot] = true;
+					enqueue(otherSlot);
+					setDomainSize(otherSlot, domainSizes[otherSlot] - 1);
+					if (domainSizes[otherSlot] == 0) {
+						conflict = getReasons(otherSlot);
+						retval = false;
+					}
+				}
+			}
+			nogoods.setWatching(slot, index, stillWatching);
+			return retval;
+		}
+
+		// return whether slot has been narrowed down to word index
+		private boolean holds(int slot, int index) {
+			return domainSizes[slot] == 1 && (domains[slot][index >>> 6] & (1L << index)) != 0;
+		}
+
+		// return copy of set of decisions slot's domain depends on
+		private long[] getReasons(int slot) {
+			long[] retval = new long[setLength];
+			System.arraycopy(reasons, slot * setLength, retval, 0, setLength);
+			return retval;
+		}
+
+		// add set of decisions slot's domain depends on to set
+		private void orReasons(long[] set, int slot) {
+			int offset = slot * setLength;
+			for (int i = 0; i < setLength; ++i)
+				set[i] |= reasons[offset + i];
+		}
+
+		// add set of decisions at srcOffset in reasons to set at destOffset
+		private void orReasons(int destOffset, int srcOffset) {
+			for (int i = 0; i < setLength; ++i)
+				setReasons(destOffset + i, reasons[destOffset + i] | reasons[srcOffset + i]);
+		}
+
+		// set bits of slot's domain at index i into it, first saving domain in trail if not saved since latest checkpoint
+		private void setDomainBits(int slot, int i, long bits) {
+			long[] domain = domains[slot];
+			if (domain[i] != bits) {
+				if (domainSavedEpochs[slot] != epoch) {
+					if (savedDomainsSize + domain.length > savedDomains.length)
+						savedDomains = Arrays.copyOf(savedDomains, Math.max(savedDomains.length * 2, savedDomainsSize + domain.length));
+					record(TRAIL_DOMAIN, slot, savedDomainsSize, domainSavedEpochs[slot]);
+					System.arraycopy(domain, 0, savedDomains, savedDomainsSize, domain.length);
+					savedDomainsSize += domain.length;
+					domainSavedEpochs[slot] = epoch;
+				}
+				domain[i] = bits;
+			}
+		}
+
+		// set size of slot's domain, recording old size in trail
+		private void setDomainSize(int slot, int size) {
+			if (domainSizes[slot] != size) {
+				record(TRAIL_DOMAIN_SIZE, slot, 0, domainSizes[slot]);
+				domainSizes[slot] = size;
+			}
+		}
+
+		// set cell's mask, recording old mask in trail
+		private void setCellMask(int cell, long mask) {
+			if (cellMasks[cell] != mask) {
+				record(TRAIL_CELL_MASK, cell, 0, cellMasks[cell]);
+				cellMasks[cell] = mask;
+			}
+		}
+
+		// set mask of slot's kth cell that slot's domain was last made consistent with, recording old mask in trail
+		private void setLastMask(int slot, int k, long mask) {
+			if (lastMasks[slot][k] != mask) {
+				record(TRAIL_LAST_MASK, slot, k, lastMasks[slot][k]);
+				lastMasks[slot][k] = mask;
+			}
+		}
+
+		// set bits of reasons at offset, recording old bits in trail
+		private void setReasons(int offset, long bits) {
+			if (reasons[offset] != bits) {
+				record(TRAIL_REASONS, 0, offset, reasons[offset]);
+				reasons[offset] = bits;
+			}
+		}
+
+		// append old value of element index of array identified by kind and number to trail,
+		// or for a domain, offset into savedDomains of old domain, and old epoch of its saving
+		private void record(int kind, int number, int index, long oldValue) {
+			if (trailSize == trailValues.length) {
+				trailLocations = Arrays.copyOf(trailLocations, trailSize * 2);
+				trailIndexes = Arrays.copyOf(trailIndexes, trailSize * 2);
+				trailValues = Arrays.copyOf(trailValues, trailSize * 2);
+			}
+			trailLocations[trailSize] = number << TRAIL_KIND_BITS | kind;
+			trailIndexes[trailSize] = index;
+			trailValues[trailSize++] = oldValue;
+		}
+
+		// return checkpoint to undo changes back to, later
+		int checkpoint() {
+			++epoch;
+			return trailSize;
+		}
+
+		// undo changes recorded in trail since checkpoint, latest first
+		void undo(int checkpoint) {
+			++epoch;
+			while (trailSize > checkpoint) {
+				--trailSize;
+				int number = trailLocations[trailSize] >>> TRAIL_KIND_BITS;
+				int index = trailIndexes[trailSize];
+				long oldValue = trailValues[trailSize];
+				switch (trailLocations[trailSize] & TRAIL_KIND_MASK) {
+				case TRAIL_DOMAIN:
+					System.arraycopy(savedDomains, index, domains[number], 0, domains[number].length);
+					savedDomainsSize = index;
+					domainSavedEpochs[number] = (int)oldValue;
+					break;
+				case TRAIL_DOMAIN_SIZE:
+					domainSizes[number] = (int)oldValue;
+					break;
+				case TRAIL_CELL_MASK:
+					cellMasks[number] = oldValue;
+					break;
+				case TRAIL_LAST_MASK:
+					lastMasks[number][index] = oldValue;
+					break;
+				case TRAIL_REASONS:
+					reasons[index] = oldValue;
+					break;
+				default:
+					bestPositions[number] = (int)oldValue;
+					break;
+				}
+			}
+		}
+
+		// return copy of the state the trail records changes to: domains, their sizes, cell masks,
+		// the masks each slot was last made consistent with, and reasons, one after another
+		long[] getTrailedState() {
+			int size = domainSizes.length + cellMasks.length + reasons.length;
+			for (int slot = 0; slot < domains.length; ++slot)
+				size += domains[slot].length + lastMasks[slot].length;
+			long[] retval = new long[size];
+			int offset = 0;
+			for (long[] domain : domains) {
+				System.arraycopy(domain, 0, retval, offset, domain.length);
+				offset += domain.length;
+			}
+			for (int domainSize : domainSizes)
+				retval[offset++] = domainSize;
+			System.arraycopy(cellMasks, 0, retval, offset, cellMasks.length);
+			offset += cellMasks.length;
+			for (long[] slotLastMasks : lastMasks) {
+				System.arraycopy(slotLastMasks, 0, retval, offset, slotLastMasks.length);
+				offset += slotLastMasks.length;
+			}
+			System.arraycopy(reasons, 0, retval, offset, reasons.length);
+			return retval;
+		}
+
+		// propagate changes until every slot is consistent with its cells, returning false if any domain empties
+		boolean propagate() {
+			while (queueSize > 0) {
+				int slot = queue[queueHead];
+				queueHead = (queueHead + 1) % queue.length;
+				--queueSize;
+				inQueue[slot] = false;
+				if (! revise(slot)) {
+					conflict = getReasons(slot);
+					stale[slot] = false;
+					clearQueue();
+					return false;
+				}
+			}
+			return true;
+		}
+
+		// empty propagation queue, after a failure
+		private void clearQueue() {
+			while (queueSize > 0) {
+				inQueue[queue[queueHead]] = false;
+				stale[queue[queueHead]] = false;
+				queueHead = (queueHead + 1) % queue.length;
+				--queueSize;
+			}
+		}
+
+		// return pseudo-randomly chosen word index from domain, which must not be empty
+		private int chooseIndex(long[] domain) {
+			int retval = nextSetBit(domain, random.nextInt(domain.length << 6));
+			return retval >= 0 ? retval : nextSetBit(domain, 0);
+		}
+
+		// make slot's domain consistent with its cells' masks, then narrow its cells' masks to letters it supports,
+		// queuing crossing slots whose cells changed. Returns false if slot's domain is empty
+		private boolean revise(int slot) {
+			int[] cells = model.getSlotCells(slot);
+			int[] positions = model.getSlotCellPositions(slot);
+			long[] slotLastMasks = lastMasks[slot];
+			for (int k = 0; k < cells.length; ++k) {
+				long mask = cellMasks[cells[k]];
+				if (mask != slotLastMasks[k]) {
+					if (filter(slot, positions[k], mask)) {
+						stale[slot] = true;
+						orReasons(slot * setLength, (lengths.length + cells[k]) * setLength);
+					}
+					setLastMask(slot, k, mask);
+				}
+			}
+			if (domainSizes[slot] == 0)
+				return false;
+			if (! stale[slot])
+				return true;
+			stale[slot] = false;
+
+			long[] supports = computeSupports(slot);
+			for (int k = 0; k < cells.length; ++k) {
+				int cell = cells[k];
+				long newMask = cellMasks[cell] & supports[k];
+				setLastMask(slot, k, newMask);
+				if (newMask != cellMasks[cell]) {
+					setCellMask(cell, newMask);
+					orReasons((lengths.length + cell) * setLength, slot * setLength);
+					for (int otherSlot : model.getCellSlots(cell))
+						if (otherSlot != slot)
+							enqueue(otherSlot);
+				}
+			}
+			return true;
+		}
+
+		// remove from slot's domain all words not having a letter in mask at position, returning whether any removed
+		private boolean filter(int slot, int position, long mask) {
+			long[] domain = domains[slot];
+			int length = lengths[slot];
+			int newSize = 0;
+			if (Long.bitCount(mask) <= MAX_LETTERS_FOR_POSTINGS_FILTER) {
+				// and with the union of the postings of each allowed letter
+				long[][] postings = new long[Long.bitCount(mask)][];
+				int numPostings = 0;
+				for (long remaining = mask; remaining != 0; remaining &= remaining - 1)
+					postings[numPostings++] = getPostingBitset(length, position, Long.numberOfTrailingZeros(remaining));
+				for (int i = 0; i < domain.length; ++i) {
+					if (domain[i] == 0L)
+						continue;
+					long allowed = 0L;
+					for (long[] posting : postings)
+						allowed |= posting[i];
+					setDomainBits(slot, i, domain[i] & allowed);
+					newSize += Long.bitCount(domain[i]);
+				}
+			} else {
+				// check letter of each word still in domain
+				byte[] codes = codesByLength[length];
+				for (int i = 0; i < domain.length; ++i) {
+					long bits = domain[i];
+					for (long remaining = bits; remaining != 0; remaining &= remaining - 1) {
+						int index = (i << 6) + Long.numberOfTrailingZeros(remaining);
+						if ((mask & (1L << codes[index * length + position])) == 0)
+							bits &= ~(1L << index);
+					}
+					setDomainBits(slot, i, bits);
+					newSize += Long.bitCount(bits);
+				}
+			}
+			boolean changed = newSize != domainSizes[slot];
+			setDomainSize(slot, newSize);
+			return changed;
+		}
+
+		// return mask of letters appearing in slot's domain at each of its cells
+		private long[] computeSupports(int slot) {
+			int[] cells = model.getSlotCells(slot);
+			int[] positions = model.getSlotCellPositions(slot);
+			int length = lengths[slot];
+			byte[] codes = codesByLength[length];
+			long[] domain = domains[slot];
+			long[] supports = new long[cells.length];
+			for (int i = 0; i < domain.length; ++i) {
+				for (long remaining = domain[i]; remaining != 0; remaining &= remaining - 1) {
+					int offset = ((i << 6) + Long.numberOfTrailingZeros(remaining)) * length;
+					for (int k = 0; k < positions.length; ++k)
+						supports[k] |= 1L << codes[offset + positions[k]];
+				}
+				// stop early once every cell has all its letters supported
+				if (isFullySupported(cells, supports))
+					break;
+			}
+			return supports;
+		}
+
+		// return whether supports include every letter still possible for each cell
+		private boolean isFullySupported(int[] cells, long[] supports) {
+			for (int k = 0; k < cells.length; ++k)
+				if ((cellMasks[cells[k]] & ~supports[k]) != 0)
+					return false;
+			return true;
+		}
+
+		// return bitset of indexes of words of length having letter with specified code at position
+		private long[] getPostingBitset(int length, int position, int code) {
+			long[] retval = postingBitsets[length][position][code];
+			if (retval == null) {
+				retval = new long[(dict.getWordCount(length) + 63) >>> 6];
+				for (int index : dict.getPostings(length, position, alphabet.decode(code)))
+					retval[index >>> 6] |= 1L << index;
+				postingBitsets[length][position][code] = retval;
+			}
+			return retval;
+		}
+
+		// add slot to propagation queue, if not already there
+		private void enqueue(int slot) {
+			if (! inQueue[slot]) {
+				inQueue[slot] = true;
+				queue[(queueHead + queueSize) % queue.length] = slot;
+				++queueSize;
+			}
+		}
+	}
+
+	/**
+	 * Search of a group of words in parallel, split into one subproblem per candidate of the group's most
+	 * constrained word. Each worker searches with a Search of its own, undoing its state from its trail
+	 * between subproblems, and takes the next subproblem not yet taken each time it finishes one, so workers
+	 * given quick subproblems search more of them. Short nogoods learned by any worker are shared with the
+	 * others, and the first fill found stops every worker, as does a failure not depending on the word
+	 * searched is split on, which shows there's no fill at all.
+	 */
+	private class ParallelSearch {
+		// grid being filled
+		private final Grid grid;
+
+		// compiled words to fill
+		private final SolverModel model;
+
+		// dictionary to fill from
+		private final IndexedDictionary<Word> dict;
+
+		// [grid cell number] = letter cell must take, or '\0' for any
+		private final char[] fixedLetters;
+
+		// executor to run workers other than the first on
+		private final ExecutorService executor;
+
+		// permits to start workers other than the first, shared by all parallel searches of fill
+		private final Semaphore workerPermits;
+
+		// time at which to give up, in milliseconds
+		private final long deadline;
+
+		// number of search nodes expanded by all searches of fill, limited to maxNodes
+		private final AtomicInteger fillNodes;
+
+		// whether workers are to stop
+		private volatile boolean stopped;
+
+		// slot number of word search is split on, and its candidates, in order to search them
+		private int splitSlot;
+		private int[] candidates;
+
+		// position in candidates of next subproblem to search
+		private final AtomicInteger nextCandidate = new AtomicInteger();
+
+		// nogoods shared, as slot numbers and word indexes of their assignments, in order shared
+		private final List<Pair<int[], int[]>> sharedNogoods = new ArrayList<Pair<int[], int[]>>();
+
+		// worker which found a fill, or null if none
+		private Search winner;
+
+		/**
+		 * Constructor for ParallelSearch.
+		 * @param grid grid being filled
+		 * @param model compiled words to fill, which must form a single group
+		 * @param dict dictionary to fill from
+		 * @param fixedLetters [grid cell number] = letter cell must take, or '\0' for any
+		 * @param executor executor to run workers other than the first on
+		 * @param workerPermits permits to start workers other than the first, shared by all parallel searches of fill
+		 * @param deadline time at which to give up, in milliseconds
+		 * @param fillNodes number of search nodes expanded by all searches of fill, limited to maxNodes
+		 */
+		public ParallelSearch(Grid grid, SolverModel model, IndexedDictionary<Word> dict, char[] fixedLetters,
+				ExecutorService executor, Semaphore workerPermits, long deadline, AtomicInteger fillNodes) {
+			this.grid = grid;
+			this.model = model;
+			this.dict = dict;
+			this.fixedLetters = fixedLetters;
+			this.executor = executor;
+			this.workerPermits = workerPermits;
+			this.deadline = deadline;
+			this.fillNodes = fillNodes;
+		}
+
+		/**
+		 * Search for a fill, without writing it to the grid.
+		 * @param numWorkers maximum number of workers to search with, one of them on this thread; fewer are used
+		 * if the other parallel searches of the fill are using the remaining processors
+		 * @return each word of fill and its letters, or null if no fill was found
+		 */
+		public List<Pair<GridWord, char[]>> findFill(int numWorkers) throws InterruptedException {
+			Search first = createWorker();
+			if (first == null)
+				return null;				// no fill possible
+
+			// split on unassigned slot having the smallest domain, trying its candidates in pseudo-random order
+			splitSlot = -1;
+			for (int slot = 0; slot < first.domainSizes.length; ++slot)
+				if (first.domainSizes[slot] > 1 && (splitSlot < 0 || first.domainSizes[slot] < first.domainSizes[splitSlot]))
+					splitSlot = slot;
+			if (splitSlot < 0)
+				return first.findFill();	// propagation alone leaves one word for each slot
+			candidates = first.getCandidates(splitSlot);
+			Random random = new Random(seed);
+			for (int i = candidates.length - 1; i > 0; --i) {
+				int j = random.nextInt(i + 1);
+				int temp = candidates[i];
+				candidates[i] = candidates[j];
+				candidates[j] = temp;
+			}
+
+			List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+			for (int i = 1; i < numWorkers && i < candidates.length && workerPermits.tryAcquire(); ++i) {
+				futures.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						try {
+							Search worker = createWorker();
+							return worker != null && work(worker);
+						} finally {
+							workerPermits.release();
+						}
+					}
+				}));
+			}
+			try {
+				work(first);
+				for (Future<Boolean> future : futures) {
+					try {
+						future.get();
+					} catch (ExecutionException e) {
+						LOG.log(Level.SEVERE, "Parallel auto-fill worker failed", e.getCause());
+					}
+				}
+			} finally {
+				stopped = true;
+			}
+			return winner != null ? winner.getFillWords() : null;
+		}
+
+		// return new worker, with its initial state propagated, or null if no fill is possible
+		private Search createWorker() {
+			Search retval = new Search(grid, model, dict, null, false, null, deadline, fixedLetters, fillNodes);
+			retval.parallel = this;
+			return retval.propagate() ? retval : null;
+		}
+
+		// search subproblems with worker until none are left, or workers are to stop, returning whether worker found a fill
+		private boolean work(Search worker) {
+			for (int i = nextCandidate.getAndIncrement(); i < candidates.length && ! stopped; i = nextCandidate.getAndIncrement()) {
+				if (worker.fillWith(splitSlot, candidates[i])) {
+					synchronized (this) {
+						if (winner == null)
+							winner = worker;
+					}
+					stopped = true;
+					return true;
+				}
+				if (worker.aborted || ! worker.failureDependsOn(splitSlot)) {
+					// out of budget, or no fill possible with any candidate
+					stopped = true;
+					return false;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Share nogood with other workers.
+		 * @param slots slot number of each assignment
+		 * @param indexes word index of each assignment, parallel to slots
+		 */
+		public synchronized void shareNogood(int[] slots, int[] indexes) {
+			sharedNogoods.add(new Pair<int[], int[]>(slots, indexes));
+		}
+
+		/**
+		 * Share short nogoods of store with workers, e.g. those learned by a search of the group
+		 * before it was split, so workers don't search the same dead ends again.
+		 * @param store store of nogoods
+		 * @return number of nogoods shared
+		 */
+		public synchronized int shareNogoods(NogoodStore store) {
+			int retval = 0;
+			for (NogoodStore.Nogood nogood : store.getNogoods()) {
+				if (nogood.slots.length <= MAX_SHARED_NOGOOD_SIZE) {
+					sharedNogoods.add(new Pair<int[], int[]>(nogood.slots, nogood.indexes));
+					++retval;
+				}
+			}
+			return retval;
+		}
+
+		/**
+		 * Add nogoods shared since those already added to store.
+		 * @param store worker's store of nogoods
+		 * @param numAdded number of shared nogoods already added to store
+		 * @return number of shared nogoods now added to store
+		 */
+		public synchronized int addSharedNogoods(NogoodStore store, int numAdded) {
+			for (int i = numAdded; i < sharedNogoods.size(); ++i)
+				store.add(sharedNogoods.get(i).first, sharedNogoods.get(i).second);
+			return sharedNogoods.size();
+		}
+	}
+
+	/**
+	 * Return ith element of the Luby sequence 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, ...
+	 * which is within a logarithmic factor of the optimal restart schedule when nothing is known of
+	 * the distribution of run times.
+	 * @param i index into sequence, starting from 1
+	 * @return ith element of Luby sequence
+	 */
+	static int luby(int i) {
+		while (true) {
+			// find smallest k such that i <= 2^k - 1
+			int k = 1;
+			while ((1 << k) - 1 < i)
+				++k;
+			if ((1 << k) - 1 == i)
+				return 1 << (k - 1);
+			i -= (1 << (k - 1)) - 1;
+		}
+	}
+
+	// return well-mixed hash of assignment of word index to slot
+	private static long hash(int slot, int index) {
+		long retval = ((long)slot << 32 | index) * 0x9E3779B97F4A7C15L;
+		retval ^= retval >>> 29;
+		retval *= 0xBF58476D1CE4E5B9L;
+		return retval ^ (retval >>> 32);
+	}
+
+	// return number of bits set in bitset
+	private static int cardinality(long[] bitset) {
+		int retval = 0;
+		for (long bits : bitset)
+			retval += Long.bitCount(bits);
+		return retval;
+	}
+
+	// return index of first bit set in bitset at or after fromIndex, or -1 if none
+	private static int nextSetBit(long[] bitset, int fromIndex) {
+		int i = fromIndex >>> 6;
+		if (i >= bitset.length)
+			return -1;
+		long bits = bitset[i] & (-1L << fromIndex);
+		while (bits == 0L) {
+			if (++i >= bitset.length)
+				return -1;
+			bits = bitset[i];
+		}
+		return (i << 6) + Long.numberOfTrailingZeros(bits);
+	}
+}
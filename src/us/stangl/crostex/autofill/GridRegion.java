@@ -0,0 +1,84 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import us.stangl.crostex.Grid;
+import us.stangl.crostex.GridWord;
+import us.stangl.crostex.util.RowColumnPair;
+
+/**
+ * Region of a grid for region auto-fillers: all empty cells contiguous to a starting cell.
+ * @author Alex Stangl
+ */
+class GridRegion {
+	/** coordinates of all cells in region */
+	private final Set<RowColumnPair> cells = new HashSet<RowColumnPair>();
+
+	/**
+	 * Constructor for GridRegion.
+	 * @param grid grid
+	 * @param row row of starting cell
+	 * @param column column of starting cell
+	 */
+	public GridRegion(Grid grid, int row, int column) {
+		findRegion(row, column, grid);
+	}
+
+	/**
+	 * Constructor for GridRegion starting from current cell of grid.
+	 * @param grid grid
+	 */
+	public GridRegion(Grid grid) {
+		this(grid, grid.getCurrentRow(), grid.getCurrentColumn());
+	}
+
+	/**
+	 * @return whether region is empty, i.e., starting cell isn't eligible for autofill
+	 */
+	public boolean isEmpty() {
+		return cells.isEmpty();
+	}
+
+	/**
+	 * Filter specified GridWords, returning list of only those intersecting with region.
+	 * @param gridWords words to filter
+	 * @return words intersecting region
+	 */
+	public List<GridWord> intersectWords(Collection<GridWord> gridWords) {
+		List<GridWord> retval = new ArrayList<GridWord>();
+		for (GridWord gridWord : gridWords)
+			if (intersects(gridWord))
+				retval.add(gridWord);
+		return retval;
+	}
+
+	// performing a flood-fill-like algorithm, find transitive closure of all empty cells connected to specified cell
+	private void findRegion(int row, int column, Grid grid) {
+		if (row >= 0 && column >= 0 && row < grid.getHeight() && column < grid.getWidth()
+				&& grid.getCell(row, column).isEligibleForAutofill()) {
+			RowColumnPair pair = new RowColumnPair(row, column);
+			if (! cells.contains(pair)) {
+				cells.add(pair);
+				findRegion(row - 1, column, grid);
+				findRegion(row + 1, column, grid);
+				findRegion(row, column - 1, grid);
+				findRegion(row, column + 1, grid);
+			}
+		}
+	}
+
+	// return whether specified GridWord intersects region
+	private boolean intersects(GridWord gridWord) {
+		for (RowColumnPair pair : gridWord.getCoordinatesOfAllCells())
+			if (cells.contains(pair))
+				return true;
+		return false;
+	}
+}
@@ -0,0 +1,413 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import us.stangl.crostex.Cell;
+import us.stangl.crostex.Grid;
+import us.stangl.crostex.GridWord;
+import us.stangl.crostex.Word;
+import us.stangl.crostex.dictionary.Dictionary;
+import us.stangl.crostex.dictionary.IndexedDictionary;
+import us.stangl.crostex.util.Pair;
+
+/**
+ * Local search implementation of auto-fill, using the min-conflicts heuristic.
+ * Starts with a word in every word to fill, crossing words not necessarily agreeing, then repeatedly
+ * replaces a word that disagrees with a crossing word by one that disagrees with as few crossing words
+ * as possible, found by near-miss lookup, making an occasional random move to escape local minima.
+ * Unlike the backtracking auto-fillers, it cannot prove a grid unfillable; it gives up after maxSteps.
+ * It can also repair an existing fill after a few letters have been edited, changing only the words nearby.
+ * Rebus cells are not filled by min-conflicts; given rebus strings, by setRebusStrings, grids having rebus cells
+ * to fill are filled by AutoFiller7 instead.
+ * @author Alex Stangl
+ */
+public class MinConflictsAutoFiller implements AutoFillGrid {
+	/** default maximum number of words to replace before giving up */
+	public static final int DEFAULT_MAX_STEPS = 20000;
+
+	/** percentage of steps that replace a word at random, rather than by the min-conflicts heuristic */
+	private static final int RANDOM_MOVE_PERCENTAGE = 10;
+
+	/** maximum number of crossing words a replacement word is allowed to disagree with */
+	private static final int MAX_NEAR_MISS_DISTANCE = 2;
+
+	/** maximum number of words to replace per word being repaired, before widening the repair */
+	private static final int REPAIR_STEPS_PER_WORD = 50;
+
+	/** maximum number of search nodes for complete search of words being repaired, before widening the repair */
+	private static final int REPAIR_MAX_NODES = 20000;
+
+	/** maximum number of words to replace before giving up */
+	private final int maxSteps;
+
+	/** pseudo-random number generator, used to pick words to replace, and their replacements */
+	private final Random random;
+
+	/** strings allowed in rebus cells, used by AutoFiller7 to fill grids having rebus cells */
+	private List<String> rebusStrings = Collections.<String>emptyList();
+
+	/**
+	 * Constructor for MinConflictsAutoFiller using default maximum number of steps.
+	 */
+	public MinConflictsAutoFiller() {
+		this(DEFAULT_MAX_STEPS, 0L);
+	}
+
+	/**
+	 * Constructor for MinConflictsAutoFiller.
+	 * @param maxSteps maximum number of words to replace before giving up
+	 * @param seed seed for pseudo-random number generator
+	 */
+	public MinConflictsAutoFiller(int maxSteps, long seed) {
+		this.maxSteps = maxSteps;
+		this.random = new Random(seed);
+	}
+
+	/**
+	 * Set strings allowed in cells marked as rebus cells, each of which is filled with one of them.
+	 * Grids having rebus cells to fill are then filled by an AutoFiller7 using them.
+	 * Without any, words having rebus cells can't be filled.
+	 * @param rebusStrings strings allowed in rebus cells, e.g., "HEART", each at least 1 character long
+	 * @throws IllegalArgumentException if any string is empty, or there are too many
+	 */
+	public void setRebusStrings(Collection<String> rebusStrings) {
+		new RebusVocabulary(rebusStrings);		// check strings now, rather than when filling
+		this.rebusStrings = new ArrayList<String>(rebusStrings);
+	}
+
+	@Override
+	public boolean autoFill(Grid grid, Dictionary<char[], Word> dict) {
+		if (! rebusStrings.isEmpty()
+				&& (RebusVocabulary.hasRebusCell(grid.getAcrossWords()) || RebusVocabulary.hasRebusCell(grid.getDownWords()))) {
+			AutoFiller7 autoFiller = new AutoFiller7();
+			autoFiller.setRebusStrings(rebusStrings);
+			return autoFiller.autoFill(grid, dict);
+		}
+		List<Slot> slots = buildSlots(grid, dict);
+		if (slots == null)
+			return false;			// at least one word pattern could not be satisfied by auto-fill
+
+		// Initial assignment: each word agrees with the crossing words already assigned, where possible
+		for (Slot slot : slots) {
+			List<Pair<char[], Word>> matches = dict.getPatternMatches(slot.computeCrossingPattern());
+			slot.current = matches.isEmpty() ? pickRandom(slot.candidates) : pickRandom(matches);
+		}
+
+		return minimizeConflicts(slots, dict, maxSteps);
+	}
+
+	/**
+	 * Repair a fill after the user has edited some of its letters, changing as few other letters as possible.
+	 * Words which are incomplete or not in the dictionary are refilled, starting from their current letters,
+	 * together with the smallest neighbourhood of crossing words which makes that possible: first the words
+	 * in conflict themselves, then those plus the words crossing them, and so on, until the whole grid is
+	 * covered. Only letters shared entirely by words in the neighbourhood may change, so every word outside
+	 * it is left exactly as it was. Letters in fixedCells, typically the ones the user just edited, never change.
+	 * Each neighbourhood is first repaired by min-conflicts, starting from its current letters, for a few
+	 * steps per word. Given an IndexedDictionary, a bounded complete search by AutoFiller8 follows, which
+	 * changes more letters, but quickly finds a repair, or shows none is likely, for a small neighbourhood.
+	 * @param grid grid to repair
+	 * @param dict dictionary
+	 * @param fixedCells cells whose letters must not be changed
+	 * @return whether every word in grid is now complete and in the dictionary; if not, grid is left unchanged
+	 */
+	public boolean repair(Grid grid, Dictionary<char[], Word> dict, Collection<Cell> fixedCells) {
+		List<GridWord> words = grid.getAcrossWords();
+		words.addAll(grid.getDownWords());
+		Map<Cell, List<GridWord>> cellToWordsMap = new HashMap<Cell, List<GridWord>>();
+		Set<GridWord> neighbourhood = new HashSet<GridWord>();
+		for (GridWord word : words) {
+			for (Cell cell : word.getCells()) {
+				List<GridWord> cellWords = cellToWordsMap.get(cell);
+				if (cellWords == null) {
+					cellWords = new ArrayList<GridWord>(2);
+					cellToWordsMap.put(cell, cellWords);
+				}
+				cellWords.add(word);
+			}
+			if (! isValid(word, dict))
+				neighbourhood.add(word);
+		}
+		Set<GridWord> conflictedWords = new HashSet<GridWord>(neighbourhood);
+
+		while (! neighbourhood.isEmpty()) {
+			if (Thread.currentThread().isInterrupted())
+				return false;
+			if (repairNeighbourhood(grid, dict, neighbourhood, conflictedWords, cellToWordsMap, fixedCells))
+				return true;
+
+			// Widen neighbourhood by the words crossing it, giving up once it covers every word it can reach
+			Set<GridWord> widened = new HashSet<GridWord>(neighbourhood);
+			for (GridWord word : neighbourhood)
+				for (Cell cell : word.getCells())
+					widened.addAll(cellToWordsMap.get(cell));
+			if (widened.size() == neighbourhood.size())
+				return false;
+			neighbourhood = widened;
+		}
+		return true;
+	}
+
+	// try to refill the changeable cells of neighbourhood, restoring their letters if unable
+	private boolean repairNeighbourhood(Grid grid, Dictionary<char[], Word> dict, Set<GridWord> neighbourhood,
+			Set<GridWord> conflictedWords, Map<Cell, List<GridWord>> cellToWordsMap, Collection<Cell> fixedCells) {
+		// Empty each changeable cell, so the words to refill are exactly those eligible for autofill
+		Map<Cell, String> savedContents = new HashMap<Cell, String>();
+		for (GridWord word : neighbourhood) {
+			for (Cell cell : word.getCells()) {
+				if (cell.getContentsSize() == 1 && ! fixedCells.contains(cell)
+						&& neighbourhood.containsAll(cellToWordsMap.get(cell))) {
+					savedContents.put(cell, cell.getContents());
+					cell.setEmpty();
+				}
+			}
+		}
+
+		boolean repaired = false;
+		List<Slot> slots = null;
+		if (isRefillable(conflictedWords))
+			slots = buildSlots(grid, dict);
+		if (slots != null) {
+			// Keep each word's current letters, where they still form a word, and otherwise start from
+			// the word closest to them which agrees with the crossing words kept so far
+			List<Slot> unassignedSlots = new ArrayList<Slot>();
+			for (Slot slot : slots) {
+				char[] pattern = slot.computeSavedPattern(savedContents);
+				List<Pair<char[], Word>> matches = pattern == null
+					? Collections.<Pair<char[], Word>>emptyList() : dict.getPatternMatches(pattern);
+				if (matches.isEmpty())
+					unassignedSlots.add(slot);
+				else
+					slot.current = matches.get(0);
+			}
+			for (Slot slot : unassignedSlots)
+				slot.current = findLeastConflictingReplacement(slot, dict);
+			repaired = minimizeConflicts(slots, dict, Math.min(maxSteps, REPAIR_STEPS_PER_WORD * slots.size()));
+			if (! repaired && dict instanceof IndexedDictionary)
+				repaired = new AutoFiller8(random.nextLong(), REPAIR_MAX_NODES, 0L).autoFill(grid, dict);
+		}
+		if (! repaired)
+			for (Map.Entry<Cell, String> entry : savedContents.entrySet())
+				entry.getKey().setContents(entry.getValue());
+		return repaired;
+	}
+
+	// return whether each word has at least one cell to refill
+	private static boolean isRefillable(Set<GridWord> words) {
+		for (GridWord word : words)
+			if (! word.isEligibleForAutofill())
+				return false;
+		return true;
+	}
+
+	// return whether word is complete, and in the dictionary
+	private static boolean isValid(GridWord word, Dictionary<char[], Word> dict) {
+		return word.isComplete() && dict.lookup(word.getContents().toCharArray()) != null;
+	}
+
+	// replace words in conflict until there are none, then fill them into grid, returning whether successful
+	private boolean minimizeConflicts(List<Slot> slots, Dictionary<char[], Word> dict, int maxSteps) {
+		Slot lastSlot = null;
+		List<Slot> conflictedSlots = new ArrayList<Slot>();
+		for (int step = 0; step < maxSteps; ++step) {
+			// Stop cooperatively if the thread running this fill has been interrupted, e.g., cancelled by a portfolio
+			if (Thread.currentThread().isInterrupted())
+				return false;
+			conflictedSlots.clear();
+			for (Slot slot : slots)
+				if (slot.isConflicted())
+					conflictedSlots.add(slot);
+			if (conflictedSlots.isEmpty()) {
+				for (Slot slot : slots)
+					slot.word.setAutofillContents(slot.current.first, slot.fillConfig);
+				return true;
+			}
+
+			// Don't pick the word just replaced again right away, unless it is the only one in conflict
+			if (conflictedSlots.size() > 1)
+				conflictedSlots.remove(lastSlot);
+			Slot slot = conflictedSlots.get(random.nextInt(conflictedSlots.size()));
+			slot.current = random.nextInt(100) < RANDOM_MOVE_PERCENTAGE
+				? pickRandom(slot.candidates) : findLeastConflictingReplacement(slot, dict);
+			lastSlot = slot;
+		}
+		return false;
+	}
+
+	// return list of slots for all words needing fill, linked to their crossings, or null if one can't be filled,
+	// as words having rebus cells can't, there being no rebus strings
+	private List<Slot> buildSlots(Grid grid, Dictionary<char[], Word> dict) {
+		List<Slot> retval = new ArrayList<Slot>();
+		Map<Cell, Slot> cellToAcrossSlotMap = new HashMap<Cell, Slot>();
+		for (GridWord word : grid.getAcrossWords()) {
+			if (word.isEligibleForAutofill()) {
+				Slot slot = new Slot(word, dict);
+				if (slot.candidates.isEmpty() || word.hasRebusCell())
+					return null;
+				retval.add(slot);
+				for (Cell cell : slot.fillConfig.first)
+					cellToAcrossSlotMap.put(cell, slot);
+			}
+		}
+		for (GridWord word : grid.getDownWords()) {
+			if (word.isEligibleForAutofill()) {
+				Slot slot = new Slot(word, dict);
+				if (slot.candidates.isEmpty() || word.hasRebusCell())
+					return null;
+				retval.add(slot);
+				Cell[] cells = slot.fillConfig.first;
+				for (int i = 0; i < cells.length; ++i) {
+					Slot acrossSlot = cellToAcrossSlotMap.get(cells[i]);
+					if (acrossSlot != null) {
+						int acrossIndex = acrossSlot.indexOfCell(cells[i]);
+						slot.crossings[i] = acrossSlot;
+						slot.crossingPositions[i] = acrossSlot.fillConfig.second[acrossIndex];
+						acrossSlot.crossings[acrossIndex] = slot;
+						acrossSlot.crossingPositions[acrossIndex] = slot.fillConfig.second[i];
+					}
+				}
+			}
+		}
+		return retval;
+	}
+
+	// return replacement for slot's word, disagreeing with as few crossing words as possible
+	private Pair<char[], Word> findLeastConflictingReplacement(Slot slot, Dictionary<char[], Word> dict) {
+		char[] pattern = slot.computeCrossingPattern();
+		List<Pair<char[], Word>> matches = dict.getPatternMatches(pattern);
+		if (! matches.isEmpty())
+			return pickRandom(matches);
+
+		for (int distance = 1; distance <= MAX_NEAR_MISS_DISTANCE; ++distance) {
+			List<Pair<char[], Word>> nearMisses = getReplacementNearMisses(dict, pattern, distance, slot.basePattern,
+					slot.current != null ? slot.current.first : null);
+			if (! nearMisses.isEmpty())
+				return pickRandom(nearMisses);
+		}
+		return pickRandom(slot.candidates);
+	}
+
+	// return near misses of pattern within distance which could replace current word of slot having basePattern.
+	// Near misses may differ from the pattern in a fixed cell, which is not allowed, so those are filtered out,
+	// as is the current word, which replacing by itself would change nothing. The dictionary may return a new
+	// char[] for each match, so the current word, if any, is recognized by its letters
+	static List<Pair<char[], Word>> getReplacementNearMisses(Dictionary<char[], Word> dict, char[] pattern, int distance,
+			char[] basePattern, char[] currentWord) {
+		List<Pair<char[], Word>> retval = new ArrayList<Pair<char[], Word>>();
+		for (Pair<char[], Word> nearMiss : dict.getNearMisses(pattern, distance))
+			if (conformsToPattern(nearMiss.first, basePattern) && ! Arrays.equals(nearMiss.first, currentWord))
+				retval.add(nearMiss);
+		return retval;
+	}
+
+	// return random element from specified non-empty list
+	private Pair<char[], Word> pickRandom(List<Pair<char[], Word>> list) {
+		return list.get(random.nextInt(list.size()));
+	}
+
+	// return whether specified value matches specified pattern, expected to be of same length
+	private static boolean conformsToPattern(char[] value, char[] pattern) {
+		for (int i = 0; i < pattern.length; ++i)
+			if (pattern[i] != Dictionary.WILDCARD && pattern[i] != value[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Word to fill, together with its current word and crossings.
+	 */
+	private static class Slot {
+		// word in grid
+		public final GridWord word;
+
+		// cells eligible for autofill, with their corresponding indexes into pattern
+		public final Pair<Cell[], int[]> fillConfig;
+
+		// pattern for word, with only the cells not eligible for autofill filled in
+		public final char[] basePattern;
+
+		// all words matching basePattern
+		public final List<Pair<char[], Word>> candidates;
+
+		// crossing slot for each cell in fillConfig, or null if none
+		public final Slot[] crossings;
+
+		// index into crossing slot's pattern, for each cell in fillConfig
+		public final int[] crossingPositions;
+
+		// word currently assigned
+		public Pair<char[], Word> current;
+
+		public Slot(GridWord word, Dictionary<char[], Word> dict) {
+			this.word = word;
+			this.fillConfig = word.getFillConfig();
+			char[] pattern = word.getPattern();
+			this.basePattern = new char[pattern.length];
+			System.arraycopy(pattern, 0, basePattern, 0, pattern.length);
+			this.candidates = dict.getPatternMatches(basePattern);
+			this.crossings = new Slot[fillConfig.first.length];
+			this.crossingPositions = new int[fillConfig.first.length];
+		}
+
+		// return index of specified cell in fillConfig, or -1 if not present
+		public int indexOfCell(Cell cell) {
+			Cell[] cells = fillConfig.first;
+			for (int i = 0; i < cells.length; ++i)
+				if (cells[i] == cell)
+					return i;
+			return -1;
+		}
+
+		// return whether current word disagrees with any crossing word
+		public boolean isConflicted() {
+			int[] positions = fillConfig.second;
+			for (int i = 0; i < crossings.length; ++i) {
+				Slot crossing = crossings[i];
+				if (crossing != null && crossing.current != null
+						&& crossing.current.first[crossingPositions[i]] != current.first[positions[i]])
+					return true;
+			}
+			return false;
+		}
+
+		// return basePattern, plus the saved letter of each cell, or null if any cell has no saved letter
+		public char[] computeSavedPattern(Map<Cell, String> savedContents) {
+			char[] retval = new char[basePattern.length];
+			System.arraycopy(basePattern, 0, retval, 0, basePattern.length);
+			Cell[] cells = fillConfig.first;
+			int[] positions = fillConfig.second;
+			for (int i = 0; i < cells.length; ++i) {
+				String contents = savedContents.get(cells[i]);
+				if (contents == null)
+					return null;
+				retval[positions[i]] = contents.charAt(0);
+			}
+			return retval;
+		}
+
+		// return basePattern, plus the letters of crossing words at each crossing. Returns new array
+		public char[] computeCrossingPattern() {
+			char[] retval = new char[basePattern.length];
+			System.arraycopy(basePattern, 0, retval, 0, basePattern.length);
+			int[] positions = fillConfig.second;
+			for (int i = 0; i < crossings.length; ++i) {
+				Slot crossing = crossings[i];
+				if (crossing != null && crossing.current != null)
+					retval[positions[i]] = crossing.current.first[crossingPositions[i]];
+			}
+			return retval;
+		}
+	}
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Store of nogoods learned by an auto-filler: sets of (slot, word index) assignments which cannot all
+ * hold in any fill. Each nogood watches two of its assignments, and is only looked at when one of
+ * them is made, as in SAT solvers. Duplicate nogoods are stored once.
+ * A store lasts for one fill request, and may be shared by successive searches (e.g. after restarts),
+ * so dead ends found by one search are never re-explored by another.
+ * @author Alex Stangl
+ */
+class NogoodStore {
+	/** default maximum number of assignments in a nogood; longer ones are seldom matched again */
+	public static final int DEFAULT_MAX_NOGOOD_SIZE = 32;
+
+	/** default maximum number of nogoods to store */
+	public static final int DEFAULT_MAX_NOGOODS = 100000;
+
+	/** maximum number of assignments in a nogood */
+	private final int maxNogoodSize;
+
+	/** maximum number of nogoods to store */
+	private final int maxNogoods;
+
+	/** all nogoods stored */
+	private final Set<Nogood> nogoods = new HashSet<Nogood>();
+
+	/** map from assignment key to nogoods watching that assignment */
+	private final Map<Long, List<Nogood>> watches = new HashMap<Long, List<Nogood>>();
+
+	/**
+	 * Constructor for NogoodStore with default limits.
+	 */
+	public NogoodStore() {
+		this(DEFAULT_MAX_NOGOOD_SIZE, DEFAULT_MAX_NOGOODS);
+	}
+
+	/**
+	 * Constructor for NogoodStore.
+	 * @param maxNogoodSize maximum number of assignments in a nogood; longer ones are not stored
+	 * @param maxNogoods maximum number of nogoods to store; once reached, no more are stored
+	 */
+	public NogoodStore(int maxNogoodSize, int maxNogoods) {
+		this.maxNogoodSize = maxNogoodSize;
+		this.maxNogoods = maxNogoods;
+	}
+
+	/**
+	 * Add nogood, unless too long, already stored, or store is full.
+	 * The first two assignments are watched, so should be the ones least likely to already hold.
+	 * @param slots slot number of each assignment
+	 * @param indexes word index of each assignment, parallel to slots
+	 * @return whether nogood was added
+	 */
+	public boolean add(int[] slots, int[] indexes) {
+		if (slots.length == 0 || slots.length > maxNogoodSize || nogoods.size() >= maxNogoods)
+			return false;
+		Nogood nogood = new Nogood(slots, indexes);
+		if (! nogoods.add(nogood))
+			return false;
+		addWatch(nogood, 0);
+		if (slots.length > 1)
+			addWatch(nogood, 1);
+		return true;
+	}
+
+	/**
+	 * @return number of nogoods stored
+	 */
+	public int size() {
+		return nogoods.size();
+	}
+
+	/**
+	 * @return all nogoods stored, in no particular order, as an unmodifiable view
+	 */
+	public Collection<Nogood> getNogoods() {
+		return Collections.unmodifiableSet(nogoods);
+	}
+
+	/**
+	 * NOTE: the returned list is shared, and must be replaced, using setWatching, rather than modified.
+	 * @param slot slot number
+	 * @param index word index
+	 * @return nogoods watching assignment of word index to slot, or null if none
+	 */
+	public List<Nogood> getWatching(int slot, int index) {
+		return watches.get(key(slot, index));
+	}
+
+	/**
+	 * Replace nogoods watching assignment of word index to slot.
+	 * @param slot slot number
+	 * @param index word index
+	 * @param nogoods nogoods now watching assignment
+	 */
+	public void setWatching(int slot, int index, List<Nogood> nogoods) {
+		if (nogoods.isEmpty())
+			watches.remove(key(slot, index));
+		else
+			watches.put(key(slot, index), nogoods);
+	}
+
+	/**
+	 * Move one of nogood's watches to another of its assignments.
+	 * Caller is responsible for removing nogood from the list watching the assignment previously watched.
+	 * @param nogood nogood
+	 * @param watchNumber which watch to move, 0 or 1
+	 * @param position position in nogood of assignment to watch
+	 */
+	public void moveWatch(Nogood nogood, int watchNumber, int position) {
+		nogood.watched[watchNumber] = position;
+		addWatch(nogood, watchNumber);
+	}
+
+	// add nogood to list watching its assignment at watch position watchNumber
+	private void addWatch(Nogood nogood, int watchNumber) {
+		int position = nogood.watched[watchNumber];
+		Long key = key(nogood.slots[position], nogood.indexes[position]);
+		List<Nogood> list = watches.get(key);
+		if (list == null) {
+			list = new ArrayList<Nogood>();
+			watches.put(key, list);
+		}
+		list.add(nogood);
+	}
+
+	// return key of assignment of word index to slot
+	private static Long key(int slot, int index) {
+		return ((long)slot << 32) | index;
+	}
+
+	/**
+	 * Set of (slot, word index) assignments which cannot all hold at once.
+	 */
+	static class Nogood {
+		/** slot number of each assignment */
+		final int[] slots;
+
+		/** word index of each assignment, parallel to slots */
+		final int[] indexes;
+
+		/** positions of the 2 assignments watched; the same for a nogood of 1 assignment */
+		final int[] watched = new int[] {0, 1};
+
+		/** keys of all assignments, sorted, so nogoods differing only in order compare equal */
+		private final long[] sortedKeys;
+
+		Nogood(int[] slots, int[] indexes) {
+			this.slots = slots;
+			this.indexes = indexes;
+			if (slots.length == 1)
+				watched[1] = 0;
+			sortedKeys = new long[slots.length];
+			for (int i = 0; i < slots.length; ++i)
+				sortedKeys[i] = key(slots[i], indexes[i]);
+			Arrays.sort(sortedKeys);
+		}
+
+		/**
+		 * @param slot slot number
+		 * @param index word index
+		 * @return which watch is on assignment of word index to slot, 0 or 1, or -1 if neither
+		 */
+		int getWatchNumber(int slot, int index) {
+			for (int i = 0; i < 2; ++i)
+				if (slots[watched[i]] == slot && indexes[watched[i]] == index)
+					return i;
+			return -1;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (! (obj instanceof Nogood))
+				return false;
+			return Arrays.equals(sortedKeys, ((Nogood)obj).sortedKeys);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(sortedKeys);
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import us.stangl.crostex.Grid;
+import us.stangl.crostex.Word;
+import us.stangl.crostex.dictionary.Dictionary;
+
+/**
+ * Auto-filler that runs a portfolio of differently configured auto-fillers in parallel, each on its own
+ * copy of the grid. Fill time on hard grids varies enormously with heuristics and choice order, so
+ * running several at once cuts expected wall-clock time on multi-core machines. The first fill found
+ * is copied back into the grid, and the remaining auto-fillers are cancelled by interrupting them.
+ * NOTE: the dictionary must support concurrent queries, as Ydict does.
+ * @author Alex Stangl
+ */
+public class PortfolioAutoFiller implements AutoFillGrid {
+	/** logger */
+	private static final Logger LOG = Logger.getLogger(PortfolioAutoFiller.class.getName());
+
+	/** auto-fillers to run */
+	private final List<AutoFillGrid> strategies;
+
+	/** maximum number of auto-fillers to run at once */
+	private final int numThreads;
+
+	/**
+	 * Constructor for PortfolioAutoFiller running the default portfolio, one auto-filler per processor.
+	 */
+	public PortfolioAutoFiller() {
+		this(createDefaultStrategies(Runtime.getRuntime().availableProcessors()),
+				Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor for PortfolioAutoFiller.
+	 * Each auto-filler must stop, returning false, once the thread running it is interrupted.
+	 * @param strategies auto-fillers to run
+	 * @param numThreads maximum number of auto-fillers to run at once
+	 */
+	public PortfolioAutoFiller(List<AutoFillGrid> strategies, int numThreads) {
+		this.strategies = new ArrayList<AutoFillGrid>(strategies);
+		this.numThreads = Math.max(1, Math.min(numThreads, strategies.size()));
+	}
+
+	/**
+	 * Return default portfolio of auto-fillers: AutoFiller7 in dictionary order, AutoFiller7 trying
+	 * highest-scoring words first, AutoFiller7 trying least constraining words first, min-conflicts
+	 * local search, then as many AutoFiller7 with random choice order and varying breadth as needed
+	 * to make up the specified number.
+	 * @param numStrategies number of auto-fillers wanted; at least 4 are always returned
+	 * @return default portfolio of auto-fillers
+	 */
+	public static List<AutoFillGrid> createDefaultStrategies(int numStrategies) {
+		List<AutoFillGrid> retval = new ArrayList<AutoFillGrid>();
+		retval.add(new AutoFiller7());
+		retval.add(new AutoFiller7(AutoFiller7.DEFAULT_BREADTH, AutoFiller7.ChoiceOrder.SCORE, 0L));
+		retval.add(new AutoFiller7(AutoFiller7.DEFAULT_BREADTH, AutoFiller7.ChoiceOrder.LEAST_CONSTRAINING, 0L));
+		retval.add(new MinConflictsAutoFiller(MinConflictsAutoFiller.DEFAULT_MAX_STEPS, 1L));
+		for (int i = retval.size(); i < numStrategies; ++i)
+			retval.add(new AutoFiller7(2 + i % 4, AutoFiller7.ChoiceOrder.RANDOM, i));
+		return retval;
+	}
+
+	@Override
+	public boolean autoFill(Grid grid, final Dictionary<char[], Word> dict) {
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		CompletionService<Grid> completionService = new ExecutorCompletionService<Grid>(executor);
+		try {
+			for (final AutoFillGrid strategy : strategies) {
+				final Grid gridCopy = new Grid(grid);
+				completionService.submit(new Callable<Grid>() {
+					@Override
+					public Grid call() {
+						return strategy.autoFill(gridCopy, dict) ? gridCopy : null;
+					}
+				});
+			}
+			for (int i = 0; i < strategies.size(); ++i) {
+				try {
+					Grid filledGrid = completionService.take().get();
+					if (filledGrid != null) {
+						grid.copyFillFrom(filledGrid);
+						return true;
+					}
+				} catch (ExecutionException e) {
+					// One auto-filler failing shouldn't stop the others
+					LOG.log(Level.WARNING, "Auto-filler failed", e.getCause());
+				}
+			}
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} finally {
+			// Cancel remaining auto-fillers
+			executor.shutdownNow();
+		}
+	}
+}
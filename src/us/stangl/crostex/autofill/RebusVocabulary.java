@@ -0,0 +1,226 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import us.stangl.crostex.GridWord;
+import us.stangl.crostex.Word;
+import us.stangl.crostex.dictionary.Dictionary;
+import us.stangl.crostex.util.Pair;
+
+/**
+ * Strings allowed in rebus cells, each encoded as a single symbol, a character in the Unicode private use area,
+ * so a solver can treat a rebus cell like any other, holding one character. Dictionary queries for words having
+ * rebus cells go through a Matcher, which expands each symbol in a pattern into its string, and each open rebus
+ * cell into as many wildcards as a rebus string may be long, querying the dictionary once for each combination
+ * of widths, then encodes the matches whose text at each open rebus cell is a rebus string. So the number of
+ * queries depends on the number of distinct rebus string lengths, not on the number of rebus strings.
+ * @author Alex Stangl
+ */
+class RebusVocabulary {
+	/** symbol encoding first rebus string */
+	private static final char FIRST_SYMBOL = '\uE000';
+
+	/** maximum number of rebus strings, the size of the private use area */
+	public static final int MAX_SIZE = 0xF900 - FIRST_SYMBOL;
+
+	/** rebus strings, indexed by symbol - FIRST_SYMBOL */
+	private final String[] strings;
+
+	/** map from rebus string to its symbol */
+	private final Map<String, Character> symbols = new HashMap<String, Character>();
+
+	/** distinct lengths of rebus strings, ascending */
+	private final int[] widths;
+
+	/**
+	 * Constructor for RebusVocabulary.
+	 * @param rebusStrings strings allowed in rebus cells, each at least 1 character long; duplicates are ignored
+	 * @throws IllegalArgumentException if there are more than MAX_SIZE strings, or any is empty
+	 */
+	public RebusVocabulary(Collection<String> rebusStrings) {
+		Set<String> distinctStrings = new LinkedHashSet<String>(rebusStrings);
+		if (distinctStrings.size() > MAX_SIZE)
+			throw new IllegalArgumentException("At most " + MAX_SIZE + " rebus strings allowed, not " + distinctStrings.size());
+		strings = distinctStrings.toArray(new String[distinctStrings.size()]);
+		Set<Integer> distinctWidths = new TreeSet<Integer>();
+		for (int i = 0; i < strings.length; ++i) {
+			if (strings[i].length() == 0)
+				throw new IllegalArgumentException("Rebus strings must not be empty");
+			symbols.put(strings[i], (char)(FIRST_SYMBOL + i));
+			distinctWidths.add(strings[i].length());
+		}
+		widths = new int[distinctWidths.size()];
+		int i = 0;
+		for (int width : distinctWidths)
+			widths[i++] = width;
+	}
+
+	/**
+	 * @return whether there are no rebus strings
+	 */
+	public boolean isEmpty() {
+		return strings.length == 0;
+	}
+
+	/**
+	 * @param words words
+	 * @return whether any of words has a rebus cell to fill
+	 */
+	public static boolean hasRebusCell(Collection<GridWord> words) {
+		for (GridWord word : words)
+			if (word.hasRebusCell())
+				return true;
+		return false;
+	}
+
+	/**
+	 * @param c character
+	 * @return whether c is the symbol of a rebus string
+	 */
+	public boolean isSymbol(char c) {
+		return c >= FIRST_SYMBOL && c - FIRST_SYMBOL < strings.length;
+	}
+
+	/**
+	 * @param symbol symbol of a rebus string
+	 * @return rebus string encoded by symbol
+	 */
+	public String decode(char symbol) {
+		return strings[symbol - FIRST_SYMBOL];
+	}
+
+	/**
+	 * Return contents of a cell holding the specified character, which may be a symbol.
+	 * @param c character held by cell
+	 * @return rebus string encoded by c, if it is a symbol, else c as a string
+	 */
+	public String toContents(char c) {
+		return isSymbol(c) ? decode(c) : String.valueOf(c);
+	}
+
+	/**
+	 * Return matcher of patterns of a word having rebus cells.
+	 * @param dict dictionary to query
+	 * @param rebusPositions indexes into pattern of word, of its rebus cells, ascending
+	 * @return matcher of patterns of word
+	 */
+	public Matcher newMatcher(Dictionary<char[], Word> dict, int[] rebusPositions) {
+		return new Matcher(dict, rebusPositions);
+	}
+
+	/**
+	 * Matcher of patterns of one word having rebus cells, in which each rebus cell takes one character, either
+	 * a symbol or, if open, the wildcard. Like a dictionary, it returns a new Pair for each match, so matches
+	 * must be compared by their letters rather than by identity.
+	 */
+	public class Matcher {
+		/** dictionary to query */
+		private final Dictionary<char[], Word> dict;
+
+		/** indexes into pattern of rebus cells, ascending */
+		private final int[] rebusPositions;
+
+		/**
+		 * Constructor for Matcher.
+		 * @param dict dictionary to query
+		 * @param rebusPositions indexes into pattern of word, of its rebus cells, ascending
+		 */
+		private Matcher(Dictionary<char[], Word> dict, int[] rebusPositions) {
+			this.dict = dict;
+			this.rebusPositions = rebusPositions;
+		}
+
+		/**
+		 * Return entries matching specified pattern, encoded, as a dictionary would for a word having no rebus cells.
+		 * @param pattern pattern, one character per rebus cell
+		 * @return list of encoded entries matching pattern
+		 */
+		public List<Pair<char[], Word>> getPatternMatches(char[] pattern) {
+			List<Pair<char[], Word>> retval = new ArrayList<Pair<char[], Word>>();
+			if (! isEmpty())
+				addPatternMatches(pattern, new int[rebusPositions.length], 0, retval);
+			return retval;
+		}
+
+		/**
+		 * @param pattern pattern, one character per rebus cell
+		 * @return whether any entry matches specified pattern
+		 */
+		public boolean isPatternInDictionary(char[] pattern) {
+			return ! getPatternMatches(pattern).isEmpty();
+		}
+
+		// choose width of each open rebus cell from k on, then add encoded matches of pattern expanded to those widths
+		private void addPatternMatches(char[] pattern, int[] rebusWidths, int k, List<Pair<char[], Word>> matches) {
+			if (k == rebusPositions.length) {
+				addExpandedPatternMatches(pattern, rebusWidths, matches);
+			} else if (pattern[rebusPositions[k]] == Dictionary.WILDCARD) {
+				for (int width : widths) {
+					rebusWidths[k] = width;
+					addPatternMatches(pattern, rebusWidths, k + 1, matches);
+				}
+			} else {
+				rebusWidths[k] = toContents(pattern[rebusPositions[k]]).length();
+				addPatternMatches(pattern, rebusWidths, k + 1, matches);
+			}
+		}
+
+		// query dictionary with pattern expanded to specified rebus widths, adding matches encoded
+		private void addExpandedPatternMatches(char[] pattern, int[] rebusWidths, List<Pair<char[], Word>> matches) {
+			int length = pattern.length;
+			for (int width : rebusWidths)
+				length += width - 1;
+			char[] expandedPattern = new char[length];
+			int[] expandedPositions = new int[rebusPositions.length];
+			int index = 0;
+			int k = 0;
+			for (int i = 0; i < pattern.length; ++i) {
+				if (k < rebusPositions.length && rebusPositions[k] == i) {
+					expandedPositions[k] = index;
+					if (pattern[i] == Dictionary.WILDCARD) {
+						for (int j = 0; j < rebusWidths[k]; ++j)
+							expandedPattern[index++] = Dictionary.WILDCARD;
+					} else {
+						String contents = toContents(pattern[i]);
+						contents.getChars(0, contents.length(), expandedPattern, index);
+						index += contents.length();
+					}
+					++k;
+				} else {
+					expandedPattern[index++] = pattern[i];
+				}
+			}
+
+MATCHLOOP:
+			for (Pair<char[], Word> match : dict.getPatternMatches(expandedPattern)) {
+				char[] encoded = pattern.clone();
+				k = 0;
+				index = 0;
+				for (int i = 0; i < encoded.length; ++i) {
+					if (k < rebusPositions.length && rebusPositions[k] == i) {
+						if (encoded[i] == Dictionary.WILDCARD) {
+							Character symbol = symbols.get(new String(match.first, expandedPositions[k], rebusWidths[k]));
+							if (symbol == null)
+								continue MATCHLOOP;			// not a rebus string
+							encoded[i] = symbol;
+						}
+						index += rebusWidths[k++];
+					} else {
+						encoded[i] = match.first[index++];
+					}
+				}
+				matches.add(new Pair<char[], Word>(encoded, match.second));
+			}
+		}
+	}
+}
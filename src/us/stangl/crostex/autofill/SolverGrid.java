@@ -0,0 +1,164 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import java.util.BitSet;
+import java.util.Collections;
+
+import us.stangl.crostex.Cell;
+import us.stangl.crostex.CrossingGraph;
+import us.stangl.crostex.Grid;
+
+/**
+ * Letters of the cells of a SolverModel, one char per cell number, so a solver can search for a fill without
+ * creating Strings or changing the grid's Cells, which are written just once, with the result, by writeTo.
+ * The number of filled cells of each word is kept too, so whether a word is complete is known in constant time.
+ * Each solver works on its own SolverGrid, so several can search the same grid at once.
+ * A rebus cell holds the symbol of its rebus string, which is decoded when contents are returned or written.
+ * @author Alex Stangl
+ */
+class SolverGrid {
+	/** letter of a cell which is not filled */
+	public static final char EMPTY = '\0';
+
+	/** compiled words to fill */
+	private final SolverModel model;
+
+	/** [cell] = letter of cell, or EMPTY */
+	private final char[] letters;
+
+	/** [slot] = number of slot's cells eligible for autofill which are filled */
+	private final int[] filledCounts;
+
+	/** [cell] = grid Cell having cell number */
+	private final Cell[] cells;
+
+	/** [cell] = row and column of cell in grid */
+	private final int[] rows;
+	private final int[] columns;
+
+	/** contents of grid, [row][column], when SolverGrid was built */
+	private final String[][] baseContents;
+
+	/** rebus strings, whose symbols rebus cells hold */
+	private final RebusVocabulary rebusVocabulary;
+
+	/**
+	 * Constructor for SolverGrid, with every cell eligible for autofill empty, as when model was built.
+	 * @param grid grid model was built from
+	 * @param model compiled words to fill
+	 */
+	public SolverGrid(Grid grid, SolverModel model) {
+		this(grid, model, new RebusVocabulary(Collections.<String>emptyList()));
+	}
+
+	/**
+	 * Constructor for SolverGrid, with every cell eligible for autofill empty, as when model was built.
+	 * @param grid grid model was built from
+	 * @param model compiled words to fill
+	 * @param rebusVocabulary rebus strings, whose symbols rebus cells are to hold
+	 */
+	public SolverGrid(Grid grid, SolverModel model, RebusVocabulary rebusVocabulary) {
+		this.model = model;
+		this.rebusVocabulary = rebusVocabulary;
+		int numCells = model.getNumCells();
+		letters = new char[numCells];
+		filledCounts = new int[model.getNumSlots()];
+		cells = new Cell[numCells];
+		rows = new int[numCells];
+		columns = new int[numCells];
+
+		for (int slot = 0; slot < filledCounts.length; ++slot) {
+			Cell[] slotGridCells = model.getFillConfig(slot).first;
+			int[] slotCells = model.getSlotCells(slot);
+			for (int k = 0; k < slotCells.length; ++k)
+				cells[slotCells[k]] = slotGridCells[k];
+		}
+		CrossingGraph graph = model.getCrossingGraph();
+		for (int cell = 0; cell < numCells; ++cell) {
+			rows[cell] = graph.getRow(model.getGridCell(cell));
+			columns[cell] = graph.getColumn(model.getGridCell(cell));
+		}
+		baseContents = new String[grid.getHeight()][grid.getWidth()];
+		for (int row = 0; row < baseContents.length; ++row)
+			for (int col = 0; col < baseContents[row].length; ++col)
+				baseContents[row][col] = grid.getCellContents(row, col);
+	}
+
+	/**
+	 * @param cell cell number
+	 * @return letter of cell, or EMPTY
+	 */
+	public char getLetter(int cell) {
+		return letters[cell];
+	}
+
+	/**
+	 * Set letter of cell, or clear it, if letter is EMPTY.
+	 * @param cell cell number
+	 * @param letter new letter of cell, or EMPTY
+	 */
+	public void setLetter(int cell, char letter) {
+		char oldLetter = letters[cell];
+		letters[cell] = letter;
+		int change = (letter != EMPTY ? 1 : 0) - (oldLetter != EMPTY ? 1 : 0);
+		if (change != 0)
+			for (int slot : model.getCellSlots(cell))
+				filledCounts[slot] += change;
+	}
+
+	/**
+	 * Fill cells of slot eligible for autofill from word.
+	 * @param slot slot number
+	 * @param word word to fill slot with, as long as slot's pattern
+	 */
+	public void setWord(int slot, char[] word) {
+		int[] slotCells = model.getSlotCells(slot);
+		int[] positions = model.getSlotCellPositions(slot);
+		for (int k = 0; k < slotCells.length; ++k)
+			setLetter(slotCells[k], word[positions[k]]);
+	}
+
+	/**
+	 * @param slot slot number
+	 * @return whether every cell of slot is filled
+	 */
+	public boolean isComplete(int slot) {
+		return filledCounts[slot] == model.getSlotCells(slot).length;
+	}
+
+	/**
+	 * @param slot slot number
+	 * @return new set of slot numbers of all words crossing the specified slot which are currently complete
+	 */
+	public BitSet getCompleteCrossings(int slot) {
+		BitSet retval = new BitSet(filledCounts.length);
+		for (int crossingSlot : model.getCrossingSlots(slot))
+			if (isComplete(crossingSlot))
+				retval.set(crossingSlot);
+		return retval;
+	}
+
+	/**
+	 * @return snapshot of contents of all cells in grid, [row][column], with the letters filled in so far
+	 */
+	public String[][] getContents() {
+		String[][] retval = new String[baseContents.length][];
+		for (int row = 0; row < retval.length; ++row)
+			retval[row] = baseContents[row].clone();
+		for (int cell = 0; cell < letters.length; ++cell)
+			if (letters[cell] != EMPTY)
+				retval[rows[cell]][columns[cell]] = rebusVocabulary.toContents(letters[cell]);
+		return retval;
+	}
+
+	/**
+	 * Write letters filled in to the grid's Cells.
+	 */
+	public void writeTo() {
+		for (int cell = 0; cell < letters.length; ++cell)
+			if (letters[cell] != EMPTY)
+				cells[cell].setContents(rebusVocabulary.toContents(letters[cell]));
+	}
+}
@@ -0,0 +1,294 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import us.stangl.crostex.Cell;
+import us.stangl.crostex.CrossingGraph;
+import us.stangl.crostex.GridWord;
+import us.stangl.crostex.util.Pair;
+
+/**
+ * Compiled form of the words to fill, for use by auto-fillers. Words are numbered 0 .. getNumSlots() - 1,
+ * and crossings between them, at cells eligible for autofill, are held in int arrays indexed by slot number,
+ * so solvers can keep per-word state in arrays and sets of words in BitSets, rather than in hash maps.
+ * Cells eligible for autofill are likewise numbered 0 .. getNumCells() - 1.
+ * Crossings are looked up in the grid's CrossingGraph, so building a model takes time linear in the number of cells.
+ * @author Alex Stangl
+ */
+class SolverModel {
+	/** crossing graph of the grid words are of */
+	private final CrossingGraph graph;
+
+	/** words to fill, indexed by slot number */
+	private final GridWord[] slots;
+
+	/** [slot][k] = slot number of the kth word crossing slot */
+	private final int[][] crossingSlots;
+
+	/** [slot][k] = index into pattern of slot, of its kth crossing */
+	private final int[][] crossingPositions;
+
+	/** [slot][k] = index into pattern of the kth crossing word, of its crossing with slot */
+	private final int[][] crossingOtherPositions;
+
+	/** [slot][i] = slot number of word crossing ith cell of slot, or -1 if none */
+	private final int[][] cellCrossingSlots;
+
+	/** [slot] = configuration of slot's cells eligible for autofill, when model was built */
+	private final Pair<Cell[], int[]>[] fillConfigs;
+
+	/** [slot][k] = cell number of kth cell of slot eligible for autofill */
+	private final int[][] slotCells;
+
+	/** [slot][k] = index into pattern of slot, of kth cell of slot eligible for autofill */
+	private final int[][] slotCellPositions;
+
+	/** [cell] = slot numbers of the 1 or 2 words containing cell */
+	private final int[][] cellSlots;
+
+	/** [cell] = cell number in crossing graph */
+	private final int[] gridCells;
+
+	/**
+	 * Constructor for SolverModel. Words are assigned slot numbers in list order.
+	 * Must be built while the cells eligible for autofill are still empty, so pattern indexes are stable.
+	 * @param graph crossing graph of the grid words are of
+	 * @param words words to fill, each of which must be eligible for autofill
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public SolverModel(CrossingGraph graph, List<GridWord> words) {
+		this.graph = graph;
+		int numSlots = words.size();
+		slots = words.toArray(new GridWord[numSlots]);
+		fillConfigs = new Pair[numSlots];
+		cellCrossingSlots = new int[numSlots][];
+		slotCells = new int[numSlots][];
+		slotCellPositions = new int[numSlots][];
+		int[] numCrossings = new int[numSlots];
+
+		// Map slot numbers of crossing graph to ours, and find index into pattern of each cell of each word
+		int[] graphSlots = new int[numSlots];
+		int[] modelSlots = new int[graph.getNumSlots()];
+		Arrays.fill(modelSlots, -1);
+		int[][] patternPositions = new int[numSlots][];
+		for (int slot = 0; slot < numSlots; ++slot) {
+			graphSlots[slot] = graph.getSlot(slots[slot]);
+			modelSlots[graphSlots[slot]] = slot;
+			Cell[] cells = slots[slot].getCells();
+			patternPositions[slot] = new int[cells.length];
+			int position = 0;
+			for (int i = 0; i < cells.length; ++i) {
+				patternPositions[slot][i] = position;
+				position += cells[i].isEligibleForAutofill() ? 1 : cells[i].getContentsSize();
+			}
+		}
+
+		// Number cells, and find crossings, by looking up the word crossing each cell in the crossing graph
+		int[] cellNumbers = new int[graph.getNumCells()];
+		Arrays.fill(cellNumbers, -1);
+		int[] cellGridCells = new int[graph.getNumCells()];
+		List<int[]> cellSlotsList = new ArrayList<int[]>();
+		for (int slot = 0; slot < numSlots; ++slot) {
+			Pair<Cell[], int[]> fillConfig = slots[slot].getFillConfig();
+			fillConfigs[slot] = fillConfig;
+			slotCells[slot] = new int[fillConfig.first.length];
+			slotCellPositions[slot] = fillConfig.second;
+			Cell[] cells = slots[slot].getCells();
+			cellCrossingSlots[slot] = new int[cells.length];
+			int k = 0;
+			for (int i = 0; i < cells.length; ++i) {
+				cellCrossingSlots[slot][i] = -1;
+				if (! cells[i].isEligibleForAutofill())
+					continue;
+				int crossingGraphSlot = graph.getCrossingSlot(graphSlots[slot], i);
+				if (crossingGraphSlot >= 0 && modelSlots[crossingGraphSlot] >= 0) {
+					cellCrossingSlots[slot][i] = modelSlots[crossingGraphSlot];
+					++numCrossings[slot];
+				}
+				int gridCell = graph.getSlotCell(graphSlots[slot], i);
+				int cell = cellNumbers[gridCell];
+				if (cell >= 0) {
+					cellSlotsList.set(cell, new int[] {cellSlotsList.get(cell)[0], slot});
+				} else {
+					cell = cellSlotsList.size();
+					cellNumbers[gridCell] = cell;
+					cellGridCells[cell] = gridCell;
+					cellSlotsList.add(new int[] {slot});
+				}
+				slotCells[slot][k++] = cell;
+			}
+		}
+		cellSlots = cellSlotsList.toArray(new int[cellSlotsList.size()][]);
+		gridCells = Arrays.copyOf(cellGridCells, cellSlots.length);
+
+		crossingSlots = new int[numSlots][];
+		crossingPositions = new int[numSlots][];
+		crossingOtherPositions = new int[numSlots][];
+		for (int slot = 0; slot < numSlots; ++slot) {
+			crossingSlots[slot] = new int[numCrossings[slot]];
+			crossingPositions[slot] = new int[numCrossings[slot]];
+			crossingOtherPositions[slot] = new int[numCrossings[slot]];
+			int k = 0;
+			for (int i = 0; i < cellCrossingSlots[slot].length; ++i) {
+				int otherSlot = cellCrossingSlots[slot][i];
+				if (otherSlot >= 0) {
+					crossingSlots[slot][k] = otherSlot;
+					crossingPositions[slot][k] = patternPositions[slot][i];
+					crossingOtherPositions[slot][k] = patternPositions[otherSlot][graph.getCrossingOffset(graphSlots[slot], i)];
+					++k;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return crossing graph of the grid words are of
+	 */
+	public CrossingGraph getCrossingGraph() {
+		return graph;
+	}
+
+	/**
+	 * @param cell cell number
+	 * @return cell number in crossing graph, from which its row and column can be found
+	 */
+	public int getGridCell(int cell) {
+		return gridCells[cell];
+	}
+
+	/**
+	 * @return number of words to fill
+	 */
+	public int getNumSlots() {
+		return slots.length;
+	}
+
+	/**
+	 * @return number of cells eligible for autofill
+	 */
+	public int getNumCells() {
+		return cellSlots.length;
+	}
+
+	/**
+	 * @param slot slot number
+	 * @return word having specified slot number
+	 */
+	public GridWord getWord(int slot) {
+		return slots[slot];
+	}
+
+	/**
+	 * Return configuration of slot's cells eligible for autofill, when model was built, which remains valid
+	 * for filling the word, or restoring it to empty, after crossing words have been filled.
+	 * @param slot slot number
+	 * @return configuration of slot's cells eligible for autofill
+	 */
+	public Pair<Cell[], int[]> getFillConfig(int slot) {
+		return fillConfigs[slot];
+	}
+
+	/**
+	 * NOTE: the returned array is shared, and must not be modified.
+	 * @param slot slot number
+	 * @return slot numbers of all words crossing the specified slot
+	 */
+	public int[] getCrossingSlots(int slot) {
+		return crossingSlots[slot];
+	}
+
+	/**
+	 * NOTE: the returned array is shared, and must not be modified.
+	 * @param slot slot number
+	 * @return index into pattern of slot, of each of its crossings, parallel to getCrossingSlots
+	 */
+	public int[] getCrossingPositions(int slot) {
+		return crossingPositions[slot];
+	}
+
+	/**
+	 * NOTE: the returned array is shared, and must not be modified.
+	 * @param slot slot number
+	 * @return index into pattern of each crossing word, of its crossing with slot, parallel to getCrossingSlots
+	 */
+	public int[] getCrossingOtherPositions(int slot) {
+		return crossingOtherPositions[slot];
+	}
+
+	/**
+	 * NOTE: the returned array is shared, and must not be modified.
+	 * @param slot slot number
+	 * @return cell numbers of all cells of slot eligible for autofill
+	 */
+	public int[] getSlotCells(int slot) {
+		return slotCells[slot];
+	}
+
+	/**
+	 * NOTE: the returned array is shared, and must not be modified.
+	 * @param slot slot number
+	 * @return index into pattern of slot, of each cell eligible for autofill, parallel to getSlotCells
+	 */
+	public int[] getSlotCellPositions(int slot) {
+		return slotCellPositions[slot];
+	}
+
+	/**
+	 * NOTE: the returned array is shared, and must not be modified.
+	 * @param cell cell number
+	 * @return slot numbers of the 1 or 2 words containing cell
+	 */
+	public int[] getCellSlots(int cell) {
+		return cellSlots[cell];
+	}
+
+	/**
+	 * Return connected components of the crossing graph, i.e., groups of words which can be filled
+	 * independently of each other, optionally leaving out one word, as though it were already filled.
+	 * @param excludedSlot slot number of word to leave out, or -1 for none
+	 * @return slot numbers of words in each component, in ascending order
+	 */
+	public List<int[]> getComponents(int excludedSlot) {
+		List<int[]> retval = new ArrayList<int[]>();
+		boolean[] visited = new boolean[slots.length];
+		int[] stack = new int[slots.length];
+		int[] component = new int[slots.length];
+		for (int start = 0; start < slots.length; ++start) {
+			if (visited[start] || start == excludedSlot)
+				continue;
+			int size = 0;
+			int stackSize = 0;
+			visited[start] = true;
+			stack[stackSize++] = start;
+			while (stackSize > 0) {
+				int slot = stack[--stackSize];
+				component[size++] = slot;
+				for (int crossingSlot : crossingSlots[slot]) {
+					if (! visited[crossingSlot] && crossingSlot != excludedSlot) {
+						visited[crossingSlot] = true;
+						stack[stackSize++] = crossingSlot;
+					}
+				}
+			}
+			int[] slotsInComponent = new int[size];
+			System.arraycopy(component, 0, slotsInComponent, 0, size);
+			Arrays.sort(slotsInComponent);
+			retval.add(slotsInComponent);
+		}
+		return retval;
+	}
+
+	/**
+	 * NOTE: the returned array is shared, and must not be modified.
+	 * @param slot slot number
+	 * @return slot number of word crossing each cell of slot, or -1 for cells having no crossing to fill
+	 */
+	public int[] getCellCrossingSlots(int slot) {
+		return cellCrossingSlots[slot];
+	}
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import us.stangl.crostex.Grid;
+
+/**
+ * Immutable layout of theme entries in a grid, found by a ThemePlacementSearch: where each theme entry is placed,
+ * and the black cells its placement forces, with an estimate of how readily the entries can be crossed.
+ * Cells which are neither black nor part of a theme entry are left open, for the constructor to fill or make black.
+ * @author Alex Stangl
+ */
+public class ThemeLayout {
+	/** orders layouts from highest to lowest fillability estimate, then by placements */
+	public static final Comparator<ThemeLayout> BEST_FIRST = new Comparator<ThemeLayout>() {
+		@Override
+		public int compare(ThemeLayout o1, ThemeLayout o2) {
+			int retval = Double.compare(o2.score, o1.score);
+			return retval != 0 ? retval : o1.placements.toString().compareTo(o2.placements.toString());
+		}
+	};
+
+	/** placements of theme entries */
+	private final List<ThemePlacement> placements;
+
+	/** whether each cell is black, [row][column] */
+	private final boolean[][] blacks;
+
+	/** contents of each cell, [row][column], a theme entry letter, or empty */
+	private final String[][] contents;
+
+	/** fillability estimate */
+	private final double score;
+
+	/**
+	 * Constructor for ThemeLayout.
+	 * @param placements placements of theme entries
+	 * @param blacks whether each cell is black, [row][column]
+	 * @param contents contents of each cell, [row][column], a theme entry letter, or empty
+	 * @param score fillability estimate, higher being more readily filled
+	 */
+	public ThemeLayout(List<ThemePlacement> placements, boolean[][] blacks, String[][] contents, double score) {
+		this.placements = Collections.unmodifiableList(new ArrayList<ThemePlacement>(placements));
+		this.blacks = blacks;
+		this.contents = contents;
+		this.score = score;
+	}
+
+	/**
+	 * @return placements of theme entries
+	 */
+	public List<ThemePlacement> getPlacements() {
+		return placements;
+	}
+
+	/**
+	 * @return width of grid, in number of cells
+	 */
+	public int getWidth() {
+		return blacks[0].length;
+	}
+
+	/**
+	 * @return height of grid, in number of cells
+	 */
+	public int getHeight() {
+		return blacks.length;
+	}
+
+	/**
+	 * @param row row
+	 * @param col column
+	 * @return whether cell is black
+	 */
+	public boolean isBlack(int row, int col) {
+		return blacks[row][col];
+	}
+
+	/**
+	 * @param row row
+	 * @param col column
+	 * @return contents of cell, a theme entry letter, or empty
+	 */
+	public String getContents(int row, int col) {
+		return contents[row][col];
+	}
+
+	/**
+	 * Return estimate of how readily the theme entries can be crossed: the sum, over the cells of theme entries
+	 * not crossed by another theme entry, of the log of the number of dictionary words which could cross there.
+	 * @return fillability estimate, higher being more readily filled
+	 */
+	public double getScore() {
+		return score;
+	}
+
+	/**
+	 * @return new grid having the black cells and theme entries of this layout
+	 */
+	public Grid toGrid() {
+		Grid retval = new Grid(getWidth(), getHeight());
+		for (int row = 0; row < getHeight(); ++row) {
+			for (int col = 0; col < getWidth(); ++col) {
+				retval.getCell(row, col).setBlack(blacks[row][col]);
+				if (contents[row][col].length() > 0)
+					retval.setCellContents(row, col, contents[row][col]);
+			}
+		}
+		retval.renumberCells();
+		return retval;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder retval = new StringBuilder();
+		retval.append("{score = ").append(score).append(", placements = ").append(placements).append("}");
+		return retval.toString();
+	}
+}
@@ -0,0 +1,20 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+/**
+ * Interface for objects which receive theme layouts as a running ThemePlacementSearch finds them.
+ * @author Alex Stangl
+ */
+public interface ThemeLayoutListener {
+	/**
+	 * Receive layout found by a running search.
+	 * NOTE: called on a thread running the search, which typically isn't the event dispatch thread,
+	 * so the listener should return quickly, and hand off any UI updates to the event dispatch thread.
+	 * Calls are never concurrent, so the listener needn't be thread-safe.
+	 * @param layout layout found
+	 * @return whether search should keep searching for more layouts
+	 */
+	boolean handleLayout(ThemeLayout layout);
+}
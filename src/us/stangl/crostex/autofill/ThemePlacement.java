@@ -0,0 +1,71 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import us.stangl.crostex.AcrossDownDirection;
+
+/**
+ * Immutable position of a theme entry in a grid.
+ * @author Alex Stangl
+ */
+public class ThemePlacement {
+	/** theme entry */
+	private final String word;
+
+	/** row of first cell of entry */
+	private final int row;
+
+	/** column of first cell of entry */
+	private final int column;
+
+	/** direction of entry */
+	private final AcrossDownDirection direction;
+
+	/**
+	 * Constructor for ThemePlacement.
+	 * @param word theme entry
+	 * @param row row of first cell of entry
+	 * @param column column of first cell of entry
+	 * @param direction direction of entry
+	 */
+	public ThemePlacement(String word, int row, int column, AcrossDownDirection direction) {
+		this.word = word;
+		this.row = row;
+		this.column = column;
+		this.direction = direction;
+	}
+
+	/**
+	 * @return theme entry
+	 */
+	public String getWord() {
+		return word;
+	}
+
+	/**
+	 * @return row of first cell of entry
+	 */
+	public int getRow() {
+		return row;
+	}
+
+	/**
+	 * @return column of first cell of entry
+	 */
+	public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * @return direction of entry
+	 */
+	public AcrossDownDirection getDirection() {
+		return direction;
+	}
+
+	@Override
+	public String toString() {
+		return word + " " + direction + " at (" + row + ", " + column + ")";
+	}
+}
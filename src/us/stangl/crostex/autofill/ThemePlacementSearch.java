@@ -0,0 +1,559 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import us.stangl.crostex.AcrossDownDirection;
+import us.stangl.crostex.Grid;
+import us.stangl.crostex.Word;
+import us.stangl.crostex.constraint.GridConstraint;
+import us.stangl.crostex.constraint.Min3LetterWordGridConstraint;
+import us.stangl.crostex.constraint.OnePolyominoGridConstraint;
+import us.stangl.crostex.constraint.SymmetryGridConstraint;
+import us.stangl.crostex.dictionary.Alphabet;
+import us.stangl.crostex.dictionary.Dictionary;
+
+/**
+ * Search for symmetric layouts of theme entries in an empty grid of a given size.
+ * Theme entries of the same length are paired, in the order given, each pair placed in cells symmetric under
+ * 180 degree rotation; an entry left unpaired must go in the middle row (or column), centered.
+ * The cells before and after each entry are made black, as are their symmetric complements, then any run of
+ * fewer than 3 open cells, so every white cell is in an across and a down word of at least 3 cells; a placement
+ * putting a theme letter in such a run is rejected. Layouts are then checked with SymmetryGridConstraint,
+ * OnePolyominoGridConstraint and Min3LetterWordGridConstraint, leaving the remaining cells open.
+ *
+ * Partial layouts are pruned by a fast fillability estimate: for each theme letter, the dictionary words which
+ * could cross it, in some stretch of its crossing run of 3 to maxCrossingLength cells, are counted, and the layout
+ * is rejected if some letter can't be crossed. The sum of the logs of these counts ranks the layouts.
+ *
+ * Placements of the most constrained entries are expanded first, and the resulting partial layouts are searched
+ * in parallel, streaming layouts to a listener as they are found.
+ * NOTE: the dictionary must support concurrent queries, as Ydict does.
+ * @author Alex Stangl
+ */
+public class ThemePlacementSearch {
+	/** logger */
+	private static final Logger LOG = Logger.getLogger(ThemePlacementSearch.class.getName());
+
+	/** default maximum length of words crossing theme entries which are counted by the fillability estimate */
+	public static final int DEFAULT_MAX_CROSSING_LENGTH = 7;
+
+	/** minimum length of a word */
+	private static final int MIN_WORD_LENGTH = 3;
+
+	/** number of partial layouts to search in parallel, per thread, to balance the work */
+	private static final int TASKS_PER_THREAD = 4;
+
+	/** cell which is neither black nor holding a theme letter */
+	private static final char OPEN = '\0';
+
+	/** black cell */
+	private static final char BLACK = '#';
+
+	/** constraints each layout must satisfy */
+	private final GridConstraint[] constraints = new GridConstraint[] {
+		new SymmetryGridConstraint(), new OnePolyominoGridConstraint(), new Min3LetterWordGridConstraint()
+	};
+
+	/** width of grid */
+	private final int width;
+
+	/** height of grid */
+	private final int height;
+
+	/** dictionary of words to cross theme entries */
+	private final Dictionary<char[], Word> dict;
+
+	/** theme entries, or pairs of them, in the order placed */
+	private final List<ThemeEntry> entries = new ArrayList<ThemeEntry>();
+
+	/** maximum length of words crossing theme entries which are counted by the fillability estimate */
+	private final int maxCrossingLength;
+
+	/** maximum number of threads searching at once */
+	private final int numThreads;
+
+	/** cache of number of dictionary words matching each pattern */
+	private final ConcurrentMap<String, Integer> matchCounts = new ConcurrentHashMap<String, Integer>();
+
+	/**
+	 * Constructor for ThemePlacementSearch, placing theme entries across, one thread per processor.
+	 * @param width width of grid, in number of cells
+	 * @param height height of grid, in number of cells
+	 * @param themeWords theme entries, uppercase
+	 * @param dict dictionary of words to cross theme entries
+	 * @throws IllegalArgumentException if a theme entry doesn't fit in the grid, or the entries can't be paired
+	 */
+	public ThemePlacementSearch(int width, int height, List<String> themeWords, Dictionary<char[], Word> dict) {
+		this(width, height, themeWords, dict, false, DEFAULT_MAX_CROSSING_LENGTH, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor for ThemePlacementSearch.
+	 * @param width width of grid, in number of cells
+	 * @param height height of grid, in number of cells
+	 * @param themeWords theme entries, uppercase
+	 * @param dict dictionary of words to cross theme entries
+	 * @param allowDown whether theme entries may be placed down, as well as across
+	 * @param maxCrossingLength maximum length of words crossing theme entries counted by the fillability estimate
+	 * @param numThreads maximum number of threads searching at once
+	 * @throws IllegalArgumentException if a theme entry doesn't fit in the grid, or the entries can't be paired
+	 */
+	public ThemePlacementSearch(int width, int height, List<String> themeWords, Dictionary<char[], Word> dict,
+			boolean allowDown, int maxCrossingLength, int numThreads) {
+		this.width = width;
+		this.height = height;
+		this.dict = dict;
+		this.maxCrossingLength = Math.max(MIN_WORD_LENGTH, maxCrossingLength);
+		this.numThreads = Math.max(1, numThreads);
+
+		// Pair entries of the same length, in the order given
+		Alphabet alphabet = dict.getAlphabet();
+		Map<Integer, List<String>> wordsByLength = new LinkedHashMap<Integer, List<String>>();
+		for (String word : themeWords) {
+			if (word.length() < MIN_WORD_LENGTH || word.length() > Math.max(width, height))
+				throw new IllegalArgumentException("Theme entry " + word + " doesn't fit in " + width + " x " + height + " grid");
+			for (int i = 0; i < word.length(); ++i)
+				if (! alphabet.contains(word.charAt(i)))
+					throw new IllegalArgumentException("Theme entry " + word + " has character not in alphabet " + alphabet);
+			List<String> words = wordsByLength.get(word.length());
+			if (words == null) {
+				words = new ArrayList<String>();
+				wordsByLength.put(word.length(), words);
+			}
+			words.add(word);
+		}
+		int numUnpaired = 0;
+		for (List<String> words : wordsByLength.values()) {
+			for (int i = 0; i < words.size(); i += 2) {
+				ThemeEntry entry = new ThemeEntry(words.get(i), i + 1 < words.size() ? words.get(i + 1) : null, allowDown);
+				if (entry.partner == null)
+					++numUnpaired;
+				if (entry.placements.isEmpty() || numUnpaired > 1)
+					throw new IllegalArgumentException("Theme entry " + entry.word + " can't be placed symmetrically");
+				entries.add(entry);
+			}
+		}
+
+		// Place most constrained entries first
+		Collections.sort(entries, new Comparator<ThemeEntry>() {
+			@Override
+			public int compare(ThemeEntry o1, ThemeEntry o2) {
+				return o1.placements.size() - o2.placements.size();
+			}
+		});
+	}
+
+	/**
+	 * Search for layouts, passing each to listener as it is found, until there are no more, the listener
+	 * asks to stop, or the calling thread is interrupted. Layouts are found in no particular order.
+	 * @param listener listener to receive layouts
+	 * @return number of layouts found
+	 */
+	public int search(ThemeLayoutListener listener) {
+		final Search search = new Search(listener);
+
+		// Expand placements of leading entries until there are enough partial layouts to share among threads
+		List<State> frontier = Collections.singletonList(new State());
+		int depth = 0;
+		while (depth < entries.size() && frontier.size() < numThreads * TASKS_PER_THREAD) {
+			List<State> nextFrontier = new ArrayList<State>();
+			for (State state : frontier) {
+				for (ThemePlacement placement : entries.get(depth).placements) {
+					State child = place(state, entries.get(depth), placement);
+					if (child != null)
+						nextFrontier.add(child);
+				}
+			}
+			frontier = nextFrontier;
+			++depth;
+		}
+
+		if (numThreads == 1 || frontier.size() < 2) {
+			for (State state : frontier)
+				search.search(state, depth);
+			return search.numLayouts.get();
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			final int startDepth = depth;
+			for (final State state : frontier) {
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						search.search(state, startDepth);
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					LOG.log(Level.SEVERE, "Search of theme layouts failed", e.getCause());
+					search.stopped.set(true);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+		return search.numLayouts.get();
+	}
+
+	/**
+	 * Search for all layouts, returning the best, by fillability estimate.
+	 * @param maxLayouts maximum number of layouts to return
+	 * @return up to maxLayouts best layouts, best first
+	 */
+	public List<ThemeLayout> findBestLayouts(final int maxLayouts) {
+		final PriorityQueue<ThemeLayout> bestLayouts = new PriorityQueue<ThemeLayout>(maxLayouts + 1,
+				Collections.reverseOrder(ThemeLayout.BEST_FIRST));
+		search(new ThemeLayoutListener() {
+			@Override
+			public boolean handleLayout(ThemeLayout layout) {
+				bestLayouts.add(layout);
+				if (bestLayouts.size() > maxLayouts)
+					bestLayouts.poll();
+				return true;
+			}
+		});
+		List<ThemeLayout> retval = new ArrayList<ThemeLayout>(bestLayouts);
+		Collections.sort(retval, ThemeLayout.BEST_FIRST);
+		return retval;
+	}
+
+	// return copy of state with entry, and its partner, if any, placed, or null if that's inconsistent, or it can't be filled
+	private State place(State state, ThemeEntry entry, ThemePlacement placement) {
+		State retval = new State(state);
+		if (! placeWord(retval, placement))
+			return null;
+		if (entry.partner != null && ! placeWord(retval, getMirror(placement, entry.partner)))
+			return null;
+		if (! closeShortRuns(retval))
+			return null;
+		retval.score = estimateFillability(retval);
+		return retval.score == Double.NEGATIVE_INFINITY ? null : retval;
+	}
+
+	// place word in state, with black cells before and after it, returning false if that's inconsistent
+	private boolean placeWord(State state, ThemePlacement placement) {
+		String word = placement.getWord();
+		boolean across = placement.getDirection() == AcrossDownDirection.ACROSS;
+		int step = across ? 1 : width;
+		int start = placement.getRow() * width + placement.getColumn();
+		int end = start + (word.length() - 1) * step;
+		if ((across ? placement.getColumn() > 0 : placement.getRow() > 0) && ! setBlack(state, start - step))
+			return false;
+		if ((across ? placement.getColumn() + word.length() < width : placement.getRow() + word.length() < height)
+				&& ! setBlack(state, end + step))
+			return false;
+		boolean[] themeCells = across ? state.acrossThemeCells : state.downThemeCells;
+		for (int i = 0; i < word.length(); ++i) {
+			int cell = start + i * step;
+			char c = state.cells[cell];
+			if (themeCells[cell] || (c != OPEN && c != word.charAt(i)))
+				return false;
+			state.cells[cell] = word.charAt(i);
+			themeCells[cell] = true;
+		}
+		state.placements.add(placement);
+		return true;
+	}
+
+	// make cell, and its symmetric complement, black, returning false if either holds a theme letter
+	private boolean setBlack(State state, int cell) {
+		int mirror = state.cells.length - 1 - cell;
+		if (state.cells[cell] == BLACK)
+			return true;
+		if (state.cells[cell] != OPEN || state.cells[mirror] != OPEN)
+			return false;
+		state.cells[cell] = BLACK;
+		state.cells[mirror] = BLACK;
+		return true;
+	}
+
+	// make runs of fewer than 3 open cells black, until there are none, returning false if one holds a theme letter
+	private boolean closeShortRuns(State state) {
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int row = 0; row < height; ++row) {
+				int result = closeShortRuns(state, row * width, 1, width);
+				if (result < 0)
+					return false;
+				changed |= result > 0;
+			}
+			for (int col = 0; col < width; ++col) {
+				int result = closeShortRuns(state, col, width, height);
+				if (result < 0)
+					return false;
+				changed |= result > 0;
+			}
+		}
+		return true;
+	}
+
+	// make runs of fewer than 3 open cells in line black, returning -1 if one holds a theme letter, else 1 if any
+	// cell was made black, else 0
+	private int closeShortRuns(State state, int lineStart, int step, int lineLength) {
+		int retval = 0;
+		int runStart = 0;
+		for (int i = 0; i <= lineLength; ++i) {
+			if (i == lineLength || state.cells[lineStart + i * step] == BLACK) {
+				if (i > runStart && i - runStart < MIN_WORD_LENGTH) {
+					for (int k = runStart; k < i; ++k)
+						if (! setBlack(state, lineStart + k * step))
+							return -1;
+					retval = 1;
+				}
+				runStart = i + 1;
+			}
+		}
+		return retval;
+	}
+
+	// return sum over theme letters not crossed by another theme entry, of log of number of dictionary words
+	// which could cross them, or negative infinity if some letter can't be crossed
+	private double estimateFillability(State state) {
+		double retval = 0.0;
+		for (int cell = 0; cell < state.cells.length; ++cell) {
+			if (state.cells[cell] == OPEN || state.cells[cell] == BLACK)
+				continue;
+			int row = cell / width;
+			int col = cell % width;
+			int count = -1;
+			if (! state.acrossThemeCells[cell])
+				count = countCrossingWords(state.cells, row * width, 1, width, col);
+			else if (! state.downThemeCells[cell])
+				count = countCrossingWords(state.cells, col, width, height, row);
+			if (count == 0)
+				return Double.NEGATIVE_INFINITY;
+			if (count > 0)
+				retval += Math.log(count);
+		}
+		return retval;
+	}
+
+	// return number of dictionary words which could fill a stretch of the run of non-black cells containing
+	// position pos of line, of 3 to maxCrossingLength cells, where black cells could end the stretch
+	private int countCrossingWords(char[] cells, int lineStart, int step, int lineLength, int pos) {
+		int lo = pos;
+		while (lo > 0 && cells[lineStart + (lo - 1) * step] != BLACK)
+			--lo;
+		int hi = pos;
+		while (hi < lineLength - 1 && cells[lineStart + (hi + 1) * step] != BLACK)
+			++hi;
+
+		int retval = 0;
+		for (int start = Math.max(lo, pos - maxCrossingLength + 1); start <= pos; ++start) {
+			if (start > lo && ! isSeparable(cells, lineStart, step, start - 1, lo, start - 2))
+				continue;
+			int maxEnd = Math.min(hi, start + maxCrossingLength - 1);
+			for (int end = Math.max(pos, start + MIN_WORD_LENGTH - 1); end <= maxEnd; ++end)
+				if (end == hi || isSeparable(cells, lineStart, step, end + 1, end + 2, hi))
+					retval += countMatches(cells, lineStart, step, start, end);
+		}
+		return retval;
+	}
+
+	// return whether position blackPos of line could be made black, and the positions from restLo to restHi
+	// beyond it could be left as a run of at least 3 cells, or made black too
+	private boolean isSeparable(char[] cells, int lineStart, int step, int blackPos, int restLo, int restHi) {
+		if (! isBlackable(cells, lineStart + blackPos * step))
+			return false;
+		int restLength = restHi - restLo + 1;
+		if (restLength <= 0 || restLength >= MIN_WORD_LENGTH)
+			return true;
+		for (int i = restLo; i <= restHi; ++i)
+			if (! isBlackable(cells, lineStart + i * step))
+				return false;
+		return true;
+	}
+
+	// return whether cell, and its symmetric complement, are open, so could be made black
+	private boolean isBlackable(char[] cells, int cell) {
+		return cells[cell] == OPEN && cells[cells.length - 1 - cell] == OPEN;
+	}
+
+	// return number of dictionary words matching positions start to end of line, with theme letters fixed
+	private int countMatches(char[] cells, int lineStart, int step, int start, int end) {
+		char[] pattern = new char[end - start + 1];
+		for (int i = start; i <= end; ++i) {
+			char c = cells[lineStart + i * step];
+			pattern[i - start] = c == OPEN ? Dictionary.WILDCARD : c;
+		}
+		String key = new String(pattern);
+		Integer retval = matchCounts.get(key);
+		if (retval == null) {
+			retval = dict.getPatternMatches(pattern).size();
+			matchCounts.putIfAbsent(key, retval);
+		}
+		return retval;
+	}
+
+	// return placement of word symmetric to specified placement
+	private ThemePlacement getMirror(ThemePlacement placement, String word) {
+		if (placement.getDirection() == AcrossDownDirection.ACROSS)
+			return new ThemePlacement(word, height - 1 - placement.getRow(), width - placement.getColumn() - word.length(),
+					AcrossDownDirection.ACROSS);
+		return new ThemePlacement(word, height - placement.getRow() - word.length(), width - 1 - placement.getColumn(),
+				AcrossDownDirection.DOWN);
+	}
+
+	// return whether placement is its own symmetric complement
+	private boolean isSelfSymmetric(ThemePlacement placement) {
+		ThemePlacement mirror = getMirror(placement, placement.getWord());
+		return mirror.getRow() == placement.getRow() && mirror.getColumn() == placement.getColumn();
+	}
+
+	/**
+	 * Theme entry, and the entry paired with it, if any, with the placements to try for the entry.
+	 */
+	private class ThemeEntry {
+		/** theme entry */
+		public final String word;
+
+		/** theme entry placed symmetric to word, or null if word is unpaired */
+		public final String partner;
+
+		/** placements of word to try; partner is placed symmetric to each */
+		public final List<ThemePlacement> placements = new ArrayList<ThemePlacement>();
+
+		public ThemeEntry(String word, String partner, boolean allowDown) {
+			this.word = word;
+			this.partner = partner;
+			addPlacements(AcrossDownDirection.ACROSS, height, width - word.length() + 1);
+			if (allowDown)
+				addPlacements(AcrossDownDirection.DOWN, height - word.length() + 1, width);
+		}
+
+		// add placements of word starting in rows 0 .. numRows - 1, columns 0 .. numColumns - 1
+		private void addPlacements(AcrossDownDirection direction, int numRows, int numColumns) {
+			for (int row = 0; row < numRows; ++row) {
+				for (int col = 0; col < numColumns; ++col) {
+					ThemePlacement placement = new ThemePlacement(word, row, col, direction);
+					ThemePlacement mirror = getMirror(placement, word);
+					int cell = row * width + col;
+					int mirrorCell = mirror.getRow() * width + mirror.getColumn();
+					if (partner == null ? isSelfSymmetric(placement)
+							: ! word.equals(partner) || cell < mirrorCell)		// same entries swapped give the same layout
+						placements.add(placement);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Partial layout: cells, placements of theme entries so far, and fillability estimate.
+	 */
+	private class State {
+		/** [cell] = theme letter, OPEN, or BLACK, cells numbered row * width + column */
+		public final char[] cells;
+
+		/** [cell] = whether cell is part of an across, or down, theme entry */
+		public final boolean[] acrossThemeCells;
+		public final boolean[] downThemeCells;
+
+		/** placements of theme entries so far */
+		public final List<ThemePlacement> placements;
+
+		/** fillability estimate */
+		public double score;
+
+		public State() {
+			cells = new char[width * height];
+			acrossThemeCells = new boolean[cells.length];
+			downThemeCells = new boolean[cells.length];
+			placements = new ArrayList<ThemePlacement>();
+		}
+
+		public State(State other) {
+			cells = other.cells.clone();
+			acrossThemeCells = other.acrossThemeCells.clone();
+			downThemeCells = other.downThemeCells.clone();
+			placements = new ArrayList<ThemePlacement>(other.placements);
+			score = other.score;
+		}
+	}
+
+	/**
+	 * One run of the search, reporting layouts to its listener.
+	 */
+	private class Search {
+		/** listener to receive layouts */
+		private final ThemeLayoutListener listener;
+
+		/** whether listener asked to stop */
+		public final AtomicBoolean stopped = new AtomicBoolean();
+
+		/** number of layouts found */
+		public final AtomicInteger numLayouts = new AtomicInteger();
+
+		public Search(ThemeLayoutListener listener) {
+			this.listener = listener;
+		}
+
+		// search for layouts completing partial layout state, whose first depth entries are placed
+		public void search(State state, int depth) {
+			if (stopped.get() || Thread.currentThread().isInterrupted())
+				return;
+			if (depth == entries.size()) {
+				report(state);
+				return;
+			}
+			ThemeEntry entry = entries.get(depth);
+			for (ThemePlacement placement : entry.placements) {
+				State child = place(state, entry, placement);
+				if (child != null)
+					search(child, depth + 1);
+			}
+		}
+
+		// pass complete layout to listener, if it satisfies the constraints
+		private void report(State state) {
+			boolean[][] blacks = new boolean[height][width];
+			String[][] contents = new String[height][width];
+			for (int row = 0; row < height; ++row) {
+				for (int col = 0; col < width; ++col) {
+					char c = state.cells[row * width + col];
+					blacks[row][col] = c == BLACK;
+					contents[row][col] = c == OPEN || c == BLACK ? "" : String.valueOf(c);
+				}
+			}
+			ThemeLayout layout = new ThemeLayout(state.placements, blacks, contents, state.score);
+			Grid grid = layout.toGrid();
+			for (GridConstraint constraint : constraints)
+				if (! constraint.satisfiedBy(grid))
+					return;
+			synchronized (this) {
+				if (stopped.get())
+					return;
+				numLayouts.incrementAndGet();
+				if (! listener.handleLayout(layout))
+					stopped.set(true);
+			}
+		}
+	}
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import us.stangl.crostex.Word;
+import us.stangl.crostex.dictionary.Dictionary;
+import us.stangl.crostex.dictionary.IndexedDictionary;
+import us.stangl.crostex.util.Pair;
+
+/**
+ * Words of one length which may fill a word of a grid, each identified by an index, so a solver can keep
+ * its candidates as ints, and look at their letters where they are stored, rather than keeping Pairs.
+ * For an IndexedDictionary, these are the dictionary's own words and indexes, and matches of a pattern are
+ * found as indexes, making no Pair at all. Otherwise, e.g., for a word having rebus cells, matches are found
+ * as Pairs, and each distinct word is given the next index the first time it is matched.
+ * @author Alex Stangl
+ */
+abstract class WordTable {
+	/** length of words */
+	protected final int length;
+
+	/**
+	 * Constructor for WordTable.
+	 * @param length length of words
+	 */
+	protected WordTable(int length) {
+		this.length = length;
+	}
+
+	/**
+	 * Return table of words of the specified length from dictionary, through matcher if the words are
+	 * those of a word having rebus cells.
+	 * @param dict dictionary
+	 * @param length length of words, as filled in grid, i.e., counting each rebus cell as 1
+	 * @param rebusMatcher matcher of patterns of a word having rebus cells, or null for plain words
+	 * @return table of words
+	 */
+	public static WordTable newInstance(Dictionary<char[], Word> dict, int length, RebusVocabulary.Matcher rebusMatcher) {
+		if (rebusMatcher == null && dict instanceof IndexedDictionary)
+			return new IndexedWordTable((IndexedDictionary<Word>)dict, length);
+		return new PairWordTable(dict, length, rebusMatcher);
+	}
+
+	/**
+	 * @param pattern pattern to match, of table's length
+	 * @return new array of indexes of words matching pattern, in the order the dictionary returns them
+	 */
+	public abstract int[] getPatternMatches(char[] pattern);
+
+	/**
+	 * @param index index of word
+	 * @param position position within word, 0 .. length - 1
+	 * @return letter of word at position
+	 */
+	public abstract char getLetter(int index, int position);
+
+	/**
+	 * Copy letters of word to dest.
+	 * @param index index of word
+	 * @param dest array, at least as long as word, to copy letters to
+	 */
+	public abstract void copyWord(int index, char[] dest);
+
+	/**
+	 * @param index index of word
+	 * @return entry associated with word
+	 */
+	public abstract Word getEntry(int index);
+
+	/**
+	 * @param index index of word
+	 * @return new array holding letters of word
+	 */
+	public char[] getWord(int index) {
+		char[] retval = new char[length];
+		copyWord(index, retval);
+		return retval;
+	}
+
+	/**
+	 * Table of the words of an IndexedDictionary, having the dictionary's indexes.
+	 */
+	private static class IndexedWordTable extends WordTable {
+		/** dictionary */
+		private final IndexedDictionary<Word> dict;
+
+		/** dictionary's letters of all words of table's length, word N at [N * length .. (N + 1) * length - 1] */
+		private final char[] letters;
+
+		public IndexedWordTable(IndexedDictionary<Word> dict, int length) {
+			super(length);
+			this.dict = dict;
+			this.letters = dict.getLetters(length);
+		}
+
+		@Override
+		public int[] getPatternMatches(char[] pattern) {
+			return dict.getPatternMatchIndexes(pattern);
+		}
+
+		@Override
+		public char getLetter(int index, int position) {
+			return letters[index * length + position];
+		}
+
+		@Override
+		public void copyWord(int index, char[] dest) {
+			System.arraycopy(letters, index * length, dest, 0, length);
+		}
+
+		@Override
+		public Word getEntry(int index) {
+			return dict.getEntry(length, index);
+		}
+	}
+
+	/**
+	 * Table of words matched as Pairs, indexed in the order they are first matched.
+	 */
+	private static class PairWordTable extends WordTable {
+		/** dictionary */
+		private final Dictionary<char[], Word> dict;
+
+		/** matcher of patterns of a word having rebus cells, or null for plain words */
+		private final RebusVocabulary.Matcher rebusMatcher;
+
+		/** map from letters of each word matched so far to its index */
+		private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+
+		/** letters of words matched so far, word N at [N * length .. (N + 1) * length - 1] */
+		private char[] letters;
+
+		/** entries of words matched so far, [N] */
+		private final List<Word> entries = new ArrayList<Word>();
+
+		public PairWordTable(Dictionary<char[], Word> dict, int length, RebusVocabulary.Matcher rebusMatcher) {
+			super(length);
+			this.dict = dict;
+			this.rebusMatcher = rebusMatcher;
+			this.letters = new char[Math.max(length, 1) * 16];
+		}
+
+		@Override
+		public int[] getPatternMatches(char[] pattern) {
+			List<Pair<char[], Word>> matches = rebusMatcher != null ? rebusMatcher.getPatternMatches(pattern)
+					: dict.getPatternMatches(pattern);
+			int[] retval = new int[matches.size()];
+			int i = 0;
+			for (Pair<char[], Word> match : matches)
+				retval[i++] = getIndex(match);
+			return retval;
+		}
+
+		@Override
+		public char getLetter(int index, int position) {
+			return letters[index * length + position];
+		}
+
+		@Override
+		public void copyWord(int index, char[] dest) {
+			System.arraycopy(letters, index * length, dest, 0, length);
+		}
+
+		@Override
+		public Word getEntry(int index) {
+			return entries.get(index);
+		}
+
+		// return index of matched word, giving it the next index if it's not been matched before
+		private int getIndex(Pair<char[], Word> match) {
+			String key = new String(match.first);
+			Integer retval = indexes.get(key);
+			if (retval == null) {
+				retval = entries.size();
+				if ((retval + 1) * length > letters.length)
+					letters = Arrays.copyOf(letters, letters.length * 2);
+				System.arraycopy(match.first, 0, letters, retval * length, length);
+				entries.add(match.second);
+				indexes.put(key, retval);
+			}
+			return retval;
+		}
+	}
+}
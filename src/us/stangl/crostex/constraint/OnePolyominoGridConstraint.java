@@ -28,7 +28,7 @@ public class OnePolyominoGridConstraint implements GridConstraint {
 		if (firstEmptyCell == -1)
 			return false;				// all black grid! This degenerate case represents ZERO polyominos.
 
-		floodFill(tempGrid, firstEmptyCell / tempGrid.length, firstEmptyCell % tempGrid.length, 1);
+		floodFill(tempGrid, firstEmptyCell / tempGrid[0].length, firstEmptyCell % tempGrid[0].length, 1);
 		return findValInGrid(tempGrid, 0) == -1;
 	}
 	
@@ -0,0 +1,166 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.dictionary;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Alphabet of symbols that can appear in dictionary words, mapping each symbol to a dense code 0 .. size() - 1.
+ * Dictionaries size their node arrays, posting tables and bit masks by the alphabet, so an alphabet
+ * can have at most MAX_SIZE symbols, letting any set of symbols be represented as a long bit mask.
+ * @author Alex Stangl
+ */
+public class Alphabet {
+	/** maximum number of symbols in an alphabet */
+	public static final int MAX_SIZE = 64;
+
+	/** English alphabet, A .. Z */
+	public static final Alphabet ENGLISH = new Alphabet("English", "ABCDEFGHIJKLMNOPQRSTUVWXYZ");
+
+	/** Spanish alphabet, English plus N-tilde */
+	public static final Alphabet SPANISH = new Alphabet("Spanish", "ABCDEFGHIJKLMN\u00d1OPQRSTUVWXYZ");
+
+	/** German alphabet, English plus umlauted vowels and sharp S */
+	public static final Alphabet GERMAN = new Alphabet("German", "ABCDEFGHIJKLMNOPQRSTUVWXYZ\u00c4\u00d6\u00dc\u00df");
+
+	/** Polish alphabet, including Q, V and X for loanwords */
+	public static final Alphabet POLISH = new Alphabet("Polish",
+			"A\u0104BC\u0106DE\u0118FGHIJKL\u0141MN\u0143O\u00d3PQRS\u015aTUVWXYZ\u0179\u017b");
+
+	/** all predefined alphabets */
+	private static final List<Alphabet> STANDARD_ALPHABETS =
+		Collections.unmodifiableList(Arrays.asList(ENGLISH, SPANISH, GERMAN, POLISH));
+
+	/** name of alphabet */
+	private final String name;
+
+	/** symbols, indexed by code */
+	private final char[] symbols;
+
+	/** lowest-valued symbol, used to offset into codes */
+	private final char lowestSymbol;
+
+	/** codes, indexed by (symbol - lowestSymbol), or -1 for characters not in the alphabet */
+	private final byte[] codes;
+
+	/**
+	 * Constructor for Alphabet.
+	 * @param name name of alphabet
+	 * @param symbols all symbols in the alphabet, in code order, uppercase
+	 * @throws IllegalArgumentException if there are no symbols, too many symbols, or a duplicate symbol
+	 */
+	public Alphabet(String name, String symbols) {
+		if (symbols.length() == 0 || symbols.length() > MAX_SIZE)
+			throw new IllegalArgumentException("Alphabet " + name + " must have 1 to " + MAX_SIZE + " symbols");
+		this.name = name;
+		this.symbols = symbols.toCharArray();
+		char lowest = Character.MAX_VALUE;
+		char highest = Character.MIN_VALUE;
+		for (char c : this.symbols) {
+			if (c < lowest)
+				lowest = c;
+			if (c > highest)
+				highest = c;
+		}
+		lowestSymbol = lowest;
+		codes = new byte[highest - lowest + 1];
+		Arrays.fill(codes, (byte)-1);
+		for (int code = 0; code < this.symbols.length; ++code) {
+			char c = this.symbols[code];
+			if (codes[c - lowest] != -1)
+				throw new IllegalArgumentException("Duplicate symbol " + c + " in alphabet " + name);
+			codes[c - lowest] = (byte)code;
+		}
+	}
+
+	/**
+	 * @return all predefined alphabets
+	 */
+	public static List<Alphabet> getStandardAlphabets() {
+		return STANDARD_ALPHABETS;
+	}
+
+	/**
+	 * Return predefined alphabet having the specified name, else the specified default.
+	 * @param name name of alphabet, possibly null
+	 * @param defaultAlphabet alphabet to return if there is no predefined alphabet with that name
+	 * @return predefined alphabet having the specified name, else defaultAlphabet
+	 */
+	public static Alphabet forName(String name, Alphabet defaultAlphabet) {
+		for (Alphabet alphabet : STANDARD_ALPHABETS)
+			if (alphabet.name.equals(name))
+				return alphabet;
+		return defaultAlphabet;
+	}
+
+	/**
+	 * @return number of symbols in alphabet
+	 */
+	public int size() {
+		return symbols.length;
+	}
+
+	/**
+	 * Return dense code for the specified symbol.
+	 * @param symbol symbol to encode
+	 * @return code 0 .. size() - 1, or -1 if symbol not in alphabet
+	 */
+	public int encode(char symbol) {
+		int offset = symbol - lowestSymbol;
+		return offset >= 0 && offset < codes.length ? codes[offset] : -1;
+	}
+
+	/**
+	 * @param code code 0 .. size() - 1
+	 * @return symbol associated with the specified code
+	 */
+	public char decode(int code) {
+		return symbols[code];
+	}
+
+	/**
+	 * @param symbol symbol to check
+	 * @return whether symbol is in this alphabet
+	 */
+	public boolean contains(char symbol) {
+		return encode(symbol) >= 0;
+	}
+
+	/**
+	 * @return bit mask with the bit for every code in the alphabet set
+	 */
+	public long getAllSymbolsMask() {
+		return symbols.length == MAX_SIZE ? -1L : (1L << symbols.length) - 1;
+	}
+
+	/**
+	 * Normalize (convert to uppercase) word.
+	 * @param rawWord word to normalize
+	 * @return normalized word, or null if the word contains characters not in this alphabet
+	 */
+	public String normalize(String rawWord) {
+		int len = rawWord.length();
+		StringBuilder builder = new StringBuilder(len);
+		for (int i = 0; i < len; ++i) {
+			char c = Character.toUpperCase(rawWord.charAt(i));
+			if (encode(c) < 0)
+				return null;
+			builder.append(c);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * @return name of alphabet
+	 */
+	public String getName() {
+		return name;
+	}
+
+	public String toString() {
+		return name;
+	}
+}
@@ -25,6 +25,17 @@ public interface Dictionary<K, E> {
 	 */
 	List<Pair<char[], E>> getPatternMatches(char[] pattern);
 
+	/**
+	 * Return list of near misses for specified pattern: entries of the same length that differ from it
+	 * in at least 1 and at most maxDistance of its non-wildcard positions (Hamming distance).
+	 * Useful for suggesting minimal changes to a nearly-complete fill.
+	 * @param pattern pattern, possibly containing wildcards, which match any character
+	 * @param maxDistance maximum number of non-wildcard positions allowed to differ, at least 1
+	 * @return list of entries within maxDistance of, but not exactly matching, specified pattern
+	 * @throws IllegalArgumentException if maxDistance is less than 1
+	 */
+	List<Pair<char[], E>> getNearMisses(char[] pattern, int maxDistance);
+
 	/**
 	 * Return resettable iterator over entries in the dictionary matching the specified pattern.
 	 * @param pattern pattern to match
@@ -68,4 +79,9 @@ public interface Dictionary<K, E> {
 	 * complete, and before starting lookups
 	 */
 	void rebalance();
+
+	/**
+	 * @return alphabet of symbols that keys in this dictionary are made of
+	 */
+	Alphabet getAlphabet();
 }
@@ -0,0 +1,62 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.dictionary;
+
+import us.stangl.crostex.util.Pair;
+
+/**
+ * Dictionary whose words of each length are stored contiguously and addressed by index
+ * 0 .. getWordCount(length) - 1, letting solvers work with word indexes and primitive arrays
+ * rather than with Pair objects. Indexes are stable once the dictionary has been rebalanced.
+ * @author Alex Stangl
+ */
+public interface IndexedDictionary<E> extends Dictionary<char[], E> {
+	/**
+	 * @param length word length
+	 * @return number of words of the specified length
+	 */
+	int getWordCount(int length);
+
+	/**
+	 * Return letters of all words of the specified length, stored contiguously, with the word
+	 * having index i occupying elements i * length .. (i + 1) * length - 1.
+	 * NOTE: the returned array is the dictionary's own storage and must not be modified.
+	 * @param length word length
+	 * @return letters of all words of the specified length
+	 */
+	char[] getLetters(int length);
+
+	/**
+	 * @param length word length
+	 * @param index index of word, 0 .. getWordCount(length) - 1
+	 * @return entry associated with the specified word
+	 */
+	E getEntry(int length, int index);
+
+	/**
+	 * Return key/entry pair for the specified word. A new Pair, with its own copy of the word's letters,
+	 * is returned every time, so words must be compared by their letters rather than by identity.
+	 * @param length word length
+	 * @param index index of word, 0 .. getWordCount(length) - 1
+	 * @return key/entry pair for the specified word
+	 */
+	Pair<char[], E> getPair(int length, int index);
+
+	/**
+	 * Return indexes of all words matching the specified pattern, in ascending order.
+	 * @param pattern pattern to match
+	 * @return indexes of all words of the pattern's length matching the pattern
+	 */
+	int[] getPatternMatchIndexes(char[] pattern);
+
+	/**
+	 * Return indexes of all words having the specified letter at the specified position, in ascending order.
+	 * NOTE: the returned array is the dictionary's own storage and must not be modified.
+	 * @param length word length
+	 * @param position position within word, 0 .. length - 1
+	 * @param letter letter
+	 * @return indexes of all words of the specified length having letter at position
+	 */
+	int[] getPostings(int length, int position, char letter);
+}
@@ -20,9 +20,27 @@ public class TST<E> implements Dictionary<char[], E> {
 	/** flag to enable additional debug code */
 	private static final boolean DEBUG = false;
 
+	/** alphabet that keys are made of */
+	private final Alphabet alphabet;
+
 	/** each element at index N in forest_ contains an array of TST heads for words of size N + 3 */
 	private List<TstNode<E>[]> forest = new ArrayList<TstNode<E>[]>();
 
+	/**
+	 * Constructor for TST holding English words.
+	 */
+	public TST() {
+		this(Alphabet.ENGLISH);
+	}
+
+	/**
+	 * Constructor for TST holding words of the specified alphabet.
+	 * @param alphabet alphabet that keys are made of
+	 */
+	public TST(Alphabet alphabet) {
+		this.alphabet = alphabet;
+	}
+
 	public List<Pair<char[], E>> getPatternMatches(char[] pattern) {
 		List<Pair<char[], E>> retval = new ArrayList<Pair<char[], E>>(200);
 		for (ResettableIterator<Pair<char[], E>> it = getIterator(pattern); it.hasNext(); )
@@ -38,7 +56,7 @@ public class TST<E> implements Dictionary<char[], E> {
 	public ResettableIterator<Pair<char[], E>> getIterator(char[] pattern) {
 		int forestIndex = pattern.length - 3;
 		growForestToSize(forestIndex + 1);
-		return new TstIterator<E>(forest.get(forestIndex), pattern);
+		return new TstIterator<E>(forest.get(forestIndex), pattern, alphabet);
 	}
 
 	/**
@@ -57,7 +75,9 @@ public class TST<E> implements Dictionary<char[], E> {
 	 * @param entry entry associated with key
 	 */
 	public void insert(char[] key, E entry) {
-		int headIndex = key[0] - 'A';
+		int headIndex = alphabet.encode(key[0]);
+		if (headIndex < 0)
+			throw new IllegalArgumentException("Unrecognized character " + key[0] + " at index 0");
 		int forestIndex = key.length - 3;
 		growForestToSize(forestIndex + 1);
 		TstNode<E>[] heads = forest.get(forestIndex);
@@ -74,7 +94,36 @@ public class TST<E> implements Dictionary<char[], E> {
 		int forestIndex = key.length - 3;
 		growForestToSize(forestIndex + 1);
 		TstNode<E>[] heads = forest.get(forestIndex);
-		return lookup(heads[key[0] - 'A'], key, 1);
+		int headIndex = alphabet.encode(key[0]);
+		return headIndex < 0 ? null : lookup(heads[headIndex], key, 1);
+	}
+
+	/**
+	 * Return list of near misses for specified pattern: entries of the same length that differ from it
+	 * in at least 1 and at most maxDistance of its non-wildcard positions.
+	 * @param pattern pattern, possibly containing wildcards
+	 * @param maxDistance maximum number of non-wildcard positions allowed to differ, at least 1
+	 * @return list of entries within maxDistance of, but not exactly matching, specified pattern
+	 */
+	public List<Pair<char[], E>> getNearMisses(char[] pattern, int maxDistance) {
+		if (maxDistance < 1)
+			throw new IllegalArgumentException("maxDistance must be at least 1, but was " + maxDistance);
+		List<Pair<char[], E>> retval = new ArrayList<Pair<char[], E>>();
+		int forestIndex = pattern.length - 3;
+		if (forest.size() <= forestIndex)
+			return retval;
+		TstNode<E>[] heads = forest.get(forestIndex);
+		char[] keybuff = new char[pattern.length];
+		char firstChar = pattern[0];
+		for (int headIndex = 0; headIndex < heads.length; ++headIndex) {
+			if (heads[headIndex] != null) {
+				keybuff[0] = alphabet.decode(headIndex);
+				int mismatchesLeft = firstChar == WILDCARD || firstChar == keybuff[0] ? maxDistance : maxDistance - 1;
+				if (mismatchesLeft >= 0)
+					getNearMisses(heads[headIndex], pattern, 1, mismatchesLeft, maxDistance, retval, keybuff);
+			}
+		}
+		return retval;
 	}
 
 	/**
@@ -86,8 +135,10 @@ public class TST<E> implements Dictionary<char[], E> {
 		int forestIndex = pattern.length - 3;
 		growForestToSize(forestIndex + 1);
 		TstNode<E>[] heads = forest.get(forestIndex);
-		if (pattern[0] != WILDCARD)
-			return isPatternFound(heads[pattern[0] - 'A'], pattern, 1);
+		if (pattern[0] != WILDCARD) {
+			int headIndex = alphabet.encode(pattern[0]);
+			return headIndex >= 0 && isPatternFound(heads[headIndex], pattern, 1);
+		}
 
 		for (TstNode<E> head : heads)
 			if (isPatternFound(head, pattern, 1))
@@ -117,10 +168,14 @@ public class TST<E> implements Dictionary<char[], E> {
 
 	public void rebalance() {}
 
+	public Alphabet getAlphabet() {
+		return alphabet;
+	}
+
 	@SuppressWarnings("unchecked")
 	private void growForestToSize(int size) {
 		while (forest.size() < size)
-			forest.add(new TstNode[26]);
+			forest.add(new TstNode[alphabet.size()]);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -141,6 +196,27 @@ public class TST<E> implements Dictionary<char[], E> {
 		return ((c == WILDCARD || c > node.splitChar) && isPatternFound(node.rightChild, key, keyIndex));
 	}
 
+	// accumulate near misses of pattern in subtree rooted at node, keybuff[0 .. keyIndex - 1] holding the path here.
+	// With mismatches left, every branch is open; the middle branch costs a mismatch unless its char matches.
+	@SuppressWarnings("unchecked")
+	private void getNearMisses(TstNode<E> node, char[] pattern, int keyIndex, int mismatchesLeft, int maxDistance,
+			List<Pair<char[], E>> accumulator, char[] keybuff) {
+		char c = pattern[keyIndex];
+		boolean anyChar = c == WILDCARD || mismatchesLeft > 0;
+		if ((anyChar || c < node.splitChar) && node.leftChild != null)
+			getNearMisses(node.leftChild, pattern, keyIndex, mismatchesLeft, maxDistance, accumulator, keybuff);
+		if ((anyChar || c == node.splitChar) && node.middleChild != null) {
+			int childMismatchesLeft = c == WILDCARD || c == node.splitChar ? mismatchesLeft : mismatchesLeft - 1;
+			keybuff[keyIndex] = node.splitChar;
+			if (keyIndex < pattern.length - 1)
+				getNearMisses((TstNode<E>)node.middleChild, pattern, keyIndex + 1, childMismatchesLeft, maxDistance, accumulator, keybuff);
+			else if (childMismatchesLeft < maxDistance)
+				accumulator.add(new Pair<char[], E>(keybuff.clone(), (E)node.middleChild));
+		}
+		if ((anyChar || c > node.splitChar) && node.rightChild != null)
+			getNearMisses(node.rightChild, pattern, keyIndex, mismatchesLeft, maxDistance, accumulator, keybuff);
+	}
+
 	@SuppressWarnings("unchecked")
 	private E lookup(TstNode<E> node, char[] key, int keyIndex) {
 		if (node == null)
@@ -230,6 +306,9 @@ public class TST<E> implements Dictionary<char[], E> {
 		/** array of TST heads */
 		private final TstNode<E>[] heads;
 
+		/** alphabet that keys are made of */
+		private final Alphabet alphabet;
+
 		/** index of which head we are currently using */
 		private int headIndex;
 
@@ -239,10 +318,10 @@ public class TST<E> implements Dictionary<char[], E> {
 		/**
 		 * characters to exclude from regexp matching, based upon position.
 		 * exclusions_[N] corresponds to pattern[N], and is really only useful when pattern[N] is a wildcard
-		 * exclusions_ elements are each bitmaps, with 1 corresponding to A and 1 << 25 corresponding to Z
+		 * exclusions_ elements are each bitmaps, with bit N corresponding to the symbol with alphabet code N
 		 * If the corresponding exclusions bit is set, that letter should be avoided at that wildcard position
 		 */
-		private int[] exclusions;
+		private long[] exclusions;
 
 		enum Pointer { LEFT, MIDDLE, RIGHT };
 		/**
@@ -261,9 +340,10 @@ public class TST<E> implements Dictionary<char[], E> {
 		// everything from 0 .. fillPointer considered valid
 		private int fillPointer = 0;
 
-		public TstIterator(TstNode<E>[] heads, char[] pattern) {
+		public TstIterator(TstNode<E>[] heads, char[] pattern, Alphabet alphabet) {
 			this.pattern = pattern;
 			this.heads = heads;
+			this.alphabet = alphabet;
 
 			reset();
 		}
@@ -272,13 +352,13 @@ public class TST<E> implements Dictionary<char[], E> {
 		 * Reset iterator back to its initial creation state.
 		 */
 		public void reset() {
-			headIndex = pattern[0] == WILDCARD ? 0 : pattern[0] - 'A';
+			headIndex = pattern[0] == WILDCARD ? 0 : alphabet.encode(pattern[0]);
 			fillPointer = 0;
 			//	        descentGraph_.clear();
 			//	        typeOfPointerToNode_.clear();
 			lastKeyReturned = new char[pattern.length];
 			if (INCLUDE_AVOID)
-				exclusions = new int[0];
+				exclusions = new long[0];
 			findFirst();
 		}
 
@@ -289,13 +369,13 @@ public class TST<E> implements Dictionary<char[], E> {
 			if (INCLUDE_AVOID) {
 				// Grow exclusions_ if necessary
 				if (exclusions.length <= index) {
-					int[] newArray = new int[index + 1];
+					long[] newArray = new long[index + 1];
 					for (int i = 0; i < exclusions.length; ++i)
 						newArray[i] = exclusions[i];
 					exclusions = newArray;
 				}
 				char badChar = lastKeyReturned[index];
-				exclusions[index] |= 1 << (badChar - 'A');
+				exclusions[index] |= 1L << alphabet.encode(badChar);
 
 				// Check to see if next one to return violates the new avoidance constraint
 				if (! hasNext())
@@ -327,7 +407,7 @@ public class TST<E> implements Dictionary<char[], E> {
 		/** just like next but without advancing iterator */
 		@SuppressWarnings("unchecked")
 		public Pair<char[], E> peekNext() {
-			lastKeyReturned[0] = (char)(headIndex + 'A');
+			lastKeyReturned[0] = alphabet.decode(headIndex);
 			int index = 1;
 			for (int i = 0; i < fillPointer - 1; ++i) {
 				if (typeOfPointerToNode[i + 1] == Pointer.MIDDLE)
@@ -369,8 +449,8 @@ public class TST<E> implements Dictionary<char[], E> {
 
 				if (INCLUDE_AVOID) {
 					// Skip heads we have been warned to avoid
-					int headMask = 1;	// for A
-					int headsToAvoid = exclusions.length == 0 ? 0 : exclusions[0];
+					long headMask = 1L;	// for first symbol of alphabet
+					long headsToAvoid = exclusions.length == 0 ? 0 : exclusions[0];
 					//	        	Set headsToAvoid = exclusionList_.size() == 0 ? Collections.EMPTY_SET : exclusionList_.get(0);
 					for (headIndex = 0; headIndex < heads.length; ++headIndex) {
 						if ((headsToAvoid & headMask) == 0) {
@@ -391,7 +471,9 @@ public class TST<E> implements Dictionary<char[], E> {
 				}
 				return false;
 			} else {
-				headIndex = pattern[0] - 'A';
+				headIndex = alphabet.encode(pattern[0]);
+				if (headIndex < 0)
+					return false;
 				addNodeAndPointer(heads[headIndex], Pointer.MIDDLE);
 				if (findFirst(heads[headIndex], 0, 1))
 					return true;
@@ -420,7 +502,7 @@ public class TST<E> implements Dictionary<char[], E> {
 			if (currNode == null)
 				return false;
 			if (INCLUDE_AVOID) {
-				int charsToAvoid = exclusions.length <= keyIndex ? 0 : exclusions[keyIndex];
+				long charsToAvoid = exclusions.length <= keyIndex ? 0L : exclusions[keyIndex];
 			}
 			//	        descentGraph_.add(currNode);
 			char c = pattern[keyIndex];
@@ -432,7 +514,7 @@ public class TST<E> implements Dictionary<char[], E> {
 				--fillPointer;
 			}
 			/*
-	        if ((charsToAvoid & (1 << (currNode.splitChar_ - 'A'))) == 0 && (c == WILDCARD || c == currNode.splitChar_)) {
+	        if ((charsToAvoid & (1L << alphabet.encode(currNode.splitChar_))) == 0 && (c == WILDCARD || c == currNode.splitChar_)) {
 			 */
 			if (c == WILDCARD || c == currNode.splitChar) {
 				if (keyIndex < pattern.length - 1) {
@@ -461,8 +543,8 @@ public class TST<E> implements Dictionary<char[], E> {
 
 			if (INCLUDE_AVOID) {
 				// Skip heads we have been warned to avoid
-				int headsToAvoid = exclusions.length == 0 ? 0 : exclusions[0];
-				int headMask = 1 << headIndex;
+				long headsToAvoid = exclusions.length == 0 ? 0L : exclusions[0];
+				long headMask = 1L << headIndex;
 				if ((headsToAvoid & headMask) != 0) {
 					// Abort processing this HEAD immediately since it starts with a char we should avoid
 					fillPointer = 0;
@@ -542,13 +624,13 @@ public class TST<E> implements Dictionary<char[], E> {
 
 			if (INCLUDE_AVOID) {
 				// Processing wildcard
-				int charsToAvoid = exclusions.length <= keyIndex ? 0 : exclusions[keyIndex];
+				long charsToAvoid = exclusions.length <= keyIndex ? 0L : exclusions[keyIndex];
 				boolean atEndOfKey = keyIndex == pattern.length - 1;
 				if (! atEndOfKey) {
 					Pointer prevPointerToNext = typeOfPointerToNode[treeDepth + 1];
 
 					// Abort processing current branch if it's down a middle link whose char we seek to avoid
-					boolean splitCharBad = (charsToAvoid & (1 << (currNode.splitChar - 'A'))) != 0;
+					boolean splitCharBad = (charsToAvoid & (1L << alphabet.encode(currNode.splitChar))) != 0;
 					if (prevPointerToNext == Pointer.MIDDLE && splitCharBad) {
 						fillPointer = treeDepth + 1;
 					} else {
@@ -588,7 +670,7 @@ public class TST<E> implements Dictionary<char[], E> {
 					// Processing wildcard, not at bottom of descent
 					Pointer prevPointerToNext = typeOfPointerToNode[treeDepth + 1];
 					// Abort processing current branch if it's down a middle link whose char we seek to avoid
-					boolean splitCharBad = (charsToAvoid & (1 << (currNode.splitChar - 'A'))) != 0;
+					boolean splitCharBad = (charsToAvoid & (1L << alphabet.encode(currNode.splitChar))) != 0;
 					if (prevPointerToNext == Pointer.MIDDLE && splitCharBad) {
 						fillPointer = treeDepth + 1;
 					} else {
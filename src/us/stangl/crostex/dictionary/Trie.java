@@ -14,14 +14,33 @@ import us.stangl.crostex.util.ResettableIterator;
  * @author Alex Stangl
  */
 public class Trie<E> implements Dictionary<char[], E> {
+	/** alphabet that keys are made of */
+	private final Alphabet alphabet;
+
 	/** head node of Trie */
-	private TrieNode<E> head = new TrieNode<E>();
+	private final TrieNode<E> head;
+
+	/**
+	 * Constructor for Trie holding English words.
+	 */
+	public Trie() {
+		this(Alphabet.ENGLISH);
+	}
+
+	/**
+	 * Constructor for Trie holding words of the specified alphabet.
+	 * @param alphabet alphabet that keys are made of
+	 */
+	public Trie(Alphabet alphabet) {
+		this.alphabet = alphabet;
+		head = new TrieNode<E>(alphabet.size());
+	}
 
 	/**
 	 * get iterator to iterate over all words matching specified pattern
 	 */
 	public ResettableIterator<Pair<char[], E>> getIterator(char[] pattern) {
-		return new TrieIterator<E>(head, pattern);
+		return new TrieIterator<E>(head, pattern, alphabet);
 	}
 
 	public List<Pair<char[], E>> getPatternMatches(char[] pattern) {
@@ -38,96 +57,144 @@ public class Trie<E> implements Dictionary<char[], E> {
 	}
 
 	public void insert(char[] key, E word) {
-		head.insert(key, word, 0);
+		head.insert(key, word, 0, alphabet);
 	}
 
 	public void remove(char[] key) {
-		head.remove(key, 0);
+		head.remove(key, 0, alphabet);
 	}
 
 	public E lookup(char[] key) {
-		return head.lookup(key, 0);
+		return head.lookup(key, 0, alphabet);
+	}
+
+	public List<Pair<char[], E>> getNearMisses(char[] pattern, int maxDistance) {
+		if (maxDistance < 1)
+			throw new IllegalArgumentException("maxDistance must be at least 1, but was " + maxDistance);
+		List<Pair<char[], E>> retval = new ArrayList<Pair<char[], E>>();
+		head.getNearMisses(pattern, 0, maxDistance, maxDistance, new char[pattern.length], retval, alphabet);
+		return retval;
 	}
 
 	public boolean isPatternInDictionary(char[] key) {
-		return head.isPatternInTrie(key, 0);
+		return head.isPatternInTrie(key, 0, alphabet);
 	}
 
     public void rebalance() {}
+
+	public Alphabet getAlphabet() {
+		return alphabet;
+	}
     
 	private static class TrieNode<E> {
 		/** reference to this node's attributes if it is a terminal node (i.e., ends a word) */
 		private E word;
 
-		/** references to other nodes for successor characters A .. Z */
+		/** references to other nodes for successor characters, indexed by alphabet code */
 		@SuppressWarnings("rawtypes")
-		private TrieNode[] children = new TrieNode[26];
+		private final TrieNode[] children;
 
-		public void insert(char[] key, E newWord, int keyIndex) {
+		@SuppressWarnings("rawtypes")
+		public TrieNode(int alphabetSize) {
+			children = new TrieNode[alphabetSize];
+		}
+
+		public void insert(char[] key, E newWord, int keyIndex, Alphabet alphabet) {
 			if (newWord == null)
 				throw new IllegalArgumentException("Cannot insert null Word");
 			if (keyIndex == key.length) {
 				this.word = newWord;
 			} else {
-				char c = key[keyIndex];
-				if (c < 'A' || c > 'Z')
-					throw new IllegalArgumentException("Unrecognized character " + c + " at index " + keyIndex);
-				int childIndex = c - 'A';
+				int childIndex = getChildIndex(key, keyIndex, alphabet);
 				@SuppressWarnings("unchecked")
 				TrieNode<E> child = children[childIndex];
 				if (child == null) {
-					child = new TrieNode<E>();
+					child = new TrieNode<E>(children.length);
 					children[childIndex] = child;
 				}
-				child.insert(key, newWord, keyIndex + 1);
+				child.insert(key, newWord, keyIndex + 1, alphabet);
 			}
 		}
 
-		public void remove(char[] key, int keyIndex) {
+		public void remove(char[] key, int keyIndex, Alphabet alphabet) {
 			// No pruning done since we only remove temporarily anyhow
 			if (keyIndex == key.length) {
 				word = null;
 			} else {
-				char c = key[keyIndex];
-				if (c < 'A' || c > 'Z')
-					throw new IllegalArgumentException("Unrecognized character " + c + " at index " + keyIndex);
-				int childIndex = c - 'A';
+				int childIndex = getChildIndex(key, keyIndex, alphabet);
 				@SuppressWarnings("unchecked")
 				TrieNode<E> child = children[childIndex];
 				if (child != null)
-					child.remove(key, keyIndex + 1);
+					child.remove(key, keyIndex + 1, alphabet);
 			}
 		}
 
-		public E lookup(char[] key, int keyIndex) {
+		public E lookup(char[] key, int keyIndex, Alphabet alphabet) {
 			if (keyIndex == key.length)
 				return word;
-			char c = key[keyIndex];
-			if (c < 'A' || c > 'Z')
-				throw new IllegalArgumentException("Unrecognized character " + c + " at index " + keyIndex);
-			int childIndex = c - 'A';
+			// a symbol outside the alphabet can't match anything
+			int childIndex = alphabet.encode(key[keyIndex]);
+			if (childIndex < 0)
+				return null;
 			@SuppressWarnings("unchecked")
 			TrieNode<E> child = children[childIndex];
-			return child == null ? null : child.lookup(key, keyIndex + 1);
+			return child == null ? null : child.lookup(key, keyIndex + 1, alphabet);
 		}
 
-		public boolean isPatternInTrie(char[] key, int keyIndex) {
+		@SuppressWarnings("unchecked")
+		public boolean isPatternInTrie(char[] key, int keyIndex, Alphabet alphabet) {
 			if (keyIndex == key.length)
 				return word != null;
 			char c = key[keyIndex];
 			if (c == '_') {
-				for (int i = 0; i < 26; ++i)
-					if (children[i] != null && children[i].isPatternInTrie(key, keyIndex + 1))
+				for (int i = 0; i < children.length; ++i)
+					if (children[i] != null && children[i].isPatternInTrie(key, keyIndex + 1, alphabet))
 						return true;
 				return false;
 			}
 
-			if (c < 'A' || c > 'Z')
-				throw new IllegalArgumentException("Unrecognized character " + c + " at index " + keyIndex);
-			int childIndex = c - 'A';
-			@SuppressWarnings("unchecked")
+			int childIndex = alphabet.encode(c);
+			if (childIndex < 0)
+				return false;
 			TrieNode<E> child = children[childIndex];
-			return child == null ? false : child.isPatternInTrie(key, keyIndex + 1);
+			return child == null ? false : child.isPatternInTrie(key, keyIndex + 1, alphabet);
+		}
+
+		// accumulate near misses of pattern below this node, keybuff[0 .. keyIndex - 1] holding the path here
+		@SuppressWarnings("unchecked")
+		public void getNearMisses(char[] pattern, int keyIndex, int mismatchesLeft, int maxDistance, char[] keybuff,
+				List<Pair<char[], E>> accumulator, Alphabet alphabet) {
+			if (keyIndex == pattern.length) {
+				if (word != null && mismatchesLeft < maxDistance)
+					accumulator.add(new Pair<char[], E>(keybuff.clone(), word));
+				return;
+			}
+			char c = pattern[keyIndex];
+			if (c != '_' && mismatchesLeft == 0) {
+				// no mismatches left, so only an exact match will do from here down
+				int childIndex = alphabet.encode(c);
+				if (childIndex >= 0 && children[childIndex] != null) {
+					keybuff[keyIndex] = c;
+					children[childIndex].getNearMisses(pattern, keyIndex + 1, 0, maxDistance, keybuff, accumulator, alphabet);
+				}
+				return;
+			}
+			for (int i = 0; i < children.length; ++i) {
+				if (children[i] != null) {
+					keybuff[keyIndex] = alphabet.decode(i);
+					int childMismatchesLeft = c == '_' || c == keybuff[keyIndex] ? mismatchesLeft : mismatchesLeft - 1;
+					children[i].getNearMisses(pattern, keyIndex + 1, childMismatchesLeft, maxDistance, keybuff, accumulator, alphabet);
+				}
+			}
+		}
+
+		// return index of child for character at keyIndex in key
+		private static int getChildIndex(char[] key, int keyIndex, Alphabet alphabet) {
+			char c = key[keyIndex];
+			int childIndex = alphabet.encode(c);
+			if (childIndex < 0)
+				throw new IllegalArgumentException("Unrecognized character " + c + " at index " + keyIndex);
+			return childIndex;
 		}
 
 		public boolean isTerminal() {
@@ -139,6 +206,9 @@ public class Trie<E> implements Dictionary<char[], E> {
 		/** pattern */
 		private final char[] pattern;
 
+		/** alphabet that keys are made of */
+		private final Alphabet alphabet;
+
 		/**
 		 * index of child node for every node in current descent,
 		 * starting with HEAD. Values point to NEXT element to return.
@@ -154,9 +224,10 @@ public class Trie<E> implements Dictionary<char[], E> {
 		private final TrieNode<E>[] descentGraph;
 
 		@SuppressWarnings("unchecked")
-		public TrieIterator(TrieNode<E> head, char[] pattern) {
+		public TrieIterator(TrieNode<E> head, char[] pattern, Alphabet alphabet) {
 			int length = pattern.length;
 			this.pattern = pattern;
+			this.alphabet = alphabet;
 
 			childIndexes = new int[length];
 			descentGraph = new TrieNode[length];
@@ -188,7 +259,7 @@ public class Trie<E> implements Dictionary<char[], E> {
 //			TrieTuple retval = new Tri
 			char[] text = new char[childIndexes.length];
 			for (int i = 0; i < childIndexes.length; ++i)
-					text[i] = (char)(childIndexes[i] + 'A');
+					text[i] = alphabet.decode(childIndexes[i]);
 
 			Pair<char[], E> retval = new Pair<char[], E>(text, descentGraph[descentGraph.length - 1].word);
 			// goto next element, if any
@@ -211,7 +282,9 @@ public class Trie<E> implements Dictionary<char[], E> {
 				if (patChar != WILDCARD) {
 					// If we are at bottom depth and we have no wildcard, then
 					// we only have one possibility
-					int index = patChar - 'A';
+					int index = alphabet.encode(patChar);
+					if (index < 0)
+						return false;
 					@SuppressWarnings("unchecked")
 					TrieNode<E> node = descentGraph[depth].children[index];
 					if (node != null && node.isTerminal()) {
@@ -222,7 +295,7 @@ public class Trie<E> implements Dictionary<char[], E> {
 				}
 				// We are at bottom depth and have wildcard, need to iterate thru
 				// possibilities
-				for (int i = 0; i < 26; ++i) {
+				for (int i = 0; i < descentGraph[depth].children.length; ++i) {
 					@SuppressWarnings("unchecked")
 					TrieNode<E> node = descentGraph[depth].children[i];
 					if (node != null && node.isTerminal()) {
@@ -236,7 +309,9 @@ public class Trie<E> implements Dictionary<char[], E> {
 			if (patChar != WILDCARD) {
 				// If we are not at bottom depth and we have no wildcard, then
 				// we only have one possibility
-				int index = patChar - 'A';
+				int index = alphabet.encode(patChar);
+				if (index < 0)
+					return false;
 				@SuppressWarnings("unchecked")
 				TrieNode<E> node = descentGraph[depth].children[index];
 				if (node == null)
@@ -247,7 +322,7 @@ public class Trie<E> implements Dictionary<char[], E> {
 			}
 			// We are not at bottom depth and have wildcard, need to iterate thru
 			// possibilities
-			for (int i = 0; i < 26; ++i) {
+			for (int i = 0; i < descentGraph[depth].children.length; ++i) {
 				@SuppressWarnings("unchecked")
 				TrieNode<E> node = descentGraph[depth].children[i];
 				if (node != null) {
@@ -286,7 +361,7 @@ public class Trie<E> implements Dictionary<char[], E> {
 			TrieNode<E>[] children = descentGraph[depth].children;
 			if (atBottom) {
 				// We are at bottom depth and have wildcard, need to iterate thru possibilities
-				while (++childIndexes[depth] < 26) {
+				while (++childIndexes[depth] < children.length) {
 					TrieNode<E> node = children[childIndexes[depth]];
 					if (node != null && node.isTerminal())
 						return true;
@@ -295,7 +370,7 @@ public class Trie<E> implements Dictionary<char[], E> {
 			}
 
 			// We are not at bottom depth and have wildcard, need to iterate thru possibilities
-			while (++childIndexes[depth] < 26) {
+			while (++childIndexes[depth] < children.length) {
 				TrieNode<E> node = children[childIndexes[depth]];
 				if (node != null) {
 					descentGraph[depth + 1] = node;
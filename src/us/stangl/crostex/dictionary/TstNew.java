@@ -15,13 +15,31 @@ import us.stangl.crostex.util.ResettableIterator;
  * @author Alex Stangl
  */
 public class TstNew<E> implements Dictionary<char[], E> {
+	/** alphabet that keys are made of */
+	private final Alphabet alphabet;
+
 	/** each element at index N in forest_ contains an array of TST heads for words of size N + 3 */
 	private List<TstNode<E>[]> forest = new ArrayList<TstNode<E>[]>();
 
+	/**
+	 * Constructor for TstNew holding English words.
+	 */
+	public TstNew() {
+		this(Alphabet.ENGLISH);
+	}
+
+	/**
+	 * Constructor for TstNew holding words of the specified alphabet.
+	 * @param alphabet alphabet that keys are made of
+	 */
+	public TstNew(Alphabet alphabet) {
+		this.alphabet = alphabet;
+	}
+
 	@SuppressWarnings("unchecked")
 	private void growForestToSize(int size) {
 		while (forest.size() < size)
-			forest.add(new TstNode[26]);
+			forest.add(new TstNode[alphabet.size()]);
 	}
 
 	/**
@@ -49,7 +67,9 @@ public class TstNew<E> implements Dictionary<char[], E> {
 	 * @param entry entry associated with key
 	 */
 	public void insert(char[] key, E entry) {
-		int headIndex = key[0] - 'A';
+		int headIndex = alphabet.encode(key[0]);
+		if (headIndex < 0)
+			throw new IllegalArgumentException("Unrecognized character " + key[0] + " at index 0");
 		int forestIndex = key.length - 3;
 		growForestToSize(forestIndex + 1);
 		TstNode<E>[] heads = forest.get(forestIndex);
@@ -67,9 +87,10 @@ public class TstNew<E> implements Dictionary<char[], E> {
 		int forestIndex = key.length - 3;
 		if (forest.size() <= forestIndex)
 			return null;
-		//TstNode<E>[] heads = forest_.get(forestIndex);
-		//return lookup(heads[key[0] - 'A'], key, 1);
-		TstNode<E> node = forest.get(forestIndex)[key[0] - 'A'];
+		int headIndex = alphabet.encode(key[0]);
+		if (headIndex < 0)
+			return null;
+		TstNode<E> node = forest.get(forestIndex)[headIndex];
 		int keyIndex = 1;
 		char c = key[keyIndex];
 		while (true) {
@@ -100,15 +121,17 @@ public class TstNew<E> implements Dictionary<char[], E> {
 
 		if (firstChar != WILDCARD) {
 			keybuff[0] = firstChar;
-			TstNode<E> head = heads[firstChar - 'A'];
+			int headIndex = alphabet.encode(firstChar);
+			TstNode<E> head = headIndex < 0 ? null : heads[headIndex];
 			if (head != null)
 				getPatternMatches(head, pattern, 1, retval, keybuff);
 		} else {
-			keybuff[0] = 'A';
-			for (TstNode<E> head : heads) {
-				if (head != null)
+			for (int headIndex = 0; headIndex < heads.length; ++headIndex) {
+				TstNode<E> head = heads[headIndex];
+				if (head != null) {
+					keybuff[0] = alphabet.decode(headIndex);
 					getPatternMatches(head, pattern, 1, retval, keybuff);
-				++keybuff[0];
+				}
 			}
 		}
 		
@@ -116,6 +139,34 @@ public class TstNew<E> implements Dictionary<char[], E> {
 		return retval.isEmpty() ? Collections.<Pair<char[], E>>emptyList() : retval;
 	}
 
+	/**
+	 * Return list of near misses for specified pattern: entries of the same length that differ from it
+	 * in at least 1 and at most maxDistance of its non-wildcard positions.
+	 * @param pattern pattern, possibly containing wildcards
+	 * @param maxDistance maximum number of non-wildcard positions allowed to differ, at least 1
+	 * @return list of entries within maxDistance of, but not exactly matching, specified pattern
+	 */
+	public List<Pair<char[], E>> getNearMisses(char[] pattern, int maxDistance) {
+		if (maxDistance < 1)
+			throw new IllegalArgumentException("maxDistance must be at least 1, but was " + maxDistance);
+		List<Pair<char[], E>> retval = new ArrayList<Pair<char[], E>>();
+		int forestIndex = pattern.length - 3;
+		if (forest.size() <= forestIndex)
+			return retval;
+		TstNode<E>[] heads = forest.get(forestIndex);
+		char[] keybuff = new char[pattern.length];
+		char firstChar = pattern[0];
+		for (int headIndex = 0; headIndex < heads.length; ++headIndex) {
+			if (heads[headIndex] != null) {
+				keybuff[0] = alphabet.decode(headIndex);
+				int mismatchesLeft = firstChar == WILDCARD || firstChar == keybuff[0] ? maxDistance : maxDistance - 1;
+				if (mismatchesLeft >= 0)
+					getNearMisses(heads[headIndex], pattern, 1, mismatchesLeft, maxDistance, retval, keybuff);
+			}
+		}
+		return retval;
+	}
+
 	/**
 	 * Return whether the specified pattern has any entries in this dictionary.
 	 * @param pattern
@@ -126,8 +177,10 @@ public class TstNew<E> implements Dictionary<char[], E> {
 		if (forest.size() <= forestIndex)
 			return false;
 		TstNode<E>[] heads = forest.get(forestIndex);
-		if (pattern[0] != WILDCARD)
-			return isPatternFound(heads[pattern[0] - 'A'], pattern, 1);
+		if (pattern[0] != WILDCARD) {
+			int headIndex = alphabet.encode(pattern[0]);
+			return headIndex >= 0 && isPatternFound(heads[headIndex], pattern, 1);
+		}
 
 		for (TstNode<E> head : heads)
 			if (isPatternFound(head, pattern, 1))
@@ -140,6 +193,10 @@ public class TstNew<E> implements Dictionary<char[], E> {
 			for (int i = 0; i < rootsArray.length; ++i)
 				rootsArray[i] = rebalanceSubtree(rootsArray[i]);
 	}
+
+	public Alphabet getAlphabet() {
+		return alphabet;
+	}
     
 	public String toString() {
 		StringBuilder retval = new StringBuilder();
@@ -202,6 +259,27 @@ public class TstNew<E> implements Dictionary<char[], E> {
 		return ((c == WILDCARD || c > node.splitChar) && isPatternFound(node.rightChild, key, keyIndex));
 	}
 
+	// accumulate near misses of pattern in subtree rooted at node, keybuff[0 .. keyIndex - 1] holding the path here.
+	// With mismatches left, every branch is open; the middle branch costs a mismatch unless its char matches.
+	@SuppressWarnings("unchecked")
+	private void getNearMisses(TstNode<E> node, char[] pattern, int keyIndex, int mismatchesLeft, int maxDistance,
+			List<Pair<char[], E>> accumulator, char[] keybuff) {
+		char c = pattern[keyIndex];
+		boolean anyChar = c == WILDCARD || mismatchesLeft > 0;
+		if ((anyChar || c < node.splitChar) && node.leftChild != null)
+			getNearMisses(node.leftChild, pattern, keyIndex, mismatchesLeft, maxDistance, accumulator, keybuff);
+		if ((anyChar || c == node.splitChar) && node.middleChild != null) {
+			int childMismatchesLeft = c == WILDCARD || c == node.splitChar ? mismatchesLeft : mismatchesLeft - 1;
+			keybuff[keyIndex] = node.splitChar;
+			if (keyIndex < pattern.length - 1)
+				getNearMisses((TstNode<E>)node.middleChild, pattern, keyIndex + 1, childMismatchesLeft, maxDistance, accumulator, keybuff);
+			else if (childMismatchesLeft < maxDistance)
+				accumulator.add(new Pair<char[], E>(keybuff.clone(), (E)node.middleChild));
+		}
+		if ((anyChar || c > node.splitChar) && node.rightChild != null)
+			getNearMisses(node.rightChild, pattern, keyIndex, mismatchesLeft, maxDistance, accumulator, keybuff);
+	}
+
 	/*
 	private E lookup(TstNode<E> node, char[] key, int keyIndex) {
 		char c = key[keyIndex];
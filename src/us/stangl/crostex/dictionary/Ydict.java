@@ -3,12 +3,14 @@
  */
 package us.stangl.crostex.dictionary;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
 import us.stangl.crostex.util.Pair;
 import us.stangl.crostex.util.ResettableIterator;
@@ -16,78 +18,190 @@ import us.stangl.crostex.util.ResettableIterator;
 
 /**
  * Implementation of dictionary optimized for crossword pattern lookup. 
+ * Words of each length are stored contiguously, and addressed by index.
  * @author Alex Stangl
  */
-public class Ydict<E> implements Dictionary<char[], E> {
+public class Ydict<E> implements IndexedDictionary<E> {
 	/** flag indicating whether to use new pattern/intersection algorithm */
 	private static final boolean USE_NEW_INTERSECTION_ALGORITHM = true;
 
+	/** default memory budget for pair postings, in number of word indexes stored */
+	private static final int DEFAULT_PAIR_POSTINGS_BUDGET = 4 * 1024 * 1024;
+
+	/** number of times a position pair has to be queried before pair postings are built for it */
+	private static final int PAIR_POSTINGS_QUERY_THRESHOLD = 32;
+
+	/** shared empty posting */
+	private static final int[] EMPTY_POSTING = new int[0];
+
+	/** alphabet that words are made of */
+	private final Alphabet alphabet;
+
+	/** number of symbols in alphabet */
+	private final int alphabetSize;
+
 	/**
 	 * buckets organized by word length
-	 * each element[N] contains all words of length N
+	 * each element[N] contains all words of length N, until the index for length N is built
 	 */
 	private List<Map<String, E>> wordsOfLength = new ArrayList<Map<String, E>>();
 
-	private Pair<char[], E>[][] wordsOfLengthArray;
+	/**
+	 * index of words for each length, [lengthOfWord], null until that length is first needed.
+	 * Elements are read without locking; this is safe since LengthIndex only publishes through final fields.
+	 */
+	private LengthIndex<E>[] lengthIndexes;
+
+	/** remaining budget for pair postings, in number of word indexes stored */
+	private int pairPostingsBudget = DEFAULT_PAIR_POSTINGS_BUDGET;
 
 	/**
-	 * lenBuckets_ stored as [lengthOfWord][indexOfCharacterInWord 0..lengthOfWord - 1][character 0..25][N where N is the # of selections]
-	 * each one of these elements stores an index into wordsOfLengthArray[lengthOfWord] to identify the particular word
-	 */ 
-	// lenBuckets[w][x][y][z]
-	// where w == length of word
-	//       x == indexOfCharacterInWord (0..lengthOfWord - 1)
-	//       y == character (0..25)
-	//       z ranges over final array of indexes into wordsOfLengthArray[w] to identify the particular word
-	private int[][][][] lenBuckets;
+	 * Constructor for Ydict holding English words.
+	 */
+	public Ydict() {
+		this(Alphabet.ENGLISH);
+	}
+
+	/**
+	 * Constructor for Ydict holding words of the specified alphabet.
+	 * @param alphabet alphabet that words are made of
+	 */
+	public Ydict(Alphabet alphabet) {
+		this.alphabet = alphabet;
+		alphabetSize = alphabet.size();
+	}
 
 	// insert words into wordsOfLength_ buckets initially
 	public void insert(char[] word, E entry) {
+		for (int i = 0; i < word.length; ++i)
+			if (! alphabet.contains(word[i]))
+				throw new IllegalArgumentException("Unrecognized character " + word[i] + " at index " + i);
 		while (wordsOfLength.size() <= word.length)
 			wordsOfLength.add(new HashMap<String, E>());
 		// This next line removes duplicates, always using latest version
 		wordsOfLength.get(word.length).put(new String(word), entry);
 	}
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * Finish inserts. Indexes for each word length are built lazily, the first time that length is
+	 * queried, so lengths a session never uses cost no time or memory beyond their raw words.
+	 * Call buildIndexes to build the indexes for known lengths up front instead.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
 	public void rebalance() {
-		wordsOfLengthArray = new Pair[wordsOfLength.size()][];
-		lenBuckets = new int[wordsOfLength.size()][][][];
-		for (int i = 0; i < wordsOfLengthArray.length; ++i) {
-			Map<String, E> wordsOfLengthMap = wordsOfLength.get(i);
-			wordsOfLength.set(i, null);
-			wordsOfLengthArray[i] = new Pair[wordsOfLengthMap.size()];
-			int index = 0;
-			List<Integer>[][] aToZ = new List[i][26];
-			for (int k = 0; k < i; ++k)
-				for (int j = 0; j < 26; ++j)
-					aToZ[k][j] = new ArrayList<Integer>();
-
-			List<Map.Entry<String, E>> entryList = new ArrayList<Map.Entry<String, E>>(wordsOfLengthMap.entrySet());
-			Collections.shuffle(entryList);
-			for (Map.Entry<String, E> wordOfLengthEntry : entryList) {
-				char[] chars = wordOfLengthEntry.getKey().toCharArray();
-				for (int j = 0; j < chars.length; ++j)
-					aToZ[j][chars[j] - 'A'].add(index);
-				wordsOfLengthArray[i][index++] = new Pair<char[], E>(chars, wordOfLengthEntry.getValue());
-			}
+		lengthIndexes = new LengthIndex[wordsOfLength.size()];
+	}
 
-			lenBuckets[i] = new int[i][][];
+	/**
+	 * Build indexes for the specified word lengths now, rather than on first query,
+	 * e.g., for all word lengths possible in the grid sizes in use. Must be called after rebalance.
+	 * @param lengths word lengths to build indexes for; lengths having no words are ignored
+	 */
+	public void buildIndexes(int... lengths) {
+		for (int length : lengths)
+			getLengthIndex(length);
+	}
 
-			// Now create lenBuckets_
-			for (int letterIndex = 0; letterIndex < i; ++letterIndex) {
-				lenBuckets[i][letterIndex] = new int[26][];
-				for (int j = 0; j < 26; ++j) {
-					int size = aToZ[letterIndex][j].size();
-					lenBuckets[i][letterIndex][j] = new int[size];
-					for (int k = 0; k < size; ++k)
-						lenBuckets[i][letterIndex][j][k] = aToZ[letterIndex][j].get(k);
-				}
+	// return index for words of specified length, building it if necessary, or null if no words that long
+	private LengthIndex<E> getLengthIndex(int length) {
+		if (length >= lengthIndexes.length)
+			return null;
+		LengthIndex<E> lengthIndex = lengthIndexes[length];
+		return lengthIndex != null ? lengthIndex : buildLengthIndex(length);
+	}
+
+	// build index for words of specified length, exactly once
+	@SuppressWarnings("unchecked")
+	private synchronized LengthIndex<E> buildLengthIndex(int length) {
+		if (lengthIndexes[length] != null)
+			return lengthIndexes[length];
+		Map<String, E> wordsOfLengthMap = wordsOfLength.get(length);
+		int numWords = wordsOfLengthMap.size();
+		char[] letters = new char[numWords * length];
+		Object[] entries = new Object[numWords];
+		int index = 0;
+		List<Map.Entry<String, E>> entryList = new ArrayList<Map.Entry<String, E>>(wordsOfLengthMap.entrySet());
+		Collections.shuffle(entryList);
+		for (Map.Entry<String, E> wordOfLengthEntry : entryList) {
+			wordOfLengthEntry.getKey().getChars(0, length, letters, index * length);
+			entries[index++] = wordOfLengthEntry.getValue();
+		}
+
+		// Count first, then fill, so each posting is allocated exactly once.
+		// Word indexes are visited in ascending order, so each posting comes out sorted.
+		int[][] counts = new int[length][alphabetSize];
+		for (int i = 0; i < letters.length; ++i)
+			++counts[i % length][alphabet.encode(letters[i])];
+		int[][][] buckets = new int[length][alphabetSize][];
+		for (int letterIndex = 0; letterIndex < length; ++letterIndex)
+			for (int code = 0; code < alphabetSize; ++code)
+				buckets[letterIndex][code] = counts[letterIndex][code] == 0 ? EMPTY_POSTING : new int[counts[letterIndex][code]];
+		int[][] fillPointers = new int[length][alphabetSize];
+		for (index = 0; index < numWords; ++index) {
+			for (int letterIndex = 0; letterIndex < length; ++letterIndex) {
+				int code = alphabet.encode(letters[index * length + letterIndex]);
+				buckets[letterIndex][code][fillPointers[letterIndex][code]++] = index;
 			}
 		}
 
-		// Free up original wordsOfLength_ storage
-		wordsOfLength = null;
+		// Free up original wordsOfLength_ storage for this length
+		wordsOfLength.set(length, null);
+		lengthIndexes[length] = new LengthIndex<E>(length, letters, entries, buckets);
+		return lengthIndexes[length];
+	}
+
+	/**
+	 * Set memory budget for pair postings, expressed as the total number of word indexes they may hold.
+	 * Each position pair built costs one index per word of that length. Pairs already built are kept.
+	 * @param maxEntries maximum number of word indexes to devote to pair postings
+	 */
+	public synchronized void setPairPostingsBudget(int maxEntries) {
+		pairPostingsBudget = maxEntries;
+	}
+
+	/**
+	 * Build pair postings for the specified position pair, if not already built and budget allows.
+	 * Normally pair postings are built automatically for frequently-queried pairs; this allows
+	 * a caller who knows its query mix to build them up front. Must be called after rebalance.
+	 * @param length word length
+	 * @param posA index of first position, 0 .. length - 1
+	 * @param posB index of second position, 0 .. length - 1, different from posA
+	 * @return true if pair postings are available for the specified pair
+	 */
+	public synchronized boolean buildPairPostings(int length, int posA, int posB) {
+		if (posA > posB) {
+			int temp = posA;
+			posA = posB;
+			posB = temp;
+		}
+		LengthIndex<E> lengthIndex = length < 0 ? null : getLengthIndex(length);
+		if (lengthIndex == null || posA == posB || posA < 0 || posB >= length)
+			throw new IllegalArgumentException("Invalid position pair (" + posA + ", " + posB + ") for length " + length);
+		int pairIndex = posA * length + posB;
+		if (lengthIndex.pairBuckets[pairIndex] != null)
+			return true;
+		int numWords = lengthIndex.entries.length;
+		if (numWords > pairPostingsBudget)
+			return false;
+		pairPostingsBudget -= numWords;
+
+		// Count first, then fill, so each posting is allocated exactly once.
+		// Word indexes are visited in ascending order, so each posting comes out sorted.
+		char[] letters = lengthIndex.letters;
+		int[] counts = new int[alphabetSize * alphabetSize];
+		for (int offset = 0; offset < letters.length; offset += length)
+			++counts[pairKey(alphabet.encode(letters[offset + posA]), alphabet.encode(letters[offset + posB]))];
+		int[][] postings = new int[alphabetSize * alphabetSize][];
+		for (int i = 0; i < postings.length; ++i)
+			postings[i] = counts[i] == 0 ? EMPTY_POSTING : new int[counts[i]];
+		int[] fillPointers = new int[alphabetSize * alphabetSize];
+		for (int index = 0; index < numWords; ++index) {
+			int offset = index * length;
+			int key = pairKey(alphabet.encode(letters[offset + posA]), alphabet.encode(letters[offset + posB]));
+			postings[key][fillPointers[key]++] = index;
+		}
+		lengthIndex.pairBuckets[pairIndex] = new PairPostings(postings);
+		return true;
 	}
 
 
@@ -97,26 +211,77 @@ public class Ydict<E> implements Dictionary<char[], E> {
 	}
 
 	public List<Pair<char[], E>> getPatternMatches(char[] pattern) {
-		int len = pattern.length;
-		if (lenBuckets.length <= len)
+		LengthIndex<E> lengthIndex = getLengthIndex(pattern.length);
+		int[] codes = encodePattern(pattern);
+		if (lengthIndex == null || codes == null)
 			return Collections.emptyList();
-		int[][][] buckets = lenBuckets[len];
+		// null matches, for all wildcards, means entire bucketful
+		return new MatchList<E>(lengthIndex, getMatchingIndexes(codes, lengthIndex));
+	}
+
+	public int[] getPatternMatchIndexes(char[] pattern) {
+		LengthIndex<E> lengthIndex = getLengthIndex(pattern.length);
+		int[] codes = encodePattern(pattern);
+		if (lengthIndex == null || codes == null)
+			return EMPTY_POSTING;
+		int[] retval = getMatchingIndexes(codes, lengthIndex);
+		if (retval == null) {
+			retval = new int[lengthIndex.entries.length];
+			for (int i = 0; i < retval.length; ++i)
+				retval[i] = i;
+		}
+		return retval;
+	}
+
+	// Return pattern encoded as alphabet codes, -1 for wildcards, or null if
+	// pattern contains a symbol outside the alphabet, which can't match anything
+	private int[] encodePattern(char[] pattern) {
+		int[] codes = new int[pattern.length];
+		for (int index = 0; index < pattern.length; ++index) {
+			char c = pattern[index];
+			if (c == WILDCARD) {
+				codes[index] = -1;
+			} else {
+				codes[index] = alphabet.encode(c);
+				if (codes[index] < 0)
+					return null;
+			}
+		}
+		return codes;
+	}
+
+	// Return indexes of words matching encoded pattern, in ascending order, or null if pattern is all wildcards
+	private int[] getMatchingIndexes(int[] codes, LengthIndex<E> lengthIndex) {
+		int len = codes.length;
+		int[][][] buckets = lengthIndex.buckets;
 
 		if (USE_NEW_INTERSECTION_ALGORITHM) {
 			// Use Svs + Galloping Search, as suggested by "Faster Set Intersection Algorithms for Text Searching"
-			int[][] wordLists = new int[pattern.length][];
+			int[][] wordLists = new int[len][];
 			//TODO investigate whether something like QuickSort might work better than this insertion sort here
 			int wordListsSize = 0;
+
+			// If two or more letters are fixed, start from the most selective pair postings available
+			int pairPosA = -1;
+			int pairPosB = -1;
+			int pairIndex = findBestPairIndex(codes, lengthIndex);
+			if (pairIndex >= 0) {
+				pairPosA = pairIndex / len;
+				pairPosB = pairIndex % len;
+				int[] pairWords = lengthIndex.pairBuckets[pairIndex].postings[pairKey(codes[pairPosA], codes[pairPosB])];
+				addWordListInOrderByCardinality(wordLists, wordListsSize, pairWords);
+				++wordListsSize;
+			}
 			for (int index = 0; index < len; ++index) {
-				char c = pattern[index];
-				if (c != WILDCARD) {
-					addWordListInOrderByCardinality(wordLists, wordListsSize, buckets[index][c - 'A']);
+				int code = codes[index];
+				if (code >= 0 && index != pairPosA && index != pairPosB) {
+					addWordListInOrderByCardinality(wordLists, wordListsSize, buckets[index][code]);
 					++wordListsSize;
 				}
 			}
-			// If all wildcards, return entire bucketful
+			// If all wildcards, caller uses entire bucketful
 			if (wordListsSize == 0)
-				return Arrays.asList(wordsOfLengthArray[len]);
+				return null;
 
 			// Need to copy wordLists[0] to candidateSet so we can mutate it w/o corrupting Dictionary
 			int[] candidateSet = new int[wordLists[0].length];
@@ -162,22 +327,18 @@ public class Ydict<E> implements Dictionary<char[], E> {
 				}
 			}
 
-			List<Pair<char[], E>> retval = new ArrayList<Pair<char[], E>>(candidateSetSize);
-			Pair<char[], E>[] arr = wordsOfLengthArray[len];
-			for (int i = 0; i < candidateSetSize; ++i)
-				retval.add(arr[candidateSet[i]]);
-			return retval;
+			return candidateSetSize == candidateSet.length ? candidateSet : Arrays.copyOf(candidateSet, candidateSetSize);
 		} else {
-			// Two possibilities: all wildcards, in which case we use full entry from wordsOfLengthArray
-			// Or at least 1 non-wildcard, in which case we use the lenBuckets intersections
+			// Two possibilities: all wildcards, in which case we use all words of the length
+			// Or at least 1 non-wildcard, in which case we use the bucket intersections
 			int[] currIntersection = null;
 			int[] oldIntersection = null;
 			int[] temp = null;
 			int currIntersectionSize = -1;
 			for (int index = 0; index < len /* && currIntersectionSize != 0 */; ++index) {
-				char c = pattern[index];
-				if (c != WILDCARD) {
-					int[] words = buckets[index][c - 'A'];
+				int code = codes[index];
+				if (code >= 0) {
+					int[] words = buckets[index][code];
 					if (currIntersection == null) {
 						currIntersection = words;
 						currIntersectionSize = words.length;
@@ -197,30 +358,86 @@ public class Ydict<E> implements Dictionary<char[], E> {
 			}
 
 			if (currIntersection == null)
-				// All wildcards -- use entire bucketfull
-				return Arrays.asList(wordsOfLengthArray[len]);
+				// All wildcards -- caller uses entire bucketfull
+				return null;
 
-			List<Pair<char[], E>> retval = new ArrayList<Pair<char[], E>>(currIntersectionSize);
-			for (int i = 0; i < currIntersectionSize; ++i)
-				retval.add(wordsOfLengthArray[len][currIntersection[i]]);
-			return retval;
+			// Copy, since currIntersection may be the dictionary's own bucket
+			return Arrays.copyOf(currIntersection, currIntersectionSize);
 		}
 	}
 
+	public List<Pair<char[], E>> getNearMisses(char[] pattern, int maxDistance) {
+		if (maxDistance < 1)
+			throw new IllegalArgumentException("maxDistance must be at least 1, but was " + maxDistance);
+		int len = pattern.length;
+		LengthIndex<E> lengthIndex = getLengthIndex(len);
+		if (lengthIndex == null)
+			return Collections.emptyList();
+		int[][][] buckets = lengthIndex.buckets;
+
+		// ScanCount: count, for every word, how many fixed positions of the pattern it agrees with,
+		// straight from the positional postings. A symbol outside the alphabet is a fixed position
+		// that no word agrees with.
+		int numFixed = 0;
+		int[] counts = new int[lengthIndex.entries.length];
+		for (int index = 0; index < len; ++index) {
+			char c = pattern[index];
+			if (c != WILDCARD) {
+				++numFixed;
+				int code = alphabet.encode(c);
+				if (code >= 0)
+					for (int word : buckets[index][code])
+						++counts[word];
+			}
+		}
+
+		int minAgreements = numFixed - maxDistance;
+		List<Pair<char[], E>> retval = new ArrayList<Pair<char[], E>>();
+		for (int i = 0; i < counts.length; ++i)
+			if (counts[i] >= minAgreements && counts[i] < numFixed)
+				retval.add(lengthIndex.getPair(i));
+		return retval;
+	}
+
 	public E lookup(char[] key) {
-		if (lenBuckets.length <= key.length)
+		if (lengthIndexes.length <= key.length)
 			return null;
 
-		List<Pair<char[], E>> patternMatches = getPatternMatches(key);
-		if (patternMatches.size() == 0)
+		int[] patternMatches = getPatternMatchIndexes(key);
+		if (patternMatches.length == 0)
 			return null;
-		if (patternMatches.size() > 1)
-			throw new IllegalArgumentException("Got " + patternMatches.size() + " matches for " + new String(key));
-		return patternMatches.get(0).second;
+		if (patternMatches.length > 1)
+			throw new IllegalArgumentException("Got " + patternMatches.length + " matches for " + new String(key));
+		return getEntry(key.length, patternMatches[0]);
 	}
 
 	public boolean isPatternInDictionary(char[] pattern) {
-		return getPatternMatches(pattern).size() > 0;
+		return getPatternMatchIndexes(pattern).length > 0;
+	}
+
+	public int getWordCount(int length) {
+		LengthIndex<E> lengthIndex = getLengthIndex(length);
+		return lengthIndex == null ? 0 : lengthIndex.entries.length;
+	}
+
+	public char[] getLetters(int length) {
+		LengthIndex<E> lengthIndex = getLengthIndex(length);
+		return lengthIndex == null ? new char[0] : lengthIndex.letters;
+	}
+
+	@SuppressWarnings("unchecked")
+	public E getEntry(int length, int index) {
+		return (E)getLengthIndex(length).entries[index];
+	}
+
+	public Pair<char[], E> getPair(int length, int index) {
+		return getLengthIndex(length).getPair(index);
+	}
+
+	public int[] getPostings(int length, int position, char letter) {
+		LengthIndex<E> lengthIndex = getLengthIndex(length);
+		int code = alphabet.encode(letter);
+		return lengthIndex == null || code < 0 ? EMPTY_POSTING : lengthIndex.buckets[position][code];
 	}
 
 	/**
@@ -261,6 +478,74 @@ public class Ydict<E> implements Dictionary<char[], E> {
 		}
 	}
 
+	// Return index (posA * length + posB) of the most selective pair postings already built for the fixed
+	// letters of the encoded pattern (-1 for wildcards), or -1 if there are none. Also counts the query against
+	// the pair of its two most selective single positions, building postings for that pair once it has been
+	// queried often enough.
+	private int findBestPairIndex(int[] codes, LengthIndex<E> lengthIndex) {
+		int len = codes.length;
+		int[][][] buckets = lengthIndex.buckets;
+		PairPostings[] pairs = lengthIndex.pairBuckets;
+		int bestPairIndex = -1;
+		int bestSize = Integer.MAX_VALUE;
+		int firstPos = -1;
+		int secondPos = -1;
+		int firstSize = Integer.MAX_VALUE;
+		int secondSize = Integer.MAX_VALUE;
+		for (int a = 0; a < len; ++a) {
+			int ca = codes[a];
+			if (ca < 0)
+				continue;
+			int size = buckets[a][ca].length;
+			if (size < firstSize) {
+				secondPos = firstPos;
+				secondSize = firstSize;
+				firstPos = a;
+				firstSize = size;
+			} else if (size < secondSize) {
+				secondPos = a;
+				secondSize = size;
+			}
+			for (int b = a + 1; b < len; ++b) {
+				int cb = codes[b];
+				if (cb < 0)
+					continue;
+				PairPostings pairPostings = pairs[a * len + b];
+				if (pairPostings != null && pairPostings.postings[pairKey(ca, cb)].length < bestSize) {
+					bestSize = pairPostings.postings[pairKey(ca, cb)].length;
+					bestPairIndex = a * len + b;
+				}
+			}
+		}
+		if (secondPos >= 0) {
+			int candidateIndex = Math.min(firstPos, secondPos) * len + Math.max(firstPos, secondPos);
+			if (pairs[candidateIndex] == null && ++lengthIndex.pairQueryCounts[candidateIndex] == PAIR_POSTINGS_QUERY_THRESHOLD
+					&& buildPairPostings(len, firstPos, secondPos)
+					&& pairs[candidateIndex].postings[pairKey(codes[Math.min(firstPos, secondPos)],
+							codes[Math.max(firstPos, secondPos)])].length < bestSize)
+				bestPairIndex = candidateIndex;
+		}
+		return bestPairIndex;
+	}
+
+	// Return index (posA * length + posB) of the pair postings a query of pattern would start from, or -1 if none,
+	// counting this as a query of pattern. Package-private for testing
+	int findBestPairIndex(char[] pattern) {
+		LengthIndex<E> lengthIndex = getLengthIndex(pattern.length);
+		int[] codes = encodePattern(pattern);
+		return lengthIndex == null || codes == null ? -1 : findBestPairIndex(codes, lengthIndex);
+	}
+
+	// return index into pair postings for the specified pair of letter codes, the first being the letter at the
+	// lower position
+	private int pairKey(int codeA, int codeB) {
+		return codeA * alphabetSize + codeB;
+	}
+
+	public Alphabet getAlphabet() {
+		return alphabet;
+	}
+
 	// put words into wordLists in order of its cardinality (length)
 	private void addWordListInOrderByCardinality(int[][] wordLists, int wordListsSize, int[] words) {
 		int index = 0;
@@ -272,6 +557,99 @@ public class Ydict<E> implements Dictionary<char[], E> {
 		wordLists[index] = words;
 	}
 
+	/**
+	 * Index of all words of one length.
+	 * Contents are only published through final fields, so any
+	 * thread seeing a LengthIndex also sees its fully-built words and postings.
+	 */
+	private static class LengthIndex<E> {
+		/** word length */
+		private final int length;
+
+		/** letters of all words of this length, in shuffled order, word N at [N * length .. (N + 1) * length - 1] */
+		private final char[] letters;
+
+		/** entries associated with words, [N] */
+		private final Object[] entries;
+
+		/**
+		 * postings stored as [indexOfCharacterInWord 0..length - 1][character code 0..alphabetSize - 1][N where N is the # of selections]
+		 * each one of these elements stores an index into words to identify the particular word, in ascending order
+		 */
+		private final int[][][] buckets;
+
+		/**
+		 * Optional secondary postings for pairs of positions, keyed by (posA, posB, letterA, letterB).
+		 * pairBuckets[posA * length + posB] is null until built, and is only ever built for posA < posB.
+		 * Built lazily for the position pairs queried most often, subject to pairPostingsBudget.
+		 */
+		private final PairPostings[] pairBuckets;
+
+		/** number of times each position pair has been the most selective pair of a query, [posA * length + posB] */
+		private final int[] pairQueryCounts;
+
+		public LengthIndex(int length, char[] letters, Object[] entries, int[][][] buckets) {
+			this.length = length;
+			this.letters = letters;
+			this.entries = entries;
+			this.buckets = buckets;
+			pairBuckets = new PairPostings[length * length];
+			pairQueryCounts = new int[length * length];
+		}
+
+		/**
+		 * @param index index of word
+		 * @return new key/entry pair for word, for the legacy Pair-based API
+		 */
+		@SuppressWarnings("unchecked")
+		public Pair<char[], E> getPair(int index) {
+			return new Pair<char[], E>(Arrays.copyOfRange(letters, index * length, (index + 1) * length), (E)entries[index]);
+		}
+	}
+
+	/**
+	 * Read-only list of key/entry pairs of words matching a pattern, for the legacy Pair-based API.
+	 * Holds just the indexes of the words; each Pair is made as it is asked for, and not kept,
+	 * so the dictionary holds no per-word objects, and a caller needing only the number of matches makes none.
+	 */
+	private static class MatchList<E> extends AbstractList<Pair<char[], E>> implements RandomAccess {
+		/** index of words of the length matched */
+		private final LengthIndex<E> lengthIndex;
+
+		/** indexes of words matched, in ascending order, or null for all words of the length */
+		private final int[] indexes;
+
+		public MatchList(LengthIndex<E> lengthIndex, int[] indexes) {
+			this.lengthIndex = lengthIndex;
+			this.indexes = indexes;
+		}
+
+		@Override
+		public Pair<char[], E> get(int index) {
+			if (index < 0 || index >= size())
+				throw new IndexOutOfBoundsException("Index " + index + ", size " + size());
+			return lengthIndex.getPair(indexes == null ? index : indexes[index]);
+		}
+
+		@Override
+		public int size() {
+			return indexes == null ? lengthIndex.entries.length : indexes.length;
+		}
+	}
+
+	/**
+	 * Holder for the pair postings of one position pair, [codeA * alphabetSize + codeB][N].
+	 * Postings are only published through the final field, so any thread seeing a
+	 * PairPostings also sees its fully-built contents.
+	 */
+	private static class PairPostings {
+		private final int[][] postings;
+
+		public PairPostings(int[][] postings) {
+			this.postings = postings;
+		}
+	}
+
 	private static class YdictIterator<E> implements ResettableIterator<Pair<char[], E>> {
 		/** list of entries to iterate over */
 		private final List<Pair<char[], E>> entries;
@@ -0,0 +1,265 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.gui;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.Frame;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.SwingWorker;
+import javax.swing.WindowConstants;
+
+import us.stangl.crostex.AcrossDownDirection;
+import us.stangl.crostex.Cell;
+import us.stangl.crostex.Grid;
+import us.stangl.crostex.GridWord;
+import us.stangl.crostex.Word;
+import us.stangl.crostex.autofill.AutoFillProgress;
+import us.stangl.crostex.autofill.AutoFillProgressListener;
+import us.stangl.crostex.autofill.AutoFillResult;
+import us.stangl.crostex.autofill.AutoFiller7;
+import us.stangl.crostex.dictionary.Dictionary;
+import us.stangl.crostex.util.Message;
+
+/**
+ * Dialog box that auto-fills the region around the current cell of a grid in the background,
+ * showing progress and a preview of the best partial fill so far, with a button to cancel.
+ * The fill is computed on a copy of the grid, and applied to the grid all at once when complete,
+ * so the grid is never seen partially filled, and is left untouched if the fill is cancelled.
+ * If the fill fails, the user is told which words the best partial fill found leaves unfilled,
+ * and may apply that partial fill instead.
+ * Statistics of the fill, and of every fill so far, are registered for JMX.
+ * @author Alex Stangl
+ */
+public class AutoFillDialog extends JDialog {
+	private static final long serialVersionUID = 1L;
+
+	/** logger */
+	private static final Logger LOG = Logger.getLogger(AutoFillDialog.class.getName());
+
+	/** minimum number of milliseconds between repaints of the preview */
+	private static final long PREVIEW_REPAINT_INTERVAL = 250L;
+
+	/** names auto-fill statistics are registered for JMX under */
+	private static final String RUNNING_STATS_NAME = "AutoFiller7 running fill";
+	private static final String CUMULATIVE_STATS_NAME = "AutoFiller7 cumulative";
+
+	/** maximum number of unfilled words of a partial fill to list */
+	private static final int MAX_UNFILLED_WORDS_LISTED = 10;
+
+	/** size of the preview */
+	private static final Dimension PREVIEW_SIZE = new Dimension(300, 300);
+
+	// grid being filled
+	private final Grid grid;
+
+	// copy of grid, which the fill is computed on
+	private final Grid workingGrid;
+
+	// copy of grid, showing best partial fill so far
+	private final Grid previewGrid;
+
+	// dictionary to fill from
+	private final Dictionary<char[], Word> dict;
+
+	// panel showing previewGrid
+	private final JPanel previewPanel = new JPanel() {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void paintComponent(Graphics g) {
+			super.paintComponent(g);
+			previewGrid.renderThumbnail((Graphics2D)g, getWidth(), getHeight());
+		}
+	};
+
+	// label showing progress
+	private final JLabel progressLabel = new JLabel(" ");
+
+	// worker running the fill
+	private final AutoFillWorker worker = new AutoFillWorker();
+
+	// when previewPanel was last repainted
+	private long lastPreviewRepaintTime;
+
+	// whether grid was filled, completely or partially
+	private boolean filled;
+
+	/**
+	 * Constructor for AutoFillDialog.
+	 * @param owner frame owning dialog
+	 * @param grid grid to fill, around its current cell
+	 * @param dict dictionary to fill from
+	 */
+	public AutoFillDialog(Frame owner, Grid grid, Dictionary<char[], Word> dict) {
+		super(owner, Message.DIALOG_TITLE_AUTOFILL.toString(), true);
+		this.grid = grid;
+		this.workingGrid = new Grid(grid);
+		this.previewGrid = new Grid(grid);
+		this.dict = dict;
+
+		previewPanel.setPreferredSize(PREVIEW_SIZE);
+		previewPanel.setBorder(BorderFactory.createEtchedBorder());
+		progressLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+		JPanel buttonsPanel = new JPanel();
+		JButton cancelButton = new JButton(Message.BUTTON_CANCEL.toString());
+		cancelButton.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent evt) {
+				worker.cancel(true);
+			}
+		});
+		buttonsPanel.add(cancelButton);
+
+		setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+		addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosing(WindowEvent evt) {
+				worker.cancel(true);
+			}
+		});
+
+		add(previewPanel, BorderLayout.NORTH);
+		add(progressLabel, BorderLayout.CENTER);
+		add(buttonsPanel, BorderLayout.SOUTH);
+		pack();
+		setLocationRelativeTo(owner);
+	}
+
+	/**
+	 * Run the fill, showing this dialog until the fill completes or is cancelled.
+	 * Must be called on the event dispatch thread.
+	 * @return whether grid was filled, completely, or partially, at the user's choice, after the fill failed
+	 */
+	public boolean fill() {
+		worker.execute();
+		// Modal, so this returns once done() disposes of the dialog
+		setVisible(true);
+		return filled;
+	}
+
+	// offer to apply partial fill of a failed fill, returning whether it was applied to grid
+	private boolean offerPartialFill(AutoFillResult result) {
+		List<GridWord> unfilledWords = result.getUnfilledWords();
+		StringBuilder wordList = new StringBuilder();
+		for (int i = 0; i < unfilledWords.size() && i < MAX_UNFILLED_WORDS_LISTED; ++i) {
+			GridWord word = unfilledWords.get(i);
+			if (i > 0)
+				wordList.append(", ");
+			wordList.append(word.getNumber()).append(' ').append(word.getDirection() == AcrossDownDirection.ACROSS
+					? Message.LABEL_ACROSS.toString() : Message.LABEL_DOWN.toString());
+		}
+		if (unfilledWords.size() > MAX_UNFILLED_WORDS_LISTED)
+			wordList.append(", ...");
+		int choice = JOptionPane.showConfirmDialog(this,
+				MessageFormat.format(Message.DIALOG_TEXT_AUTOFILL_PARTIAL.toString(), unfilledWords.size(), wordList),
+				Message.DIALOG_TITLE_AUTOFILL.toString(), JOptionPane.YES_NO_OPTION);
+		if (choice != JOptionPane.YES_OPTION)
+			return false;
+		setContents(workingGrid, result.getFill());
+		grid.copyFillFrom(workingGrid);
+		return true;
+	}
+
+	// return whether contents fill any cell of workingGrid eligible for autofill
+	private boolean fillsAnyCell(String[][] contents) {
+		for (int row = 0; row < workingGrid.getHeight(); ++row)
+			for (int col = 0; col < workingGrid.getWidth(); ++col)
+				if (workingGrid.getCell(row, col).isEligibleForAutofill() && contents[row][col].length() > 0)
+					return true;
+		return false;
+	}
+
+	// set contents of all cells of grid other than black ones
+	private static void setContents(Grid grid, String[][] contents) {
+		for (int row = 0; row < grid.getHeight(); ++row) {
+			for (int col = 0; col < grid.getWidth(); ++col) {
+				Cell cell = grid.getCell(row, col);
+				if (! cell.isBlack())
+					cell.setContents(contents[row][col]);
+			}
+		}
+	}
+
+	// show progress, repainting preview no more often than PREVIEW_REPAINT_INTERVAL
+	private void showProgress(AutoFillProgress progress) {
+		progressLabel.setText(MessageFormat.format(Message.DIALOG_TEXT_AUTOFILL_PROGRESS.toString(),
+				progress.getNodes(), progress.getDepth(), progress.getBestDepth()));
+		long now = System.currentTimeMillis();
+		if (now - lastPreviewRepaintTime >= PREVIEW_REPAINT_INTERVAL) {
+			lastPreviewRepaintTime = now;
+			setContents(previewGrid, progress.getBestPartialFill());
+			previewPanel.repaint(0);
+		}
+	}
+
+	/**
+	 * Worker that runs the fill off the event dispatch thread, publishing its progress.
+	 */
+	private class AutoFillWorker extends SwingWorker<AutoFillResult, AutoFillProgress> {
+		@Override
+		protected AutoFillResult doInBackground() {
+			AutoFiller7 autoFiller = new AutoFiller7();
+			autoFiller.getStats().register(RUNNING_STATS_NAME);
+			AutoFiller7.getCumulativeStats().register(CUMULATIVE_STATS_NAME);
+			autoFiller.setProgressListener(new AutoFillProgressListener() {
+				@Override
+				public void handleProgress(AutoFillProgress progress) {
+					publish(progress);
+				}
+			});
+			return autoFiller.autoFillRegionBestEffort(workingGrid, dict);
+		}
+
+		@Override
+		protected void process(List<AutoFillProgress> chunks) {
+			showProgress(chunks.get(chunks.size() - 1));
+		}
+
+		@Override
+		protected void done() {
+			if (! isCancelled()) {
+				AutoFillResult result = null;
+				try {
+					result = get();
+				} catch (InterruptedException e) {
+					LOG.log(Level.WARNING, "Interrupted waiting for auto-fill", e);
+				} catch (ExecutionException e) {
+					LOG.log(Level.SEVERE, "Auto-fill failed", e.getCause());
+				}
+				// Apply fill all at once, on the event dispatch thread
+				if (result != null && result.isComplete()) {
+					grid.copyFillFrom(workingGrid);
+					filled = true;
+				} else if (result != null && fillsAnyCell(result.getFill())) {
+					filled = offerPartialFill(result);
+				} else {
+					JOptionPane.showMessageDialog(AutoFillDialog.this,
+							Message.DIALOG_TEXT_AUTOFILL_FAILED.toString(),
+							Message.DIALOG_TITLE_AUTOFILL.toString(),
+							JOptionPane.INFORMATION_MESSAGE);
+				}
+			}
+			dispose();
+		}
+	}
+}
@@ -213,7 +213,7 @@ public class CrosswordPanel extends JPanel {
 	private class KeyEventListener extends KeyAdapter {
 		@Override
 		public void keyTyped(KeyEvent evt) {
-			grid.keyTyped(evt);
+			grid.keyTyped(evt, parentFrame.getAlphabet());
 			parentFrame.resetMenuState();
 			CrosswordPanel.this.repaint(0);
 		}
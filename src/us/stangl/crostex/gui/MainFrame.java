@@ -26,6 +26,7 @@ import java.util.logging.Logger;
 
 import javax.swing.Box;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JDialog;
 import javax.swing.JEditorPane;
 import javax.swing.JFileChooser;
@@ -52,6 +53,7 @@ import us.stangl.crostex.PrintHelper;
 import us.stangl.crostex.RomanNumeralGenerator;
 import us.stangl.crostex.ServiceException;
 import us.stangl.crostex.Word;
+import us.stangl.crostex.dictionary.Alphabet;
 import us.stangl.crostex.dictionary.Dictionary;
 import us.stangl.crostex.dictionary.Ydict;
 import us.stangl.crostex.io.FileReader;
@@ -123,7 +125,7 @@ public class MainFrame extends JFrame {
 	private JMenuItem setToBlackItem = newMenuItem(Message.EDIT_MENU_OPTION_SET_TO_BLACK);
 	
 	// Dictionary
-	private Dictionary<char[], Word> dict = new Ydict<Word>();
+	private Dictionary<char[], Word> dict;
 	
 	// Preferences store
 	private final PreferencesStore preferencesStore = new PreferencesStore();
@@ -186,7 +188,9 @@ public class MainFrame extends JFrame {
 			LOG.log(Level.SEVERE, "ServiceException caught", e);
 		}
 		
-		// Read in dictionaries
+		// Read in dictionaries, using alphabet from preferences
+		Alphabet alphabet = Alphabet.forName(preferencesStore.getValue(PreferenceKey.ALPHABET, null), Alphabet.ENGLISH);
+		dict = new Ydict<Word>(alphabet);
 		int nbrDictionariesRead = 0;
 //		if (readDictionaryFile(dataDirectory, "SINGLE.TXT"))
 //			++nbrDictionariesRead;
@@ -233,22 +237,19 @@ public class MainFrame extends JFrame {
 	public Dimension getPreferredSize() {
 		return PREFERRED_SIZE;
 	}
+
+	/**
+	 * @return alphabet of dictionary, the letters which can be typed into a grid
+	 */
+	public Alphabet getAlphabet() {
+		return dict.getAlphabet();
+	}
 	
 	// normalize raw word from dictionary; return null if word is unacceptable
 	private String normalizeWord(String rawWord) {
-		int len = rawWord.length();
-		if (len < 3)
+		if (rawWord.length() < 3)
 			return null;
-		StringBuilder builder = new StringBuilder(rawWord.length());
-		for (int i = 0; i < len; ++i) {
-			char c = rawWord.charAt(i);
-			if (c >= 'a' && c <= 'z')
-				c = Character.toUpperCase(c);
-			if (c < 'A' || c > 'Z')
-				return null;
-			builder.append(c);
-		}
-		return builder.toString();
+		return dict.getAlphabet().normalize(rawWord);
 	}
 
 	// return File menu, F - mnemonic
@@ -557,9 +558,20 @@ public class MainFrame extends JFrame {
 					LOG.info("Successfully read dictionary " + dictionaryFile);
 					return true;
 				}
+				// Scored word lists have lines of the form WORD;SCORE
+				int score = Word.DEFAULT_SCORE;
+				int separatorIndex = rawWord.indexOf(';');
+				if (separatorIndex >= 0) {
+					try {
+						score = Integer.parseInt(rawWord.substring(separatorIndex + 1).trim());
+					} catch (NumberFormatException e) {
+						LOG.warning("Ignoring invalid score in dictionary line " + rawWord);
+					}
+					rawWord = rawWord.substring(0, separatorIndex);
+				}
 				String normalizedWord = normalizeWord(rawWord);
 				if (normalizedWord != null) {
-					tempList.add(new Pair<char[], Word>(normalizedWord.toCharArray(), new Word()));
+					tempList.add(new Pair<char[], Word>(normalizedWord.toCharArray(), new Word(score)));
 				}
 			}
 		} catch (FileNotFoundException e) {
@@ -606,6 +618,9 @@ public class MainFrame extends JFrame {
 				preferencesStore.getValue(PreferenceKey.DEFAULT_COPYRIGHT, ""), PREFERENCES_TEXT_FIELD_WIDTH);
 		final JTextField defaultNotesField = new JTextField(
 				preferencesStore.getValue(PreferenceKey.DEFAULT_NOTES, ""), PREFERENCES_TEXT_FIELD_WIDTH);
+		@SuppressWarnings({"rawtypes", "unchecked"})
+		final JComboBox alphabetComboBox = new JComboBox(Alphabet.getStandardAlphabets().toArray());
+		alphabetComboBox.setSelectedItem(Alphabet.forName(preferencesStore.getValue(PreferenceKey.ALPHABET, null), Alphabet.ENGLISH));
 
 		panel.add(Message.LABEL_DATA_DIRECTORY.label(), new GBC(0, 0).anchor(GBC.NORTHWEST));
 		panel.add(Box.createHorizontalStrut(10));
@@ -616,6 +631,8 @@ public class MainFrame extends JFrame {
 		panel.add(defaultCopyrightField, new GBC(2, 2).anchor(GBC.NORTHWEST).weightx(1.0).gridwidth(GBC.REMAINDER));
 		panel.add(Message.LABEL_DEFAULT_NOTES.label(), new GBC(0, 3).anchor(GBC.NORTHWEST));
 		panel.add(defaultNotesField, new GBC(2, 3).anchor(GBC.NORTHWEST).weightx(1.0).gridwidth(GBC.REMAINDER));
+		panel.add(Message.LABEL_ALPHABET.label(), new GBC(0, 4).anchor(GBC.NORTHWEST));
+		panel.add(alphabetComboBox, new GBC(2, 4).anchor(GBC.NORTHWEST).gridwidth(GBC.REMAINDER));
 		Container dialogContentPane = dialog.getContentPane();
 		JPanel buttonsPanel = new JPanel();
 		JButton okButton = new JButton(Message.BUTTON_OK.toString());
@@ -625,6 +642,8 @@ public class MainFrame extends JFrame {
 				preferencesStore.putValue(PreferenceKey.DEFAULT_AUTHOR, defaultAuthorField.getText());
 				preferencesStore.putValue(PreferenceKey.DEFAULT_COPYRIGHT, defaultCopyrightField.getText());
 				preferencesStore.putValue(PreferenceKey.DEFAULT_NOTES, defaultNotesField.getText());
+				// Alphabet change takes effect the next time dictionaries are read, at startup
+				preferencesStore.putValue(PreferenceKey.ALPHABET, ((Alphabet)alphabetComboBox.getSelectedItem()).getName());
 				dialog.dispose();
 			}
 		});
@@ -666,11 +685,21 @@ public class MainFrame extends JFrame {
 		}
 	}
 	
+	/**
+	 * Auto-fill region around current cell of current crossword, in the background,
+	 * showing progress in a dialog box which allows cancelling.
+	 * @return whether region was filled, completely, or partially, at the user's choice
+	 */
 	public boolean autoFill() {
 		CrosswordPanel crosswordPanel = getCrosswordPanel();
 		if (crosswordPanel == null)
 			return false;
-		return crosswordPanel.getGrid().autoFill(dict);
+		boolean filled = new AutoFillDialog(this, crosswordPanel.getGrid(), dict).fill();
+		if (filled) {
+			resetMenuState();
+			crosswordPanel.repaint(0);
+		}
+		return filled;
 	}
 
 	// return currently selected CrosswordPanel, if any, else null
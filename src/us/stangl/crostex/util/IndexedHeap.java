@@ -0,0 +1,183 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.util;
+
+import java.util.Arrays;
+
+/**
+ * Simple, efficient, non-synchronized indexed binary min-heap of ints 0 .. capacity - 1, each with a priority.
+ * Unlike java.util.PriorityQueue, the position of each element is tracked, so the priority of an element
+ * already in the heap can be changed, and an element removed, in O(log n), as search heuristics need to do
+ * whenever the state of the element changes. Elements of equal priority come out lowest element first.
+ * Like Stack, it doesn't check for being empty, so peek and poll on an empty heap have undefined results.
+ * @author Alex Stangl
+ */
+public class IndexedHeap {
+	// elements in heap order; heap[0] has the lowest priority
+	private final int[] heap;
+
+	// [element] = position of element in heap, or -1 if not present
+	private final int[] positions;
+
+	// [element] = priority of element, if present
+	private final double[] priorities;
+
+	// number of elements in heap
+	private int size;
+
+	/**
+	 * Constructor for IndexedHeap.
+	 * @param capacity one more than the largest element which may be added
+	 */
+	public IndexedHeap(int capacity) {
+		heap = new int[capacity];
+		positions = new int[capacity];
+		priorities = new double[capacity];
+		Arrays.fill(positions, -1);
+	}
+
+	/**
+	 * Add element with specified priority, or change its priority, if already present.
+	 * @param element element
+	 * @param priority priority of element; lower priorities come out first
+	 */
+	public void put(int element, double priority) {
+		int position = positions[element];
+		if (position < 0) {
+			priorities[element] = priority;
+			position = size++;
+			heap[position] = element;
+			positions[element] = position;
+			siftUp(position);
+		} else {
+			double oldPriority = priorities[element];
+			priorities[element] = priority;
+			if (priority < oldPriority)
+				siftUp(position);
+			else if (priority > oldPriority)
+				siftDown(position);
+		}
+	}
+
+	/**
+	 * Remove element, if present.
+	 * @param element element
+	 * @return whether element was present
+	 */
+	public boolean remove(int element) {
+		int position = positions[element];
+		if (position < 0)
+			return false;
+		positions[element] = -1;
+		int last = heap[--size];
+		if (position < size) {
+			heap[position] = last;
+			positions[last] = position;
+			siftDown(position);
+			siftUp(positions[last]);
+		}
+		return true;
+	}
+
+	/**
+	 * @param element element
+	 * @return whether element is present
+	 */
+	public boolean contains(int element) {
+		return positions[element] >= 0;
+	}
+
+	/**
+	 * @param element element, which must be present
+	 * @return priority of element
+	 */
+	public double getPriority(int element) {
+		return priorities[element];
+	}
+
+	/**
+	 * @return element with lowest priority, without removing it
+	 */
+	public int peek() {
+		return heap[0];
+	}
+
+	/**
+	 * Remove and return element with lowest priority.
+	 * @return element with lowest priority
+	 */
+	public int poll() {
+		int retval = heap[0];
+		remove(retval);
+		return retval;
+	}
+
+	/**
+	 * @return number of elements in heap
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return whether heap is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Remove all elements.
+	 */
+	public void clear() {
+		for (int i = 0; i < size; ++i)
+			positions[heap[i]] = -1;
+		size = 0;
+	}
+
+	// move element at position up toward root until its parent comes before it
+	private void siftUp(int position) {
+		int element = heap[position];
+		while (position > 0) {
+			int parentPosition = (position - 1) >>> 1;
+			int parent = heap[parentPosition];
+			if (! comesBefore(element, parent))
+				break;
+			heap[position] = parent;
+			positions[parent] = position;
+			position = parentPosition;
+		}
+		heap[position] = element;
+		positions[element] = position;
+	}
+
+	// move element at position down toward leaves until it comes before both its children
+	private void siftDown(int position) {
+		int element = heap[position];
+		int half = size >>> 1;
+		while (position < half) {
+			int childPosition = 2 * position + 1;
+			int child = heap[childPosition];
+			int rightPosition = childPosition + 1;
+			if (rightPosition < size && comesBefore(heap[rightPosition], child)) {
+				childPosition = rightPosition;
+				child = heap[childPosition];
+			}
+			if (! comesBefore(child, element))
+				break;
+			heap[position] = child;
+			positions[child] = position;
+			position = childPosition;
+		}
+		heap[position] = element;
+		positions[element] = position;
+	}
+
+	// return whether element1 comes out of heap before element2
+	private boolean comesBefore(int element1, int element2) {
+		double priority1 = priorities[element1];
+		double priority2 = priorities[element2];
+		return priority1 < priority2 || (priority1 == priority2 && element1 < element2);
+	}
+}
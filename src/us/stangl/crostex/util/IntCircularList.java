@@ -0,0 +1,121 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.util;
+
+import java.util.Arrays;
+
+/**
+ * CircularList of primitive ints, linked through parallel arrays rather than node objects,
+ * so adding an element allocates nothing once the list has grown to hold it.
+ * Iterating over it using getNext loops back from the end to the beginning,
+ * and deletePrev loops back from the start to the end.
+ * @author Alex Stangl
+ */
+public class IntCircularList {
+	/** number of elements in list */
+	private int size;
+
+	/** [node] = element held by node */
+	private int[] entries;
+
+	/** [node] = next and previous node, or, for a free node, next free node in next, -1 terminated */
+	private int[] next;
+	private int[] prev;
+
+	/** node to return next, node to add before, or -1 if list is empty */
+	private int currNode = -1;
+
+	/** first free node, or -1 if none */
+	private int freeNode = -1;
+
+	/** number of nodes ever used */
+	private int numNodes;
+
+	/**
+	 * Constructor for IntCircularList with a small initial capacity.
+	 */
+	public IntCircularList() {
+		this(8);
+	}
+
+	/**
+	 * Constructor for IntCircularList.
+	 * @param capacity number of elements list can hold before growing
+	 */
+	public IntCircularList(int capacity) {
+		capacity = Math.max(capacity, 1);
+		entries = new int[capacity];
+		next = new int[capacity];
+		prev = new int[capacity];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return next element, advancing past it
+	 * @throws IllegalStateException if list is empty
+	 */
+	public int getNext() {
+		if (currNode < 0)
+			throw new IllegalStateException("Attempt to get from empty circular list");
+		int retval = entries[currNode];
+		currNode = next[currNode];
+		return retval;
+	}
+
+	public void add(int entry) {
+		++size;
+		int newNode = allocateNode();
+		entries[newNode] = entry;
+		if (currNode < 0) {
+			// list currently empty, make a 1 element list
+			prev[newNode] = newNode;
+			next[newNode] = newNode;
+			currNode = newNode;
+		} else {
+			next[newNode] = currNode;
+			prev[newNode] = prev[currNode];
+			next[prev[currNode]] = newNode;
+			prev[currNode] = newNode;
+		}
+	}
+
+	public void addAll(int[] entries) {
+		for (int entry : entries)
+			add(entry);
+	}
+
+	public void deletePrev() {
+		if (currNode < 0)
+			throw new IllegalStateException("Attempt to delete from empty circular list");
+		int victim = prev[currNode];
+		if (--size == 0) {
+			currNode = -1;
+		} else {
+			int nodeBeforeVictim = prev[victim];
+			next[nodeBeforeVictim] = currNode;
+			prev[currNode] = nodeBeforeVictim;
+		}
+		next[victim] = freeNode;
+		freeNode = victim;
+	}
+
+	// return node to hold a new element, reusing a free one if any, else growing arrays as needed
+	private int allocateNode() {
+		if (freeNode >= 0) {
+			int retval = freeNode;
+			freeNode = next[retval];
+			return retval;
+		}
+		if (numNodes == entries.length) {
+			int capacity = numNodes * 2;
+			entries = Arrays.copyOf(entries, capacity);
+			next = Arrays.copyOf(next, capacity);
+			prev = Arrays.copyOf(prev, capacity);
+		}
+		return numNodes++;
+	}
+}
@@ -29,6 +29,9 @@ public enum Message {
 	COMBO_BOX_OPTION_SKIP_NONE,		// combo box Skip None option
 	DEFAULT_GRID_DESCRIPTION,		// default (empty) grid description 
 	DEFAULT_GRID_NAME,				// default (empty) grid name
+	DIALOG_TEXT_AUTOFILL_FAILED,	// text for dialog reporting that auto-fill failed
+	DIALOG_TEXT_AUTOFILL_PARTIAL,	// text for dialog offering partial fill, with number {0} and list {1} of words unfilled
+	DIALOG_TEXT_AUTOFILL_PROGRESS,	// text for auto-fill progress, with nodes {0}, depth {1}, best depth {2}
 	DIALOG_TEXT_CONFIRM_DATA_DIRECTORY_CREATE, // text confirming creation of data directory
 	DIALOG_TEXT_CONFIRM_DUPLICATE_GRID,			// text for dialog confirming whether to create duplicate (by structure) grid template
 	DIALOG_TEXT_ENTER_REBUS_TEXT,	// text for dialog prompting for rebus text
@@ -37,6 +40,7 @@ public enum Message {
 	DIALOG_TEXT_OVERWRITE_EXISTING_GRID,		// text for dialog prompting whether to overwrite existing grid template with same name
 	DIALOG_TEXT_SET_DATA_DIRECTORY,	// text for Set Data Directory dialog box
 	DIALOG_TEXT_UNABLE_TO_CREATE_DATA_DIRECTORY,	// text unable to create data directory {0}
+	DIALOG_TITLE_AUTOFILL,			// title for Auto-fill dialog box
 	DIALOG_TITLE_CONFIRM_DATA_DIRECTORY_CREATE,	// title for confirm data directory create dialog box
 	DIALOG_TITLE_CONFIRM_DUPLICATE_GRID,		// title for ""
 	DIALOG_TITLE_NEW_CROSSWORD,		// title for New Crossword dialog box
@@ -69,6 +73,7 @@ public enum Message {
 	HELP_MENU_OPTION_ABOUT,			// Help menu option About Crostex
 	HELP_MENU_OPTION_HELP_CONTENTS,	// Help menu option Help Contents
 	LABEL_ACROSS,					// label Across
+	LABEL_ALPHABET,					// label Alphabet
 	LABEL_AUTHOR,					// label Author
 	LABEL_COPYRIGHT,				// label Copyright
 	LABEL_DATA_DIRECTORY,			// label Data Directory
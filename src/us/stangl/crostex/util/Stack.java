@@ -43,6 +43,13 @@ public class Stack<E> {
 		return fillPointer == 0;
 	}
 
+	/**
+	 * @return number of elements on the stack
+	 */
+	public int size() {
+		return fillPointer;
+	}
+
 	/**
 	 * return last pushed element without removing it from the stack
 	 * @throws ArrayIndexOutOfBoundsException if stack empty
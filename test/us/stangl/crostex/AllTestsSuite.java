@@ -8,13 +8,27 @@ import junit.framework.TestSuite;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
+import us.stangl.crostex.autofill.AutoFillStatsTest;
+import us.stangl.crostex.autofill.AutoFiller7Test;
+import us.stangl.crostex.autofill.AutoFiller8Test;
+import us.stangl.crostex.autofill.MinConflictsAutoFillerTest;
+import us.stangl.crostex.autofill.NogoodStoreTest;
+import us.stangl.crostex.autofill.PortfolioAutoFillerTest;
+import us.stangl.crostex.autofill.RebusVocabularyTest;
+import us.stangl.crostex.autofill.SolverGridTest;
+import us.stangl.crostex.autofill.ThemePlacementSearchTest;
+import us.stangl.crostex.autofill.WordTableTest;
 import us.stangl.crostex.constraint.OnePolyominoGridConstraintTest;
 import us.stangl.crostex.constraint.SymmetryGridConstraintTest;
+import us.stangl.crostex.dictionary.AlphabetTest;
+import us.stangl.crostex.dictionary.YdictTest;
 import us.stangl.crostex.gui.CrosswordPanelTest;
 import us.stangl.crostex.io.JsonSerializerTest;
 import us.stangl.crostex.io.PuzSerializerTest;
 import us.stangl.crostex.util.CircularListTest;
 import us.stangl.crostex.util.IdentityHashSetTest;
+import us.stangl.crostex.util.IndexedHeapTest;
+import us.stangl.crostex.util.IntCircularListTest;
 import us.stangl.crostex.util.MessageTest;
 import us.stangl.crostex.util.MiscUtilsTest;
 import us.stangl.crostex.util.StackTest;
@@ -26,19 +40,34 @@ import us.stangl.crostex.util.StringUtilsTest;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
+	AlphabetTest.class,
+	AutoFillStatsTest.class,
+	AutoFiller7Test.class,
+	AutoFiller8Test.class,
 	CircularListTest.class,
+	CrossingGraphTest.class,
 	CrosswordPanelTest.class,
 	IdentityHashSetTest.class,
+	IndexedHeapTest.class,
+	IntCircularListTest.class,
 	JsonSerializerTest.class,
 	MessageTest.class,
+	MinConflictsAutoFillerTest.class,
 	MiscUtilsTest.class,
+	NogoodStoreTest.class,
 	OnePolyominoGridConstraintTest.class,
+	PortfolioAutoFillerTest.class,
 	PuzSerializerTest.class,
+	RebusVocabularyTest.class,
 	RomanNumeralGeneratorTest.class,
+	SolverGridTest.class,
 	StackTest.class,
 	StringUtilsTest.class,
 	SymmetryGridConstraintTest.class,
-	TrieTest.class
+	ThemePlacementSearchTest.class,
+	TrieTest.class,
+	WordTableTest.class,
+	YdictTest.class
 })
 public class AllTestsSuite extends TestSuite {
     // the class remains completely empty, 
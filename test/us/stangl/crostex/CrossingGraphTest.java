@@ -0,0 +1,83 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for CrossingGraph.
+ * @author Alex Stangl
+ */
+public class CrossingGraphTest {
+	@Test
+	public void testSlotsAndOffsets() {
+		CrossingGraph graph = createGrid().getCrossingGraph();
+		assertEquals(7, graph.getNumSlots());
+		assertEquals(3, graph.getNumAcrossSlots());
+		assertEquals(AcrossDownDirection.DOWN, graph.getDirection(3));
+
+		int cell = graph.getCellNumber(1, 3);
+		assertEquals(1, graph.getAcrossSlot(cell));
+		assertEquals(3, graph.getAcrossOffset(cell));
+		assertEquals(6, graph.getDownSlot(cell));
+		assertEquals(0, graph.getDownOffset(cell));
+
+		int blackCell = graph.getCellNumber(0, 3);
+		assertEquals(-1, graph.getAcrossSlot(blackCell));
+		assertEquals(-1, graph.getDownSlot(blackCell));
+
+		assertEquals(4, graph.getCrossingSlot(2, 0));
+		assertEquals(2, graph.getCrossingOffset(2, 0));
+		assertEquals(2, graph.getLength(6));
+		assertEquals(graph.getCellNumber(2, 3), graph.getSlotCell(6, 1));
+		assertEquals(2, graph.getRow(graph.getSlotCell(6, 1)));
+		assertEquals(3, graph.getColumn(graph.getSlotCell(6, 1)));
+	}
+
+	@Test
+	public void testSlotsOfGridWords() {
+		Grid grid = createGrid();
+		CrossingGraph graph = grid.getCrossingGraph();
+		List<GridWord> acrossWords = grid.getAcrossWords();
+		for (int i = 0; i < acrossWords.size(); ++i)
+			assertEquals(i, graph.getSlot(acrossWords.get(i)));
+		List<GridWord> downWords = grid.getDownWords();
+		for (int i = 0; i < downWords.size(); ++i)
+			assertEquals(graph.getNumAcrossSlots() + i, graph.getSlot(downWords.get(i)));
+	}
+
+	@Test
+	public void testCrossingWords() {
+		Grid grid = createGrid();
+		grid.setCellContents(1, 1, "E");
+		List<GridWord> words = grid.getAcrossWords();
+		List<GridWord> downWords = grid.getDownWords();
+		words.addAll(downWords);
+		Map<GridWord, List<GridWord>> crossingWords = grid.getCrossingGraph().getCrossingWords(words);
+
+		// crossing at filled cell (1, 1) is left out
+		List<GridWord> crossingWordsOfRow1 = crossingWords.get(words.get(1));
+		assertEquals(3, crossingWordsOfRow1.size());
+		assertEquals(downWords.get(0), crossingWordsOfRow1.get(0));
+		assertEquals(downWords.get(2), crossingWordsOfRow1.get(1));
+		assertEquals(downWords.get(3), crossingWordsOfRow1.get(2));
+		assertEquals(2, crossingWords.get(downWords.get(1)).size());
+	}
+
+	// return 4 x 3 grid with black cells at top right and bottom left:
+	// ...#
+	// ....
+	// #...
+	private Grid createGrid() {
+		Grid grid = new Grid(4, 3);
+		grid.getCell(0, 3).setBlack(true);
+		grid.getCell(2, 0).setBlack(true);
+		return grid;
+	}
+}
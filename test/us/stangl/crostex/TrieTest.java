@@ -9,10 +9,13 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.Test;
 
+import us.stangl.crostex.dictionary.Alphabet;
 import us.stangl.crostex.dictionary.Dictionary;
 import us.stangl.crostex.dictionary.TST;
 import us.stangl.crostex.dictionary.Trie;
@@ -50,6 +53,30 @@ public class TrieTest {
 		testIteratorImpl(new TstNew<Word>());
 	}
 	
+	@Test
+	public void testNonEnglishAlphabet() {
+		testNonEnglishAlphabetImpl(new Ydict<Word>(Alphabet.SPANISH));
+		testNonEnglishAlphabetImpl(new TST<Word>(Alphabet.SPANISH));
+		testNonEnglishAlphabetImpl(new Trie<Word>(Alphabet.SPANISH));
+		testNonEnglishAlphabetImpl(new TstNew<Word>(Alphabet.SPANISH));
+	}
+	
+	@Test
+	public void testNearMisses() {
+		testNearMissesImpl(new Ydict<Word>());
+		testNearMissesImpl(new TST<Word>());
+		testNearMissesImpl(new Trie<Word>());
+		testNearMissesImpl(new TstNew<Word>());
+	}
+	
+	@Test
+	public void testNearMissesRandom() {
+		testNearMissesRandomImpl(new Ydict<Word>());
+		testNearMissesRandomImpl(new TST<Word>());
+		testNearMissesRandomImpl(new Trie<Word>());
+		testNearMissesRandomImpl(new TstNew<Word>());
+	}
+	
 	private void testTinyImpl(Dictionary<char[], Word> dict) {
 		dict.insert("NEIGHBORHOOD".toCharArray(), new Word());
 		dict.insert("NUTTY".toCharArray(), new Word());
@@ -120,6 +147,95 @@ public class TrieTest {
 		assertTrue(foundWords2.equals(foundWords));
 	}
 
+	private void testNonEnglishAlphabetImpl(Dictionary<char[], Word> dict) {
+		String[] testWords = new String[] {"A\u00d1O", "NI\u00d1O", "NIDO", "\u00d1U\u00d1O", "ZETA", "DA\u00d1O"};
+		for (String testWord : testWords)
+			dict.insert(testWord.toCharArray(), new Word());
+		dict.rebalance();
+
+		assertNotNull(dict.lookup("NI\u00d1O".toCharArray()));
+		assertTrue(dict.isPatternInDictionary("\u00d1___".toCharArray()));
+		assertTrue(dict.isPatternInDictionary("__\u00d1_".toCharArray()));
+		assertFalse(dict.isPatternInDictionary("\u00d1__".toCharArray()));
+
+		Set<String> foundWords = getWordsFromIterator(dict.getIterator("__\u00d1O".toCharArray()));
+		assertTrue(foundWords.size() == 3);
+		assertTrue(foundWords.contains("NI\u00d1O"));
+		assertTrue(foundWords.contains("\u00d1U\u00d1O"));
+		assertTrue(foundWords.contains("DA\u00d1O"));
+
+		foundWords = getWordsFromIterator(dict.getIterator("____".toCharArray()));
+		assertTrue(foundWords.size() == 5);
+
+		// symbols outside the alphabet never match
+		assertFalse(dict.isPatternInDictionary("NI\u00dcO".toCharArray()));
+		assertTrue(getWordsFromIterator(dict.getIterator("\u00c4___".toCharArray())).isEmpty());
+	}
+
+	private void testNearMissesImpl(Dictionary<char[], Word> dict) {
+		String[] testWords = new String[] {"CAT", "COT", "CUT", "CAB", "BAT", "DOG", "COTE", "CATS"};
+		for (String testWord : testWords)
+			dict.insert(testWord.toCharArray(), new Word());
+		dict.rebalance();
+
+		Set<String> foundWords = getWords(dict.getNearMisses("CAT".toCharArray(), 1));
+		assertTrue(foundWords.size() == 4);
+		assertTrue(foundWords.contains("COT"));
+		assertTrue(foundWords.contains("CUT"));
+		assertTrue(foundWords.contains("CAB"));
+		assertTrue(foundWords.contains("BAT"));
+
+		foundWords = getWords(dict.getNearMisses("C_T".toCharArray(), 1));
+		assertTrue(foundWords.size() == 2);
+		assertTrue(foundWords.contains("CAB"));
+		assertTrue(foundWords.contains("BAT"));
+
+		assertTrue(getWords(dict.getNearMisses("DOT".toCharArray(), 2)).size() == 5);
+		assertTrue(dict.getNearMisses("___".toCharArray(), 1).isEmpty());
+	}
+
+	// compare near misses against brute force over random words and patterns
+	private void testNearMissesRandomImpl(Dictionary<char[], Word> dict) {
+		Random prng = new Random(987654321L);
+		Set<String> allWords = new HashSet<String>();
+		for (int i = 0; i < 300; ++i)
+			allWords.add(randomWord(prng, 5));
+		for (String word : allWords)
+			dict.insert(word.toCharArray(), new Word());
+		dict.rebalance();
+		for (int i = 0; i < 200; ++i) {
+			char[] pattern = randomWord(prng, 5).toCharArray();
+			for (int j = 0; j < pattern.length; ++j)
+				if (prng.nextInt(3) == 0)
+					pattern[j] = Dictionary.WILDCARD;
+			for (int maxDistance = 1; maxDistance <= 2; ++maxDistance) {
+				Set<String> expected = new HashSet<String>();
+				for (String word : allWords) {
+					int distance = 0;
+					for (int j = 0; j < pattern.length; ++j)
+						if (pattern[j] != Dictionary.WILDCARD && pattern[j] != word.charAt(j))
+							++distance;
+					if (distance >= 1 && distance <= maxDistance)
+						expected.add(word);
+				}
+				assertTrue(expected.equals(getWords(dict.getNearMisses(pattern, maxDistance))));
+			}
+		}
+	}
+
+	// return random word of specified length, over the letters A .. E
+	private String randomWord(Random prng, int length) {
+		StringBuilder retval = new StringBuilder(length);
+		for (int i = 0; i < length; ++i)
+			retval.append((char)('A' + prng.nextInt(5)));
+		return retval.toString();
+	}
+
+	// return all words from the list, asserting that they each only appear once
+	private Set<String> getWords(List<Pair<char[], Word>> matches) {
+		return getWordsFromIterator(matches.iterator());
+	}
+
 	// return all words from the iterator, asserting that they each only appear once
 	private Set<String> getWordsFromIterator(Iterator<Pair<char[], Word>> it) {
 		Set<String> retval = new HashSet<String>();
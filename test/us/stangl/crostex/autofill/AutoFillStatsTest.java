@@ -0,0 +1,115 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for AutoFillStats.
+ * @author Alex Stangl
+ */
+public class AutoFillStatsTest {
+	@Test
+	public void testBackjumpDistanceHistogram() {
+		AutoFillStats stats = new AutoFillStats();
+		stats.addBacktrack(1);
+		stats.addBacktrack(2);
+		stats.addBacktrack(3);
+		stats.addBacktrack(4);
+		stats.addBacktrack(1000);
+		assertEquals(0, stats.getBacktracks());
+		stats.flush();
+		assertEquals(5, stats.getBacktracks());
+		assertArrayEquals(new long[] {1, 2, 1, 0, 0, 0, 0, 1}, stats.getBackjumpDistanceHistogram());
+	}
+
+	@Test
+	public void testAddsToParent() {
+		AutoFillStats parent = new AutoFillStats();
+		AutoFillStats first = new AutoFillStats(parent);
+		AutoFillStats second = new AutoFillStats(parent);
+		first.startFill();
+		first.addNode();
+		first.addNode();
+		first.addCacheLookup(true);
+		first.setDepth(5);
+		first.endFill(true);
+		second.startFill();
+		second.addNode();
+		second.addCacheLookup(false);
+		second.setDepth(3);
+		second.setBreadth(4);
+		second.endFill(false);
+
+		assertEquals(2, parent.getFills());
+		assertEquals(1, parent.getCompleteFills());
+		assertEquals(3, parent.getNodes());
+		assertEquals(0.5, parent.getCacheHitRate(), 0.0);
+		assertEquals(5, parent.getMaxDepth());
+		assertEquals(0, parent.getDepth());
+		assertEquals(0, parent.getBreadth());
+		assertEquals(1, second.getNodes());
+		assertEquals(3, second.getDepth());
+		assertEquals(4, second.getBreadth());
+
+		// starting a fill resets only its own statistics
+		first.startFill();
+		assertEquals(0, first.getNodes());
+		assertEquals(1, first.getFills());
+		assertEquals(3, parent.getNodes());
+		assertEquals(3, parent.getFills());
+	}
+
+	@Test
+	public void testPublishedOnlyOnFlush() {
+		AutoFillStats parent = new AutoFillStats();
+		AutoFillStats stats = new AutoFillStats(parent);
+		stats.startFill();
+		stats.addNode();
+		stats.addPatternMatchQuery();
+		stats.setDepth(4);
+		stats.setDepth(2);
+		assertEquals(0, stats.getNodes());
+		assertEquals(0, parent.getNodes());
+		assertEquals(0, stats.getDepth());
+
+		stats.flush();
+		stats.flush();
+		assertEquals(1, stats.getNodes());
+		assertEquals(1, parent.getNodes());
+		assertEquals(1, parent.getPatternMatchQueries());
+		assertEquals(2, stats.getDepth());
+		assertEquals(4, parent.getMaxDepth());
+
+		stats.addNode();
+		stats.endFill(false);
+		assertEquals(2, parent.getNodes());
+		assertEquals(2, stats.getDepth());
+	}
+
+	@Test
+	public void testRegister() throws Exception {
+		AutoFillStats stats = new AutoFillStats();
+		stats.addNode();
+		stats.flush();
+		stats.register("AutoFillStatsTest");
+		stats.register("AutoFillStatsTest");
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(AutoFillStats.JMX_DOMAIN + ":type=AutoFillStats,name="
+				+ ObjectName.quote("AutoFillStatsTest"));
+		assertTrue(server.isRegistered(name));
+		assertEquals(Long.valueOf(1), server.getAttribute(name, "Nodes"));
+		server.unregisterMBean(name);
+	}
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import us.stangl.crostex.Grid;
+import us.stangl.crostex.GridWord;
+import us.stangl.crostex.Word;
+import us.stangl.crostex.dictionary.Dictionary;
+import us.stangl.crostex.dictionary.Ydict;
+
+/**
+ * Dictionaries, grids, and assertions shared by the auto-fill unit tests.
+ * @author Alex Stangl
+ */
+final class AutoFillTestSupport {
+	/** words for dictionary, including the word squares CAT/ORE/WED, COW/ARE/TED and CAT/ACE/TED */
+	static final String[] WORDS = new String[] {
+		"CAT", "ORE", "WED", "COW", "ARE", "TED", "CAR", "OAT", "ACE", "BOW", "TOE", "DEW", "RAT", "EAR"
+	};
+
+	private AutoFillTestSupport() {
+	}
+
+	/**
+	 * @return dictionary containing WORDS
+	 */
+	static Ydict<Word> createDictionary() {
+		return createDictionary(WORDS);
+	}
+
+	/**
+	 * @param words words for dictionary
+	 * @return dictionary containing words
+	 */
+	static Ydict<Word> createDictionary(String[] words) {
+		Ydict<Word> dict = new Ydict<Word>();
+		for (String word : words)
+			dict.insert(word.toCharArray(), new Word());
+		dict.rebalance();
+		return dict;
+	}
+
+	/**
+	 * Return dictionary of words of pseudo-random letters, the same for the same arguments.
+	 * @param seed seed for pseudo-random number generator
+	 * @param numWords number of words, including any duplicates, which are only kept once
+	 * @param length length of each word
+	 * @param lastLetter last letter used, words being made of letters A through lastLetter
+	 * @return dictionary of pseudo-random words
+	 */
+	static Ydict<Word> createRandomDictionary(long seed, int numWords, int length, char lastLetter) {
+		Random prng = new Random(seed);
+		Ydict<Word> dict = new Ydict<Word>();
+		for (int i = 0; i < numWords; ++i) {
+			char[] word = new char[length];
+			for (int k = 0; k < length; ++k)
+				word[k] = (char)('A' + prng.nextInt(lastLetter - 'A' + 1));
+			dict.insert(word, new Word());
+		}
+		dict.rebalance();
+		return dict;
+	}
+
+	/**
+	 * @return empty 7x3 grid with black middle column, i.e., two 3x3 squares sharing no words
+	 */
+	static Grid createTwoSquareGrid() {
+		Grid grid = new Grid(7, 3);
+		for (int row = 0; row < 3; ++row)
+			grid.getCell(row, 3).setBlack(true);
+		grid.renumberCells();
+		return grid;
+	}
+
+	/**
+	 * @return word square CAT/ORE/WED with its first cell, a rebus cell, emptied
+	 */
+	static Grid createRebusGrid() {
+		Grid grid = new Grid(3, 3);
+		String[] rows = new String[] {"CAT", "ORE", "WED"};
+		for (int row = 0; row < 3; ++row)
+			for (int col = 0; col < 3; ++col)
+				if (row > 0 || col > 0)
+					grid.setCellContents(row, col, rows[row].substring(col, col + 1));
+		grid.getCell(0, 0).setRebus(true);
+		return grid;
+	}
+
+	/**
+	 * @return dictionary containing WORDS and words beginning with rebus strings BO, FL and SC, of which
+	 * only SC fills both words of createRebusGrid
+	 */
+	static Ydict<Word> createRebusDictionary() {
+		Ydict<Word> dict = new Ydict<Word>();
+		for (String word : WORDS)
+			dict.insert(word.toCharArray(), new Word());
+		for (String word : new String[] {"SCAT", "SCOW", "FLAT", "BOAT", "STOW"})
+			dict.insert(word.toCharArray(), new Word());
+		dict.rebalance();
+		return dict;
+	}
+
+	/**
+	 * Assert that every word in grid is complete, and in dictionary.
+	 * @param grid grid
+	 * @param dict dictionary
+	 */
+	static void assertAllWordsValid(Grid grid, Dictionary<char[], Word> dict) {
+		List<GridWord> words = grid.getAcrossWords();
+		words.addAll(grid.getDownWords());
+		for (GridWord word : words) {
+			assertTrue(word.isComplete());
+			assertNotNull(word.getContents(), dict.lookup(word.getContents().toCharArray()));
+		}
+	}
+
+	/**
+	 * Assert that every cell in 3x3 grid is filled, and every word in grid is in dictionary.
+	 * @param grid 3x3 grid
+	 * @param dict dictionary
+	 */
+	static void assertFilledFromDictionary(Grid grid, Dictionary<char[], Word> dict) {
+		assertEquals(6, grid.getAcrossWords().size() + grid.getDownWords().size());
+		assertAllWordsValid(grid, dict);
+	}
+}
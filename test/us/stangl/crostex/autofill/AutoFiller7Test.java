@@ -0,0 +1,152 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.assertFilledFromDictionary;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.createDictionary;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.createRebusDictionary;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.createRebusGrid;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import us.stangl.crostex.AcrossDownDirection;
+import us.stangl.crostex.Grid;
+import us.stangl.crostex.GridWord;
+import us.stangl.crostex.Word;
+import us.stangl.crostex.dictionary.Dictionary;
+import us.stangl.crostex.dictionary.Ydict;
+
+/**
+ * Unit tests for AutoFiller7.
+ * @author Alex Stangl
+ */
+public class AutoFiller7Test {
+	@Test
+	public void testBestEffortFillsEmptyGrid() {
+		Dictionary<char[], Word> dict = createDictionary();
+		Grid grid = new Grid(3, 3);
+		AutoFillResult result = new AutoFiller7().autoFillBestEffort(grid, dict);
+		assertTrue(result.isComplete());
+		assertTrue(result.getUnfilledWords().isEmpty());
+		assertFilledFromDictionary(grid, dict);
+		assertEquals(grid.getCellContents(2, 2), result.getFill()[2][2]);
+	}
+
+	@Test
+	public void testUnsatisfiableWordsReported() {
+		Grid grid = new Grid(3, 3);
+		grid.setCellContents(0, 0, "Z");
+		AutoFillResult result = new AutoFiller7().autoFillBestEffort(grid, createDictionary());
+		assertFalse(result.isComplete());
+		List<GridWord> unfilledWords = result.getUnfilledWords();
+		assertEquals(2, unfilledWords.size());
+		assertEquals(1, unfilledWords.get(0).getNumber());
+		assertEquals(AcrossDownDirection.ACROSS, unfilledWords.get(0).getDirection());
+		assertEquals(1, unfilledWords.get(1).getNumber());
+		assertEquals(AcrossDownDirection.DOWN, unfilledWords.get(1).getDirection());
+	}
+
+	@Test
+	public void testBudgetReturnsBestPartialFill() {
+		Grid grid = new Grid(3, 3);
+		AutoFiller7 autoFiller = new AutoFiller7(AutoFiller7.DEFAULT_BREADTH, AutoFiller7.ChoiceOrder.DICTIONARY, 0L, 2, 0L);
+		AutoFillResult result = autoFiller.autoFillBestEffort(grid, createDictionary());
+		assertFalse(result.isComplete());
+		assertEquals(5, result.getUnfilledWords().size());
+		int numFilledCells = 0;
+		for (String[] row : result.getFill())
+			for (String contents : row)
+				numFilledCells += contents.length();
+		assertEquals(3, numFilledCells);
+
+		// grid is left as it was
+		for (int row = 0; row < 3; ++row)
+			for (int col = 0; col < 3; ++col)
+				assertTrue(grid.getCell(row, col).isEligibleForAutofill());
+	}
+
+	@Test
+	public void testStatsOfFill() {
+		AutoFiller7 autoFiller = new AutoFiller7();
+		long cumulativeFills = AutoFiller7.getCumulativeStats().getFills();
+		AutoFillResult result = autoFiller.autoFillBestEffort(new Grid(3, 3), createDictionary());
+		AutoFillStats stats = autoFiller.getStats();
+		assertEquals(1, stats.getFills());
+		assertEquals(1, stats.getCompleteFills());
+		assertEquals(result.getNodes(), stats.getNodes());
+		assertEquals(6, stats.getPatternTestQueries());
+		assertTrue(stats.getPatternMatchQueries() >= 6);
+		assertTrue(stats.getMaxDepth() > 0);
+		// breadth grows if the fill uses up its backtracks, which depends on the random order Ydict indexes words in
+		assertTrue(stats.getBreadth() >= AutoFiller7.DEFAULT_BREADTH);
+		assertTrue(AutoFiller7.getCumulativeStats().getFills() > cumulativeFills);
+	}
+
+	@Test
+	public void testRebusCellFilledFromVocabulary() {
+		Grid grid = createRebusGrid();
+		AutoFiller7 autoFiller = new AutoFiller7();
+		autoFiller.setRebusStrings(Arrays.asList("BO", "FL", "SC"));
+		AutoFillResult result = autoFiller.autoFillBestEffort(grid, createRebusDictionary());
+		assertTrue(result.isComplete());
+		assertEquals("SC", result.getFill()[0][0]);
+		assertEquals("SC", grid.getCellContents(0, 0));
+		assertEquals("SCAT", grid.getAcrossWords().get(0).getContents());
+		assertEquals("SCOW", grid.getDownWords().get(0).getContents());
+	}
+
+	@Test
+	public void testRebusCellUnsatisfiableWithoutVocabulary() {
+		AutoFillResult result = new AutoFiller7().autoFillBestEffort(createRebusGrid(), createRebusDictionary());
+		assertFalse(result.isComplete());
+		assertEquals(2, result.getUnfilledWords().size());
+	}
+
+	@Test
+	public void testLeastConstrainingTriesWordLeavingMostChoicesFirst() {
+		// C, A and T are the commonest first, second and third letters, so least constraining order
+		// fills CAT first, over the higher-scoring BIB, although both complete the grid
+		Grid grid = createTopRowGrid();
+		AutoFiller7 autoFiller = new AutoFiller7(AutoFiller7.DEFAULT_BREADTH, AutoFiller7.ChoiceOrder.LEAST_CONSTRAINING, 0L);
+		assertTrue(autoFiller.autoFill(grid, createTopRowDictionary()));
+		assertEquals("CAT", grid.getAcrossWords().get(0).getContents());
+		assertEquals(0, autoFiller.getStats().getBacktracks());
+	}
+
+	@Test
+	public void testScoreOrderTriesHighestScoringWordFirst() {
+		Grid grid = createTopRowGrid();
+		AutoFiller7 autoFiller = new AutoFiller7(AutoFiller7.DEFAULT_BREADTH, AutoFiller7.ChoiceOrder.SCORE, 0L);
+		assertTrue(autoFiller.autoFill(grid, createTopRowDictionary()));
+		assertEquals("BIB", grid.getAcrossWords().get(0).getContents());
+	}
+
+	// return 3x3 grid having ORE and WED in its bottom two rows, and its top row empty
+	private Grid createTopRowGrid() {
+		Grid grid = new Grid(3, 3);
+		String[] rows = new String[] {"ORE", "WED"};
+		for (int row = 1; row < 3; ++row)
+			for (int col = 0; col < 3; ++col)
+				grid.setCellContents(row, col, rows[row - 1].substring(col, col + 1));
+		return grid;
+	}
+
+	// return dictionary with which the top row of createTopRowGrid can be filled only with CAT or BIB,
+	// BIB and its crossing words scoring highest. ORE and WED are complete, so needn't be in it
+	private Dictionary<char[], Word> createTopRowDictionary() {
+		Ydict<Word> dict = new Ydict<Word>();
+		for (String word : new String[] {"CAT", "COW", "ARE", "TED", "CAN", "CUT", "CAR", "OAT"})
+			dict.insert(word.toCharArray(), new Word());
+		for (String word : new String[] {"BIB", "BOW", "IRE", "BED"})
+			dict.insert(word.toCharArray(), new Word(90));
+		dict.rebalance();
+		return dict;
+	}
+}
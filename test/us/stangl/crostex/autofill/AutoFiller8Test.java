@@ -0,0 +1,397 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.WORDS;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.assertAllWordsValid;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.assertFilledFromDictionary;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.createDictionary;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.createRandomDictionary;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.createRebusDictionary;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.createRebusGrid;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.createTwoSquareGrid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import us.stangl.crostex.Grid;
+import us.stangl.crostex.GridWord;
+import us.stangl.crostex.Word;
+import us.stangl.crostex.dictionary.Dictionary;
+import us.stangl.crostex.dictionary.Ydict;
+
+/**
+ * Unit tests for AutoFiller8.
+ * @author Alex Stangl
+ */
+public class AutoFiller8Test {
+	@Test
+	public void testFillsEmptyGrid() {
+		Dictionary<char[], Word> dict = createDictionary();
+		Grid grid = new Grid(3, 3);
+		assertTrue(new AutoFiller8().autoFill(grid, dict));
+		assertFilledFromDictionary(grid, dict);
+	}
+
+	@Test
+	public void testUndoRestoresStateAtCheckpoint() {
+		Grid grid = new Grid(3, 3);
+		List<GridWord> words = grid.getAcrossWords();
+		words.addAll(grid.getDownWords());
+		AutoFiller8.Search search = new AutoFiller8().new Search(grid, new SolverModel(grid.getCrossingGraph(), words),
+				createDictionary(), null, false, null, Long.MAX_VALUE);
+		assertTrue(search.propagate());
+		long[] initialState = search.getTrailedState();
+
+		// decide each word for 1 across, and under each that propagates, each word for 1 down
+		for (int index : search.getCandidates(0)) {
+			int checkpoint = search.checkpoint();
+			boolean decided = search.decide(0, index);
+			long[] decidedState = search.getTrailedState();
+			assertFalse(Arrays.equals(initialState, decidedState));
+			if (decided) {
+				for (int downIndex : search.getCandidates(3)) {
+					int downCheckpoint = search.checkpoint();
+					search.decide(3, downIndex);
+					search.undo(downCheckpoint);
+					assertArrayEquals(decidedState, search.getTrailedState());
+				}
+			}
+			search.undo(checkpoint);
+			assertArrayEquals(initialState, search.getTrailedState());
+
+			// deciding the same word again, after undoing it, changes state the same way
+			checkpoint = search.checkpoint();
+			assertEquals(decided, search.decide(0, index));
+			assertArrayEquals(decidedState, search.getTrailedState());
+			search.undo(checkpoint);
+			assertArrayEquals(initialState, search.getTrailedState());
+		}
+	}
+
+	@Test
+	public void testFillKeepsFixedLetters() {
+		Dictionary<char[], Word> dict = createDictionary();
+		Grid grid = new Grid(3, 3);
+		grid.setCellContents(1, 1, "R");
+		grid.setCellContents(2, 2, "D");
+		assertTrue(new AutoFiller8().autoFill(grid, dict));
+		assertFilledFromDictionary(grid, dict);
+		assertEquals("R", grid.getCellContents(1, 1));
+		assertEquals("D", grid.getCellContents(2, 2));
+	}
+
+	@Test
+	public void testUnfillableGrid() {
+		Dictionary<char[], Word> dict = createDictionary();
+		Grid grid = new Grid(3, 3);
+		grid.setCellContents(0, 0, "T");
+		assertFalse(new AutoFiller8().autoFill(grid, dict));
+		assertTrue(grid.getCell(1, 1).isEligibleForAutofill());
+	}
+
+	@Test
+	public void testFillsIndependentGroupsOfWords() {
+		Dictionary<char[], Word> dict = createDictionary();
+		Grid grid = createTwoSquareGrid();
+		assertTrue(new AutoFiller8().autoFill(grid, dict));
+		assertEquals(12, grid.getAcrossWords().size() + grid.getDownWords().size());
+		assertAllWordsValid(grid, dict);
+	}
+
+	@Test
+	public void testUnfillableGroupLeavesOtherGroupsEmpty() {
+		Dictionary<char[], Word> dict = createDictionary();
+		Grid grid = createTwoSquareGrid();
+		grid.setCellContents(0, 4, "T");
+		assertFalse(new AutoFiller8().autoFill(grid, dict));
+		for (int row = 0; row < 3; ++row)
+			for (int col = 0; col < 3; ++col)
+				assertTrue(grid.getCell(row, col).isEligibleForAutofill());
+	}
+
+	@Test
+	public void testUnfillableGroupStopsLargeGroup() {
+		// 8x8 block, with no fill from its dictionary, which takes until the deadline to search, and left of it,
+		// so first in order of words, a 3x3 block having no fill, which is quickly shown
+		Ydict<Word> dict = createRandomDictionary(1L, 300, 8, 'F');
+		for (String word : new String[] {"AAB", "ACB", "BAA", "CBC"})
+			dict.insert(word.toCharArray(), new Word());
+		dict.rebalance();
+		Grid grid = new Grid(12, 8);
+		for (int row = 0; row < 8; ++row)
+			for (int col = 8; col < 12; ++col)
+				if (col == 8 || row >= 3)
+					grid.getCell(row, col).setBlack(true);
+		grid.renumberCells();
+		AutoFiller8 autoFiller = new AutoFiller8(0L, AutoFiller8.DEFAULT_MAX_NODES, 30000L, 1, AutoFiller8.DEFAULT_MAX_NODES);
+		long startTime = System.currentTimeMillis();
+		assertFalse(autoFiller.autoFill(grid, dict));
+		assertTrue(System.currentTimeMillis() - startTime < 10000L);
+		for (int row = 0; row < 8; ++row)
+			for (int col = 0; col < 8; ++col)
+				assertTrue(grid.getCell(row, col).isEligibleForAutofill());
+	}
+
+	@Test
+	public void testParallelSearchFillsGroup() {
+		Dictionary<char[], Word> dict = createDictionary();
+		Grid grid = new Grid(3, 3);
+		AutoFiller8 autoFiller = new AutoFiller8(0L, AutoFiller8.DEFAULT_MAX_NODES, 0L, 4, 0);
+		assertTrue(autoFiller.autoFill(grid, dict));
+		assertEquals(1, autoFiller.getNumParallelSearches());
+		assertFilledFromDictionary(grid, dict);
+	}
+
+	@Test
+	public void testParallelSearchOfUnfillableGroup() {
+		// every letter of every word has support in the crossing words, so propagation alone doesn't prove
+		// grid unfillable; it takes a search
+		Ydict<Word> dict = new Ydict<Word>();
+		for (String word : new String[] {"AAB", "ACB", "BAA", "CBC"})
+			dict.insert(word.toCharArray(), new Word());
+		dict.rebalance();
+		Grid grid = new Grid(3, 3);
+		AutoFiller8 autoFiller = new AutoFiller8(0L, AutoFiller8.DEFAULT_MAX_NODES, 0L, 4, 0);
+		assertFalse(autoFiller.autoFill(grid, dict));
+		assertEquals(1, autoFiller.getNumParallelSearches());
+		for (int row = 0; row < 3; ++row)
+			for (int col = 0; col < 3; ++col)
+				assertTrue(grid.getCell(row, col).isEligibleForAutofill());
+	}
+
+	@Test
+	public void testParallelSearchInheritsNogoods() {
+		// too few words to fill 6x6 grid, which first search learns nogoods searching, before it's split
+		Ydict<Word> dict = createRandomDictionary(3L, 60, 6, 'F');
+		Grid grid = new Grid(6, 6);
+		AutoFiller8 autoFiller = new AutoFiller8(0L, AutoFiller8.DEFAULT_MAX_NODES, 0L, 2, 5);
+		assertFalse(autoFiller.autoFill(grid, dict));
+		assertEquals(1, autoFiller.getNumParallelSearches());
+		assertTrue(autoFiller.getNumInheritedNogoods() > 0);
+	}
+
+	@Test
+	public void testParallelSearchesOfGroupsShareProcessors() {
+		// each group's search gets as many extra workers as are spare, which may be none
+		Dictionary<char[], Word> dict = createDictionary();
+		Grid grid = createTwoSquareGrid();
+		AutoFiller8 autoFiller = new AutoFiller8(0L, AutoFiller8.DEFAULT_MAX_NODES, 0L, 2, 0);
+		assertTrue(autoFiller.autoFill(grid, dict));
+		assertEquals(2, autoFiller.getNumParallelSearches());
+		assertAllWordsValid(grid, dict);
+	}
+
+	@Test
+	public void testBackjumpsAndRestarts() {
+		// dictionary sparse enough that some dead ends don't depend on the latest word, and searching often takes
+		// more failures than the first run of the restart schedule allows. Ydict orders each new index at random,
+		// so how a fill goes differs from dictionary to dictionary; fill until both have happened
+		AutoFiller8 autoFiller = new AutoFiller8(0L, AutoFiller8.DEFAULT_MAX_NODES, 0L, 1, 0);
+		for (int i = 0; i < 30 && (autoFiller.getNumBackjumps() == 0 || autoFiller.getNumRestarts() == 0); ++i) {
+			Dictionary<char[], Word> dict = createRandomDictionary(3L, 400, 6, 'F');
+			Grid grid = new Grid(6, 6);
+			assertTrue(autoFiller.autoFill(grid, dict));
+			assertAllWordsValid(grid, dict);
+		}
+		assertTrue(autoFiller.getNumBackjumps() > 0);
+		assertTrue(autoFiller.getNumRestarts() > 0);
+	}
+
+	@Test
+	public void testSplitsGroupAtCutWord() {
+		// two 4x5 blocks joined only by the 9-letter word across the middle row, which splits the 17 words in two.
+		// Every 4 and 5 letter word of As and Bs is in the dictionary, so either block fills around any 9-letter word
+		List<String> words = new ArrayList<String>(Arrays.asList("ABBBBBBBA", "BAAAAAAAB"));
+		for (int length = 4; length <= 5; ++length) {
+			for (int bits = 0; bits < 1 << length; ++bits) {
+				StringBuilder word = new StringBuilder();
+				for (int k = 0; k < length; ++k)
+					word.append((bits & (1 << k)) != 0 ? 'B' : 'A');
+				words.add(word.toString());
+			}
+		}
+		Dictionary<char[], Word> dict = createDictionary(words.toArray(new String[words.size()]));
+		Grid grid = new Grid(9, 5);
+		for (int row = 0; row < 5; ++row)
+			if (row != 2)
+				grid.getCell(row, 4).setBlack(true);
+		grid.renumberCells();
+		AutoFiller8 autoFiller = new AutoFiller8(0L, AutoFiller8.DEFAULT_MAX_NODES, 0L, 2, AutoFiller8.DEFAULT_MAX_NODES);
+		assertTrue(autoFiller.autoFill(grid, dict));
+		assertTrue(autoFiller.getNumCutSplits() > 0);
+		assertEquals(17, grid.getAcrossWords().size() + grid.getDownWords().size());
+		assertAllWordsValid(grid, dict);
+	}
+
+	@Test
+	public void testSameSeedGivesSameFill() {
+		Dictionary<char[], Word> dict = createDictionary();
+		Grid grid1 = new Grid(3, 3);
+		Grid grid2 = new Grid(3, 3);
+		assertTrue(new AutoFiller8(42L, AutoFiller8.DEFAULT_MAX_NODES, 0L).autoFill(grid1, dict));
+		assertTrue(new AutoFiller8(42L, AutoFiller8.DEFAULT_MAX_NODES, 0L).autoFill(grid2, dict));
+		for (int row = 0; row < 3; ++row)
+			for (int col = 0; col < 3; ++col)
+				assertEquals(grid1.getCellContents(row, col), grid2.getCellContents(row, col));
+	}
+
+	@Test
+	public void testAutoFillBestTotal() {
+		final List<Integer> scores = new ArrayList<Integer>();
+		Grid grid = new Grid(3, 3);
+		assertTrue(new AutoFiller8().autoFillBest(grid, createScoredDictionary(), AutoFiller8.ScoreObjective.TOTAL,
+				new AutoFillSolutionListener() {
+					@Override
+					public boolean handleSolution(AutoFillSolution solution) {
+						scores.add(solution.getScore());
+						return true;
+					}
+				}));
+		// BIG/ICE/GET square scores 4 * 100 + 2 * 10, beating 6 * 50 for all the others
+		assertEquals("BIG", getRow(grid, 0));
+		assertEquals("ICE", getRow(grid, 1));
+		assertEquals(Integer.valueOf(420), scores.get(scores.size() - 1));
+		for (int i = 1; i < scores.size(); ++i)
+			assertTrue(scores.get(i) > scores.get(i - 1));
+	}
+
+	@Test
+	public void testAutoFillBestMinimum() {
+		final List<AutoFillSolution> solutions = new ArrayList<AutoFillSolution>();
+		Grid grid = new Grid(3, 3);
+		assertTrue(new AutoFiller8().autoFillBest(grid, createScoredDictionary(), AutoFiller8.ScoreObjective.MINIMUM,
+				new AutoFillSolutionListener() {
+					@Override
+					public boolean handleSolution(AutoFillSolution solution) {
+						solutions.add(solution);
+						return true;
+					}
+				}));
+		// ICE scores only 10, so BIG/ICE/GET square is worst by lowest word
+		assertEquals(50, solutions.get(solutions.size() - 1).getScore());
+		assertFalse("BIG".equals(getRow(grid, 0)));
+		assertEquals(getRow(grid, 0), join(solutions.get(solutions.size() - 1).getFill()[0]));
+	}
+
+	@Test
+	public void testAutoFillBestStopsWhenListenerSays() {
+		final List<AutoFillSolution> solutions = new ArrayList<AutoFillSolution>();
+		Grid grid = new Grid(3, 3);
+		assertTrue(new AutoFiller8().autoFillBest(grid, createScoredDictionary(), AutoFiller8.ScoreObjective.TOTAL,
+				new AutoFillSolutionListener() {
+					@Override
+					public boolean handleSolution(AutoFillSolution solution) {
+						solutions.add(solution);
+						return false;
+					}
+				}));
+		assertEquals(1, solutions.size());
+		assertEquals(getRow(grid, 0), join(solutions.get(0).getFill()[0]));
+	}
+
+	@Test
+	public void testEnumerateRegionFills() {
+		final Set<String> fills = new HashSet<String>();
+		Grid grid = new Grid(3, 3);
+		grid.setCurrentRow(1);
+		grid.setCurrentColumn(1);
+		int numFills = new AutoFiller8().enumerateRegionFills(grid, createDictionary(), AutoFillRegion.FillOrder.RANDOM,
+				new AutoFillSolutionListener() {
+					@Override
+					public boolean handleSolution(AutoFillSolution solution) {
+						String[][] fill = solution.getFill();
+						assertTrue(fills.add(join(fill[0]) + join(fill[1]) + join(fill[2])));
+						return true;
+					}
+				});
+		// WORDS make 10 different word squares, no two of which differ in only one word
+		assertEquals(10, numFills);
+		assertEquals(10, fills.size());
+		assertTrue(fills.contains("CATOREWED"));
+		assertTrue(grid.getCell(0, 0).isEligibleForAutofill());
+	}
+
+	@Test
+	public void testEnumerateRegionFillsStopsWhenListenerSays() {
+		final List<AutoFillSolution> solutions = new ArrayList<AutoFillSolution>();
+		Grid grid = new Grid(3, 3);
+		grid.setCurrentRow(0);
+		grid.setCurrentColumn(0);
+		int numFills = new AutoFiller8().enumerateRegionFills(grid, createScoredDictionary(), AutoFillRegion.FillOrder.BEST_FIRST,
+				new AutoFillSolutionListener() {
+					@Override
+					public boolean handleSolution(AutoFillSolution solution) {
+						solutions.add(solution);
+						return solutions.size() < 3;
+					}
+				});
+		assertEquals(3, numFills);
+		assertEquals(3, solutions.size());
+		// highest-scoring words tried first, so best fill comes first
+		assertEquals(420, solutions.get(0).getScore());
+	}
+
+	@Test
+	public void testRebusCellFilledByAutoFiller7() {
+		Grid grid = createRebusGrid();
+		AutoFiller8 autoFiller = new AutoFiller8();
+		autoFiller.setRebusStrings(Arrays.asList("BO", "FL", "SC"));
+		assertTrue(autoFiller.autoFill(grid, createRebusDictionary()));
+		assertEquals("SCAT", grid.getAcrossWords().get(0).getContents());
+		assertEquals("SCOW", grid.getDownWords().get(0).getContents());
+	}
+
+	@Test
+	public void testRebusCellUnfillableWithoutRebusStrings() {
+		Grid grid = createRebusGrid();
+		assertFalse(new AutoFiller8().autoFill(grid, createRebusDictionary()));
+		assertTrue(grid.getCell(0, 0).isEligibleForAutofill());
+	}
+
+	@Test
+	public void testLuby() {
+		int[] expected = new int[] {1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, 1};
+		for (int i = 0; i < expected.length; ++i)
+			assertEquals(expected[i], AutoFiller8.luby(i + 1));
+	}
+
+	// return dictionary containing WORDS, plus BIG, ICE, and GET, which form a word square of their own,
+	// all scoring 50 except BIG and GET, scoring 100, and ICE, scoring 10
+	private Dictionary<char[], Word> createScoredDictionary() {
+		Ydict<Word> dict = new Ydict<Word>();
+		for (String word : WORDS)
+			dict.insert(word.toCharArray(), new Word());
+		dict.insert("BIG".toCharArray(), new Word(100));
+		dict.insert("ICE".toCharArray(), new Word(10));
+		dict.insert("GET".toCharArray(), new Word(100));
+		dict.rebalance();
+		return dict;
+	}
+
+	// return contents of row of grid
+	private String getRow(Grid grid, int row) {
+		String[] contents = new String[grid.getWidth()];
+		for (int col = 0; col < contents.length; ++col)
+			contents[col] = grid.getCellContents(row, col);
+		return join(contents);
+	}
+
+	// return concatenation of strings
+	private String join(String[] strings) {
+		StringBuilder builder = new StringBuilder();
+		for (String string : strings)
+			builder.append(string);
+		return builder.toString();
+	}
+}
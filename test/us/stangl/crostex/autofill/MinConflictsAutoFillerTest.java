@@ -0,0 +1,122 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.assertAllWordsValid;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.createDictionary;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.createRebusDictionary;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.createRebusGrid;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.createTwoSquareGrid;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import us.stangl.crostex.Cell;
+import us.stangl.crostex.Grid;
+import us.stangl.crostex.Word;
+import us.stangl.crostex.dictionary.Dictionary;
+import us.stangl.crostex.util.Pair;
+
+/**
+ * Unit tests for MinConflictsAutoFiller.
+ * @author Alex Stangl
+ */
+public class MinConflictsAutoFillerTest {
+	@Test
+	public void testFillsEmptyGrid() {
+		Dictionary<char[], Word> dict = createDictionary();
+		Grid grid = new Grid(3, 3);
+		assertTrue(new MinConflictsAutoFiller().autoFill(grid, dict));
+		assertAllWordsValid(grid, dict);
+	}
+
+	@Test
+	public void testCurrentWordNotAmongReplacementNearMisses() {
+		Dictionary<char[], Word> dict = createDictionary(new String[] {"CAT", "COT", "CUT", "DOG"});
+		// current word is a new array having the same letters as the dictionary's CAT, as dictionaries may return
+		List<Pair<char[], Word>> nearMisses = MinConflictsAutoFiller.getReplacementNearMisses(dict,
+				"CXT".toCharArray(), 1, "___".toCharArray(), "CAT".toCharArray());
+		assertEquals(2, nearMisses.size());
+		for (Pair<char[], Word> nearMiss : nearMisses)
+			assertFalse(Arrays.equals("CAT".toCharArray(), nearMiss.first));
+
+		// near misses differing from base pattern in a fixed cell are left out too
+		nearMisses = MinConflictsAutoFiller.getReplacementNearMisses(dict, "CXT".toCharArray(), 1,
+				"_O_".toCharArray(), "CAT".toCharArray());
+		assertEquals(1, nearMisses.size());
+		assertEquals("COT", new String(nearMisses.get(0).first));
+	}
+
+	@Test
+	public void testRebusCellFilledByAutoFiller7() {
+		Grid grid = createRebusGrid();
+		MinConflictsAutoFiller autoFiller = new MinConflictsAutoFiller();
+		autoFiller.setRebusStrings(Arrays.asList("BO", "FL", "SC"));
+		assertTrue(autoFiller.autoFill(grid, createRebusDictionary()));
+		assertEquals("SCAT", grid.getAcrossWords().get(0).getContents());
+		assertEquals("SCOW", grid.getDownWords().get(0).getContents());
+	}
+
+	@Test
+	public void testRepairLeavesValidFillUnchanged() {
+		Dictionary<char[], Word> dict = createDictionary();
+		Grid grid = new Grid(3, 3);
+		setRows(grid, 0, "COW", "ARE", "TED");
+		assertTrue(new MinConflictsAutoFiller().repair(grid, dict, Collections.<Cell>emptySet()));
+		assertEquals("COWARETED", getContents(grid, 0, 3));
+	}
+
+	@Test
+	public void testRepairKeepsEditedLetter() {
+		Dictionary<char[], Word> dict = createDictionary();
+		Grid grid = new Grid(3, 3);
+		setRows(grid, 0, "COW", "ACE", "TED");
+		assertTrue(new MinConflictsAutoFiller().repair(grid, dict, Collections.singleton(grid.getCell(1, 1))));
+		assertAllWordsValid(grid, dict);
+		assertEquals("C", grid.getCellContents(1, 1));
+	}
+
+	@Test
+	public void testRepairOnlyChangesWordsNearEdit() {
+		Dictionary<char[], Word> dict = createDictionary();
+		Grid grid = createTwoSquareGrid();
+		setRows(grid, 0, "COW", "ARE", "TED");
+		setRows(grid, 4, "COW", "ACE", "TED");
+		assertTrue(new MinConflictsAutoFiller().repair(grid, dict, Collections.singleton(grid.getCell(1, 5))));
+		assertAllWordsValid(grid, dict);
+		assertEquals("COWARETED", getContents(grid, 0, 3));
+		assertEquals("C", grid.getCellContents(1, 5));
+	}
+
+	@Test
+	public void testUnrepairableGridLeftUnchanged() {
+		Dictionary<char[], Word> dict = createDictionary();
+		Grid grid = new Grid(3, 3);
+		setRows(grid, 0, "COW", "AZE", "TED");
+		assertFalse(new MinConflictsAutoFiller().repair(grid, dict, Collections.singleton(grid.getCell(1, 1))));
+		assertEquals("COWAZETED", getContents(grid, 0, 3));
+	}
+
+	// set contents of grid, starting at column startCol, one row per string
+	private void setRows(Grid grid, int startCol, String... rows) {
+		for (int row = 0; row < rows.length; ++row)
+			for (int col = 0; col < rows[row].length(); ++col)
+				grid.setCellContents(row, startCol + col, rows[row].substring(col, col + 1));
+	}
+
+	// return contents of width columns of grid, starting at column startCol, row by row
+	private String getContents(Grid grid, int startCol, int width) {
+		StringBuilder builder = new StringBuilder();
+		for (int row = 0; row < grid.getHeight(); ++row)
+			for (int col = startCol; col < startCol + width; ++col)
+				builder.append(grid.getCellContents(row, col));
+		return builder.toString();
+	}
+}
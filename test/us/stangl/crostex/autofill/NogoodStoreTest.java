@@ -0,0 +1,79 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for NogoodStore.
+ * @author Alex Stangl
+ */
+public class NogoodStoreTest {
+	@Test
+	public void testDuplicatesStoredOnce() {
+		NogoodStore store = new NogoodStore();
+		assertTrue(store.add(new int[] {1, 2, 3}, new int[] {10, 20, 30}));
+		assertFalse(store.add(new int[] {3, 1, 2}, new int[] {30, 10, 20}));
+		assertTrue(store.add(new int[] {1, 2, 3}, new int[] {10, 20, 31}));
+		assertEquals(2, store.size());
+	}
+
+	@Test
+	public void testLimits() {
+		NogoodStore store = new NogoodStore(2, 1);
+		assertFalse(store.add(new int[] {1, 2, 3}, new int[] {10, 20, 30}));
+		assertFalse(store.add(new int[0], new int[0]));
+		assertTrue(store.add(new int[] {1, 2}, new int[] {10, 20}));
+		assertFalse(store.add(new int[] {1, 3}, new int[] {10, 30}));
+		assertEquals(1, store.size());
+	}
+
+	@Test
+	public void testGetNogoods() {
+		NogoodStore store = new NogoodStore();
+		store.add(new int[] {1, 2}, new int[] {10, 20});
+		store.add(new int[] {2, 1}, new int[] {20, 10});
+		store.add(new int[] {3}, new int[] {30});
+		assertEquals(2, store.getNogoods().size());
+		for (NogoodStore.Nogood nogood : store.getNogoods()) {
+			if (nogood.slots.length == 1) {
+				assertEquals(3, nogood.slots[0]);
+				assertEquals(30, nogood.indexes[0]);
+			} else {
+				assertEquals(2, nogood.slots.length);
+				assertEquals(nogood.slots[0] * 10, nogood.indexes[0]);
+				assertEquals(nogood.slots[1] * 10, nogood.indexes[1]);
+			}
+		}
+	}
+
+	@Test
+	public void testWatches() {
+		NogoodStore store = new NogoodStore();
+		store.add(new int[] {1, 2, 3}, new int[] {10, 20, 30});
+		assertEquals(1, store.getWatching(1, 10).size());
+		assertEquals(1, store.getWatching(2, 20).size());
+		assertNull(store.getWatching(3, 30));
+
+		NogoodStore.Nogood nogood = store.getWatching(1, 10).get(0);
+		assertEquals(0, nogood.getWatchNumber(1, 10));
+		assertEquals(1, nogood.getWatchNumber(2, 20));
+		assertEquals(-1, nogood.getWatchNumber(3, 30));
+
+		store.moveWatch(nogood, 0, 2);
+		store.setWatching(1, 10, new ArrayList<NogoodStore.Nogood>());
+		assertNull(store.getWatching(1, 10));
+		List<NogoodStore.Nogood> watching = store.getWatching(3, 30);
+		assertEquals(1, watching.size());
+		assertEquals(0, watching.get(0).getWatchNumber(3, 30));
+	}
+}
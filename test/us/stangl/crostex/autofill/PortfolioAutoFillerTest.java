@@ -0,0 +1,65 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.assertFilledFromDictionary;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.createDictionary;
+
+import org.junit.Test;
+
+import us.stangl.crostex.Grid;
+import us.stangl.crostex.Word;
+import us.stangl.crostex.dictionary.Dictionary;
+
+/**
+ * Unit tests for PortfolioAutoFiller, and the auto-fillers in its default portfolio.
+ * @author Alex Stangl
+ */
+public class PortfolioAutoFillerTest {
+	@Test
+	public void testPortfolioFillsGrid() {
+		Dictionary<char[], Word> dict = createDictionary();
+		Grid grid = new Grid(3, 3);
+		grid.setCellContents(0, 0, "C");
+		PortfolioAutoFiller portfolio = new PortfolioAutoFiller(PortfolioAutoFiller.createDefaultStrategies(4), 2);
+		assertTrue(portfolio.autoFill(grid, dict));
+		assertFilledFromDictionary(grid, dict);
+		assertEquals("C", grid.getCellContents(0, 0));
+	}
+
+	@Test
+	public void testEachDefaultStrategyFillsGrid() {
+		Dictionary<char[], Word> dict = createDictionary();
+		for (AutoFillGrid strategy : PortfolioAutoFiller.createDefaultStrategies(5)) {
+			Grid grid = new Grid(3, 3);
+			assertTrue(strategy.toString(), strategy.autoFill(grid, dict));
+			assertFilledFromDictionary(grid, dict);
+		}
+	}
+
+	@Test
+	public void testUnfillableGrid() {
+		Dictionary<char[], Word> dict = createDictionary();
+		Grid grid = new Grid(3, 3);
+		grid.setCellContents(1, 1, "Z");
+		PortfolioAutoFiller portfolio = new PortfolioAutoFiller(PortfolioAutoFiller.createDefaultStrategies(3), 3);
+		assertFalse(portfolio.autoFill(grid, dict));
+		assertTrue(grid.getCell(0, 0).isEligibleForAutofill());
+	}
+
+	@Test
+	public void testInterruptedAutoFillersStop() {
+		Dictionary<char[], Word> dict = createDictionary();
+		Thread.currentThread().interrupt();
+		try {
+			assertFalse(new AutoFiller7().autoFill(new Grid(3, 3), dict));
+			assertFalse(new MinConflictsAutoFiller().autoFill(new Grid(3, 3), dict));
+		} finally {
+			Thread.interrupted();
+		}
+	}
+}
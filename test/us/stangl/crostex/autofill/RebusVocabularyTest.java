@@ -0,0 +1,100 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import us.stangl.crostex.Word;
+import us.stangl.crostex.dictionary.Dictionary;
+import us.stangl.crostex.dictionary.Ydict;
+import us.stangl.crostex.util.Pair;
+
+/**
+ * Unit tests for RebusVocabulary.
+ * @author Alex Stangl
+ */
+public class RebusVocabularyTest {
+	@Test
+	public void testOpenRebusCellMatchesEachWidth() {
+		RebusVocabulary vocabulary = new RebusVocabulary(Arrays.asList("SC", "FL", "B"));
+		List<Pair<char[], Word>> matches = vocabulary.newMatcher(createDictionary(), new int[] {0})
+			.getPatternMatches("_AT".toCharArray());
+
+		// BOAT and CAT match the pattern's widths, but BO and C aren't rebus strings
+		Set<String> decodedMatches = new HashSet<String>();
+		for (Pair<char[], Word> match : matches) {
+			assertEquals(3, match.first.length);
+			assertTrue(vocabulary.isSymbol(match.first[0]));
+			decodedMatches.add(vocabulary.decode(match.first[0]) + new String(match.first, 1, 2));
+		}
+		assertEquals(new HashSet<String>(Arrays.asList("SCAT", "FLAT", "BAT")), decodedMatches);
+	}
+
+	@Test
+	public void testFixedRebusCellIsExpanded() {
+		RebusVocabulary vocabulary = new RebusVocabulary(Arrays.asList("SC", "FL"));
+		RebusVocabulary.Matcher matcher = vocabulary.newMatcher(createDictionary(), new int[] {0});
+		char symbol = '\0';
+		for (Pair<char[], Word> match : matcher.getPatternMatches("_AT".toCharArray()))
+			if (vocabulary.decode(match.first[0]).equals("SC"))
+				symbol = match.first[0];
+		assertTrue(vocabulary.isSymbol(symbol));
+
+		char[] pattern = new char[] {symbol, 'O', '_'};
+		List<Pair<char[], Word>> matches = matcher.getPatternMatches(pattern);
+		assertEquals(1, matches.size());
+		assertEquals(new String(pattern, 0, 2) + "W", new String(matches.get(0).first));
+		assertEquals("SCOW", vocabulary.toContents(symbol) + "OW");
+		assertFalse(matcher.isPatternInDictionary(new char[] {symbol, 'X', '_'}));
+	}
+
+	@Test
+	public void testSameMatchesReturnedEachTime() {
+		RebusVocabulary vocabulary = new RebusVocabulary(Arrays.asList("SC", "FL"));
+		RebusVocabulary.Matcher matcher = vocabulary.newMatcher(createDictionary(), new int[] {0});
+		List<Pair<char[], Word>> matches = matcher.getPatternMatches("_AT".toCharArray());
+		List<Pair<char[], Word>> matchesAgain = matcher.getPatternMatches("_A_".toCharArray());
+		assertEquals(2, matches.size());
+		assertEquals(2, matchesAgain.size());
+		for (int i = 0; i < matches.size(); ++i) {
+			assertArrayEquals(matches.get(i).first, matchesAgain.get(i).first);
+			assertSame(matches.get(i).second, matchesAgain.get(i).second);
+		}
+	}
+
+	@Test
+	public void testEmptyVocabularyMatchesNothing() {
+		RebusVocabulary vocabulary = new RebusVocabulary(Collections.<String>emptyList());
+		assertTrue(vocabulary.isEmpty());
+		assertFalse(vocabulary.isSymbol('A'));
+		assertEquals("A", vocabulary.toContents('A'));
+		assertFalse(vocabulary.newMatcher(createDictionary(), new int[] {0}).isPatternInDictionary("_AT".toCharArray()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmptyRebusStringRejected() {
+		new RebusVocabulary(Arrays.asList("SC", ""));
+	}
+
+	// return dictionary of words, some beginning with a rebus string
+	private Dictionary<char[], Word> createDictionary() {
+		Ydict<Word> dict = new Ydict<Word>();
+		for (String word : new String[] {"SCAT", "SCOW", "FLAT", "BOAT", "BAT", "CAT"})
+			dict.insert(word.toCharArray(), new Word());
+		dict.rebalance();
+		return dict;
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Test;
+
+import us.stangl.crostex.Grid;
+import us.stangl.crostex.GridWord;
+
+/**
+ * Unit tests for SolverGrid.
+ * @author Alex Stangl
+ */
+public class SolverGridTest {
+	@Test
+	public void testSetWordLeavesGridUnchanged() {
+		Grid grid = new Grid(3, 3);
+		grid.setCellContents(1, 1, "X");
+		SolverModel model = createModel(grid);
+		SolverGrid solverGrid = new SolverGrid(grid, model);
+		solverGrid.setWord(0, "CAT".toCharArray());
+		assertTrue(solverGrid.isComplete(0));
+		assertFalse(solverGrid.isComplete(3));
+
+		String[][] contents = solverGrid.getContents();
+		assertEquals("C", contents[0][0]);
+		assertEquals("T", contents[0][2]);
+		assertEquals("X", contents[1][1]);
+		assertEquals("", contents[2][2]);
+		assertEquals("", grid.getCellContents(0, 0));
+	}
+
+	@Test
+	public void testCompleteCrossings() {
+		Grid grid = new Grid(3, 3);
+		SolverModel model = createModel(grid);
+		SolverGrid solverGrid = new SolverGrid(grid, model);
+		solverGrid.setWord(0, "COW".toCharArray());
+		solverGrid.setWord(1, "ARE".toCharArray());
+		solverGrid.setWord(2, "TED".toCharArray());
+		for (int slot = 0; slot < model.getNumSlots(); ++slot)
+			assertTrue(solverGrid.isComplete(slot));
+		BitSet expected = new BitSet();
+		expected.set(3, 6);
+		assertEquals(expected, solverGrid.getCompleteCrossings(0));
+
+		int cell = model.getSlotCells(0)[1];
+		solverGrid.setLetter(cell, SolverGrid.EMPTY);
+		assertFalse(solverGrid.isComplete(0));
+		assertFalse(solverGrid.isComplete(4));
+		expected.clear(4);
+		assertEquals(expected, solverGrid.getCompleteCrossings(0));
+	}
+
+	@Test
+	public void testWriteTo() {
+		Grid grid = new Grid(3, 3);
+		SolverModel model = createModel(grid);
+		SolverGrid solverGrid = new SolverGrid(grid, model);
+		solverGrid.setWord(3, "CAT".toCharArray());
+		solverGrid.writeTo();
+		assertEquals("C", grid.getCellContents(0, 0));
+		assertEquals("A", grid.getCellContents(1, 0));
+		assertEquals("T", grid.getCellContents(2, 0));
+		assertEquals("", grid.getCellContents(0, 1));
+	}
+
+	// return model of grid's across words, then its down words
+	private SolverModel createModel(Grid grid) {
+		List<GridWord> words = grid.getAcrossWords();
+		words.addAll(grid.getDownWords());
+		return new SolverModel(grid.getCrossingGraph(), words);
+	}
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import us.stangl.crostex.AcrossDownDirection;
+import us.stangl.crostex.Word;
+import us.stangl.crostex.constraint.OnePolyominoGridConstraint;
+import us.stangl.crostex.dictionary.Dictionary;
+import us.stangl.crostex.dictionary.Ydict;
+
+/**
+ * Unit tests for ThemePlacementSearch.
+ * @author Alex Stangl
+ */
+public class ThemePlacementSearchTest {
+	@Test
+	public void testPairedEntriesPlacedSymmetrically() {
+		ThemePlacementSearch search = new ThemePlacementSearch(5, 5, Arrays.asList("HELLO", "WORLD"), createDictionary());
+		List<ThemeLayout> layouts = search.findBestLayouts(10);
+
+		// With only 3-letter crossing words, entries in rows 0 and 4 can't be crossed, and row 2 holds just one
+		assertEquals(2, layouts.size());
+		for (ThemeLayout layout : layouts) {
+			List<ThemePlacement> placements = layout.getPlacements();
+			assertEquals(2, placements.size());
+			assertEquals(4 - placements.get(0).getRow(), placements.get(1).getRow());
+			assertTrue(placements.get(0).getRow() == 1 || placements.get(0).getRow() == 3);
+			assertEquals(10 * Math.log(26), layout.getScore(), 1e-9);
+		}
+		assertEquals("HELLO", layouts.get(0).getPlacements().get(0).getWord());
+		assertEquals("E", layouts.get(0).getContents(layouts.get(0).getPlacements().get(0).getRow(), 1));
+	}
+
+	@Test
+	public void testUnpairedEntryCentered() {
+		ThemePlacementSearch search = new ThemePlacementSearch(5, 5, Arrays.asList("CAT"), createDictionary());
+		List<ThemeLayout> layouts = search.findBestLayouts(10);
+		assertEquals(1, layouts.size());
+		ThemeLayout layout = layouts.get(0);
+		ThemePlacement placement = layout.getPlacements().get(0);
+		assertEquals(2, placement.getRow());
+		assertEquals(1, placement.getColumn());
+		assertEquals(AcrossDownDirection.ACROSS, placement.getDirection());
+
+		// Blacks at ends of CAT leave runs of 2 cells above and below them, which are made black too
+		for (int row = 0; row < 5; ++row) {
+			assertTrue(layout.isBlack(row, 0));
+			assertTrue(layout.isBlack(row, 4));
+			assertFalse(layout.isBlack(row, 2));
+		}
+		assertEquals("A", layout.toGrid().getCellContents(2, 2));
+		assertTrue(new OnePolyominoGridConstraint().satisfiedBy(layout.toGrid()));
+	}
+
+	@Test
+	public void testParallelSearchFindsSameLayouts() {
+		List<String> themeWords = Arrays.asList("ABCDE", "FGHIJ", "KLM", "NOP");
+		Dictionary<char[], Word> dict = createDictionary();
+		Set<String> sequentialLayouts = getLayouts(new ThemePlacementSearch(7, 7, themeWords, dict, false,
+				ThemePlacementSearch.DEFAULT_MAX_CROSSING_LENGTH, 1));
+		Set<String> parallelLayouts = getLayouts(new ThemePlacementSearch(7, 7, themeWords, dict, false,
+				ThemePlacementSearch.DEFAULT_MAX_CROSSING_LENGTH, 4));
+		assertFalse(sequentialLayouts.isEmpty());
+		assertEquals(sequentialLayouts, parallelLayouts);
+	}
+
+	@Test
+	public void testListenerStopsSearch() {
+		ThemePlacementSearch search = new ThemePlacementSearch(7, 7, Arrays.asList("ABCDE", "FGHIJ"), createDictionary());
+		int numLayouts = search.search(new ThemeLayoutListener() {
+			@Override
+			public boolean handleLayout(ThemeLayout layout) {
+				return false;
+			}
+		});
+		assertEquals(1, numLayouts);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTwoUnpairedEntriesRejected() {
+		new ThemePlacementSearch(5, 5, Arrays.asList("CAT", "HELLO"), createDictionary());
+	}
+
+	// return string representations of all layouts found by search
+	private Set<String> getLayouts(ThemePlacementSearch search) {
+		final Set<String> retval = new HashSet<String>();
+		search.search(new ThemeLayoutListener() {
+			@Override
+			public boolean handleLayout(ThemeLayout layout) {
+				retval.add(layout.toString());
+				return true;
+			}
+		});
+		return retval;
+	}
+
+	// return dictionary of every 3-letter string
+	private Dictionary<char[], Word> createDictionary() {
+		Ydict<Word> dict = new Ydict<Word>();
+		for (char c1 = 'A'; c1 <= 'Z'; ++c1)
+			for (char c2 = 'A'; c2 <= 'Z'; ++c2)
+				for (char c3 = 'A'; c3 <= 'Z'; ++c3)
+					dict.insert(new char[] {c1, c2, c3}, new Word());
+		dict.rebalance();
+		return dict;
+	}
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.autofill;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static us.stangl.crostex.autofill.AutoFillTestSupport.createDictionary;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import us.stangl.crostex.Word;
+import us.stangl.crostex.dictionary.Ydict;
+
+/**
+ * Unit tests for WordTable.
+ * @author Alex Stangl
+ */
+public class WordTableTest {
+	@Test
+	public void testIndexedDictionaryWordsHaveDictionaryIndexes() {
+		Ydict<Word> dict = createDictionary();
+		WordTable table = WordTable.newInstance(dict, 3, null);
+		int[] matches = table.getPatternMatches("C__".toCharArray());
+		assertArrayEquals(dict.getPatternMatchIndexes("C__".toCharArray()), matches);
+		for (int index : matches) {
+			assertArrayEquals(dict.getPair(3, index).first, table.getWord(index));
+			assertEquals('C', table.getLetter(index, 0));
+			assertSame(dict.getEntry(3, index), table.getEntry(index));
+		}
+	}
+
+	@Test
+	public void testRebusWordsIndexedOnceEach() {
+		Ydict<Word> dict = createDictionary(new String[] {"SCAT", "FLAT", "SCOW", "BOAT"});
+		RebusVocabulary vocabulary = new RebusVocabulary(Arrays.asList("SC", "FL"));
+		WordTable table = WordTable.newInstance(dict, 3, vocabulary.newMatcher(dict, new int[] {0}));
+		int[] matches = table.getPatternMatches("_AT".toCharArray());
+		assertEquals(2, matches.length);
+		Set<String> decodedMatches = new HashSet<String>();
+		for (int index : matches) {
+			String decoded = vocabulary.decode(table.getLetter(index, 0)) + new String(table.getWord(index), 1, 2);
+			decodedMatches.add(decoded);
+			assertSame(dict.lookup(decoded.toCharArray()), table.getEntry(index));
+		}
+		assertEquals(new HashSet<String>(Arrays.asList("SCAT", "FLAT")), decodedMatches);
+
+		// the same words have the same indexes when matched again, and new ones the next index
+		int[] matchesAgain = table.getPatternMatches("___".toCharArray());
+		assertEquals(3, matchesAgain.length);
+		Arrays.sort(matches);
+		Arrays.sort(matchesAgain);
+		assertArrayEquals(new int[] {matches[0], matches[1], 2}, matchesAgain);
+	}
+}
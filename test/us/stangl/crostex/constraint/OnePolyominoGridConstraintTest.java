@@ -25,4 +25,13 @@ public class OnePolyominoGridConstraintTest extends TestCase {
 		grid.getCell(2, 0).setBlack(true);
 		assertFalse(constraint.satisfiedBy(grid));
 	}
+
+	public void testNonSquare() {
+		Grid grid = new Grid(3, 1, "", "");
+		GridConstraint constraint = new OnePolyominoGridConstraint();
+		grid.getCell(0, 0).setBlack(true);
+		assertTrue(constraint.satisfiedBy(grid));
+		grid.getCell(0, 1).setBlack(true);
+		assertTrue(constraint.satisfiedBy(grid));
+	}
 }
@@ -0,0 +1,57 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.dictionary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for Alphabet.
+ * @author Alex Stangl
+ */
+public class AlphabetTest {
+	@Test
+	public void testEncodeDecode() {
+		for (Alphabet alphabet : Alphabet.getStandardAlphabets()) {
+			for (int code = 0; code < alphabet.size(); ++code)
+				assertEquals(code, alphabet.encode(alphabet.decode(code)));
+			assertEquals(-1, alphabet.encode('_'));
+			assertEquals(-1, alphabet.encode('a'));
+		}
+		assertEquals(26, Alphabet.ENGLISH.size());
+		assertEquals(0, Alphabet.ENGLISH.encode('A'));
+		assertEquals(25, Alphabet.ENGLISH.encode('Z'));
+		assertEquals(27, Alphabet.SPANISH.size());
+		assertEquals('\u00d1', Alphabet.SPANISH.decode(14));
+		assertEquals(0x7ffffffL, Alphabet.SPANISH.getAllSymbolsMask());
+	}
+
+	@Test
+	public void testNormalize() {
+		assertEquals("CAFE", Alphabet.ENGLISH.normalize("cafe"));
+		assertNull(Alphabet.ENGLISH.normalize("ni\u00f1o"));
+		assertEquals("NI\u00d1O", Alphabet.SPANISH.normalize("ni\u00f1o"));
+		assertEquals("\u0141\u00d3D\u0179", Alphabet.POLISH.normalize("\u0142\u00f3d\u017a"));
+		assertNull(Alphabet.POLISH.normalize("don't"));
+	}
+
+	@Test
+	public void testForName() {
+		assertSame(Alphabet.GERMAN, Alphabet.forName("German", Alphabet.ENGLISH));
+		assertSame(Alphabet.ENGLISH, Alphabet.forName("Klingon", Alphabet.ENGLISH));
+		assertSame(Alphabet.ENGLISH, Alphabet.forName(null, Alphabet.ENGLISH));
+		assertTrue(Alphabet.GERMAN.contains('\u00df'));
+		assertFalse(Alphabet.ENGLISH.contains('\u00df'));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testDuplicateSymbol() {
+		new Alphabet("Bad", "ABCA");
+	}
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.dictionary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import us.stangl.crostex.Word;
+import us.stangl.crostex.util.Pair;
+
+/**
+ * Unit tests for Ydict.
+ * @author Alex Stangl
+ */
+public class YdictTest {
+	/** seed for pseudo-random number generator, so test is repeatable */
+	private static final long SEED = 12345678912L;
+
+	@Test
+	public void testPairPostingsMatchSinglePostings() {
+		Random prng = new Random(SEED);
+		Ydict<Word> plain = new Ydict<Word>();
+		Ydict<Word> paired = new Ydict<Word>();
+		for (int i = 0; i < 5000; ++i) {
+			char[] word = randomWord(prng, 5, 'A', 'F');
+			plain.insert(word, new Word());
+			paired.insert(word, new Word());
+		}
+		plain.rebalance();
+		plain.setPairPostingsBudget(0);
+		paired.rebalance();
+		for (int posA = 0; posA < 5; ++posA)
+			for (int posB = posA + 1; posB < 5; ++posB)
+				assertTrue(paired.buildPairPostings(5, posA, posB));
+
+		for (int i = 0; i < 2000; ++i) {
+			char[] pattern = randomWord(prng, 5, 'A', 'F');
+			for (int j = 0; j < pattern.length; ++j)
+				if (prng.nextBoolean())
+					pattern[j] = Dictionary.WILDCARD;
+			assertEquals(getWords(plain.getPatternMatches(pattern)), getWords(paired.getPatternMatches(pattern)));
+		}
+	}
+
+	@Test
+	public void testPairPostingsBuiltForFrequentQueries() {
+		Ydict<Word> dict = new Ydict<Word>();
+		dict.insert("ABCD".toCharArray(), new Word());
+		dict.insert("ABCE".toCharArray(), new Word());
+		dict.insert("XBCD".toCharArray(), new Word());
+		dict.rebalance();
+		// Enough repeats to cross the automatic build threshold; results must not change once built
+		for (int i = 0; i < 100; ++i) {
+			Set<String> matches = getWords(dict.getPatternMatches("_BC_".toCharArray()));
+			assertEquals(3, matches.size());
+			matches = getWords(dict.getPatternMatches("A__D".toCharArray()));
+			assertEquals(1, matches.size());
+			assertTrue(matches.contains("ABCD"));
+		}
+	}
+
+	@Test
+	public void testPairPostingsBuiltWhenMoreSelectiveLetterComesLater() {
+		Ydict<Word> dict = new Ydict<Word>();
+		// for pattern ABZ, Z at position 2 is most selective, then A at position 0, then B at position 1.
+		// A_Z matches only ABZ, fewer than AB_, but Z_A, the same letters the other way round, matches more
+		for (String word : new String[] {"ABZ", "ABC", "ABD", "ABE", "ZCA", "ZDA", "ZEA", "ZFA", "ZGA", "CBC", "DBD", "EBE"})
+			dict.insert(word.toCharArray(), new Word());
+		dict.rebalance();
+		assertTrue(dict.buildPairPostings(3, 0, 1));
+		char[] pattern = "ABZ".toCharArray();
+		for (int i = 1; i < 32; ++i)
+			assertEquals(0 * 3 + 1, dict.findBestPairIndex(pattern));
+		// query crossing threshold builds postings for positions 0 and 2, and starts from them
+		assertEquals(0 * 3 + 2, dict.findBestPairIndex(pattern));
+		assertEquals(0 * 3 + 2, dict.findBestPairIndex(pattern));
+		assertEquals(1, dict.getPatternMatches(pattern).size());
+	}
+
+	@Test
+	public void testPairPostingsBudget() {
+		Ydict<Word> dict = new Ydict<Word>();
+		dict.insert("ABC".toCharArray(), new Word());
+		dict.insert("ABD".toCharArray(), new Word());
+		dict.rebalance();
+		dict.setPairPostingsBudget(3);
+		assertTrue(dict.buildPairPostings(3, 0, 1));
+		assertTrue(dict.buildPairPostings(3, 1, 0));
+		assertFalse(dict.buildPairPostings(3, 0, 2));
+		assertEquals(2, dict.getPatternMatches("AB_".toCharArray()).size());
+	}
+
+	@Test
+	public void testLazyIndexesBuiltOnceUnderConcurrentQueries() throws InterruptedException {
+		Random prng = new Random(SEED);
+		final Ydict<Word> lazy = new Ydict<Word>();
+		Ydict<Word> eager = new Ydict<Word>();
+		for (int i = 0; i < 3000; ++i) {
+			char[] word = randomWord(prng, 3 + prng.nextInt(6), 'A', 'H');
+			lazy.insert(word, new Word());
+			eager.insert(word, new Word());
+		}
+		lazy.rebalance();
+		eager.rebalance();
+		eager.buildIndexes(3, 4, 5, 6, 7, 8, 21);
+
+		final String[] patterns = new String[] {"A__", "_B_D", "__C__", "D_____", "A_B_C_D", "________", "ABCDEFGHA"};
+		final List<Set<String>> results = new ArrayList<Set<String>>();
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; ++t) {
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (String pattern : patterns) {
+						Set<String> words = getWords(lazy.getPatternMatches(pattern.toCharArray()));
+						synchronized (results) {
+							results.add(words);
+						}
+					}
+				}
+			};
+		}
+		for (Thread thread : threads)
+			thread.start();
+		for (Thread thread : threads)
+			thread.join();
+
+		assertEquals(threads.length * patterns.length, results.size());
+		for (Set<String> words : results) {
+			boolean found = false;
+			for (String pattern : patterns)
+				found |= words.equals(getWords(eager.getPatternMatches(pattern.toCharArray())));
+			assertTrue(found);
+		}
+		for (String pattern : patterns)
+			assertEquals(getWords(eager.getPatternMatches(pattern.toCharArray())), getWords(lazy.getPatternMatches(pattern.toCharArray())));
+	}
+
+	@Test
+	public void testIndexedAccess() {
+		Ydict<Word> dict = new Ydict<Word>();
+		Word ale = new Word();
+		dict.insert("ALE".toCharArray(), ale);
+		dict.insert("ALP".toCharArray(), new Word());
+		dict.insert("APE".toCharArray(), new Word());
+		dict.insert("BOA".toCharArray(), new Word());
+		dict.insert("APEX".toCharArray(), new Word());
+		dict.rebalance();
+
+		assertEquals(4, dict.getWordCount(3));
+		assertEquals(1, dict.getWordCount(4));
+		assertEquals(0, dict.getWordCount(9));
+		char[] letters = dict.getLetters(3);
+		assertEquals(12, letters.length);
+
+		int[] matches = dict.getPatternMatchIndexes("A__".toCharArray());
+		assertEquals(3, matches.length);
+		Set<String> words = new HashSet<String>();
+		for (int i = 0; i < matches.length; ++i) {
+			if (i > 0)
+				assertTrue(matches[i - 1] < matches[i]);
+			String word = new String(letters, matches[i] * 3, 3);
+			words.add(word);
+			// legacy Pair view agrees with the index-based view
+			assertEquals(word, new String(dict.getPair(3, matches[i]).first));
+			assertTrue(dict.getPair(3, matches[i]).second == dict.getEntry(3, matches[i]));
+			if (word.equals("ALE"))
+				assertTrue(dict.getEntry(3, matches[i]) == ale);
+		}
+		assertEquals(getWords(dict.getPatternMatches("A__".toCharArray())), words);
+		for (Pair<char[], Word> match : dict.getPatternMatches("A__".toCharArray()))
+			assertTrue(dict.lookup(match.first) == match.second);
+
+		assertEquals(4, dict.getPatternMatchIndexes("___".toCharArray()).length);
+		assertEquals(2, dict.getPostings(3, 1, 'L').length);
+		assertEquals(0, dict.getPostings(3, 1, 'Q').length);
+		assertTrue(dict.lookup("ALE".toCharArray()) == ale);
+	}
+
+	// return random word of specified length, with letters in the range [low, high]
+	private char[] randomWord(Random prng, int length, char low, char high) {
+		char[] retval = new char[length];
+		for (int i = 0; i < length; ++i)
+			retval[i] = (char)(low + prng.nextInt(high - low + 1));
+		return retval;
+	}
+
+	// return set of words from list of matches
+	private Set<String> getWords(List<Pair<char[], Word>> matches) {
+		Set<String> retval = new HashSet<String>();
+		for (Pair<char[], Word> match : matches)
+			retval.add(new String(match.first));
+		return retval;
+	}
+}
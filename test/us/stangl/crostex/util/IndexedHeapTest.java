@@ -0,0 +1,114 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * JUnit tests for IndexedHeap.
+ * @author Alex Stangl
+ */
+public class IndexedHeapTest {
+
+	@Test
+	public void testPollInPriorityOrder() {
+		IndexedHeap heap = new IndexedHeap(5);
+		heap.put(0, 3.0);
+		heap.put(1, 1.0);
+		heap.put(2, 4.0);
+		heap.put(3, 1.5);
+		heap.put(4, 0.5);
+		assertEquals(5, heap.size());
+		assertEquals(4, heap.peek());
+		assertEquals(4, heap.poll());
+		assertEquals(1, heap.poll());
+		assertEquals(3, heap.poll());
+		assertEquals(0, heap.poll());
+		assertEquals(2, heap.poll());
+		assertTrue(heap.isEmpty());
+	}
+
+	@Test
+	public void testEqualPrioritiesLowestElementFirst() {
+		IndexedHeap heap = new IndexedHeap(4);
+		heap.put(3, 2.0);
+		heap.put(1, 2.0);
+		heap.put(2, 2.0);
+		heap.put(0, 2.0);
+		for (int i = 0; i < 4; ++i)
+			assertEquals(i, heap.poll());
+	}
+
+	@Test
+	public void testChangePriority() {
+		IndexedHeap heap = new IndexedHeap(3);
+		heap.put(0, 1.0);
+		heap.put(1, 2.0);
+		heap.put(2, 3.0);
+		heap.put(2, 0.0);
+		assertEquals(2, heap.peek());
+		heap.put(2, 5.0);
+		assertEquals(0, heap.peek());
+		assertEquals(3, heap.size());
+		assertEquals(5.0, heap.getPriority(2), 0.0);
+	}
+
+	@Test
+	public void testRemove() {
+		IndexedHeap heap = new IndexedHeap(4);
+		heap.put(0, 1.0);
+		heap.put(1, 2.0);
+		heap.put(2, 3.0);
+		assertTrue(heap.remove(0));
+		assertFalse(heap.remove(0));
+		assertFalse(heap.remove(3));
+		assertFalse(heap.contains(0));
+		assertTrue(heap.contains(1));
+		assertEquals(1, heap.poll());
+		assertEquals(2, heap.poll());
+		heap.put(0, 1.0);
+		heap.clear();
+		assertTrue(heap.isEmpty());
+		assertFalse(heap.contains(0));
+	}
+
+	@Test
+	public void testRandomOperationsMatchLinearScan() {
+		int capacity = 50;
+		IndexedHeap heap = new IndexedHeap(capacity);
+		double[] priorities = new double[capacity];
+		boolean[] present = new boolean[capacity];
+		Random random = new Random(1L);
+		for (int i = 0; i < 10000; ++i) {
+			int element = random.nextInt(capacity);
+			if (random.nextInt(4) == 0) {
+				assertEquals(present[element], heap.remove(element));
+				present[element] = false;
+			} else {
+				priorities[element] = random.nextInt(20);
+				present[element] = true;
+				heap.put(element, priorities[element]);
+			}
+
+			int expected = -1;
+			int size = 0;
+			for (int j = 0; j < capacity; ++j) {
+				if (present[j]) {
+					++size;
+					if (expected < 0 || priorities[j] < priorities[expected])
+						expected = j;
+				}
+			}
+			assertEquals(size, heap.size());
+			if (expected >= 0)
+				assertEquals(expected, heap.peek());
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2013, Alex Stangl. See LICENSE for licensing details.
+ */
+package us.stangl.crostex.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * JUnit tests for IntCircularList.
+ * @author Alex Stangl
+ */
+public class IntCircularListTest {
+	@Test
+	public void testIntCircularListOps() {
+		IntCircularList list = new IntCircularList(2);
+		assertEquals(0, list.size());
+
+		list.add(1);
+		assertEquals(1, list.size());
+		assertEquals(1, list.getNext());
+		assertEquals(1, list.getNext());
+
+		list.add(2);
+		list.add(3);
+		assertEquals(3, list.size());
+		assertEquals(1, list.getNext());
+		assertEquals(2, list.getNext());
+		assertEquals(3, list.getNext());
+		assertEquals(1, list.getNext());
+
+		list.deletePrev();
+		assertEquals(2, list.size());
+		assertEquals(2, list.getNext());
+		assertEquals(3, list.getNext());
+		assertEquals(2, list.getNext());
+
+		list.addAll(new int[] {4, 5});
+		assertEquals(4, list.size());
+		assertEquals(3, list.getNext());
+		assertEquals(2, list.getNext());
+		assertEquals(4, list.getNext());
+		assertEquals(5, list.getNext());
+		assertEquals(3, list.getNext());
+
+		list.deletePrev();
+		list.deletePrev();
+		assertEquals(2, list.getNext());
+		assertEquals(4, list.getNext());
+		assertEquals(2, list.getNext());
+		list.deletePrev();
+		list.deletePrev();
+		assertEquals(0, list.size());
+	}
+
+	@Test
+	public void testDeletedNodesReused() {
+		IntCircularList list = new IntCircularList(1);
+		for (int i = 0; i < 100; ++i) {
+			list.add(i);
+			assertEquals(i, list.getNext());
+			list.deletePrev();
+		}
+		assertEquals(0, list.size());
+		for (int i = 0; i < 100; ++i)
+			list.add(i);
+		for (int i = 0; i < 200; ++i)
+			assertEquals(i % 100, list.getNext());
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void testGetNextOfEmptyList() {
+		new IntCircularList().getNext();
+	}
+}
@@ -38,11 +38,13 @@ public class StackTest {
 		stack.push(myString);
 		
 		assertFalse(stack.empty());
+		assertEquals(1, stack.size());
 		
 		assertEquals(myString, stack.peek());
 		assertFalse(stack.empty());
 
 		assertEquals(myString, stack.pop());
 		assertTrue(stack.empty());
+		assertEquals(0, stack.size());
 	}
 }